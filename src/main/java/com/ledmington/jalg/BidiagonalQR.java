@@ -0,0 +1,224 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * Singular values and vectors of upper bidiagonal matrices with the implicit shifted QR algorithm of Golub and Kahan,
+ * following the svd routine of LINPACK. The rotations of each sweep are recorded and then applied to the singular
+ * vectors all together, with their columns split among threads.
+ */
+final class BidiagonalQR {
+
+	// Maximum number of sweeps, per squared size of the matrix
+	private static final int MAX_SWEEPS = 6;
+
+	private static final double EPS = Math.ulp(1.0);
+	private static final double TINY = 0x1p-966;
+
+	private BidiagonalQR() {}
+
+	/*
+	 * Computes the singular values of the n x n upper bidiagonal matrix with diagonal s and superdiagonal e (of n
+	 * elements, the last one being zero), overwriting s with them in descending order. e is destroyed. When u and vt are
+	 * not null, the rotations are accumulated into the rows of the n x n matrices u and vt (initially the identity),
+	 * which on exit hold the left and the right singular vectors by rows. Returns -1, or the index of a singular value
+	 * which failed to converge.
+	 */
+	static int svd(final int n, final double[] s, final double[] e, final double[] u, final double[] vt) {
+		final boolean wantVectors = u != null;
+		final double[] cu = new double[n];
+		final double[] su = new double[n];
+		final double[] cv = new double[n];
+		final double[] sv = new double[n];
+		final long maxSweeps = (long) MAX_SWEEPS * n * n;
+		long sweeps = 0;
+		int p = n;
+		while (p > 0) {
+			// Find the largest k < p - 1 such that e[k] is negligible, or -1
+			int k = p - 2;
+			while (k >= 0 && Math.abs(e[k]) > TINY + EPS * (Math.abs(s[k]) + Math.abs(s[k + 1]))) {
+				k--;
+			}
+			if (k >= 0) {
+				e[k] = 0.0;
+			}
+			if (k == p - 2) {
+				converged(n, p - 1, s, u, vt);
+				p--;
+				continue;
+			}
+
+			// Find a negligible s[ks], with k < ks < p
+			int ks = p - 1;
+			while (ks > k) {
+				final double t = Math.abs(e[ks]) + (ks > k + 1 ? Math.abs(e[ks - 1]) : 0.0);
+				if (Math.abs(s[ks]) <= TINY + EPS * t) {
+					s[ks] = 0.0;
+					break;
+				}
+				ks--;
+			}
+
+			if (ks == p - 1) {
+				// s[p-1] is negligible: chase e[p-2] upwards with rotations from the right
+				double f = e[p - 2];
+				e[p - 2] = 0.0;
+				for (int j = p - 2; j > k; j--) {
+					final double t = Math.hypot(s[j], f);
+					final double cs = s[j] / t;
+					final double sn = f / t;
+					s[j] = t;
+					if (j != k + 1) {
+						f = -sn * e[j - 1];
+						e[j - 1] = cs * e[j - 1];
+					}
+					if (wantVectors) {
+						Level2.rot(n, vt, j * n, 1, vt, (p - 1) * n, 1, cs, sn);
+					}
+				}
+			} else if (ks > k) {
+				// s[ks] is negligible: split the matrix chasing e[ks] downwards with rotations from the left
+				double f = e[ks];
+				e[ks] = 0.0;
+				for (int j = ks + 1; j < p; j++) {
+					final double t = Math.hypot(s[j], f);
+					final double cs = s[j] / t;
+					final double sn = f / t;
+					s[j] = t;
+					f = -sn * e[j];
+					e[j] = cs * e[j];
+					if (wantVectors) {
+						Level2.rot(n, u, j * n, 1, u, ks * n, 1, cs, sn);
+					}
+				}
+			} else {
+				if (++sweeps > maxSweeps) {
+					return p - 1;
+				}
+				sweep(k + 1, p, s, e, cu, su, cv, sv);
+				if (wantVectors) {
+					rotate(n, k + 1, p - 1, cv, sv, vt);
+					rotate(n, k + 1, p - 1, cu, su, u);
+				}
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Implicit QR sweep on the unreduced block [lo; p), with the shift computed from its trailing 2 x 2 block. The
+	 * rotations from the right are stored in cv and sv, the ones from the left in cu and su.
+	 */
+	private static void sweep(
+			final int lo,
+			final int p,
+			final double[] s,
+			final double[] e,
+			final double[] cu,
+			final double[] su,
+			final double[] cv,
+			final double[] sv) {
+		final double scale = Math.max(
+				Math.max(Math.max(Math.abs(s[p - 1]), Math.abs(s[p - 2])), Math.abs(e[p - 2])),
+				Math.max(Math.abs(s[lo]), Math.abs(e[lo])));
+		final double sp = s[p - 1] / scale;
+		final double spm1 = s[p - 2] / scale;
+		final double epm1 = e[p - 2] / scale;
+		final double sk = s[lo] / scale;
+		final double ek = e[lo] / scale;
+		final double b = ((spm1 + sp) * (spm1 - sp) + epm1 * epm1) / 2.0;
+		final double c = (sp * epm1) * (sp * epm1);
+		double shift = 0.0;
+		if (b != 0.0 || c != 0.0) {
+			shift = Math.copySign(Math.sqrt(b * b + c), b);
+			shift = c / (b + shift);
+		}
+
+		// Chase the bulge down the bidiagonal
+		double f = (sk + sp) * (sk - sp) + shift;
+		double g = sk * ek;
+		for (int j = lo; j < p - 1; j++) {
+			double t = Math.hypot(f, g);
+			double cs = f / t;
+			double sn = g / t;
+			if (j != lo) {
+				e[j - 1] = t;
+			}
+			f = cs * s[j] + sn * e[j];
+			e[j] = cs * e[j] - sn * s[j];
+			g = sn * s[j + 1];
+			s[j + 1] = cs * s[j + 1];
+			cv[j] = cs;
+			sv[j] = sn;
+
+			t = Math.hypot(f, g);
+			cs = f / t;
+			sn = g / t;
+			s[j] = t;
+			f = cs * e[j] + sn * s[j + 1];
+			s[j + 1] = -sn * e[j] + cs * s[j + 1];
+			g = sn * e[j + 1];
+			e[j + 1] = cs * e[j + 1];
+			cu[j] = cs;
+			su[j] = sn;
+		}
+		e[p - 2] = f;
+	}
+
+	/*
+	 * Applies, in order, the rotations of rows j and j + 1 by c[j] and s[j] for j from first to last - 1 to the n x n
+	 * matrix x. Every chunk of columns goes through all the rotations while it is in cache.
+	 */
+	private static void rotate(
+			final int n, final int first, final int last, final double[] c, final double[] s, final double[] x) {
+		Parallelism.parallelFor(0, n, 64, 6L * n * (last - first), (from, to) -> {
+			for (int j = first; j < last; j++) {
+				Level2.rot(to - from, x, j * n + from, 1, x, (j + 1) * n + from, 1, c[j], s[j]);
+			}
+		});
+	}
+
+	// Makes s[k] non-negative and moves it down to its place among the converged singular values after it.
+	private static void converged(final int n, final int k, final double[] s, final double[] u, final double[] vt) {
+		if (s[k] < 0.0) {
+			s[k] = -s[k];
+			if (vt != null) {
+				Kernels.INSTANCE.negate(vt, k * n, n);
+			}
+		} else if (s[k] == 0.0) {
+			s[k] = 0.0;
+		}
+		for (int i = k; i < n - 1 && s[i] < s[i + 1]; i++) {
+			final double t = s[i];
+			s[i] = s[i + 1];
+			s[i + 1] = t;
+			if (u != null) {
+				swapRows(n, u, i, i + 1);
+				swapRows(n, vt, i, i + 1);
+			}
+		}
+	}
+
+	private static void swapRows(final int n, final double[] x, final int r1, final int r2) {
+		for (int j = 0; j < n; j++) {
+			final double t = x[r1 * n + j];
+			x[r1 * n + j] = x[r2 * n + j];
+			x[r2 * n + j] = t;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * Cholesky factorization A = L * L^T of a symmetric positive definite matrix, computed once with the blocked algorithm
+ * of {@link Jalg#potrf(int, double[], int, int)} and then reused by every solve. Only the lower triangle of the matrix
+ * is read.
+ */
+public final class CholeskyDecomposition {
+
+	private final int n;
+	private final double[] l;
+	private final double norm;
+
+	public CholeskyDecomposition(final Matrix<Double> matrix) {
+		Objects.requireNonNull(matrix);
+		if (!matrix.isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		this.n = matrix.getNumRows();
+		this.l = DoubleMatrix.toArray(matrix);
+		this.norm = Lapack.symmetricNorm1(n, l, 0, n);
+		if (Lapack.potrf(n, l, 0, n) >= 0) {
+			throw new IllegalArgumentException("Matrix is not positive definite.");
+		}
+	}
+
+	private CholeskyDecomposition(final int n, final double[] l, final double norm) {
+		this.n = n;
+		this.l = l;
+		this.norm = norm;
+	}
+
+	// Returns the factorization of the given square matrix, or null if it is not positive definite.
+	static CholeskyDecomposition tryFactor(final int n, final double[] matrix) {
+		final double[] l = matrix.clone();
+		final double norm = Lapack.symmetricNorm1(n, l, 0, n);
+		return Lapack.potrf(n, l, 0, n) >= 0 ? null : new CholeskyDecomposition(n, l, norm);
+	}
+
+	public int getSize() {
+		return n;
+	}
+
+	// Lower triangular factor L.
+	public DenseMatrix getL() {
+		final double[] v = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(l, i * n, v, i * n, i + 1);
+		}
+		return new DenseMatrix(n, n, v);
+	}
+
+	public double determinant() {
+		double det = 1.0;
+		for (int i = 0; i < n; i++) {
+			det *= l[i * n + i];
+		}
+		return det * det;
+	}
+
+	/*
+	 * Returns an estimate of the reciprocal of the 1-norm condition number of the matrix, computed from the
+	 * factorization with a few triangular solves instead of forming the inverse.
+	 */
+	public double reciprocalConditionNumber() {
+		return Lapack.pocon(n, l, 0, n, norm);
+	}
+
+	// Estimate of the 1-norm condition number.
+	public double conditionNumber() {
+		final double rcond = reciprocalConditionNumber();
+		return rcond == 0.0 ? Double.POSITIVE_INFINITY : 1.0 / rcond;
+	}
+
+	public double[] solve(final double[] b) {
+		Objects.requireNonNull(b);
+		if (b.length != n) {
+			throw new IllegalArgumentException(
+					String.format("Expected a vector of %,d elements but was %,d.", n, b.length));
+		}
+		final double[] x = b.clone();
+		solveInPlace(x, 0, 1, 1);
+		return x;
+	}
+
+	public DenseMatrix solve(final Matrix<Double> b) {
+		Objects.requireNonNull(b);
+		if (b.getNumRows() != n) {
+			throw new IllegalArgumentException(
+					String.format("Expected a matrix with %,d rows but was %,d.", n, b.getNumRows()));
+		}
+		final int nrhs = b.getNumColumns();
+		final double[] x = DoubleMatrix.toArray(b);
+		solveInPlace(x, 0, nrhs, nrhs);
+		return new DenseMatrix(n, nrhs, x);
+	}
+
+	/*
+	 * Overwrites the n x nrhs row-major matrix B, starting at index offset with leading dimension ldb, with the
+	 * solution of A * X = B.
+	 */
+	public void solveInPlace(final double[] b, final int offset, final int nrhs, final int ldb) {
+		Objects.requireNonNull(b);
+		if (nrhs < 0 || ldb < Math.max(1, nrhs) || offset < 0) {
+			throw new IllegalArgumentException("Invalid right-hand side.");
+		}
+		if (n > 0 && nrhs > 0 && (long) offset + (long) (n - 1) * ldb + nrhs > b.length) {
+			throw new IllegalArgumentException("Right-hand side does not fit in the given array.");
+		}
+		Lapack.potrs(n, nrhs, l, 0, n, b, offset, ldb);
+	}
+
+	public DenseMatrix inverse() {
+		final double[] inv = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			inv[i * n + i] = 1.0;
+		}
+		Lapack.potrs(n, n, l, 0, n, inv, 0, n);
+		return new DenseMatrix(n, n, inv);
+	}
+}
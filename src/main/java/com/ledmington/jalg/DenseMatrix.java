@@ -17,13 +17,14 @@
  */
 package com.ledmington.jalg;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.random.RandomGenerator;
 import java.util.random.RandomGeneratorFactory;
 
-public final class DenseMatrix implements Matrix<Double> {
+public final class DenseMatrix implements DoubleMatrix {
 
 	public static DenseMatrix random(final int rows, final int columns, final double low, final double high) {
 		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(System.nanoTime());
@@ -75,10 +76,28 @@ public final class DenseMatrix implements Matrix<Double> {
 		return new DenseMatrix(v);
 	}
 
+	// Products with a band matrix use a dedicated kernel when the band covers at most 1 / BAND_RATIO of the columns
+	private static final int BAND_RATIO = 8;
+
 	private final int rows;
 	private final int columns;
 	private final double[] m;
 
+	/*
+	 * Lazily computed, the matrix is immutable. Each cache is a single immutable value published through a volatile
+	 * field, null until computed, so other threads see either nothing or the complete result. Two threads may both
+	 * compute it, with the same outcome.
+	 */
+	private volatile LUDecomposition lu = null;
+	private volatile Optional<CholeskyDecomposition> cholesky = null;
+	private volatile QRDecomposition qr = null;
+	private volatile SingularValueDecomposition svd = null;
+
+	// Lazily detected structure, which routes operations to specialized kernels
+	private volatile int[] bandwidths = null;
+	private volatile Optional<int[]> permutation = null;
+	private volatile Boolean symmetric = null;
+
 	public DenseMatrix(final double[][] v) {
 		Objects.requireNonNull(v);
 		if (v.length < 1) {
@@ -101,6 +120,18 @@ public final class DenseMatrix implements Matrix<Double> {
 		}
 	}
 
+	// Takes ownership of the given array, without copying it
+	DenseMatrix(final int rows, final int columns, final double[] m) {
+		this.rows = rows;
+		this.columns = columns;
+		this.m = m;
+	}
+
+	// Backing array in row-major order, which must not be modified
+	double[] array() {
+		return m;
+	}
+
 	@Override
 	public int getNumRows() {
 		return rows;
@@ -111,9 +142,16 @@ public final class DenseMatrix implements Matrix<Double> {
 		return columns;
 	}
 
+	/*
+	 * Returns an estimate of the 1-norm condition number, computed without forming the inverse from the Cholesky
+	 * factorization of symmetric positive definite matrices and from the LU factorization of the others. The estimate
+	 * is never larger than the exact value and rarely smaller by more than a factor of 3. Singular matrices have an
+	 * infinite condition number.
+	 */
 	@Override
 	public Double conditionNumber() {
-		return this.norm() * this.getInverse().norm();
+		final CholeskyDecomposition c = tryCholesky();
+		return c != null ? c.conditionNumber() : getLUDecomposition().conditionNumber();
 	}
 
 	@Override
@@ -121,14 +159,7 @@ public final class DenseMatrix implements Matrix<Double> {
 		if (!isSquare()) {
 			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
 		}
-		for (int i = 0; i < getNumRows(); i++) {
-			for (int j = 0; j < i; j++) {
-				if (get(i, j) != 0.0) {
-					return false;
-				}
-			}
-		}
-		return true;
+		return getLowerBandwidth() == 0;
 	}
 
 	@Override
@@ -136,69 +167,356 @@ public final class DenseMatrix implements Matrix<Double> {
 		if (!isSquare()) {
 			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
 		}
-		for (int i = 0; i < getNumRows(); i++) {
-			for (int j = i + 1; j < getNumColumns(); j++) {
-				if (get(i, j) != 0.0) {
-					return false;
-				}
-			}
+		return getUpperBandwidth() == 0;
+	}
+
+	private int[] bandwidths() {
+		int[] b = bandwidths;
+		if (b == null) {
+			b = Structure.bandwidths(rows, columns, m, 0, columns);
+			bandwidths = b;
 		}
-		return true;
+		return b;
+	}
+
+	// Largest i - j over the nonzero elements (i, j), which is 0 for upper triangular matrices.
+	public int getLowerBandwidth() {
+		return bandwidths()[0];
+	}
+
+	// Largest j - i over the nonzero elements (i, j), which is 0 for lower triangular matrices.
+	public int getUpperBandwidth() {
+		return bandwidths()[1];
+	}
+
+	// Whether the band is narrow enough for products to skip the elements outside of it
+	private boolean isNarrowBand() {
+		if (!isSquare()) {
+			return false;
+		}
+		final int width = getLowerBandwidth() + getUpperBandwidth() + 1;
+		return width == 1 || BAND_RATIO * width <= rows;
+	}
+
+	// Whether this matrix has exactly one 1 in each row and in each column and zeros everywhere else.
+	public boolean isPermutation() {
+		return getPermutation() != null;
+	}
+
+	// Column of the 1 of each row, or null if this is not a permutation matrix
+	private int[] getPermutation() {
+		Optional<int[]> p = permutation;
+		if (p == null) {
+			p = Optional.ofNullable(isSquare() ? Structure.permutation(rows, m, 0, columns) : null);
+			permutation = p;
+		}
+		return p.orElse(null);
 	}
 
 	private void assertCorrectIndex(final int row, final int column) {
 		if (row < 0 || row >= rows || column < 0 || column >= columns) {
 			throw new IllegalArgumentException(
-					String.format("A %,d x %,d matrix has no element in (%,d; %,d).", rows, column, row, column));
+					String.format("A %,d x %,d matrix has no element in (%,d; %,d).", rows, columns, row, column));
 		}
 	}
 
 	@Override
-	public Double get(final int row, final int column) {
+	public double getDouble(final int row, final int column) {
 		assertCorrectIndex(row, column);
 		return this.m[row * columns + column];
 	}
 
+	@Override
+	public void copyRow(final int row, final double[] dst, final int offset) {
+		if (row < 0 || row >= rows) {
+			throw new IllegalArgumentException(String.format("A %,d x %,d matrix has no row %,d.", rows, columns, row));
+		}
+		assertFits(columns, dst, offset);
+		System.arraycopy(m, row * columns, dst, offset, columns);
+	}
+
+	@Override
+	public void copyColumn(final int column, final double[] dst, final int offset) {
+		if (column < 0 || column >= columns) {
+			throw new IllegalArgumentException(
+					String.format("A %,d x %,d matrix has no column %,d.", rows, columns, column));
+		}
+		assertFits(rows, dst, offset);
+		for (int i = 0; i < rows; i++) {
+			dst[offset + i] = m[i * columns + column];
+		}
+	}
+
+	@Override
+	public void toArray(final double[] dst, final int offset) {
+		assertFits(m.length, dst, offset);
+		System.arraycopy(m, 0, dst, offset, m.length);
+	}
+
+	private static void assertFits(final int length, final double[] dst, final int offset) {
+		Objects.requireNonNull(dst);
+		if (offset < 0 || offset + length > dst.length) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot copy %,d elements at offset %,d of an array of length %,d.", length, offset, dst.length));
+		}
+	}
+
 	@Override
 	public Matrix<Double> multiply(final Matrix<Double> other) {
-		if (this.columns != other.getNumRows()) {
+		return multiply(other, MultiplicationAlgorithm.CLASSIC);
+	}
+
+	public Matrix<Double> multiply(final Matrix<Double> other, final MultiplicationAlgorithm algorithm) {
+		return product(this, other, algorithm);
+	}
+
+	/*
+	 * Operands stored in place, like views, are not copied unless the algorithm needs them in row-major order. The
+	 * classic algorithm skips the zeros of dense operands which are narrow band matrices (diagonal ones included) or
+	 * permutation matrices.
+	 */
+	static DenseMatrix product(
+			final Matrix<Double> left, final Matrix<Double> right, final MultiplicationAlgorithm algorithm) {
+		Objects.requireNonNull(right);
+		Objects.requireNonNull(algorithm);
+		if (left.getNumColumns() != right.getNumRows()) {
 			throw new IllegalArgumentException("Invalid rows and columns.");
 		}
-		final double[][] v = new double[this.rows][other.getNumColumns()];
-		for (int i = 0; i < this.rows; i++) {
-			for (int j = 0; j < other.getNumColumns(); j++) {
-				for (int k = 0; k < this.columns; k++) {
-					v[i][j] += this.get(i, k) * other.get(k, j);
+		final int m = left.getNumRows();
+		final int n = right.getNumColumns();
+		final int k = left.getNumColumns();
+		final double[] result = new double[m * n];
+		if (algorithm == MultiplicationAlgorithm.STRASSEN_WINOGRAD) {
+			final Operand a = Operand.rowMajor(left);
+			final Operand b = Operand.rowMajor(right);
+			Jalg.strassen(m, n, k, a.data(), a.offset(), a.ld(), b.data(), b.offset(), b.ld(), result, 0, n);
+		} else if (left instanceof DenseMatrix a && a.isNarrowBand()) {
+			final Operand b = Operand.rowMajor(right);
+			Level3.gbmm(
+					true,
+					m,
+					n,
+					k,
+					a.getLowerBandwidth(),
+					a.getUpperBandwidth(),
+					a.m,
+					0,
+					k,
+					b.data(),
+					b.offset(),
+					b.ld(),
+					result,
+					0,
+					n);
+		} else if (right instanceof DenseMatrix b && b.isNarrowBand()) {
+			final Operand a = Operand.rowMajor(left);
+			Level3.gbmm(
+					false,
+					m,
+					n,
+					k,
+					b.getLowerBandwidth(),
+					b.getUpperBandwidth(),
+					a.data(),
+					a.offset(),
+					a.ld(),
+					b.m,
+					0,
+					n,
+					result,
+					0,
+					n);
+		} else if (left instanceof DenseMatrix a && a.isPermutation()) {
+			// Row i of P * B is row perm[i] of B
+			final Operand b = Operand.rowMajor(right);
+			final int[] perm = a.getPermutation();
+			for (int i = 0; i < m; i++) {
+				System.arraycopy(b.data(), b.row(perm[i]), result, i * n, n);
+			}
+		} else if (right instanceof DenseMatrix b && b.isPermutation()) {
+			// Column j of A becomes column perm[j] of A * P
+			final Operand a = Operand.rowMajor(left);
+			final int[] perm = b.getPermutation();
+			for (int i = 0; i < m; i++) {
+				for (int j = 0; j < k; j++) {
+					result[i * n + perm[j]] = a.data()[a.row(i) + j];
 				}
 			}
-		}
+		} else {
+			final Operand a = Operand.of(left);
+			final Operand b = Operand.of(right);
+			Gemm.gemm(
+					a.trans(),
+					b.trans(),
+					m,
+					n,
+					k,
+					1.0,
+					a.data(),
+					a.offset(),
+					a.ld(),
+					b.data(),
+					b.offset(),
+					b.ld(),
+					0.0,
+					result,
+					0,
+					n);
+		}
+		return new DenseMatrix(m, n, result);
+	}
 
-		return new DenseMatrix(v);
+	private MatrixView view() {
+		return new MatrixView(m, 0, rows, columns, columns, 1);
+	}
+
+	public MatrixView getRowView(final int row) {
+		return view().getRowView(row);
+	}
+
+	public MatrixView getColumnView(final int column) {
+		return view().getColumnView(column);
+	}
+
+	// The view of the numRows x numColumns block whose top-left element is (row, column)
+	public MatrixView getSubmatrixView(final int row, final int column, final int numRows, final int numColumns) {
+		return view().getSubmatrixView(row, column, numRows, numColumns);
+	}
+
+	// A view of the transpose of this matrix, which only swaps the strides
+	public MatrixView getTransposedView() {
+		return new MatrixView(m, 0, columns, rows, 1, columns);
 	}
 
 	@Override
-	public Double getDeterminant() {
+	public boolean isSymmetric(final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (!isSquare()) {
+			return false;
+		}
+		if (eps != 0.0) {
+			return Structure.isSymmetric(rows, m, 0, columns, eps);
+		}
+		Boolean sym = symmetric;
+		if (sym == null) {
+			sym = Structure.isSymmetric(rows, m, 0, columns, 0.0);
+			symmetric = sym;
+		}
+		return sym;
+	}
+
+	public QRDecomposition getQRDecomposition() {
+		QRDecomposition f = qr;
+		if (f == null) {
+			f = new QRDecomposition(this);
+			qr = f;
+		}
+		return f;
+	}
+
+	// Returns the economy-size singular value decomposition of this matrix.
+	public SingularValueDecomposition getSingularValueDecomposition() {
+		SingularValueDecomposition f = svd;
+		if (f == null) {
+			f = new SingularValueDecomposition(this);
+			svd = f;
+		}
+		return f;
+	}
+
+	// Returns the singular values in descending order, without computing the singular vectors.
+	public double[] getSingularValues() {
+		final SingularValueDecomposition f = svd;
+		if (f != null) {
+			return f.getSingularValues();
+		}
+		return new SingularValueDecomposition(this, false, true).getSingularValues();
+	}
+
+	public DenseMatrix getPseudoInverse() {
+		return getSingularValueDecomposition().getPseudoInverse();
+	}
+
+	public LUDecomposition getLUDecomposition() {
 		if (!isSquare()) {
 			throw new IllegalArgumentException("Matrix must be square.");
 		}
+		LUDecomposition f = lu;
+		if (f == null) {
+			f = new LUDecomposition(this);
+			lu = f;
+		}
+		return f;
+	}
+
+	// Returns the Cholesky factorization of this matrix, or null if it is not symmetric positive definite.
+	private CholeskyDecomposition tryCholesky() {
+		Optional<CholeskyDecomposition> f = cholesky;
+		if (f == null) {
+			f = Optional.ofNullable(isSquare() && isSymmetric() ? CholeskyDecomposition.tryFactor(rows, m) : null);
+			cholesky = f;
+		}
+		return f.orElse(null);
+	}
 
-		final Matrix<Double> triangular = this.gaussJordan();
-		double det = 1.0;
-		for (int i = 0; i < getNumRows(); i++) {
-			det *= triangular.get(i, i);
+	public CholeskyDecomposition getCholeskyDecomposition() {
+		final CholeskyDecomposition c = tryCholesky();
+		if (c == null) {
+			throw new IllegalArgumentException("Matrix is not symmetric positive definite.");
 		}
+		return c;
+	}
 
-		return det;
+	// Triangular and permutation matrices do not need to be factored
+	@Override
+	public Double getDeterminant() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		if (isUpperTriangular() || isLowerTriangular()) {
+			double det = 1.0;
+			for (int i = 0; i < rows; i++) {
+				det *= m[i * columns + i];
+			}
+			return det;
+		}
+		if (isPermutation()) {
+			return (double) Structure.permutationSign(getPermutation());
+		}
+		return getLUDecomposition().determinant();
 	}
 
+	/*
+	 * Returns the eigenvalues in ascending order. Throws an exception for matrices with complex eigenvalues, whose real
+	 * and imaginary parts are available through getComplexEigenvalues().
+	 */
 	@Override
 	public List<Double> getEigenvalues() {
-		final Matrix<Double> triangular = this.gaussJordan();
-		final List<Double> ev = new ArrayList<>();
-		for (int i = 0; i < getNumRows(); i++) {
-			ev.add(triangular.get(i, i));
+		final double[] ev;
+		if (isSquare() && (isUpperTriangular() || isLowerTriangular())) {
+			// The eigenvalues of a triangular matrix are on its diagonal
+			ev = new double[rows];
+			for (int i = 0; i < rows; i++) {
+				ev[i] = m[i * columns + i];
+			}
+			Arrays.sort(ev);
+		} else if (isSymmetric()) {
+			ev = new SymmetricEigenDecomposition(this, false).getEigenvalues();
+		} else {
+			final Eigenvalues complex = getComplexEigenvalues();
+			if (!complex.isReal()) {
+				throw new IllegalArgumentException("Matrix has complex eigenvalues.");
+			}
+			ev = complex.getReal();
+			Arrays.sort(ev);
 		}
-		return ev;
+		return Arrays.stream(ev).boxed().toList();
+	}
+
+	public Eigenvalues getComplexEigenvalues() {
+		return new Eigenvalues(this);
 	}
 
 	@Override
@@ -207,90 +525,76 @@ public final class DenseMatrix implements Matrix<Double> {
 			throw new IllegalArgumentException("Different shapes.");
 		}
 
-		final double[][] v = new double[getNumRows()][getNumColumns()];
-		for (int i = 0; i < getNumRows(); i++) {
-			for (int j = 0; j < getNumColumns(); j++) {
-				v[i][j] = this.get(i, j) - other.get(i, j);
-			}
+		final double[] v = other instanceof DenseMatrix dm ? dm.m.clone() : DoubleMatrix.toArray(other);
+		for (int i = 0; i < v.length; i++) {
+			v[i] = this.m[i] - v[i];
 		}
 
-		return new DenseMatrix(v);
+		return new DenseMatrix(rows, columns, v);
 	}
 
 	@Override
-	public Double norm() {
-		return this.getTranspose().multiply(this).get(0, 0);
+	public Double norm(final NormType type) {
+		Objects.requireNonNull(type);
+		return Lapack.lange(type, rows, columns, m, 0, columns);
 	}
 
 	@Override
 	public boolean isInvertible() {
-		return getDeterminant() != 0.0;
+		return !getLUDecomposition().isSingular();
 	}
 
 	@Override
 	public boolean isPositiveDefinite() {
-		return getEigenvalues().stream().allMatch(x -> x >= 0.0);
+		return tryCholesky() != null;
 	}
 
+	/*
+	 * The inverse of a diagonal matrix is computed in O(n), the one of a permutation matrix is its transpose and the
+	 * one of a triangular matrix is computed with a triangular solve, without pivoting.
+	 */
 	@Override
 	public Matrix<Double> getInverse() {
-		final double det = this.getDeterminant();
-		if (det == 0.0) {
-			throw new IllegalArgumentException("Matrix is singular, not-invertible.");
-		}
-
-		if (rows == 1 && columns == 1) {
-			return new DenseMatrix(new double[][] {{1.0 / m[0]}});
-		}
-
-		final int n = getNumRows();
-
-		// prepare copy of current matrix
-		final double[][] v = new double[n][n];
-		for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				v[i][j] = get(i, j);
-			}
-		}
-
-		// prepare identity matrix
-		final double[][] id = new double[n][n];
-		for (int i = 0; i < n; i++) {
-			id[i][i] = 1.0;
+		if (!isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
 		}
-
-		for (int i = 0; i < n; i++) {
-			final double elem = v[i][i];
-			for (int j = 0; j < n; j++) {
-				v[i][j] /= elem;
-				id[i][j] /= elem;
+		final boolean upper = isUpperTriangular();
+		final boolean lower = isLowerTriangular();
+		if (upper || lower) {
+			final int n = rows;
+			for (int i = 0; i < n; i++) {
+				if (m[i * n + i] == 0.0) {
+					throw new IllegalArgumentException("Matrix is singular, not-invertible.");
+				}
 			}
-
-			for (int j = 0; j < n; j++) {
-				if (j == i) {
-					continue;
+			final double[] inv = new double[n * n];
+			if (upper && lower) {
+				for (int i = 0; i < n; i++) {
+					inv[i * n + i] = 1.0 / m[i * n + i];
 				}
-
-				final double factor = v[j][i];
-				for (int k = 0; k < n; k++) {
-					v[j][k] -= factor * v[i][k];
-					id[j][k] -= factor * id[i][k];
+			} else {
+				for (int i = 0; i < n; i++) {
+					inv[i * n + i] = 1.0;
 				}
+				Level3.trsm(true, upper, false, false, n, n, 1.0, m, 0, n, inv, 0, n);
 			}
+			return new DenseMatrix(n, n, inv);
 		}
-
-		return new DenseMatrix(id);
+		if (isPermutation()) {
+			return getTranspose();
+		}
+		return getLUDecomposition().inverse();
 	}
 
 	@Override
 	public Matrix<Double> getTranspose() {
-		final double[][] v = new double[columns][rows];
+		final double[] v = new double[columns * rows];
 		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < columns; j++) {
-				v[j][i] = this.get(i, j);
+				v[j * rows + i] = this.m[i * columns + j];
 			}
 		}
-		return new DenseMatrix(v);
+		return new DenseMatrix(columns, rows, v);
 	}
 
 	@Override
@@ -298,31 +602,9 @@ public final class DenseMatrix implements Matrix<Double> {
 		if (!isSquare()) {
 			throw new IllegalArgumentException("Matrix must be square.");
 		}
-
-		final int n = getNumRows();
-		final double[][] v = new double[n][n];
-
-		// Copy the matrix
-		for (int i = 0; i < n; i++) {
-			for (int j = 0; j < n; j++) {
-				v[i][j] = get(i, j);
-			}
-		}
-
-		for (int i = 0; i < n; i++) {
-			for (int j = i + 1; j < n; j++) {
-				final double factor = v[j][i] / v[i][i];
-				for (int k = 0; k < n; k++) {
-					if (k <= i) {
-						v[j][k] = 0.0;
-					} else {
-						v[j][k] -= factor * v[i][k];
-					}
-				}
-			}
-		}
-
-		return new DenseMatrix(v);
+		final double[] v = m.clone();
+		Jalg.gaussJordan(rows, columns, v, 0, columns);
+		return new DenseMatrix(rows, columns, v);
 	}
 
 	@Override
@@ -336,9 +618,19 @@ public final class DenseMatrix implements Matrix<Double> {
 		if (this.getNumRows() != other.getNumRows() || this.getNumColumns() != other.getNumColumns()) {
 			return false;
 		}
-		for (int i = 0; i < this.getNumRows(); i++) {
-			for (int j = 0; j < this.getNumColumns(); j++) {
-				if (Math.abs(this.get(i, j) - other.get(i, j)) > eps) {
+		if (other instanceof DoubleMatrix dm) {
+			for (int i = 0; i < rows; i++) {
+				for (int j = 0; j < columns; j++) {
+					if (Math.abs(this.m[i * columns + j] - dm.getDouble(i, j)) > eps) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				if (Math.abs(this.m[i * columns + j] - other.get(i, j)) > eps) {
 					return false;
 				}
 			}
@@ -0,0 +1,127 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * A matrix of doubles which can be read without boxing. Operations mixing different implementations should go
+ * through these methods rather than {@link #get(int, int)}.
+ */
+public interface DoubleMatrix extends Matrix<Double> {
+
+	double getDouble(final int row, final int column);
+
+	@Override
+	default Double get(final int row, final int column) {
+		return getDouble(row, column);
+	}
+
+	@Override
+	default Double norm(final NormType type) {
+		Objects.requireNonNull(type);
+		final int columns = getNumColumns();
+		return Lapack.lange(type, getNumRows(), columns, toArray(), 0, columns);
+	}
+
+	@Override
+	default boolean isSymmetric(final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (!isSquare()) {
+			return false;
+		}
+		final int n = getNumRows();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				// NaNs break the symmetry
+				if (!(Math.abs(getDouble(i, j) - getDouble(j, i)) <= eps)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	// Copies the given row into dst, starting at index offset.
+	default void copyRow(final int row, final double[] dst, final int offset) {
+		final int columns = getNumColumns();
+		if (offset < 0 || offset + columns > dst.length) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot copy %,d elements at offset %,d of an array of length %,d.", columns, offset, dst.length));
+		}
+		for (int j = 0; j < columns; j++) {
+			dst[offset + j] = getDouble(row, j);
+		}
+	}
+
+	// Copies the given column into dst, starting at index offset.
+	default void copyColumn(final int column, final double[] dst, final int offset) {
+		final int rows = getNumRows();
+		if (offset < 0 || offset + rows > dst.length) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot copy %,d elements at offset %,d of an array of length %,d.", rows, offset, dst.length));
+		}
+		for (int i = 0; i < rows; i++) {
+			dst[offset + i] = getDouble(i, column);
+		}
+	}
+
+	// Copies the whole matrix in row-major order into dst, starting at index offset.
+	default void toArray(final double[] dst, final int offset) {
+		final int rows = getNumRows();
+		final int columns = getNumColumns();
+		if (offset < 0 || (long) offset + (long) rows * columns > dst.length) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot copy %,d elements at offset %,d of an array of length %,d.",
+					(long) rows * columns,
+					offset,
+					dst.length));
+		}
+		for (int i = 0; i < rows; i++) {
+			copyRow(i, dst, offset + i * columns);
+		}
+	}
+
+	// Returns a new array with the whole matrix in row-major order.
+	default double[] toArray() {
+		final double[] v = new double[getNumRows() * getNumColumns()];
+		toArray(v, 0);
+		return v;
+	}
+
+	/*
+	 * Returns the elements of the given matrix in row-major order, boxing each element at most once when it is not a
+	 * DoubleMatrix.
+	 */
+	static double[] toArray(final Matrix<Double> matrix) {
+		if (matrix instanceof DoubleMatrix dm) {
+			return dm.toArray();
+		}
+		final int rows = matrix.getNumRows();
+		final int columns = matrix.getNumColumns();
+		final double[] v = new double[rows * columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				v[i * columns + j] = matrix.get(i, j);
+			}
+		}
+		return v;
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * Eigenvalues of a general real square matrix, with their real and imaginary parts in separate arrays. Complex
+ * eigenvalues come in conjugate pairs stored consecutively, the one with positive imaginary part first. See
+ * {@link Jalg#geev(int, double[], int, int, double[], double[])}.
+ */
+public final class Eigenvalues {
+
+	private final double[] real;
+	private final double[] imaginary;
+
+	public Eigenvalues(final Matrix<Double> matrix) {
+		Objects.requireNonNull(matrix);
+		if (!matrix.isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		final int n = matrix.getNumRows();
+		this.real = new double[n];
+		this.imaginary = new double[n];
+		if (Lapack.geev(n, DoubleMatrix.toArray(matrix), 0, n, real, imaginary) >= 0) {
+			throw new ArithmeticException("QR iteration did not converge.");
+		}
+	}
+
+	public int getSize() {
+		return real.length;
+	}
+
+	public double[] getReal() {
+		return real.clone();
+	}
+
+	public double[] getImaginary() {
+		return imaginary.clone();
+	}
+
+	public double getReal(final int i) {
+		assertValidIndex(i);
+		return real[i];
+	}
+
+	public double getImaginary(final int i) {
+		assertValidIndex(i);
+		return imaginary[i];
+	}
+
+	private void assertValidIndex(final int i) {
+		if (i < 0 || i >= real.length) {
+			throw new IllegalArgumentException(String.format("Invalid index: %,d.", i));
+		}
+	}
+
+	// Whether all the eigenvalues are real.
+	public boolean isReal() {
+		for (final double x : imaginary) {
+			if (x != 0.0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Largest absolute value of the eigenvalues.
+	public double getSpectralRadius() {
+		double max = 0.0;
+		for (int i = 0; i < real.length; i++) {
+			max = Math.max(max, Math.hypot(real[i], imaginary[i]));
+		}
+		return max;
+	}
+}
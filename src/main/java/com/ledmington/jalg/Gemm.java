@@ -0,0 +1,435 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Cache-blocked, register-tiled implementation of C = alpha * op(A) * op(B) + beta * C on row-major arrays.
+ *
+ * <p>The loop structure follows the classic GotoBLAS scheme: B is packed into KC x NC panels which stay in L3, A is
+ * packed into MC x KC blocks which stay in L2 and the micro-kernel updates an MR x NR tile of C which lives entirely in
+ * registers.
+ *
+ * <p>Large products are split into 2-D tiles of C which are computed independently on the {@link Parallelism} pool.
+ */
+final class Gemm {
+
+	static final int MR = 4;
+	static final int NR = 4;
+	static final int MC = 128;
+	static final int KC = 256;
+	static final int NC = 2048;
+
+	// Maximum size of a tile of C computed by a single task
+	private static final int TILE = 256;
+
+	/*
+	 * Packing buffers of each thread, grown on demand and then reused, so that repeated products do not allocate.
+	 * sequential() never forks, hence a thread cannot be using its buffers for two products at the same time.
+	 */
+	private static final class Workspace {
+		private double[] packedA = new double[0];
+		private double[] packedB = new double[0];
+		private final double[] edge = new double[MR * NR];
+	}
+
+	private static final ThreadLocal<Workspace> WORKSPACE = ThreadLocal.withInitial(Workspace::new);
+
+	private Gemm() {}
+
+	static void scale(
+			final int m, final int n, final double beta, final double[] c, final int offC, final int ldc) {
+		if (beta == 1.0) {
+			return;
+		}
+		for (int i = 0; i < m; i++) {
+			final int row = offC + i * ldc;
+			if (beta == 0.0) {
+				// Do not multiply, so that NaNs already present in C do not propagate
+				for (int j = 0; j < n; j++) {
+					c[row + j] = 0.0;
+				}
+			} else {
+				for (int j = 0; j < n; j++) {
+					c[row + j] *= beta;
+				}
+			}
+		}
+	}
+
+	static void gemm(
+			final boolean transA,
+			final boolean transB,
+			final int m,
+			final int n,
+			final int k,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double beta,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		if (Parallelism.isWorthParallelizing((long) m * n * k) && (m > TILE || n > TILE)) {
+			Parallelism.getPool()
+					.invoke(new GemmTask(
+							transA, transB, 0, m, 0, n, k, alpha, a, offA, lda, b, offB, ldb, beta, c, offC, ldc));
+		} else {
+			sequential(transA, transB, m, n, k, alpha, a, offA, lda, b, offB, ldb, beta, c, offC, ldc);
+		}
+	}
+
+	static void sequential(
+			final boolean transA,
+			final boolean transB,
+			final int m,
+			final int n,
+			final int k,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double beta,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		scale(m, n, beta, c, offC, ldc);
+		if (m == 0 || n == 0 || k == 0 || alpha == 0.0) {
+			return;
+		}
+
+		final Workspace ws = WORKSPACE.get();
+		final int sizeA = roundUp(Math.min(MC, m), MR) * Math.min(KC, k);
+		final int sizeB = roundUp(Math.min(NC, n), NR) * Math.min(KC, k);
+		if (ws.packedA.length < sizeA) {
+			ws.packedA = new double[sizeA];
+		}
+		if (ws.packedB.length < sizeB) {
+			ws.packedB = new double[sizeB];
+		}
+		final double[] packedA = ws.packedA;
+		final double[] packedB = ws.packedB;
+		final double[] edge = ws.edge;
+
+		for (int jc = 0; jc < n; jc += NC) {
+			final int nc = Math.min(NC, n - jc);
+			for (int pc = 0; pc < k; pc += KC) {
+				final int kc = Math.min(KC, k - pc);
+				packB(transB, b, offB, ldb, pc, jc, kc, nc, packedB);
+				for (int ic = 0; ic < m; ic += MC) {
+					final int mc = Math.min(MC, m - ic);
+					packA(transA, a, offA, lda, ic, pc, mc, kc, packedA);
+					for (int jr = 0; jr < nc; jr += NR) {
+						final int nr = Math.min(NR, nc - jr);
+						for (int ir = 0; ir < mc; ir += MR) {
+							final int mr = Math.min(MR, mc - ir);
+							kernel(
+									kc,
+									alpha,
+									packedA,
+									ir * kc,
+									packedB,
+									jr * kc,
+									c,
+									offC + (ic + ir) * ldc + jc + jr,
+									ldc,
+									mr,
+									nr,
+									edge);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private static int roundUp(final int x, final int multiple) {
+		return (x + multiple - 1) / multiple * multiple;
+	}
+
+	/*
+	 * Packs the mc x kc block of op(A) starting at (ic, pc) into consecutive MR-row micro-panels. Inside each
+	 * micro-panel, the MR elements of the same column are contiguous. Rows past the end of the matrix are
+	 * zero-padded.
+	 */
+	private static void packA(
+			final boolean transA,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final int ic,
+			final int pc,
+			final int mc,
+			final int kc,
+			final double[] packed) {
+		int idx = 0;
+		for (int ir = 0; ir < mc; ir += MR) {
+			final int mr = Math.min(MR, mc - ir);
+			for (int p = 0; p < kc; p++) {
+				for (int r = 0; r < mr; r++) {
+					final int i = ic + ir + r;
+					packed[idx + r] = transA ? a[offA + (pc + p) * lda + i] : a[offA + i * lda + pc + p];
+				}
+				for (int r = mr; r < MR; r++) {
+					packed[idx + r] = 0.0;
+				}
+				idx += MR;
+			}
+		}
+	}
+
+	/*
+	 * Packs the kc x nc block of op(B) starting at (pc, jc) into consecutive NR-column micro-panels. Inside each
+	 * micro-panel, the NR elements of the same row are contiguous. Columns past the end of the matrix are
+	 * zero-padded.
+	 */
+	private static void packB(
+			final boolean transB,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final int pc,
+			final int jc,
+			final int kc,
+			final int nc,
+			final double[] packed) {
+		int idx = 0;
+		for (int jr = 0; jr < nc; jr += NR) {
+			final int nr = Math.min(NR, nc - jr);
+			for (int p = 0; p < kc; p++) {
+				if (transB) {
+					for (int r = 0; r < nr; r++) {
+						packed[idx + r] = b[offB + (jc + jr + r) * ldb + pc + p];
+					}
+				} else {
+					System.arraycopy(b, offB + (pc + p) * ldb + jc + jr, packed, idx, nr);
+				}
+				for (int r = nr; r < NR; r++) {
+					packed[idx + r] = 0.0;
+				}
+				idx += NR;
+			}
+		}
+	}
+
+	private static void kernel(
+			final int kc,
+			final double alpha,
+			final double[] pa,
+			final int startA,
+			final double[] pb,
+			final int startB,
+			final double[] c,
+			final int startC,
+			final int ldc,
+			final int mr,
+			final int nr,
+			final double[] edge) {
+		double c00 = 0.0, c01 = 0.0, c02 = 0.0, c03 = 0.0;
+		double c10 = 0.0, c11 = 0.0, c12 = 0.0, c13 = 0.0;
+		double c20 = 0.0, c21 = 0.0, c22 = 0.0, c23 = 0.0;
+		double c30 = 0.0, c31 = 0.0, c32 = 0.0, c33 = 0.0;
+
+		int ia = startA;
+		int ib = startB;
+		for (int p = 0; p < kc; p++) {
+			final double a0 = pa[ia];
+			final double a1 = pa[ia + 1];
+			final double a2 = pa[ia + 2];
+			final double a3 = pa[ia + 3];
+			final double b0 = pb[ib];
+			final double b1 = pb[ib + 1];
+			final double b2 = pb[ib + 2];
+			final double b3 = pb[ib + 3];
+
+			c00 += a0 * b0;
+			c01 += a0 * b1;
+			c02 += a0 * b2;
+			c03 += a0 * b3;
+			c10 += a1 * b0;
+			c11 += a1 * b1;
+			c12 += a1 * b2;
+			c13 += a1 * b3;
+			c20 += a2 * b0;
+			c21 += a2 * b1;
+			c22 += a2 * b2;
+			c23 += a2 * b3;
+			c30 += a3 * b0;
+			c31 += a3 * b1;
+			c32 += a3 * b2;
+			c33 += a3 * b3;
+
+			ia += MR;
+			ib += NR;
+		}
+
+		if (mr == MR && nr == NR) {
+			int row = startC;
+			c[row] += alpha * c00;
+			c[row + 1] += alpha * c01;
+			c[row + 2] += alpha * c02;
+			c[row + 3] += alpha * c03;
+			row += ldc;
+			c[row] += alpha * c10;
+			c[row + 1] += alpha * c11;
+			c[row + 2] += alpha * c12;
+			c[row + 3] += alpha * c13;
+			row += ldc;
+			c[row] += alpha * c20;
+			c[row + 1] += alpha * c21;
+			c[row + 2] += alpha * c22;
+			c[row + 3] += alpha * c23;
+			row += ldc;
+			c[row] += alpha * c30;
+			c[row + 1] += alpha * c31;
+			c[row + 2] += alpha * c32;
+			c[row + 3] += alpha * c33;
+			return;
+		}
+
+		// Partial tile on the bottom/right border: go through the scratch buffer
+		edge[0] = c00;
+		edge[1] = c01;
+		edge[2] = c02;
+		edge[3] = c03;
+		edge[4] = c10;
+		edge[5] = c11;
+		edge[6] = c12;
+		edge[7] = c13;
+		edge[8] = c20;
+		edge[9] = c21;
+		edge[10] = c22;
+		edge[11] = c23;
+		edge[12] = c30;
+		edge[13] = c31;
+		edge[14] = c32;
+		edge[15] = c33;
+		for (int r = 0; r < mr; r++) {
+			final int row = startC + r * ldc;
+			for (int s = 0; s < nr; s++) {
+				c[row + s] += alpha * edge[r * NR + s];
+			}
+		}
+	}
+
+	// Computes the tile C[rowStart:rowEnd, colStart:colEnd], splitting it in halves until it is small enough
+	@SuppressWarnings("serial")
+	private static final class GemmTask extends RecursiveAction {
+
+		private final boolean transA;
+		private final boolean transB;
+		private final int rowStart;
+		private final int rowEnd;
+		private final int colStart;
+		private final int colEnd;
+		private final int k;
+		private final double alpha;
+		private final double[] a;
+		private final int offA;
+		private final int lda;
+		private final double[] b;
+		private final int offB;
+		private final int ldb;
+		private final double beta;
+		private final double[] c;
+		private final int offC;
+		private final int ldc;
+
+		GemmTask(
+				final boolean transA,
+				final boolean transB,
+				final int rowStart,
+				final int rowEnd,
+				final int colStart,
+				final int colEnd,
+				final int k,
+				final double alpha,
+				final double[] a,
+				final int offA,
+				final int lda,
+				final double[] b,
+				final int offB,
+				final int ldb,
+				final double beta,
+				final double[] c,
+				final int offC,
+				final int ldc) {
+			this.transA = transA;
+			this.transB = transB;
+			this.rowStart = rowStart;
+			this.rowEnd = rowEnd;
+			this.colStart = colStart;
+			this.colEnd = colEnd;
+			this.k = k;
+			this.alpha = alpha;
+			this.a = a;
+			this.offA = offA;
+			this.lda = lda;
+			this.b = b;
+			this.offB = offB;
+			this.ldb = ldb;
+			this.beta = beta;
+			this.c = c;
+			this.offC = offC;
+			this.ldc = ldc;
+		}
+
+		private GemmTask sub(final int r0, final int r1, final int c0, final int c1) {
+			return new GemmTask(transA, transB, r0, r1, c0, c1, k, alpha, a, offA, lda, b, offB, ldb, beta, c, offC, ldc);
+		}
+
+		@Override
+		protected void compute() {
+			final int rows = rowEnd - rowStart;
+			final int cols = colEnd - colStart;
+			if (rows > TILE && rows >= cols) {
+				final int mid = rowStart + roundUp(rows / 2, MR);
+				invokeAll(sub(rowStart, mid, colStart, colEnd), sub(mid, rowEnd, colStart, colEnd));
+			} else if (cols > TILE) {
+				final int mid = colStart + roundUp(cols / 2, NR);
+				invokeAll(sub(rowStart, rowEnd, colStart, mid), sub(rowStart, rowEnd, mid, colEnd));
+			} else {
+				sequential(
+						transA,
+						transB,
+						rows,
+						cols,
+						k,
+						alpha,
+						a,
+						transA ? offA + rowStart : offA + rowStart * lda,
+						lda,
+						b,
+						transB ? offB + colStart * ldb : offB + colStart,
+						ldb,
+						beta,
+						c,
+						offC + rowStart * ldc + colStart,
+						ldc);
+			}
+		}
+	}
+}
@@ -0,0 +1,697 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Arrays;
+
+/**
+ * Eigenvalues of upper Hessenberg matrices with the Francis implicit double-shift QR algorithm, following LAPACK's
+ * lahqr for small matrices. Larger ones also use aggressive early deflation: a window at the bottom of the active
+ * block is reduced to Schur form, and the eigenvalues whose coupling with the rest of the matrix (the "spike") is
+ * negligible are deflated before they would be detected by the subdiagonal. The remaining eigenvalues of the window
+ * are used as shifts for the next sweep.
+ */
+final class HessenbergQR {
+
+	// Active blocks smaller than this are handled by lahqr alone
+	private static final int AED_MIN = 75;
+
+	// Number of sweeps without deflations after which an exceptional shift is used
+	private static final int EXCEPTIONAL = 10;
+
+	// A sweep is skipped when aggressive early deflation removes more than this percentage of the window
+	private static final int NIBBLE = 14;
+
+	private static final double ULP = Math.ulp(1.0);
+	private static final double SAFE_MIN = Double.MIN_NORMAL;
+
+	private HessenbergQR() {}
+
+	/*
+	 * Computes the eigenvalues of the n x n upper Hessenberg matrix H, which is destroyed. Elements below the first
+	 * subdiagonal are ignored. Returns -1, or the index of an eigenvalue which failed to converge.
+	 */
+	static int eigenvalues(
+			final int n, final double[] h, final int off, final int ldh, final double[] wr, final double[] wi) {
+		for (int r = 2; r < n; r++) {
+			for (int c = 0; c < r - 1; c++) {
+				h[off + r * ldh + c] = 0.0;
+			}
+		}
+		if (n < AED_MIN) {
+			return lahqr(false, false, n, h, off, ldh, 0, n - 1, wr, wi, null, 0);
+		}
+
+		final double smlnum = SAFE_MIN * (n / ULP);
+		final double[] shifts = new double[4];
+		final long maxSweeps = 30L * n;
+		long sweeps = 0;
+		int withoutDeflation = 0;
+		int hi = n - 1;
+		while (hi >= 0) {
+			int lo = hi;
+			while (lo > 0 && !negligible(h, off, ldh, lo, 0, hi, smlnum)) {
+				lo--;
+			}
+			if (lo > 0) {
+				h[off + lo * ldh + lo - 1] = 0.0;
+			}
+			final int size = hi - lo + 1;
+			if (size < AED_MIN) {
+				final int info = lahqr(false, false, n, h, off, ldh, lo, hi, wr, wi, null, 0);
+				if (info >= 0) {
+					return info;
+				}
+				hi = lo - 1;
+				continue;
+			}
+			if (++sweeps > maxSweeps) {
+				return hi;
+			}
+
+			final int nw = Math.min(size, window(size));
+			final int deflated = aggressiveDeflation(h, off, ldh, lo, hi, nw, wr, wi, shifts, smlnum);
+			hi -= deflated;
+			withoutDeflation = deflated > 0 ? 0 : withoutDeflation + 1;
+			if (deflated * 100 > nw * NIBBLE || hi - lo + 1 < AED_MIN) {
+				continue;
+			}
+			if (withoutDeflation > 0 && withoutDeflation % EXCEPTIONAL == 0) {
+				final double s = Math.abs(h[off + hi * ldh + hi - 1]) + Math.abs(h[off + (hi - 1) * ldh + hi - 2]);
+				final double h11 = 0.75 * s + h[off + hi * ldh + hi];
+				shifts2x2(h11, -0.4375 * s, s, h11, shifts);
+			}
+			francisStep(h, off, ldh, lo, hi, lo, hi, shifts, null, 0);
+		}
+		return -1;
+	}
+
+	// Size of the deflation window for an active block of the given size
+	private static int window(final int size) {
+		if (size < 300) {
+			return 16;
+		}
+		return size < 3000 ? 32 : 48;
+	}
+
+	/*
+	 * Tries to deflate eigenvalues from the bottom nw x nw window of the active block [lo; hi]. The window is reduced to
+	 * real Schur form T = U^T * H_w * U, which turns the subdiagonal element above it into the spike s * U[0, :], then
+	 * the trailing blocks of T with a negligible spike are deflated. If there are any, the transformation is applied to
+	 * the active block and its undeflated part is brought back to Hessenberg form. The shifts for the next sweep are
+	 * taken from the undeflated eigenvalues of the window. Returns the number of deflated eigenvalues.
+	 */
+	private static int aggressiveDeflation(
+			final double[] h,
+			final int off,
+			final int ldh,
+			final int lo,
+			final int hi,
+			final int nw,
+			final double[] wr,
+			final double[] wi,
+			final double[] shifts,
+			final double smlnum) {
+		final int k = hi - nw + 1;
+		final double[] t = new double[nw * nw];
+		final double[] u = new double[nw * nw];
+		for (int i = 0; i < nw; i++) {
+			System.arraycopy(h, off + (k + i) * ldh + k, t, i * nw, nw);
+			u[i * nw + i] = 1.0;
+		}
+		final double[] wrw = new double[nw];
+		final double[] wiw = new double[nw];
+		if (lahqr(true, true, nw, t, 0, nw, 0, nw - 1, wrw, wiw, u, nw) >= 0) {
+			bottomShifts(h, off, ldh, hi, shifts);
+			return 0;
+		}
+
+		final double spike = k > lo ? h[off + k * ldh + k - 1] : 0.0;
+		int nd = 0;
+		int j = nw - 1;
+		while (j >= 0) {
+			if (j > 0 && t[j * nw + j - 1] != 0.0) {
+				double foo = Math.abs(t[j * nw + j])
+						+ Math.sqrt(Math.abs(t[j * nw + j - 1])) * Math.sqrt(Math.abs(t[(j - 1) * nw + j]));
+				if (foo == 0.0) {
+					foo = Math.abs(spike);
+				}
+				final double s = Math.max(Math.abs(spike * u[j]), Math.abs(spike * u[j - 1]));
+				if (s > Math.max(smlnum, ULP * foo)) {
+					break;
+				}
+				nd += 2;
+				j -= 2;
+			} else {
+				double foo = Math.abs(t[j * nw + j]);
+				if (foo == 0.0) {
+					foo = Math.abs(spike);
+				}
+				if (Math.abs(spike * u[j]) > Math.max(smlnum, ULP * foo)) {
+					break;
+				}
+				nd++;
+				j--;
+			}
+		}
+
+		final int m = nw - nd;
+		if (m >= 2 && wiw[m - 1] != 0.0) {
+			setShifts(shifts, wrw[m - 2], wiw[m - 2], wrw[m - 1], wiw[m - 1]);
+		} else if (m >= 2 && wiw[m - 2] == 0.0) {
+			setShifts(shifts, wrw[m - 2], 0.0, wrw[m - 1], 0.0);
+		} else if (m >= 1 && wiw[m - 1] == 0.0) {
+			setShifts(shifts, wrw[m - 1], 0.0, wrw[m - 1], 0.0);
+		} else {
+			bottomShifts(h, off, ldh, hi - nd, shifts);
+		}
+		if (nd == 0) {
+			return 0;
+		}
+
+		for (int q = m; q < nw; q++) {
+			wr[k + q] = wrw[q];
+			wi[k + q] = wiw[q];
+		}
+		final double[] spikes = new double[nw];
+		for (int r = 0; r < m; r++) {
+			spikes[r] = spike * u[r];
+		}
+		if (k > lo && m > 1) {
+			restoreHessenberg(nw, m, spikes, t, u);
+		}
+
+		for (int i = 0; i < nw; i++) {
+			System.arraycopy(t, i * nw, h, off + (k + i) * ldh + k, nw);
+		}
+		if (k > lo) {
+			for (int r = 0; r < nw; r++) {
+				h[off + (k + r) * ldh + k - 1] = spikes[r];
+			}
+			final int rows = k - lo;
+			final double[] hu = new double[rows * nw];
+			Gemm.gemm(false, false, rows, nw, nw, 1.0, h, off + lo * ldh + k, ldh, u, 0, nw, 0.0, hu, 0, nw);
+			for (int r = 0; r < rows; r++) {
+				System.arraycopy(hu, r * nw, h, off + (lo + r) * ldh + k, nw);
+			}
+		}
+		return nd;
+	}
+
+	/*
+	 * Brings the undeflated m x m part of the window, together with its spike, back to Hessenberg form with Householder
+	 * reflections, which are also accumulated into the columns of u.
+	 */
+	private static void restoreHessenberg(
+			final int nw, final int m, final double[] spikes, final double[] t, final double[] u) {
+		final double[] v = new double[m];
+		for (int c = -1; c < m - 2; c++) {
+			// The first reflector turns the spike into a multiple of the first column of the identity
+			final int len = m - c - 1;
+			final double tau;
+			if (c < 0) {
+				tau = Lapack.householder(len, spikes, 0, 1);
+				System.arraycopy(spikes, 1, v, 1, len - 1);
+				Arrays.fill(spikes, 1, len, 0.0);
+			} else {
+				final int offV = (c + 1) * nw + c;
+				tau = Lapack.householder(len, t, offV, nw);
+				for (int i = 1; i < len; i++) {
+					v[i] = t[offV + i * nw];
+					t[offV + i * nw] = 0.0;
+				}
+			}
+			if (tau == 0.0) {
+				continue;
+			}
+			v[0] = 1.0;
+			final int first = c + 1;
+			// Left update of rows first..m-1 of the following columns
+			for (int col = first; col < nw; col++) {
+				double s = 0.0;
+				for (int i = 0; i < len; i++) {
+					s += v[i] * t[(first + i) * nw + col];
+				}
+				s *= tau;
+				for (int i = 0; i < len; i++) {
+					t[(first + i) * nw + col] -= s * v[i];
+				}
+			}
+			Lapack.applyReflectorRight(m, len, tau, v, t, first, nw);
+			Lapack.applyReflectorRight(nw, len, tau, v, u, first, nw);
+		}
+	}
+
+	/*
+	 * Double-shift QR algorithm on the active block [ilo; ihi] of the n x n Hessenberg matrix H, as in LAPACK's lahqr.
+	 * When wantt is true, the full Schur form is computed (2 x 2 blocks are standardized), otherwise only the eigenvalues.
+	 * When z is not null, the transformations are accumulated into the columns of the n x n matrix z. Returns -1, or the
+	 * index of an eigenvalue which failed to converge.
+	 */
+	private static int lahqr(
+			final boolean wantt,
+			final boolean wantz,
+			final int n,
+			final double[] h,
+			final int off,
+			final int ldh,
+			final int ilo,
+			final int ihi,
+			final double[] wr,
+			final double[] wi,
+			final double[] z,
+			final int ldz) {
+		if (ilo > ihi) {
+			return -1;
+		}
+		if (ilo == ihi) {
+			wr[ilo] = h[off + ilo * ldh + ilo];
+			wi[ilo] = 0.0;
+			return -1;
+		}
+		final int nh = ihi - ilo + 1;
+		final double smlnum = SAFE_MIN * (nh / ULP);
+		final int itmax = 30 * Math.max(10, nh);
+		final double[] shifts = new double[4];
+		final double[] block = new double[10];
+		int i1 = 0;
+		int i2 = n - 1;
+		int kdefl = 0;
+
+		int i = ihi;
+		while (i >= ilo) {
+			int l = ilo;
+			boolean converged = false;
+			for (int its = 0; its <= itmax; its++) {
+				int k = i;
+				while (k > l && !negligible(h, off, ldh, k, ilo, ihi, smlnum)) {
+					k--;
+				}
+				l = k;
+				if (l > ilo) {
+					h[off + l * ldh + l - 1] = 0.0;
+				}
+				if (l >= i - 1) {
+					converged = true;
+					break;
+				}
+				kdefl++;
+				if (!wantt) {
+					i1 = l;
+					i2 = i;
+				}
+
+				if (kdefl % (2 * EXCEPTIONAL) == 0) {
+					final double s = Math.abs(h[off + i * ldh + i - 1]) + Math.abs(h[off + (i - 1) * ldh + i - 2]);
+					final double h11 = 0.75 * s + h[off + i * ldh + i];
+					shifts2x2(h11, -0.4375 * s, s, h11, shifts);
+				} else if (kdefl % EXCEPTIONAL == 0) {
+					final double s = Math.abs(h[off + (l + 1) * ldh + l]) + Math.abs(h[off + (l + 2) * ldh + l + 1]);
+					final double h11 = 0.75 * s + h[off + l * ldh + l];
+					shifts2x2(h11, -0.4375 * s, s, h11, shifts);
+				} else {
+					bottomShifts(h, off, ldh, i, shifts);
+				}
+				francisStep(h, off, ldh, l, i, i1, i2, shifts, wantz ? z : null, ldz);
+			}
+			if (!converged) {
+				return i;
+			}
+
+			if (l == i) {
+				wr[i] = h[off + i * ldh + i];
+				wi[i] = 0.0;
+			} else {
+				final int r0 = off + (i - 1) * ldh;
+				final int r1 = off + i * ldh;
+				block[0] = h[r0 + i - 1];
+				block[1] = h[r0 + i];
+				block[2] = h[r1 + i - 1];
+				block[3] = h[r1 + i];
+				standardize(block);
+				h[r0 + i - 1] = block[0];
+				h[r0 + i] = block[1];
+				h[r1 + i - 1] = block[2];
+				h[r1 + i] = block[3];
+				wr[i - 1] = block[4];
+				wi[i - 1] = block[5];
+				wr[i] = block[6];
+				wi[i] = block[7];
+				final double cs = block[8];
+				final double sn = block[9];
+				if (wantt) {
+					for (int j = i + 1; j <= i2; j++) {
+						final double x = h[r0 + j];
+						final double y = h[r1 + j];
+						h[r0 + j] = cs * x + sn * y;
+						h[r1 + j] = cs * y - sn * x;
+					}
+					for (int j = i1; j < i - 1; j++) {
+						final int row = off + j * ldh;
+						final double x = h[row + i - 1];
+						final double y = h[row + i];
+						h[row + i - 1] = cs * x + sn * y;
+						h[row + i] = cs * y - sn * x;
+					}
+				}
+				if (wantz) {
+					for (int j = 0; j < n; j++) {
+						final double x = z[j * ldz + i - 1];
+						final double y = z[j * ldz + i];
+						z[j * ldz + i - 1] = cs * x + sn * y;
+						z[j * ldz + i] = cs * y - sn * x;
+					}
+				}
+			}
+			kdefl = 0;
+			i = l - 1;
+		}
+		return -1;
+	}
+
+	// Whether the subdiagonal element H[k, k-1] can be set to zero, with the criterion of Ahues and Tisseur
+	private static boolean negligible(
+			final double[] h,
+			final int off,
+			final int ldh,
+			final int k,
+			final int ilo,
+			final int ihi,
+			final double smlnum) {
+		final double hkk1 = Math.abs(h[off + k * ldh + k - 1]);
+		if (hkk1 <= smlnum) {
+			return true;
+		}
+		final double hkk = h[off + k * ldh + k];
+		final double hk1k1 = h[off + (k - 1) * ldh + k - 1];
+		double tst = Math.abs(hk1k1) + Math.abs(hkk);
+		if (tst == 0.0) {
+			if (k - 2 >= ilo) {
+				tst += Math.abs(h[off + (k - 1) * ldh + k - 2]);
+			}
+			if (k + 1 <= ihi) {
+				tst += Math.abs(h[off + (k + 1) * ldh + k]);
+			}
+		}
+		if (hkk1 > ULP * tst) {
+			return false;
+		}
+		final double hk1k = Math.abs(h[off + (k - 1) * ldh + k]);
+		final double ab = Math.max(hkk1, hk1k);
+		final double ba = Math.min(hkk1, hk1k);
+		final double aa = Math.max(Math.abs(hkk), Math.abs(hk1k1 - hkk));
+		final double bb = Math.min(Math.abs(hkk), Math.abs(hk1k1 - hkk));
+		final double s = aa + ab;
+		return ba * (ab / s) <= Math.max(smlnum, ULP * (bb * (aa / s)));
+	}
+
+	private static void setShifts(
+			final double[] shifts, final double sr1, final double si1, final double sr2, final double si2) {
+		shifts[0] = sr1;
+		shifts[1] = si1;
+		shifts[2] = sr2;
+		shifts[3] = si2;
+	}
+
+	// Francis shifts from the trailing 2 x 2 block of the active block ending at i
+	private static void bottomShifts(final double[] h, final int off, final int ldh, final int i, final double[] shifts) {
+		shifts2x2(
+				h[off + (i - 1) * ldh + i - 1],
+				h[off + (i - 1) * ldh + i],
+				h[off + i * ldh + i - 1],
+				h[off + i * ldh + i],
+				shifts);
+	}
+
+	/*
+	 * Eigenvalues of the 2 x 2 matrix [h11, h12; h21, h22] to be used as shifts. Two real eigenvalues are replaced by
+	 * the one closest to h22, used twice.
+	 */
+	private static void shifts2x2(
+			final double h11In, final double h12In, final double h21In, final double h22In, final double[] shifts) {
+		final double s = Math.abs(h11In) + Math.abs(h12In) + Math.abs(h21In) + Math.abs(h22In);
+		if (s == 0.0) {
+			setShifts(shifts, 0.0, 0.0, 0.0, 0.0);
+			return;
+		}
+		final double h11 = h11In / s;
+		final double h12 = h12In / s;
+		final double h21 = h21In / s;
+		final double h22 = h22In / s;
+		final double tr = 0.5 * (h11 + h22);
+		final double det = (h11 - tr) * (h22 - tr) - h12 * h21;
+		final double rtdisc = Math.sqrt(Math.abs(det));
+		if (det >= 0.0) {
+			setShifts(shifts, tr * s, rtdisc * s, tr * s, -rtdisc * s);
+		} else {
+			final double rt1 = tr + rtdisc;
+			final double rt2 = tr - rtdisc;
+			final double rt = (Math.abs(rt1 - h22) <= Math.abs(rt2 - h22) ? rt1 : rt2) * s;
+			setShifts(shifts, rt, 0.0, rt, 0.0);
+		}
+	}
+
+	/*
+	 * One implicit double-shift QR sweep on the active block [l; i], with shifts which are either both real or complex
+	 * conjugate. Rows are updated up to column i2 and columns from row i1, as in lahqr.
+	 */
+	private static void francisStep(
+			final double[] h,
+			final int off,
+			final int ldh,
+			final int l,
+			final int i,
+			final int i1,
+			final int i2,
+			final double[] shifts,
+			final double[] z,
+			final int ldz) {
+		final double sr1 = shifts[0];
+		final double si1 = shifts[1];
+		final double sr2 = shifts[2];
+		final double si2 = shifts[3];
+		final double[] v = new double[3];
+
+		// Look for two consecutive small subdiagonal elements
+		int m = i - 2;
+		while (true) {
+			final double hmm = h[off + m * ldh + m];
+			double h21s = h[off + (m + 1) * ldh + m];
+			double s = Math.abs(hmm - sr2) + Math.abs(si2) + Math.abs(h21s);
+			h21s /= s;
+			v[0] = h21s * h[off + m * ldh + m + 1] + (hmm - sr1) * ((hmm - sr2) / s) - si1 * (si2 / s);
+			v[1] = h21s * (hmm + h[off + (m + 1) * ldh + m + 1] - sr1 - sr2);
+			v[2] = h21s * h[off + (m + 2) * ldh + m + 1];
+			s = Math.abs(v[0]) + Math.abs(v[1]) + Math.abs(v[2]);
+			v[0] /= s;
+			v[1] /= s;
+			v[2] /= s;
+			if (m == l) {
+				break;
+			}
+			final double h00 = Math.abs(h[off + m * ldh + m - 1]) * (Math.abs(v[1]) + Math.abs(v[2]));
+			final double h01 = Math.abs(v[0])
+					* (Math.abs(h[off + (m - 1) * ldh + m - 1]) + Math.abs(hmm) + Math.abs(h[off + (m + 1) * ldh + m + 1]));
+			if (h00 <= ULP * h01) {
+				break;
+			}
+			m--;
+		}
+
+		// Chase the bulge down to the bottom of the active block
+		for (int k = m; k < i; k++) {
+			final int nr = Math.min(3, i - k + 1);
+			if (k > m) {
+				for (int q = 0; q < nr; q++) {
+					v[q] = h[off + (k + q) * ldh + k - 1];
+				}
+			}
+			final double t1 = Lapack.householder(nr, v, 0, 1);
+			if (k > m) {
+				h[off + k * ldh + k - 1] = v[0];
+				h[off + (k + 1) * ldh + k - 1] = 0.0;
+				if (k < i - 1) {
+					h[off + (k + 2) * ldh + k - 1] = 0.0;
+				}
+			} else if (m > l) {
+				// Instead of negating H[k, k-1], which is wrong when v[1] and v[2] underflow
+				h[off + k * ldh + k - 1] *= 1.0 - t1;
+			}
+			final double v2 = v[1];
+			final double t2 = t1 * v2;
+			final int r0 = off + k * ldh;
+			final int r1 = r0 + ldh;
+			if (nr == 3) {
+				final double v3 = v[2];
+				final double t3 = t1 * v3;
+				final int r2 = r1 + ldh;
+				for (int j = k; j <= i2; j++) {
+					final double sum = h[r0 + j] + v2 * h[r1 + j] + v3 * h[r2 + j];
+					h[r0 + j] -= sum * t1;
+					h[r1 + j] -= sum * t2;
+					h[r2 + j] -= sum * t3;
+				}
+				final int last = Math.min(k + 3, i);
+				for (int j = i1; j <= last; j++) {
+					final int row = off + j * ldh + k;
+					final double sum = h[row] + v2 * h[row + 1] + v3 * h[row + 2];
+					h[row] -= sum * t1;
+					h[row + 1] -= sum * t2;
+					h[row + 2] -= sum * t3;
+				}
+				if (z != null) {
+					for (int j = 0; j < ldz; j++) {
+						final int row = j * ldz + k;
+						final double sum = z[row] + v2 * z[row + 1] + v3 * z[row + 2];
+						z[row] -= sum * t1;
+						z[row + 1] -= sum * t2;
+						z[row + 2] -= sum * t3;
+					}
+				}
+			} else if (nr == 2) {
+				for (int j = k; j <= i2; j++) {
+					final double sum = h[r0 + j] + v2 * h[r1 + j];
+					h[r0 + j] -= sum * t1;
+					h[r1 + j] -= sum * t2;
+				}
+				for (int j = i1; j <= i; j++) {
+					final int row = off + j * ldh + k;
+					final double sum = h[row] + v2 * h[row + 1];
+					h[row] -= sum * t1;
+					h[row + 1] -= sum * t2;
+				}
+				if (z != null) {
+					for (int j = 0; j < ldz; j++) {
+						final int row = j * ldz + k;
+						final double sum = z[row] + v2 * z[row + 1];
+						z[row] -= sum * t1;
+						z[row + 1] -= sum * t2;
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Schur factorization of the real 2 x 2 matrix [a, b; c, d] = [cs, -sn; sn, cs] * [aa, bb; cc, dd] * [cs, sn; -sn,
+	 * cs] in standard form, as in LAPACK's lanv2: either cc = 0, or aa = dd and bb * cc < 0. On input, x holds a, b, c
+	 * and d; on output, aa, bb, cc, dd, the real and imaginary parts of the two eigenvalues, cs and sn.
+	 */
+	private static void standardize(final double[] x) {
+		double a = x[0];
+		double b = x[1];
+		double c = x[2];
+		double d = x[3];
+		double cs;
+		double sn;
+		if (c == 0.0) {
+			cs = 1.0;
+			sn = 0.0;
+		} else if (b == 0.0) {
+			// Swap rows and columns
+			cs = 0.0;
+			sn = 1.0;
+			final double tmp = d;
+			d = a;
+			a = tmp;
+			b = -c;
+			c = 0.0;
+		} else if (a - d == 0.0 && Math.signum(b) != Math.signum(c)) {
+			cs = 1.0;
+			sn = 0.0;
+		} else {
+			final double temp = a - d;
+			double p = 0.5 * temp;
+			final double bcmax = Math.max(Math.abs(b), Math.abs(c));
+			final double bcmis = Math.min(Math.abs(b), Math.abs(c)) * Math.signum(b) * Math.signum(c);
+			final double scale = Math.max(Math.abs(p), bcmax);
+			double z = p / scale * p + bcmax / scale * bcmis;
+			if (z >= 4.0 * ULP) {
+				// Real eigenvalues
+				z = p + Math.copySign(Math.sqrt(scale) * Math.sqrt(z), p);
+				a = d + z;
+				d -= bcmax / z * bcmis;
+				final double tau = Math.hypot(c, z);
+				cs = z / tau;
+				sn = c / tau;
+				b -= c;
+				c = 0.0;
+			} else {
+				// Complex or almost equal real eigenvalues: make the diagonal elements equal
+				final double sigma = b + c;
+				final double tau = Math.hypot(sigma, temp);
+				cs = Math.sqrt(0.5 * (1.0 + Math.abs(sigma) / tau));
+				sn = -(p / (tau * cs)) * Math.copySign(1.0, sigma);
+
+				final double aa = a * cs + b * sn;
+				final double bb = -a * sn + b * cs;
+				final double cc = c * cs + d * sn;
+				final double dd = -c * sn + d * cs;
+				a = aa * cs + cc * sn;
+				b = bb * cs + dd * sn;
+				c = -aa * sn + cc * cs;
+				d = -bb * sn + dd * cs;
+
+				final double mean = 0.5 * (a + d);
+				a = mean;
+				d = mean;
+				if (c != 0.0) {
+					if (b != 0.0) {
+						if (Math.signum(b) == Math.signum(c)) {
+							// Real eigenvalues: reduce to upper triangular form
+							final double sab = Math.sqrt(Math.abs(b));
+							final double sac = Math.sqrt(Math.abs(c));
+							p = Math.copySign(sab * sac, c);
+							final double t = 1.0 / Math.sqrt(Math.abs(b + c));
+							a = mean + p;
+							d = mean - p;
+							b -= c;
+							c = 0.0;
+							final double cs1 = sab * t;
+							final double sn1 = sac * t;
+							final double tmp = cs * cs1 - sn * sn1;
+							sn = cs * sn1 + sn * cs1;
+							cs = tmp;
+						}
+					} else {
+						b = -c;
+						c = 0.0;
+						final double tmp = cs;
+						cs = -sn;
+						sn = tmp;
+					}
+				}
+			}
+		}
+		x[0] = a;
+		x[1] = b;
+		x[2] = c;
+		x[3] = d;
+		x[4] = a;
+		x[6] = d;
+		if (c == 0.0) {
+			x[5] = 0.0;
+			x[7] = 0.0;
+		} else {
+			x[5] = Math.sqrt(Math.abs(b)) * Math.sqrt(Math.abs(c));
+			x[7] = -x[5];
+		}
+		x[8] = cs;
+		x[9] = sn;
+	}
+}
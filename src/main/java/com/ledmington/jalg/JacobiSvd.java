@@ -0,0 +1,170 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Arrays;
+
+/**
+ * One-sided Jacobi singular value decomposition: the columns of a matrix are orthogonalized pairwise with plane
+ * rotations until all of them are orthogonal to working precision, after which their norms are the singular values.
+ * Unlike the bidiagonal QR algorithm, this computes even the smallest singular values with high relative accuracy.
+ * Pairs are visited in the round-robin order of a tournament, so that the rotations of each round act on disjoint
+ * columns and are applied in parallel.
+ */
+final class JacobiSvd {
+
+	// Maximum number of sweeps over all pairs of columns
+	private static final int MAX_SWEEPS = 60;
+
+	// Minimum number of pairs rotated by each parallel task
+	private static final int MIN_PAIRS = 4;
+
+	private static final double EPS = Math.ulp(1.0);
+
+	private JacobiSvd() {}
+
+	/*
+	 * Computes the singular values, in descending order into s, of the n x n matrix whose columns are the rows of g. On
+	 * exit, the rows of g are the corresponding left singular vectors and, when v is not null, the rows of the n x n
+	 * matrix v (initially the identity) are the right singular vectors. Returns false if the iteration did not converge.
+	 */
+	static boolean svd(final int n, final double[] g, final double[] s, final double[] v) {
+		// An odd number of columns plays with a dummy one, which rests in each round
+		final int players = n + (n & 1);
+		final int pairs = players / 2;
+		final double tol = Math.sqrt(n) * EPS;
+		final double[] norms = new double[n];
+		final boolean[] rotated = new boolean[pairs];
+		boolean converged = false;
+		for (int sweep = 0; sweep < MAX_SWEEPS && !converged; sweep++) {
+			for (int i = 0; i < n; i++) {
+				norms[i] = Kernels.INSTANCE.dot(n, g, i * n, g, i * n);
+			}
+			Arrays.fill(rotated, false);
+			for (int round = 0; round < players - 1; round++) {
+				final int r = round;
+				Parallelism.parallelFor(0, pairs, MIN_PAIRS, 8L * pairs * n, (from, to) -> {
+					for (int k = from; k < to; k++) {
+						final int i = (r + k) % (players - 1);
+						final int j = k == 0 ? players - 1 : (r - k + players - 1) % (players - 1);
+						if (j < n && rotate(n, g, v, norms, Math.min(i, j), Math.max(i, j), tol)) {
+							rotated[k] = true;
+						}
+					}
+				});
+			}
+			converged = true;
+			for (final boolean b : rotated) {
+				converged &= !b;
+			}
+		}
+
+		final Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+			norms[i] = Level2.nrm2(n, g, i * n, 1);
+		}
+		Arrays.sort(order, (x, y) -> Double.compare(norms[y], norms[x]));
+		permuteRows(n, order, g);
+		if (v != null) {
+			permuteRows(n, order, v);
+		}
+		int rank = 0;
+		for (int i = 0; i < n; i++) {
+			s[i] = norms[order[i]];
+			if (s[i] != 0.0) {
+				Kernels.INSTANCE.divide(g, i * n, n, s[i]);
+				rank++;
+			}
+		}
+		complete(n, rank, g);
+		return converged;
+	}
+
+	/*
+	 * Orthogonalizes the rows p and q of g, applying the same rotation to v, unless they are already orthogonal to
+	 * working precision. norms holds the squared norms of the rows of g. Returns true if a rotation was applied.
+	 */
+	private static boolean rotate(
+			final int n,
+			final double[] g,
+			final double[] v,
+			final double[] norms,
+			final int p,
+			final int q,
+			final double tol) {
+		final double alpha = norms[p];
+		final double beta = norms[q];
+		if (alpha == 0.0 || beta == 0.0) {
+			return false;
+		}
+		final double gamma = Kernels.INSTANCE.dot(n, g, p * n, g, q * n);
+		if (Math.abs(gamma) <= tol * Math.sqrt(alpha) * Math.sqrt(beta)) {
+			return false;
+		}
+		final double zeta = (beta - alpha) / (2.0 * gamma);
+		final double t = Math.copySign(1.0, zeta) / (Math.abs(zeta) + Math.hypot(1.0, zeta));
+		final double c = 1.0 / Math.sqrt(1.0 + t * t);
+		final double sn = c * t;
+		// (g_p, g_q) = (c * g_p - sn * g_q, sn * g_p + c * g_q)
+		Level2.rot(n, g, p * n, 1, g, q * n, 1, c, -sn);
+		if (v != null) {
+			Level2.rot(n, v, p * n, 1, v, q * n, 1, c, -sn);
+		}
+		norms[p] = alpha - t * gamma;
+		norms[q] = beta + t * gamma;
+		return true;
+	}
+
+	private static void permuteRows(final int n, final Integer[] order, final double[] x) {
+		final double[] sorted = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(x, order[i] * n, sorted, i * n, n);
+		}
+		System.arraycopy(sorted, 0, x, 0, n * n);
+	}
+
+	/*
+	 * Replaces the rows of g from the first-th on, which are zero, with unit vectors orthogonal to all the previous
+	 * rows. Each one starts from the coordinate axis with the smallest projection on the previous rows.
+	 */
+	private static void complete(final int n, final int first, final double[] g) {
+		final double[] w = new double[n];
+		for (int r = first; r < n; r++) {
+			Arrays.fill(w, 0.0);
+			for (int q = 0; q < r; q++) {
+				for (int j = 0; j < n; j++) {
+					w[j] += g[q * n + j] * g[q * n + j];
+				}
+			}
+			int axis = 0;
+			for (int j = 1; j < n; j++) {
+				if (w[j] < w[axis]) {
+					axis = j;
+				}
+			}
+			g[r * n + axis] = 1.0;
+			for (int pass = 0; pass < 2; pass++) {
+				for (int q = 0; q < r; q++) {
+					Kernels.INSTANCE.axpy(n, -Kernels.INSTANCE.dot(n, g, q * n, g, r * n), g, q * n, g, r * n);
+				}
+			}
+			Kernels.INSTANCE.divide(g, r * n, n, Level2.nrm2(n, g, r * n, 1));
+		}
+	}
+}
@@ -17,7 +17,7 @@
  */
 package com.ledmington.jalg;
 
-import java.util.Arrays;
+import java.util.Objects;
 import java.util.random.RandomGenerator;
 import java.util.random.RandomGeneratorFactory;
 
@@ -42,7 +42,7 @@ public final class Jalg {
 			return;
 		}
 		if (incX == 1) {
-			Arrays.fill(x, start, start + n, value);
+			Kernels.INSTANCE.fill(x, start, n, value);
 		} else {
 			final int end = start + n;
 			for (int i = start; i < end; i += incX) {
@@ -68,10 +68,7 @@ public final class Jalg {
 			return;
 		}
 		if (incX == 1) {
-			final int end = start + n;
-			for (int i = start; i < end; i++) {
-				x[i] = -x[i];
-			}
+			Kernels.INSTANCE.negate(x, start, n);
 		} else {
 			final int end = start + n;
 			for (int i = start; i < end; i += incX) {
@@ -100,14 +97,11 @@ public final class Jalg {
 			return;
 		}
 		if (alpha == 0.0) {
-			set(x, 0, n, incX, 0.0);
+			set(x, start, incX, n, 0.0);
 		} else if (alpha == -1.0) {
 			flipSign(x, start, incX, n);
 		} else if (incX == 1) {
-			final int end = start + n;
-			for (int i = start; i < end; i++) {
-				x[i] *= alpha;
-			}
+			Kernels.INSTANCE.scale(x, start, n, alpha);
 		} else {
 			final int end = start + n;
 			for (int i = start; i < end; i += incX) {
@@ -138,10 +132,7 @@ public final class Jalg {
 		if (alpha == -1.0) {
 			flipSign(x, start, incX, n);
 		} else if (incX == 1) {
-			final int end = start + n;
-			for (int i = start; i < end; i++) {
-				x[i] /= alpha;
-			}
+			Kernels.INSTANCE.divide(x, start, n, alpha);
 		} else {
 			final int end = start + n;
 			for (int i = start; i < end; i += incX) {
@@ -183,8 +174,10 @@ public final class Jalg {
 			return;
 		}
 
-		if (inc == 1) {
-			// System.out.printf("axpy(x, %,d, %,d, %,d, %,d, %.6f)\n", startX, startY, inc, n, alpha);
+		if (inc == 1 && (startY >= startX || startX - startY >= n)) {
+			Kernels.INSTANCE.axpy(n, alpha, x, startY, x, startX);
+		} else if (inc == 1) {
+			// The source range overlaps the part of the destination which is written first: must go in order
 			int i = startX;
 			int j = startY;
 			for (int k = 0; k < n; k++) {
@@ -197,135 +190,660 @@ public final class Jalg {
 		}
 	}
 
-	public static double[] randomMatrix(final int rows, final int columns, final double low, final double high) {
+	/*
+	 * Checks that a rows x columns matrix stored in row-major order with leading dimension ld, starting at
+	 * index offset, fits inside the given array.
+	 */
+	private static void assertValidMatrix(
+			final double[] x, final int offset, final int rows, final int columns, final int ld) {
+		if (x == null) {
+			throw new NullPointerException();
+		}
 		if (rows < 0 || columns < 0) {
-			throw new IllegalArgumentException();
+			throw new IllegalArgumentException(
+					String.format("Invalid matrix size: %,d x %,d.", rows, columns));
 		}
-		if (low > high) {
-			throw new IllegalArgumentException();
+		if (ld < Math.max(1, columns)) {
+			throw new IllegalArgumentException(
+					String.format("Invalid leading dimension %,d for a matrix with %,d columns.", ld, columns));
 		}
-		final double[] m = new double[rows * columns];
-		if (low == high) {
-			set(m, 0, 1, m.length, low);
-		} else {
-			final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(System.nanoTime());
-			for (int i = 0; i < m.length; i++) {
-				m[i] = rng.nextDouble(low, high);
-			}
+		if (offset < 0) {
+			throw new IllegalArgumentException(String.format("Invalid offset %,d.", offset));
+		}
+		if (rows > 0 && columns > 0 && (long) offset + (long) (rows - 1) * ld + columns > x.length) {
+			throw new IllegalArgumentException(String.format(
+					"A %,d x %,d matrix with offset %,d and leading dimension %,d does not fit in an array of length %,d.",
+					rows, columns, offset, ld, x.length));
 		}
-		return m;
 	}
 
-	public static double[] gaussJordan(final double[] m, final int rows, final int columns) {
-		if (rows < 0 || columns < 0) {
-			throw new IllegalArgumentException();
-		}
-		if (m == null) {
+	public static void strassen(
+			final int m,
+			final int n,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		strassen(m, n, k, a, offA, lda, b, offB, ldb, c, offC, ldc, Strassen.DEFAULT_CROSSOVER);
+	}
+
+	/*
+	 * Computes C = A * B with the Strassen-Winograd algorithm, where A is m x k, B is k x n and C is m x n. The
+	 * recursion stops as soon as one dimension is not larger than crossover, and the classic blocked product is used
+	 * from there.
+	 */
+	public static void strassen(
+			final int m,
+			final int n,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double[] c,
+			final int offC,
+			final int ldc,
+			final int crossover) {
+		if (crossover < 1) {
+			throw new IllegalArgumentException(String.format("Invalid crossover: %,d.", crossover));
+		}
+		assertValidMatrix(a, offA, m, k, lda);
+		assertValidMatrix(b, offB, k, n, ldb);
+		assertValidMatrix(c, offC, m, n, ldc);
+		Strassen.multiply(m, n, k, a, offA, lda, b, offB, ldb, c, offC, ldc, crossover);
+	}
+
+	// Checks that n elements spaced by inc, starting at index offset, fit inside the given array.
+	private static void assertValidVector(final double[] x, final int offset, final int n, final int inc) {
+		if (x == null) {
 			throw new NullPointerException();
 		}
-		final int size = rows * columns;
-		if (m.length < size) {
-			throw new IllegalArgumentException();
+		if (n < 0) {
+			throw new IllegalArgumentException(String.format("Invalid vector length: %,d.", n));
 		}
-		if (rows != columns) {
-			throw new IllegalArgumentException();
+		if (inc <= 0) {
+			throw new IllegalArgumentException(String.format("Invalid increment: %,d.", inc));
+		}
+		if (offset < 0) {
+			throw new IllegalArgumentException(String.format("Invalid offset %,d.", offset));
+		}
+		if (n > 0 && (long) offset + (long) (n - 1) * inc >= x.length) {
+			throw new IllegalArgumentException(String.format(
+					"A vector of %,d elements with offset %,d and increment %,d does not fit in an array of length %,d.",
+					n, offset, inc, x.length));
 		}
-		final double[] out = new double[size];
+	}
 
-		// Copy the matrix
-		System.arraycopy(m, 0, out, 0, size);
+	public static void gemm(
+			final double alpha,
+			final double[] a,
+			final double[] b,
+			final double beta,
+			final double[] c,
+			final int m,
+			final int n,
+			final int k) {
+		gemm(false, false, m, n, k, alpha, a, 0, k, b, 0, n, beta, c, 0, n);
+	}
 
-		for (int i = 0; i < rows; i++) {
-			final double c = out[i * columns + i];
-			for (int j = i + 1; j < rows; j++) {
-				final double factor = out[j * columns + i] / c;
-				set(out, j * columns, 1, i + 1, 0.0);
-				axpy(out, j * columns + i, i * columns + i, 1, rows - i - 1, -factor);
-			}
+	/*
+	 * Computes C = alpha * op(A) * op(B) + beta * C, where op(A) is m x k, op(B) is k x n and C is m x n.
+	 * All matrices are row-major. When transA is true, A is stored as a k x m matrix (same for B).
+	 */
+	public static void gemm(
+			final boolean transA,
+			final boolean transB,
+			final int m,
+			final int n,
+			final int k,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double beta,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		if (transA) {
+			assertValidMatrix(a, offA, k, m, lda);
+		} else {
+			assertValidMatrix(a, offA, m, k, lda);
 		}
+		if (transB) {
+			assertValidMatrix(b, offB, n, k, ldb);
+		} else {
+			assertValidMatrix(b, offB, k, n, ldb);
+		}
+		assertValidMatrix(c, offC, m, n, ldc);
+		Gemm.gemm(transA, transB, m, n, k, alpha, a, offA, lda, b, offB, ldb, beta, c, offC, ldc);
+	}
 
-		return out;
+	/*
+	 * Computes y = alpha * op(A) * x + beta * y, where A is a m x n row-major matrix. Vectors are made of the elements
+	 * spaced by their increment, starting at their offset. x and y must not overlap.
+	 */
+	public static void gemv(
+			final boolean trans,
+			final int m,
+			final int n,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double beta,
+			final double[] y,
+			final int offY,
+			final int incY) {
+		assertValidMatrix(a, offA, m, n, lda);
+		assertValidVector(x, offX, trans ? m : n, incX);
+		assertValidVector(y, offY, trans ? n : m, incY);
+		Level2.gemv(trans, m, n, alpha, a, offA, lda, x, offX, incX, beta, y, offY, incY);
 	}
 
-	public static double determinant(final double[] m, final int rows, final int columns) {
-		if (rows < 0 || columns < 0) {
-			throw new IllegalArgumentException();
+	// Computes A = alpha * x * y^T + A, where A is a m x n row-major matrix.
+	public static void ger(
+			final int m,
+			final int n,
+			final double alpha,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double[] y,
+			final int offY,
+			final int incY,
+			final double[] a,
+			final int offA,
+			final int lda) {
+		assertValidVector(x, offX, m, incX);
+		assertValidVector(y, offY, n, incY);
+		assertValidMatrix(a, offA, m, n, lda);
+		Level2.ger(m, n, alpha, x, offX, incX, y, offY, incY, a, offA, lda);
+	}
+
+	/*
+	 * Computes y = alpha * A * x + beta * y, where A is a n x n symmetric matrix of which only the upper (or lower)
+	 * triangle is read.
+	 */
+	public static void symv(
+			final boolean upper,
+			final int n,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double beta,
+			final double[] y,
+			final int offY,
+			final int incY) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidVector(x, offX, n, incX);
+		assertValidVector(y, offY, n, incY);
+		Level2.symv(upper, n, alpha, a, offA, lda, x, offX, incX, beta, y, offY, incY);
+	}
+
+	/*
+	 * Solves op(A) * x = b in place, where A is a n x n upper (or lower) triangular matrix and x initially holds b.
+	 * When unitDiagonal is true, the diagonal of A is not read and assumed to be all ones.
+	 */
+	public static void trsv(
+			final boolean upper,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final int offX,
+			final int incX) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidVector(x, offX, n, incX);
+		Level2.trsv(upper, trans, unitDiagonal, n, a, offA, lda, x, offX, incX);
+	}
+
+	/*
+	 * Solves op(A) * X = alpha * B (when left is true) or X * op(A) = alpha * B (when left is false), overwriting the
+	 * m x n matrix B with X. A is upper (or lower) triangular and has size m x m when left is true, n x n otherwise.
+	 * When unitDiagonal is true, the diagonal of A is not read and assumed to be all ones.
+	 */
+	public static void trsm(
+			final boolean left,
+			final boolean upper,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int m,
+			final int n,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		final int size = left ? m : n;
+		assertValidMatrix(a, offA, size, size, lda);
+		assertValidMatrix(b, offB, m, n, ldb);
+		Level3.trsm(left, upper, trans, unitDiagonal, m, n, alpha, a, offA, lda, b, offB, ldb);
+	}
+
+	/*
+	 * Computes C = alpha * A * A^T + beta * C (or C = alpha * A^T * A + beta * C when trans is true), where C is a
+	 * n x n symmetric matrix of which only the upper (or lower) triangle is written. A is n x k (k x n when trans is
+	 * true).
+	 */
+	public static void syrk(
+			final boolean upper,
+			final boolean trans,
+			final int n,
+			final int k,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double beta,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		if (trans) {
+			assertValidMatrix(a, offA, k, n, lda);
+		} else {
+			assertValidMatrix(a, offA, n, k, lda);
 		}
-		if (m == null) {
-			throw new NullPointerException();
+		assertValidMatrix(c, offC, n, n, ldc);
+		Level3.syrk(upper, trans, n, k, alpha, a, offA, lda, beta, c, offC, ldc);
+	}
+
+	/*
+	 * Computes the LU factorization with partial pivoting P * A = L * U of the m x n matrix A in place, with a blocked
+	 * right-looking algorithm. On exit, A holds L (with implicit unit diagonal) below the diagonal and U on and above
+	 * it, and row i was swapped with row ipiv[i]. Returns the index of the first exactly zero pivot, or -1 if the
+	 * matrix is not singular.
+	 */
+	public static int getrf(
+			final int m, final int n, final double[] a, final int offA, final int lda, final int[] ipiv) {
+		assertValidMatrix(a, offA, m, n, lda);
+		Objects.requireNonNull(ipiv);
+		if (ipiv.length < Math.min(m, n)) {
+			throw new IllegalArgumentException(String.format(
+					"Pivot array must have at least %,d elements but had %,d.", Math.min(m, n), ipiv.length));
 		}
-		final int size = rows * columns;
-		if (m.length < size) {
-			throw new IllegalArgumentException();
+		return Lapack.getrf(m, n, a, offA, lda, ipiv);
+	}
+
+	/*
+	 * Solves A * X = B (or A^T * X = B when trans is true) with the factorization computed by getrf, overwriting the
+	 * n x nrhs matrix B with X.
+	 */
+	public static void getrs(
+			final boolean trans,
+			final int n,
+			final int nrhs,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final int[] ipiv,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidMatrix(b, offB, n, nrhs, ldb);
+		Objects.requireNonNull(ipiv);
+		if (ipiv.length < n) {
+			throw new IllegalArgumentException(String.format(
+					"Pivot array must have at least %,d elements but had %,d.", n, ipiv.length));
 		}
-		if (rows != columns) {
-			throw new IllegalArgumentException();
+		Lapack.getrs(trans, n, nrhs, a, offA, lda, ipiv, b, offB, ldb);
+	}
+
+	/*
+	 * Computes the requested norm of the m x n matrix A. The spectral norm is estimated with the power method, all the
+	 * other ones are computed exactly in a single pass over A.
+	 */
+	public static double lange(
+			final NormType type, final int m, final int n, final double[] a, final int offA, final int lda) {
+		Objects.requireNonNull(type);
+		assertValidMatrix(a, offA, m, n, lda);
+		return Lapack.lange(type, m, n, a, offA, lda);
+	}
+
+	/*
+	 * Estimates the reciprocal of the 1-norm condition number of the n x n matrix A, given its factorization computed
+	 * by getrf and the 1-norm anorm of the original matrix. Only a few triangular solves are needed.
+	 */
+	public static double gecon(
+			final int n, final double[] a, final int offA, final int lda, final int[] ipiv, final double anorm) {
+		assertValidMatrix(a, offA, n, n, lda);
+		Objects.requireNonNull(ipiv);
+		if (ipiv.length < n) {
+			throw new IllegalArgumentException(String.format(
+					"Pivot array must have at least %,d elements but had %,d.", n, ipiv.length));
+		}
+		if (!(anorm >= 0.0)) {
+			throw new IllegalArgumentException(String.format("Invalid norm: %f.", anorm));
 		}
-		final double[] tmp = gaussJordan(m, rows, columns);
+		return Lapack.gecon(n, a, offA, lda, ipiv, anorm);
+	}
 
-		// FIXME: prod(size, tmp, 0, columns+1)?
-		double det = 1.0;
-		for (int i = 0; i < rows; i++) {
-			det *= tmp[i * columns + i];
+	/*
+	 * Computes the Cholesky factorization A = L * L^T of the n x n symmetric positive definite matrix A in place, with
+	 * a blocked right-looking algorithm. Only the lower triangle of A is read and overwritten with L. Stops at the first
+	 * non-positive pivot and returns its index, or returns -1 if the matrix is positive definite.
+	 */
+	public static int potrf(final int n, final double[] a, final int offA, final int lda) {
+		assertValidMatrix(a, offA, n, n, lda);
+		return Lapack.potrf(n, a, offA, lda);
+	}
+
+	// Solves A * X = B with the factorization computed by potrf, overwriting the n x nrhs matrix B with X.
+	public static void potrs(
+			final int n,
+			final int nrhs,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidMatrix(b, offB, n, nrhs, ldb);
+		Lapack.potrs(n, nrhs, a, offA, lda, b, offB, ldb);
+	}
+
+	/*
+	 * Estimates the reciprocal of the 1-norm condition number of the n x n symmetric positive definite matrix A, given
+	 * its factorization computed by potrf and the 1-norm anorm of the original matrix.
+	 */
+	public static double pocon(final int n, final double[] a, final int offA, final int lda, final double anorm) {
+		assertValidMatrix(a, offA, n, n, lda);
+		if (!(anorm >= 0.0)) {
+			throw new IllegalArgumentException(String.format("Invalid norm: %f.", anorm));
+		}
+		return Lapack.pocon(n, a, offA, lda, anorm);
+	}
+
+	/*
+	 * Computes the Householder QR factorization A = Q * R of the m x n matrix A in place, with a blocked algorithm based
+	 * on the compact WY representation. On exit, R is on and above the diagonal, while the Householder vectors are
+	 * below it and their scalar factors are in the first min(m, n) elements of tau.
+	 */
+	public static void geqrf(final int m, final int n, final double[] a, final int offA, final int lda, final double[] tau) {
+		assertValidMatrix(a, offA, m, n, lda);
+		assertValidVector(tau, 0, Math.min(m, n), 1);
+		Lapack.geqrf(m, n, a, offA, lda, tau);
+	}
+
+	/*
+	 * Overwrites the m x p matrix C with Q * C (or Q^T * C when trans is true), where Q is made of the first k
+	 * reflectors computed by geqrf on the m x n matrix A.
+	 */
+	public static void ormqr(
+			final boolean trans,
+			final int m,
+			final int p,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] tau,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		if (k < 0 || k > m) {
+			throw new IllegalArgumentException(String.format("Invalid number of reflectors: %,d.", k));
+		}
+		assertValidMatrix(a, offA, m, k, lda);
+		assertValidVector(tau, 0, k, 1);
+		assertValidMatrix(c, offC, m, p, ldc);
+		Lapack.ormqr(trans, m, p, k, a, offA, lda, tau, c, offC, ldc);
+	}
+
+	/*
+	 * Computes the eigenvalues of the symmetric n x n matrix A in ascending order into w, by reducing A to tridiagonal
+	 * form. When vectors is true, A is overwritten with the corresponding orthonormal eigenvectors (stored by columns),
+	 * which are computed with a parallel divide and conquer. Otherwise, A is destroyed.
+	 */
+	public static void syev(
+			final boolean vectors, final int n, final double[] a, final int offA, final int lda, final double[] w) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidVector(w, 0, n, 1);
+		Lapack.syev(vectors, n, a, offA, lda, w);
+	}
+
+	/*
+	 * Reduces the n x n matrix A to upper Hessenberg form H = Q^T * A * Q in place. On exit, H is on and above the first
+	 * subdiagonal, while the Householder vectors defining Q are below it and their scalar factors are in the first n-1
+	 * elements of tau.
+	 */
+	public static void gehrd(final int n, final double[] a, final int offA, final int lda, final double[] tau) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidVector(tau, 0, Math.max(0, n - 1), 1);
+		Lapack.gehrd(n, a, offA, lda, tau);
+	}
+
+	/*
+	 * Computes the eigenvalues of the general n x n matrix A, storing their real parts in wr and their imaginary parts
+	 * in wi. A is balanced, reduced to Hessenberg form and then to Schur form with the Francis double-shift QR
+	 * algorithm. A is destroyed.
+	 */
+	public static void geev(
+			final int n, final double[] a, final int offA, final int lda, final double[] wr, final double[] wi) {
+		assertValidMatrix(a, offA, n, n, lda);
+		assertValidVector(wr, 0, n, 1);
+		assertValidVector(wi, 0, n, 1);
+		if (Lapack.geev(n, a, offA, lda, wr, wi) >= 0) {
+			throw new ArithmeticException("QR iteration did not converge.");
 		}
-		return det;
 	}
 
-	public static double[] invert(final double[] m, final int rows, final int columns) {
-		if (rows < 0 || columns < 0) {
-			throw new IllegalArgumentException();
+	/*
+	 * Reduces the m x n matrix A, with m >= n, to upper bidiagonal form B = Q^T * A * P in place. On exit, d holds the
+	 * diagonal of B and e its n-1 superdiagonal elements. The reflectors of Q are stored below the diagonal with their
+	 * scalar factors in tauq, those of P to the right of the first superdiagonal with their scalar factors in taup.
+	 */
+	public static void gebrd(
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] d,
+			final double[] e,
+			final double[] tauq,
+			final double[] taup) {
+		assertValidMatrix(a, offA, m, n, lda);
+		if (m < n) {
+			throw new IllegalArgumentException(
+					String.format("Expected at least as many rows as columns but was %,d x %,d.", m, n));
+		}
+		assertValidVector(d, 0, n, 1);
+		assertValidVector(e, 0, Math.max(0, n - 1), 1);
+		assertValidVector(tauq, 0, n, 1);
+		assertValidVector(taup, 0, Math.max(0, n - 1), 1);
+		Lapack.gebrd(m, n, a, offA, lda, d, e, tauq, taup);
+	}
+
+	/*
+	 * Computes the singular value decomposition A = U * S * V^T of the m x n matrix A with the Golub-Kahan
+	 * bidiagonalization and the implicit QR algorithm. The min(m, n) singular values are stored in descending order
+	 * into s. When vectors is true, U is stored into the m x ku matrix u and V^T into the kv x n matrix vt, where
+	 * ku = kv = min(m, n) when economy is true, otherwise ku = m and kv = n. A is destroyed.
+	 */
+	public static void gesvd(
+			final boolean vectors,
+			final boolean economy,
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] s,
+			final double[] u,
+			final double[] vt) {
+		assertValidSvd(vectors, economy, m, n, a, offA, lda, s, u, vt);
+		if (Lapack.gesvd(vectors, economy, m, n, a, offA, lda, s, u, vt) >= 0) {
+			throw new ArithmeticException("QR iteration did not converge.");
 		}
-		if (m == null) {
-			throw new NullPointerException();
+	}
+
+	/*
+	 * Same as gesvd, but with the one-sided Jacobi algorithm, which is slower but computes even the smallest singular
+	 * values with high relative accuracy. The rotations of each round are applied in parallel.
+	 */
+	public static void gesvj(
+			final boolean vectors,
+			final boolean economy,
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] s,
+			final double[] u,
+			final double[] vt) {
+		assertValidSvd(vectors, economy, m, n, a, offA, lda, s, u, vt);
+		if (Lapack.gesvj(vectors, economy, m, n, a, offA, lda, s, u, vt) >= 0) {
+			throw new ArithmeticException("Jacobi iteration did not converge.");
 		}
-		final int size = rows * columns;
-		if (m.length < size) {
-			throw new IllegalArgumentException();
+	}
+
+	private static void assertValidSvd(
+			final boolean vectors,
+			final boolean economy,
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] s,
+			final double[] u,
+			final double[] vt) {
+		assertValidMatrix(a, offA, m, n, lda);
+		assertValidVector(s, 0, Math.min(m, n), 1);
+		if (vectors) {
+			final int ku = economy ? Math.min(m, n) : m;
+			final int kv = economy ? Math.min(m, n) : n;
+			assertValidMatrix(u, 0, m, ku, Math.max(1, ku));
+			assertValidMatrix(vt, 0, kv, n, Math.max(1, n));
 		}
-		if (rows != columns) {
+	}
+
+	public static double[] randomMatrix(final int rows, final int columns, final double low, final double high) {
+		if (rows < 0 || columns < 0) {
 			throw new IllegalArgumentException();
 		}
-		final double det = determinant(m, rows, columns);
-		if (det == 0.0) {
-			throw new IllegalArgumentException("Matrix is singular, not-invertible.");
+		if (low > high) {
+			throw new IllegalArgumentException();
 		}
-		if (size == 1) {
-			return new double[] {1.0 / m[0]};
+		final double[] m = new double[rows * columns];
+		if (low == high) {
+			set(m, 0, 1, m.length, low);
+		} else {
+			final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(System.nanoTime());
+			for (int i = 0; i < m.length; i++) {
+				m[i] = rng.nextDouble(low, high);
+			}
 		}
+		return m;
+	}
 
-		// prepare copy of current matrix
-		final double[] v = new double[size];
-		System.arraycopy(m, 0, v, 0, size);
-
-		// prepare identity matrix
-		final double[] id = new double[size];
-		set(id, 0, columns + 1, size, 1.0);
+	public static double[] gaussJordan(final double[] m, final int rows, final int columns) {
+		assertValidSquareMatrix(m, 0, rows, columns, columns);
+		final double[] out = new double[rows * columns];
+		System.arraycopy(m, 0, out, 0, rows * columns);
+		gaussJordan(rows, columns, out, 0, columns);
+		return out;
+	}
 
-		for (int i = 0; i < rows; i++) {
-			final double elem = v[i * columns + i];
+	/*
+	 * Reduces in place the rows x columns matrix starting at index offset with leading dimension lda to upper
+	 * triangular form, without pivoting. Elements outside of the matrix are never touched.
+	 */
+	public static void gaussJordan(
+			final int rows, final int columns, final double[] m, final int offset, final int lda) {
+		assertValidSquareMatrix(m, offset, rows, columns, lda);
+		final int n = rows;
+		for (int i = 0; i < n; i++) {
+			final int rowI = offset + i * lda;
+			final double c = m[rowI + i];
+			for (int j = i + 1; j < n; j++) {
+				final int rowJ = offset + j * lda;
+				final double factor = m[rowJ + i] / c;
+				Kernels.INSTANCE.fill(m, rowJ, i + 1, 0.0);
+				Kernels.INSTANCE.axpy(n - i - 1, -factor, m, rowI + i + 1, m, rowJ + i + 1);
+			}
+		}
+	}
 
-			div(v, i * columns, 1, rows, elem);
-			div(id, i * columns, 1, rows, elem);
+	public static double determinant(final double[] m, final int rows, final int columns) {
+		return determinant(rows, columns, m, 0, columns);
+	}
 
-			int j;
-			for (j = 0; j < i; j++) {
-				final double factor = v[j * columns + i];
+	// Computes the determinant of the given matrix without modifying it.
+	public static double determinant(
+			final int rows, final int columns, final double[] m, final int offset, final int lda) {
+		assertValidSquareMatrix(m, offset, rows, columns, lda);
+		final int n = rows;
 
-				axpy(v, j * columns, i * columns, 1, rows, -factor);
-				axpy(id, j * columns, i * columns, 1, rows, -factor);
-			}
+		// Compact copy of the matrix, which gets destroyed by the factorization
+		final double[] tmp = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(m, offset + i * lda, tmp, i * n, n);
+		}
+		final int[] ipiv = new int[n];
+		if (Lapack.getrf(n, n, tmp, 0, n, ipiv) >= 0) {
+			return 0.0;
+		}
 
-			// Skip when i == j
-			j++;
+		double det = 1.0;
+		for (int i = 0; i < n; i++) {
+			det *= ipiv[i] == i ? tmp[i * n + i] : -tmp[i * n + i];
+		}
+		return det;
+	}
 
-			for (; j < rows; j++) {
-				final double factor = v[j * columns + i];
+	public static double[] invert(final double[] m, final int rows, final int columns) {
+		assertValidSquareMatrix(m, 0, rows, columns, columns);
+		final double[] out = new double[rows * columns];
+		System.arraycopy(m, 0, out, 0, rows * columns);
+		invert(rows, columns, out, 0, columns);
+		return out;
+	}
 
-				axpy(v, j * columns, i * columns, 1, rows, -factor);
-				axpy(id, j * columns, i * columns, 1, rows, -factor);
-			}
+	/*
+	 * Inverts in place the rows x columns matrix starting at index offset with leading dimension lda, with
+	 * Gauss-Jordan elimination with partial pivoting. If the matrix turns out to be singular, an exception is thrown
+	 * and its contents are unspecified.
+	 */
+	public static void invert(final int rows, final int columns, final double[] m, final int offset, final int lda) {
+		assertValidSquareMatrix(m, offset, rows, columns, lda);
+		if (Lapack.invert(rows, m, offset, lda, new int[rows]) >= 0) {
+			throw new IllegalArgumentException("Matrix is singular, not-invertible.");
 		}
+	}
 
-		return id;
+	private static void assertValidSquareMatrix(
+			final double[] m, final int offset, final int rows, final int columns, final int lda) {
+		assertValidMatrix(m, offset, rows, columns, lda);
+		if (rows != columns) {
+			throw new IllegalArgumentException(
+					String.format("Matrix must be square but was %,d x %,d.", rows, columns));
+		}
 	}
 }
@@ -0,0 +1,81 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * Low-level loops on contiguous ranges of arrays. Bounds and arguments are assumed to be already checked by the
+ * caller.
+ *
+ * <p>The SIMD implementation lives in a separate source set because it needs the jdk.incubator.vector module: when
+ * that is not available at runtime (or when the system property {@code jalg.vector} is set to {@code false}), the
+ * scalar implementation is used instead.
+ */
+interface Kernels {
+
+	Kernels INSTANCE = load();
+
+	private static Kernels load() {
+		if (!Boolean.parseBoolean(System.getProperty("jalg.vector", "true"))) {
+			return new ScalarKernels();
+		}
+		try {
+			return (Kernels) Class.forName("com.ledmington.jalg.VectorKernels")
+					.getDeclaredConstructor()
+					.newInstance();
+		} catch (final ReflectiveOperationException | LinkageError | UnsupportedOperationException e) {
+			return new ScalarKernels();
+		}
+	}
+
+	// x[start:start+n] = value
+	void fill(final double[] x, final int start, final int n, final double value);
+
+	// x[start:start+n] = -x[start:start+n]
+	void negate(final double[] x, final int start, final int n);
+
+	// x[start:start+n] *= alpha
+	void scale(final double[] x, final int start, final int n, final double alpha);
+
+	// x[start:start+n] /= alpha
+	void divide(final double[] x, final int start, final int n, final double alpha);
+
+	// y[startY:startY+n] += alpha * x[startX:startX+n], the two ranges must coincide or not overlap when x == y
+	void axpy(final int n, final double alpha, final double[] x, final int startX, final double[] y, final int startY);
+
+	// sum(x[startX:startX+n] * y[startY:startY+n])
+	double dot(final int n, final double[] x, final int startX, final double[] y, final int startY);
+
+	// y[startY:startY+n] += alpha * x[startX:startX+n], returning sum(y[startY:startY+n]^2) of the updated range
+	double axpyDot(
+			final int n, final double alpha, final double[] x, final int startX, final double[] y, final int startY);
+
+	// y[startY:startY+n] = x[startX:startX+n] + beta * y[startY:startY+n]
+	void xpby(final int n, final double[] x, final int startX, final double beta, final double[] y, final int startY);
+
+	// z[0:n] = x[0:n] * y[0:n], returning sum(x[0:n] * z[0:n])
+	double multiplyDot(final int n, final double[] x, final double[] y, final double[] z);
+
+	// y[startY:startY+n] += abs(x[startX:startX+n])
+	void addAbs(final int n, final double[] x, final int startX, final double[] y, final int startY);
+
+	// sum(abs(x[start:start+n]))
+	double sumAbs(final double[] x, final int start, final int n);
+
+	// max(abs(x[start:start+n])), NaN if any element is NaN
+	double maxAbs(final double[] x, final int start, final int n);
+}
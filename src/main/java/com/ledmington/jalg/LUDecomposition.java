@@ -0,0 +1,170 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * LU factorization with partial pivoting P * A = L * U of a square matrix. The factorization is computed once, with the
+ * blocked algorithm of {@link Jalg#getrf(int, int, double[], int, int, int[])}, and then reused by every solve.
+ */
+public final class LUDecomposition {
+
+	private final int n;
+	private final double[] lu;
+	private final int[] pivots;
+	private final boolean singular;
+	private final int permutationSign;
+	private final double norm;
+
+	public LUDecomposition(final Matrix<Double> matrix) {
+		Objects.requireNonNull(matrix);
+		if (!matrix.isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		this.n = matrix.getNumRows();
+		this.lu = DoubleMatrix.toArray(matrix);
+		this.norm = Lapack.norm1(n, n, lu, 0, n);
+		this.pivots = new int[n];
+		this.singular = Lapack.getrf(n, n, lu, 0, n, pivots) >= 0;
+
+		int sign = 1;
+		for (int i = 0; i < n; i++) {
+			if (pivots[i] != i) {
+				sign = -sign;
+			}
+		}
+		this.permutationSign = sign;
+	}
+
+	public int getSize() {
+		return n;
+	}
+
+	public boolean isSingular() {
+		return singular;
+	}
+
+	// Unit lower triangular factor L.
+	public DenseMatrix getL() {
+		final double[] l = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(lu, i * n, l, i * n, i);
+			l[i * n + i] = 1.0;
+		}
+		return new DenseMatrix(n, n, l);
+	}
+
+	// Upper triangular factor U.
+	public DenseMatrix getU() {
+		final double[] u = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(lu, i * n + i, u, i * n + i, n - i);
+		}
+		return new DenseMatrix(n, n, u);
+	}
+
+	// Row i of the matrix was swapped with row getPivots()[i], in order.
+	public int[] getPivots() {
+		return pivots.clone();
+	}
+
+	public double determinant() {
+		if (singular) {
+			return 0.0;
+		}
+		double det = permutationSign;
+		for (int i = 0; i < n; i++) {
+			det *= lu[i * n + i];
+		}
+		return det;
+	}
+
+	/*
+	 * Returns an estimate of the reciprocal of the 1-norm condition number of the matrix, computed from the
+	 * factorization with a few triangular solves instead of forming the inverse. Returns zero for singular matrices.
+	 */
+	public double reciprocalConditionNumber() {
+		return singular ? 0.0 : Lapack.gecon(n, lu, 0, n, pivots, norm);
+	}
+
+	// Estimate of the 1-norm condition number, which is infinite for singular matrices.
+	public double conditionNumber() {
+		final double rcond = reciprocalConditionNumber();
+		return rcond == 0.0 ? Double.POSITIVE_INFINITY : 1.0 / rcond;
+	}
+
+	private void assertNotSingular() {
+		if (singular) {
+			throw new IllegalArgumentException("Matrix is singular, not-invertible.");
+		}
+	}
+
+	public double[] solve(final double[] b) {
+		Objects.requireNonNull(b);
+		if (b.length != n) {
+			throw new IllegalArgumentException(
+					String.format("Expected a vector of %,d elements but was %,d.", n, b.length));
+		}
+		final double[] x = b.clone();
+		solveInPlace(x, 0, 1, 1);
+		return x;
+	}
+
+	public DenseMatrix solve(final Matrix<Double> b) {
+		Objects.requireNonNull(b);
+		if (b.getNumRows() != n) {
+			throw new IllegalArgumentException(
+					String.format("Expected a matrix with %,d rows but was %,d.", n, b.getNumRows()));
+		}
+		final int nrhs = b.getNumColumns();
+		final double[] x = DoubleMatrix.toArray(b);
+		solveInPlace(x, 0, nrhs, nrhs);
+		return new DenseMatrix(n, nrhs, x);
+	}
+
+	/*
+	 * Overwrites the n x nrhs row-major matrix B, starting at index offset with leading dimension ldb, with the
+	 * solution of A * X = B.
+	 */
+	public void solveInPlace(final double[] b, final int offset, final int nrhs, final int ldb) {
+		solveInPlace(false, b, offset, nrhs, ldb);
+	}
+
+	void solveInPlace(final boolean trans, final double[] b, final int offset, final int nrhs, final int ldb) {
+		assertNotSingular();
+		Objects.requireNonNull(b);
+		if (nrhs < 0 || ldb < Math.max(1, nrhs) || offset < 0) {
+			throw new IllegalArgumentException("Invalid right-hand side.");
+		}
+		if (n > 0 && nrhs > 0 && (long) offset + (long) (n - 1) * ldb + nrhs > b.length) {
+			throw new IllegalArgumentException("Right-hand side does not fit in the given array.");
+		}
+		Lapack.getrs(trans, n, nrhs, lu, 0, n, pivots, b, offset, ldb);
+	}
+
+	public DenseMatrix inverse() {
+		assertNotSingular();
+		final double[] inv = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			inv[i * n + i] = 1.0;
+		}
+		Lapack.getrs(false, n, n, lu, 0, n, pivots, inv, 0, n);
+		return new DenseMatrix(n, n, inv);
+	}
+}
@@ -0,0 +1,1373 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Factorization kernels on row-major arrays, following the structure of the LAPACK routines with the same names. The
+ * blocked algorithms factor a narrow panel with dedicated loops and then update the trailing matrix with {@link Level3}
+ * and {@link Gemm}. Arguments are assumed to be already checked.
+ */
+final class Lapack {
+
+	// Width of the panels
+	static final int NB = 64;
+
+	// Height of the blocks of rows of the trailing update in sytrd
+	private static final int TRIDIAGONAL_TILE = 256;
+
+	// Number of trailing columns reduced to Hessenberg form without blocking
+	private static final int HESSENBERG_CROSSOVER = 128;
+
+	// Number of trailing columns reduced to bidiagonal form without blocking
+	private static final int BIDIAGONAL_CROSSOVER = 128;
+
+	// Maximum number of steps and relative tolerance of the power method in norm2
+	private static final int POWER_ITERATIONS = 10_000;
+	private static final double POWER_TOLERANCE = 1e-12;
+
+	private Lapack() {}
+
+	private static void swapRows(
+			final double[] a, final int offA, final int lda, final int n, final int r1, final int r2) {
+		if (r1 == r2) {
+			return;
+		}
+		final int row1 = offA + r1 * lda;
+		final int row2 = offA + r2 * lda;
+		for (int j = 0; j < n; j++) {
+			final double tmp = a[row1 + j];
+			a[row1 + j] = a[row2 + j];
+			a[row2 + j] = tmp;
+		}
+	}
+
+	/*
+	 * Blocked right-looking LU factorization with partial pivoting of the m x n matrix A, such that P * A = L * U. On
+	 * exit, A holds L (with implicit unit diagonal) below the diagonal and U on and above it. Row i was swapped with row
+	 * ipiv[i]. Returns the index of the first exactly zero pivot, or -1 if there is none.
+	 */
+	static int getrf(final int m, final int n, final double[] a, final int offA, final int lda, final int[] ipiv) {
+		final int mn = Math.min(m, n);
+		int info = -1;
+		for (int j0 = 0; j0 < mn; j0 += NB) {
+			final int jb = Math.min(NB, mn - j0);
+
+			// Unblocked factorization of the panel A[j0:m, j0:j0+jb]; swaps are applied to whole rows
+			for (int j = j0; j < j0 + jb; j++) {
+				int p = j;
+				double max = Math.abs(a[offA + j * lda + j]);
+				for (int i = j + 1; i < m; i++) {
+					final double v = Math.abs(a[offA + i * lda + j]);
+					if (v > max) {
+						max = v;
+						p = i;
+					}
+				}
+				ipiv[j] = p;
+				swapRows(a, offA, lda, n, j, p);
+
+				final int rowJ = offA + j * lda;
+				final double pivot = a[rowJ + j];
+				if (pivot == 0.0) {
+					if (info < 0) {
+						info = j;
+					}
+					continue;
+				}
+				final int len = j0 + jb - j - 1;
+				for (int i = j + 1; i < m; i++) {
+					final int rowI = offA + i * lda;
+					final double l = a[rowI + j] / pivot;
+					a[rowI + j] = l;
+					if (len > 0) {
+						Kernels.INSTANCE.axpy(len, -l, a, rowJ + j + 1, a, rowI + j + 1);
+					}
+				}
+			}
+
+			final int rest = n - j0 - jb;
+			if (rest > 0) {
+				// U12 = L11^-1 * A12
+				Level3.trsm(
+						true,
+						false,
+						false,
+						true,
+						jb,
+						rest,
+						1.0,
+						a,
+						offA + j0 * lda + j0,
+						lda,
+						a,
+						offA + j0 * lda + j0 + jb,
+						lda);
+				// A22 -= L21 * U12
+				if (m > j0 + jb) {
+					Gemm.gemm(
+							false,
+							false,
+							m - j0 - jb,
+							rest,
+							jb,
+							-1.0,
+							a,
+							offA + (j0 + jb) * lda + j0,
+							lda,
+							a,
+							offA + j0 * lda + j0 + jb,
+							lda,
+							1.0,
+							a,
+							offA + (j0 + jb) * lda + j0 + jb,
+							lda);
+				}
+			}
+		}
+		return info;
+	}
+
+	/*
+	 * Solves A * X = B (or A^T * X = B when trans is true) with the factorization computed by getrf, overwriting the
+	 * n x nrhs matrix B with X.
+	 */
+	static void getrs(
+			final boolean trans,
+			final int n,
+			final int nrhs,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final int[] ipiv,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		if (!trans) {
+			// L * U * X = P * B
+			for (int i = 0; i < n; i++) {
+				swapRows(b, offB, ldb, nrhs, i, ipiv[i]);
+			}
+			triangularSolve(false, false, true, n, nrhs, a, offA, lda, b, offB, ldb);
+			triangularSolve(true, false, false, n, nrhs, a, offA, lda, b, offB, ldb);
+		} else {
+			// U^T * L^T * (P * X) = B
+			triangularSolve(true, true, false, n, nrhs, a, offA, lda, b, offB, ldb);
+			triangularSolve(false, true, true, n, nrhs, a, offA, lda, b, offB, ldb);
+			for (int i = n - 1; i >= 0; i--) {
+				swapRows(b, offB, ldb, nrhs, i, ipiv[i]);
+			}
+		}
+	}
+
+	// Left triangular solve which avoids the blocked machinery for a single right-hand side
+	static void triangularSolve(
+			final boolean upper,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int n,
+			final int nrhs,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		if (nrhs == 1) {
+			Level2.trsv(upper, trans, unitDiagonal, n, a, offA, lda, b, offB, ldb);
+		} else {
+			Level3.trsm(true, upper, trans, unitDiagonal, n, nrhs, 1.0, a, offA, lda, b, offB, ldb);
+		}
+	}
+
+	/*
+	 * Blocked right-looking Cholesky factorization A = L * L^T of the n x n symmetric positive definite matrix A, of
+	 * which only the lower triangle is read and overwritten with L. Stops as soon as a non-positive pivot is found and
+	 * returns its index, or -1 if the matrix is positive definite.
+	 */
+	static int potrf(final int n, final double[] a, final int offA, final int lda) {
+		for (int k0 = 0; k0 < n; k0 += NB) {
+			final int kb = Math.min(NB, n - k0);
+			final int offD = offA + k0 * lda + k0;
+
+			// Unblocked left-looking factorization of the diagonal block, using dot products on contiguous rows
+			for (int j = 0; j < kb; j++) {
+				final int rowJ = offD + j * lda;
+				final double d = a[rowJ + j] - Kernels.INSTANCE.dot(j, a, rowJ, a, rowJ);
+				if (!(d > 0.0)) {
+					return k0 + j;
+				}
+				final double ljj = Math.sqrt(d);
+				a[rowJ + j] = ljj;
+				for (int i = j + 1; i < kb; i++) {
+					final int rowI = offD + i * lda;
+					a[rowI + j] = (a[rowI + j] - Kernels.INSTANCE.dot(j, a, rowI, a, rowJ)) / ljj;
+				}
+			}
+
+			final int rest = n - k0 - kb;
+			if (rest > 0) {
+				final int offPanel = offA + (k0 + kb) * lda + k0;
+				// L21 = A21 * L11^-T
+				Level3.trsm(false, false, true, false, rest, kb, 1.0, a, offD, lda, a, offPanel, lda);
+				// A22 -= L21 * L21^T
+				Level3.syrk(false, false, rest, kb, -1.0, a, offPanel, lda, 1.0, a, offPanel + kb, lda);
+			}
+		}
+		return -1;
+	}
+
+	// Solves A * X = B with the factorization A = L * L^T computed by potrf, overwriting the n x nrhs matrix B with X.
+	static void potrs(
+			final int n,
+			final int nrhs,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		triangularSolve(false, false, false, n, nrhs, a, offA, lda, b, offB, ldb);
+		triangularSolve(false, true, false, n, nrhs, a, offA, lda, b, offB, ldb);
+	}
+
+	/*
+	 * Inverts in place the n x n matrix A with Gauss-Jordan elimination with partial pivoting. Each column of the
+	 * identity replaces the column of A which has just been eliminated, so ipiv, of at least n elements, is the only
+	 * workspace. Row swaps are undone at the end as column swaps. Returns the index of the first zero pivot, in which
+	 * case the contents of A are unspecified, or -1 if A has been inverted.
+	 */
+	static int invert(final int n, final double[] m, final int offset, final int lda, final int[] ipiv) {
+		for (int i = 0; i < n; i++) {
+			int p = i;
+			double max = Math.abs(m[offset + i * lda + i]);
+			for (int r = i + 1; r < n; r++) {
+				final double v = Math.abs(m[offset + r * lda + i]);
+				if (v > max) {
+					max = v;
+					p = r;
+				}
+			}
+			ipiv[i] = p;
+			if (p != i) {
+				final int rowI = offset + i * lda;
+				final int rowP = offset + p * lda;
+				for (int j = 0; j < n; j++) {
+					final double tmp = m[rowI + j];
+					m[rowI + j] = m[rowP + j];
+					m[rowP + j] = tmp;
+				}
+			}
+
+			final int rowI = offset + i * lda;
+			final double elem = m[rowI + i];
+			if (elem == 0.0) {
+				return i;
+			}
+
+			m[rowI + i] = 1.0;
+			Kernels.INSTANCE.divide(m, rowI, n, elem);
+
+			for (int j = 0; j < n; j++) {
+				if (j == i) {
+					continue;
+				}
+				final int rowJ = offset + j * lda;
+				final double factor = m[rowJ + i];
+				m[rowJ + i] = 0.0;
+				Kernels.INSTANCE.axpy(n, -factor, m, rowI, m, rowJ);
+			}
+		}
+
+		for (int i = n - 1; i >= 0; i--) {
+			final int p = ipiv[i];
+			if (p != i) {
+				for (int r = 0; r < n; r++) {
+					final int row = offset + r * lda;
+					final double tmp = m[row + i];
+					m[row + i] = m[row + p];
+					m[row + p] = tmp;
+				}
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Computes the requested norm of the m x n matrix A. Every norm but the spectral one is computed in a single pass
+	 * over the rows of A.
+	 */
+	static double lange(
+			final NormType type, final int m, final int n, final double[] a, final int offA, final int lda) {
+		return switch (type) {
+			case FROBENIUS -> normFrobenius(m, n, a, offA, lda);
+			case ONE -> norm1(m, n, a, offA, lda);
+			case INFINITY -> normInf(m, n, a, offA, lda);
+			case MAX_ABS -> normMax(m, n, a, offA, lda);
+			case SPECTRAL -> norm2(m, n, a, offA, lda);
+		};
+	}
+
+	// Maximum absolute column sum of the m x n matrix A
+	static double norm1(final int m, final int n, final double[] a, final int offA, final int lda) {
+		final double[] sums = new double[n];
+		for (int i = 0; i < m; i++) {
+			Kernels.INSTANCE.addAbs(n, a, offA + i * lda, sums, 0);
+		}
+		return Kernels.INSTANCE.maxAbs(sums, 0, n);
+	}
+
+	// 1-norm of the symmetric n x n matrix A, of which only the lower triangle is read
+	static double symmetricNorm1(final int n, final double[] a, final int offA, final int lda) {
+		final double[] sums = new double[n];
+		for (int i = 0; i < n; i++) {
+			final int row = offA + i * lda;
+			Kernels.INSTANCE.addAbs(i, a, row, sums, 0);
+			sums[i] += Kernels.INSTANCE.sumAbs(a, row, i + 1);
+		}
+		return Kernels.INSTANCE.maxAbs(sums, 0, n);
+	}
+
+	// Maximum absolute row sum of the m x n matrix A
+	static double normInf(final int m, final int n, final double[] a, final int offA, final int lda) {
+		double max = 0.0;
+		for (int i = 0; i < m; i++) {
+			max = Math.max(max, Kernels.INSTANCE.sumAbs(a, offA + i * lda, n));
+		}
+		return max;
+	}
+
+	// Largest absolute value in the m x n matrix A
+	static double normMax(final int m, final int n, final double[] a, final int offA, final int lda) {
+		double max = 0.0;
+		for (int i = 0; i < m; i++) {
+			max = Math.max(max, Kernels.INSTANCE.maxAbs(a, offA + i * lda, n));
+		}
+		return max;
+	}
+
+	/*
+	 * Frobenius norm of the m x n matrix A. The sum of squares is accumulated without scaling and, only when it
+	 * overflows or falls where squares of small elements may have underflowed, A is read once more with a scaled sum.
+	 */
+	static double normFrobenius(final int m, final int n, final double[] a, final int offA, final int lda) {
+		double ssq = 0.0;
+		for (int i = 0; i < m; i++) {
+			final int row = offA + i * lda;
+			ssq += Kernels.INSTANCE.dot(n, a, row, a, row);
+		}
+		if (ssq >= 0x1p-969 && ssq < Double.POSITIVE_INFINITY) {
+			return Math.sqrt(ssq);
+		}
+		final double max = normMax(m, n, a, offA, lda);
+		if (max == 0.0 || !Double.isFinite(max)) {
+			return max;
+		}
+		ssq = 0.0;
+		for (int i = 0; i < m; i++) {
+			final int row = offA + i * lda;
+			for (int j = 0; j < n; j++) {
+				final double r = a[row + j] / max;
+				ssq += r * r;
+			}
+		}
+		return max * Math.sqrt(ssq);
+	}
+
+	/*
+	 * Estimates the spectral norm of the m x n matrix A with the power method on A^T * A. Each iteration costs two
+	 * matrix-vector products, the estimate never exceeds the exact value and its error shrinks by (s2 / s1)^2 at every
+	 * step, where s1 and s2 are the two largest singular values of A.
+	 */
+	static double norm2(final int m, final int n, final double[] a, final int offA, final int lda) {
+		final double max = normMax(m, n, a, offA, lda);
+		if (max == 0.0 || !Double.isFinite(max)) {
+			return max;
+		}
+		if (max < 0x1p-300 || max > 0x1p300) {
+			// Scales A by a power of 2 so that the products below can neither overflow nor underflow
+			final int e = Math.getExponent(max);
+			final double[] scaled = new double[m * n];
+			for (int i = 0; i < m; i++) {
+				for (int j = 0; j < n; j++) {
+					scaled[i * n + j] = Math.scalb(a[offA + i * lda + j], -e);
+				}
+			}
+			return Math.scalb(norm2(m, n, scaled, 0, n), e);
+		}
+
+		// A fixed seed keeps the estimate reproducible
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(n);
+		final double[] x = new double[n];
+		final double[] y = new double[m];
+		for (int j = 0; j < n; j++) {
+			x[j] = rng.nextDouble(-1.0, 1.0);
+		}
+		Kernels.INSTANCE.divide(x, 0, n, Level2.nrm2(n, x, 0, 1));
+
+		final double[] w = new double[n];
+		double est = 0.0;
+		for (int it = 0; it < POWER_ITERATIONS; it++) {
+			Level2.gemv(false, m, n, 1.0, a, offA, lda, x, 0, 1, 0.0, y, 0, 1);
+			final double ny = Level2.nrm2(m, y, 0, 1);
+			if (ny == 0.0) {
+				// x lies in the null space of A
+				return est;
+			}
+			Level2.gemv(true, m, n, 1.0, a, offA, lda, y, 0, 1, 0.0, w, 0, 1);
+			final double nw = Level2.nrm2(n, w, 0, 1);
+
+			// |A^T * A * x| / |A * x| lies between |A * x| and the spectral norm
+			est = Math.max(est, nw / ny);
+
+			/*
+			 * The residual A^T * A * x - |A * x|^2 * x bounds the distance of the Rayleigh quotient |A * x|^2 from an
+			 * eigenvalue of A^T * A: unlike the progress of the estimate, it stays large while x still mixes the
+			 * singular vectors of two close singular values.
+			 */
+			final double rayleigh = ny * ny;
+			for (int j = 0; j < n; j++) {
+				x[j] = w[j] - rayleigh * x[j];
+			}
+			final double residual = Level2.nrm2(n, x, 0, 1);
+			System.arraycopy(w, 0, x, 0, n);
+			Kernels.INSTANCE.divide(x, 0, n, nw);
+			if (residual <= POWER_TOLERANCE * rayleigh) {
+				return est;
+			}
+		}
+		return est;
+	}
+
+	// Overwrites the vector x with A^-1 * x, or with A^-T * x when trans is true
+	@FunctionalInterface
+	interface InverseOperator {
+		void apply(final boolean trans, final double[] x);
+	}
+
+	/*
+	 * Estimates the 1-norm of the inverse of a n x n matrix with Hager's method, as refined by Higham in LAPACK's
+	 * lacn2, using only a few products with the inverse and its transpose. The estimate is a lower bound, which is
+	 * rarely smaller than the exact value by more than a factor of 3.
+	 */
+	static double lacn2(final int n, final InverseOperator inverse) {
+		final double[] x = new double[n];
+		Arrays.fill(x, 1.0 / n);
+		double est = ratio(n, x, inverse);
+		if (n == 1) {
+			return est;
+		}
+
+		final double[] signs = new double[n];
+		final double[] z = new double[n];
+		for (int i = 0; i < n; i++) {
+			signs[i] = x[i] >= 0.0 ? 1.0 : -1.0;
+		}
+		int j = maxGradient(n, signs, z, inverse);
+		for (int iter = 2; iter <= 5; iter++) {
+			// x = A^-1 * e_j
+			Arrays.fill(x, 0.0);
+			x[j] = 1.0;
+			inverse.apply(false, x);
+			final double old = est;
+			est = Math.max(est, asum(n, x));
+
+			boolean sameSigns = true;
+			for (int i = 0; i < n; i++) {
+				final double s = x[i] >= 0.0 ? 1.0 : -1.0;
+				sameSigns &= s == signs[i];
+				signs[i] = s;
+			}
+			// Stop when the signs repeat or the estimate does not grow anymore
+			if (sameSigns || est <= old) {
+				break;
+			}
+			final int last = j;
+			j = maxGradient(n, signs, z, inverse);
+			if (Math.abs(z[last]) == Math.abs(z[j])) {
+				break;
+			}
+		}
+
+		// An alternating vector catches the cases where the gradient steps get stuck
+		for (int i = 0; i < n; i++) {
+			x[i] = (i % 2 == 0 ? 1.0 : -1.0) * (1.0 + (double) i / (n - 1));
+		}
+		return Math.max(est, ratio(n, x, inverse));
+	}
+
+	// Returns ||A^-1 * x||_1 / ||x||_1, overwriting x with A^-1 * x.
+	private static double ratio(final int n, final double[] x, final InverseOperator inverse) {
+		final double norm = asum(n, x);
+		inverse.apply(false, x);
+		return asum(n, x) / norm;
+	}
+
+	// Overwrites z with A^-T * signs and returns the index of its largest element in absolute value.
+	private static int maxGradient(final int n, final double[] signs, final double[] z, final InverseOperator inverse) {
+		System.arraycopy(signs, 0, z, 0, n);
+		inverse.apply(true, z);
+		int j = 0;
+		for (int i = 1; i < n; i++) {
+			if (Math.abs(z[i]) > Math.abs(z[j])) {
+				j = i;
+			}
+		}
+		return j;
+	}
+
+	private static double asum(final int n, final double[] x) {
+		double s = 0.0;
+		for (int i = 0; i < n; i++) {
+			s += Math.abs(x[i]);
+		}
+		return s;
+	}
+
+	/*
+	 * Estimates the reciprocal of the 1-norm condition number of the n x n matrix A, given its factorization computed
+	 * by getrf and its 1-norm anorm. Returns zero when A is singular to working precision.
+	 */
+	static double gecon(
+			final int n, final double[] a, final int offA, final int lda, final int[] ipiv, final double anorm) {
+		if (n == 0) {
+			return 1.0;
+		}
+		if (anorm == 0.0) {
+			return 0.0;
+		}
+		final double ainvnm = lacn2(n, (trans, x) -> getrs(trans, n, 1, a, offA, lda, ipiv, x, 0, 1));
+		return reciprocal(ainvnm, anorm);
+	}
+
+	/*
+	 * Estimates the reciprocal of the 1-norm condition number of the n x n symmetric positive definite matrix A, given
+	 * its factorization computed by potrf and its 1-norm anorm.
+	 */
+	static double pocon(final int n, final double[] a, final int offA, final int lda, final double anorm) {
+		if (n == 0) {
+			return 1.0;
+		}
+		if (anorm == 0.0) {
+			return 0.0;
+		}
+		final double ainvnm = lacn2(n, (trans, x) -> potrs(n, 1, a, offA, lda, x, 0, 1));
+		return reciprocal(ainvnm, anorm);
+	}
+
+	private static double reciprocal(final double ainvnm, final double anorm) {
+		final double rcond = 1.0 / ainvnm / anorm;
+		return Double.isFinite(ainvnm) && rcond > 0.0 ? rcond : 0.0;
+	}
+
+	/*
+	 * Blocked Householder QR factorization A = Q * R of the m x n matrix A. On exit, R is on and above the diagonal and
+	 * the Householder vectors (with implicit unit first element) are below it, while tau holds the min(m, n) scalar
+	 * factors, so that Q = H(0) * H(1) * ... with H(i) = I - tau[i] * v(i) * v(i)^T. Each panel is factored with
+	 * unblocked Householder reflections, then the trailing matrix is updated with the compact WY representation
+	 * I - V * T * V^T of the panel, which turns the update into matrix-matrix products.
+	 */
+	static void geqrf(final int m, final int n, final double[] a, final int offA, final int lda, final double[] tau) {
+		final int k = Math.min(m, n);
+		final double[] w = new double[Math.min(NB, Math.max(1, n))];
+		for (int j0 = 0; j0 < k; j0 += NB) {
+			final int jb = Math.min(NB, k - j0);
+
+			// Unblocked factorization of the panel A[j0:m, j0:j0+jb]
+			for (int j = j0; j < j0 + jb; j++) {
+				tau[j] = householder(m - j, a, offA + j * lda + j, lda);
+				final int cols = j0 + jb - j - 1;
+				if (tau[j] != 0.0 && cols > 0) {
+					applyReflector(m - j, cols, tau[j], a, offA + j * lda + j, lda, a, offA + j * lda + j + 1, lda, w);
+				}
+			}
+
+			final int rest = n - j0 - jb;
+			if (rest > 0) {
+				final int mv = m - j0;
+				final double[] v = explicitReflectors(mv, jb, a, offA + j0 * lda + j0, lda);
+				final double[] t = triangularFactor(mv, jb, v, tau, j0);
+				applyBlockReflector(true, mv, rest, jb, v, t, a, offA + j0 * lda + j0 + jb, lda);
+			}
+		}
+	}
+
+	/*
+	 * Overwrites the m x p matrix C with Q * C (or Q^T * C when trans is true), where Q is the product of the k
+	 * reflectors computed by geqrf and stored in the m x n matrix A.
+	 */
+	static void ormqr(
+			final boolean trans,
+			final int m,
+			final int p,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] tau,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		if (m == 0 || p == 0 || k == 0) {
+			return;
+		}
+		final int blocks = (k + NB - 1) / NB;
+		for (int b = 0; b < blocks; b++) {
+			// Q^T = ... * Q(1)^T * Q(0)^T is applied starting from the first block, Q from the last one
+			final int j0 = (trans ? b : blocks - 1 - b) * NB;
+			final int jb = Math.min(NB, k - j0);
+			final int mv = m - j0;
+			final double[] v = explicitReflectors(mv, jb, a, offA + j0 * lda + j0, lda);
+			final double[] t = triangularFactor(mv, jb, v, tau, j0);
+			applyBlockReflector(trans, mv, p, jb, v, t, c, offC + j0 * ldc, ldc);
+		}
+	}
+
+	/*
+	 * Generates the elementary reflector H = I - tau * v * v^T such that H * x = (beta, 0, ..., 0)^T, where x is made
+	 * of the n elements starting at index off with stride inc. On exit, x is overwritten by beta followed by v(1:n)
+	 * (v(0) is 1 and not stored). Returns tau, which is zero when x is already in the right form.
+	 */
+	static double householder(final int n, final double[] x, final int off, final int inc) {
+		if (n <= 1) {
+			return 0.0;
+		}
+		final double xnorm = Level2.nrm2(n - 1, x, off + inc, inc);
+		if (xnorm == 0.0) {
+			return 0.0;
+		}
+		final double alpha = x[off];
+		final double beta = -Math.copySign(Math.hypot(alpha, xnorm), alpha);
+		final double scale = 1.0 / (alpha - beta);
+		for (int i = 1; i < n; i++) {
+			x[off + i * inc] *= scale;
+		}
+		x[off] = beta;
+		return (beta - alpha) / beta;
+	}
+
+	/*
+	 * Applies H = I - tau * v * v^T from the left to the rows x cols matrix C, where v is stored column-wise below the
+	 * element at index offV (with implicit unit first element). w is a scratch buffer of at least cols elements.
+	 */
+	static void applyReflector(
+			final int rows,
+			final int cols,
+			final double tau,
+			final double[] v,
+			final int offV,
+			final int ldv,
+			final double[] c,
+			final int offC,
+			final int ldc,
+			final double[] w) {
+		// w = C^T * v
+		System.arraycopy(c, offC, w, 0, cols);
+		for (int i = 1; i < rows; i++) {
+			Kernels.INSTANCE.axpy(cols, v[offV + i * ldv], c, offC + i * ldc, w, 0);
+		}
+		// C -= tau * v * w^T
+		Kernels.INSTANCE.axpy(cols, -tau, w, 0, c, offC);
+		for (int i = 1; i < rows; i++) {
+			Kernels.INSTANCE.axpy(cols, -tau * v[offV + i * ldv], w, 0, c, offC + i * ldc);
+		}
+	}
+
+	// Applies H = I - tau * v * v^T from the right to the rows x cols matrix C, where v is contiguous with v[0] = 1.
+	static void applyReflectorRight(
+			final int rows,
+			final int cols,
+			final double tau,
+			final double[] v,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		for (int i = 0; i < rows; i++) {
+			final int row = offC + i * ldc;
+			final double s = Kernels.INSTANCE.dot(cols, c, row, v, 0);
+			Kernels.INSTANCE.axpy(cols, -tau * s, v, 0, c, row);
+		}
+	}
+
+	// Copies the mv x jb unit lower trapezoidal matrix V into a compact buffer, with explicit ones and zeros.
+	private static double[] explicitReflectors(
+			final int mv, final int jb, final double[] a, final int offA, final int lda) {
+		final double[] v = new double[mv * jb];
+		for (int i = 0; i < mv; i++) {
+			final int len = Math.min(i, jb);
+			System.arraycopy(a, offA + i * lda, v, i * jb, len);
+			if (i < jb) {
+				v[i * jb + i] = 1.0;
+			}
+		}
+		return v;
+	}
+
+	/*
+	 * Forms the jb x jb upper triangular factor T of the block reflector H(0) * ... * H(jb-1) = I - V * T * V^T, where
+	 * the scalar factors start at tau[off].
+	 */
+	private static double[] triangularFactor(
+			final int mv, final int jb, final double[] v, final double[] tau, final int off) {
+		final double[] t = new double[jb * jb];
+		final double[] z = new double[jb];
+		for (int i = 0; i < jb; i++) {
+			final double ti = tau[off + i];
+			t[i * jb + i] = ti;
+			if (ti == 0.0 || i == 0) {
+				continue;
+			}
+			// z = V[:, 0:i]^T * v(i), where v(i) is zero above row i
+			Arrays.fill(z, 0, i, 0.0);
+			for (int l = i; l < mv; l++) {
+				Kernels.INSTANCE.axpy(i, v[l * jb + i], v, l * jb, z, 0);
+			}
+			// T[0:i, i] = -tau(i) * T[0:i, 0:i] * z
+			for (int r = 0; r < i; r++) {
+				double s = 0.0;
+				for (int q = r; q < i; q++) {
+					s += t[r * jb + q] * z[q];
+				}
+				t[r * jb + i] = -ti * s;
+			}
+		}
+		return t;
+	}
+
+	// C = (I - V * op(T) * V^T) * C, with op(T) = T^T when trans is true.
+	private static void applyBlockReflector(
+			final boolean trans,
+			final int mv,
+			final int p,
+			final int jb,
+			final double[] v,
+			final double[] t,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		final double[] w = new double[jb * p];
+		final double[] tw = new double[jb * p];
+		Gemm.gemm(true, false, jb, p, mv, 1.0, v, 0, jb, c, offC, ldc, 0.0, w, 0, p);
+		Gemm.sequential(trans, false, jb, p, jb, 1.0, t, 0, jb, w, 0, p, 0.0, tw, 0, p);
+		Gemm.gemm(false, false, mv, p, jb, -1.0, v, 0, jb, tw, 0, p, 1.0, c, offC, ldc);
+	}
+
+	/*
+	 * Reduces the symmetric n x n matrix A to tridiagonal form T = Q^T * A * Q, reading only its upper triangle. On
+	 * exit, d holds the diagonal of T, e the n-1 off-diagonal elements and, for each i < n - 1, row i of A holds the
+	 * Householder vector of H(i) to the right of its first superdiagonal element (which is 1 and not stored), with
+	 * Q = H(0) * ... * H(n-2). The rest of A is destroyed. Panels of NB reflectors are accumulated as in LAPACK's
+	 * latrd, so that the trailing matrix is updated with a rank-2k matrix-matrix product.
+	 */
+	static void sytrd(
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] d,
+			final double[] e,
+			final double[] tau) {
+		final double[] w = new double[Math.min(NB, n) * n];
+		final double[] t = new double[NB];
+		for (int j0 = 0; j0 < n; j0 += NB) {
+			final int jb = Math.min(NB, n - j0);
+			for (int i = 0; i < jb; i++) {
+				final int j = j0 + i;
+				final int row = offA + j * lda;
+
+				// Apply the previous reflectors of the panel to row j
+				Level2.gemv(true, i, n - j, -1.0, a, offA + j0 * lda + j, lda, w, j, n, 1.0, a, row + j, 1);
+				Level2.gemv(true, i, n - j, -1.0, w, j, n, a, offA + j0 * lda + j, lda, 1.0, a, row + j, 1);
+				if (j == n - 1) {
+					break;
+				}
+
+				final int len = n - j - 1;
+				tau[j] = householder(len, a, row + j + 1, 1);
+				e[j] = a[row + j + 1];
+				a[row + j + 1] = 1.0;
+
+				// W(i) = tau * (A - V * W^T - W * V^T) * v, then W(i) -= (tau / 2) * (W(i)^T * v) * v
+				final int wi = i * n + j + 1;
+				Level2.symv(true, len, 1.0, a, offA + (j + 1) * lda + j + 1, lda, a, row + j + 1, 1, 0.0, w, wi, 1);
+				Level2.gemv(false, i, len, 1.0, w, j + 1, n, a, row + j + 1, 1, 0.0, t, 0, 1);
+				Level2.gemv(true, i, len, -1.0, a, offA + j0 * lda + j + 1, lda, t, 0, 1, 1.0, w, wi, 1);
+				Level2.gemv(false, i, len, 1.0, a, offA + j0 * lda + j + 1, lda, a, row + j + 1, 1, 0.0, t, 0, 1);
+				Level2.gemv(true, i, len, -1.0, w, j + 1, n, t, 0, 1, 1.0, w, wi, 1);
+				Level2.scale(len, tau[j], w, wi, 1);
+				final double alpha = -0.5 * tau[j] * Level2.dot(len, w, wi, 1, a, row + j + 1, 1);
+				Level2.axpy(len, alpha, a, row + j + 1, 1, w, wi, 1);
+			}
+
+			// A22 -= V * W^T + W * V^T, on the upper triangle only, one block of rows at a time
+			final int s = j0 + jb;
+			for (int i0 = s; i0 < n; i0 += TRIDIAGONAL_TILE) {
+				final int ib = Math.min(TRIDIAGONAL_TILE, n - i0);
+				final int r = n - i0;
+				final int offV = offA + j0 * lda + i0;
+				final int offA22 = offA + i0 * lda + i0;
+				Gemm.gemm(true, false, ib, r, jb, -1.0, a, offV, lda, w, i0, n, 1.0, a, offA22, lda);
+				Gemm.gemm(true, false, ib, r, jb, -1.0, w, i0, n, a, offV, lda, 1.0, a, offA22, lda);
+			}
+
+			for (int j = j0; j < s; j++) {
+				d[j] = a[offA + j * lda + j];
+				if (j < n - 1) {
+					a[offA + j * lda + j + 1] = e[j];
+				}
+			}
+		}
+	}
+
+	/*
+	 * Copies the reflectors stored by rows to the right of the first superdiagonal of A (as computed by sytrd and gebrd)
+	 * into a (n-1) x (n-1) matrix laid out as the output of geqrf, so that Q = diag(1, Q') can be applied with ormqr.
+	 */
+	private static double[] rowReflectors(final int n, final double[] a, final int offA, final int lda) {
+		final int m = n - 1;
+		final double[] v = new double[m * m];
+		for (int j = 0; j < m; j++) {
+			for (int i = j + 1; i < m; i++) {
+				v[i * m + j] = a[offA + j * lda + i + 1];
+			}
+		}
+		return v;
+	}
+
+	/*
+	 * Computes the eigenvalues of the symmetric n x n matrix A in ascending order into w. When vectors is true, A is
+	 * overwritten with the orthonormal eigenvectors (stored by columns), otherwise it is destroyed.
+	 */
+	static void syev(
+			final boolean vectors, final int n, final double[] a, final int offA, final int lda, final double[] w) {
+		if (n == 0) {
+			return;
+		}
+		final double[] e = new double[Math.max(1, n - 1)];
+		final double[] tau = new double[Math.max(1, n - 1)];
+		sytrd(n, a, offA, lda, w, e, tau);
+		if (!vectors) {
+			TridiagonalEigen.eigenvalues(n, w, e);
+			return;
+		}
+		final double[] v = rowReflectors(n, a, offA, lda);
+		final double[] z = new double[n * n];
+		TridiagonalEigen.divideAndConquer(n, w, e, z);
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(z, i * n, a, offA + i * lda, n);
+		}
+		// The eigenvectors of A are Q * Z
+		ormqr(false, n - 1, n, n - 1, v, 0, n - 1, tau, a, offA + lda, lda);
+	}
+
+	/*
+	 * Balances the n x n matrix A by similarity transformations with powers of 2, so that its rows and columns have
+	 * comparable norms. This does not change the eigenvalues but usually improves the accuracy with which they are
+	 * computed.
+	 */
+	static void gebal(final int n, final double[] a, final int offA, final int lda) {
+		final double radix = 2.0;
+		boolean converged = false;
+		while (!converged) {
+			converged = true;
+			for (int i = 0; i < n; i++) {
+				double c = 0.0;
+				double r = 0.0;
+				for (int j = 0; j < n; j++) {
+					if (j != i) {
+						c += Math.abs(a[offA + j * lda + i]);
+						r += Math.abs(a[offA + i * lda + j]);
+					}
+				}
+				if (c == 0.0 || r == 0.0) {
+					continue;
+				}
+				final double s = c + r;
+				double f = 1.0;
+				double g = r / radix;
+				while (c < g) {
+					f *= radix;
+					c *= radix * radix;
+				}
+				g = r * radix;
+				while (c > g) {
+					f /= radix;
+					c /= radix * radix;
+				}
+				if ((c + r) / f < 0.95 * s) {
+					converged = false;
+					Kernels.INSTANCE.scale(a, offA + i * lda, n, 1.0 / f);
+					for (int j = 0; j < n; j++) {
+						a[offA + j * lda + i] *= f;
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Reduces the n x n matrix A to upper Hessenberg form H = Q^T * A * Q. On exit, H is on and above the first
+	 * subdiagonal and the Householder vectors are below it, with Q = H(0) * ... * H(n-2) and H(i) acting on the rows
+	 * after i. Panels of NB columns are reduced as in LAPACK's lahr2, which also accumulates Y = A * V * T, so that most
+	 * of the updates are matrix-matrix products.
+	 */
+	static void gehrd(final int n, final double[] a, final int offA, final int lda, final double[] tau) {
+		int p = 0;
+		if (n > HESSENBERG_CROSSOVER) {
+			final double[] y = new double[n * NB];
+			final double[] t = new double[NB * NB];
+			for (; n - p > HESSENBERG_CROSSOVER; p += NB) {
+				hessenbergPanel(n, p, a, offA, lda, tau, y, t);
+				final int mb = n - p - 1;
+				final double[] v = explicitReflectors(mb, NB, a, offA + (p + 1) * lda + p, lda);
+
+				// Right update A = A * (I - V * T * V^T) = A - Y * V^T of the columns after the panel...
+				Gemm.gemm(
+						false, true, n, n - p - NB, NB, -1.0, y, 0, NB, v, (NB - 1) * NB, NB, 1.0, a, offA + p + NB,
+						lda);
+				// ... and of the top rows of the panel, whose bottom rows were updated by the panel factorization
+				Gemm.gemm(false, true, p + 1, NB - 1, NB - 1, -1.0, y, 0, NB, v, 0, NB, 1.0, a, offA + p + 1, lda);
+
+				// Left update A = (I - V * T^T * V^T) * A of the columns after the panel
+				applyBlockReflector(true, mb, n - p - NB, NB, v, t, a, offA + (p + 1) * lda + p + NB, lda);
+			}
+		}
+
+		final double[] v = new double[n];
+		final double[] w = new double[n];
+		for (int c = p; c < n - 2; c++) {
+			final int len = n - c - 1;
+			final int offV = offA + (c + 1) * lda + c;
+			tau[c] = householder(len, a, offV, lda);
+			if (tau[c] == 0.0) {
+				continue;
+			}
+			v[0] = 1.0;
+			for (int i = 1; i < len; i++) {
+				v[i] = a[offV + i * lda];
+			}
+			applyReflectorRight(n, len, tau[c], v, a, offA + c + 1, lda);
+			applyReflector(len, len, tau[c], a, offV, lda, a, offV + 1, lda, w);
+		}
+		if (n >= 2) {
+			tau[n - 2] = 0.0;
+		}
+	}
+
+	/*
+	 * Reduces the NB columns starting at p, returning the reflectors in A and tau, the triangular factor T of the
+	 * block reflector and Y = A * V * T. Only the panel is updated.
+	 */
+	private static void hessenbergPanel(
+			final int n,
+			final int p,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] tau,
+			final double[] y,
+			final double[] t) {
+		final int nb = NB;
+		final int mb = n - p - 1;
+		final int yb = (p + 1) * nb;
+		final double[] w = new double[nb];
+		final double[] v = new double[mb];
+		Arrays.fill(t, 0.0);
+		double ei = 0.0;
+		for (int j = 0; j < nb; j++) {
+			final int c = p + j;
+			final int col = offA + (p + 1) * lda + c;
+			final int below = offA + (c + 1) * lda;
+			if (j > 0) {
+				// Right update of the bottom rows of column c: b = A[p+1:, c] -= Y[p+1:, 0:j] * V[c, 0:j]^T
+				Level2.gemv(false, mb, j, -1.0, y, yb, nb, a, offA + c * lda + p, 1, 1.0, a, col, lda);
+
+				// Left update b = (I - V * T^T * V^T) * b, where V = [V1; V2] with V1 unit lower triangular
+				for (int l = 0; l < j; l++) {
+					double s = a[col + l * lda];
+					for (int i = l + 1; i < j; i++) {
+						s += a[offA + (p + 1 + i) * lda + p + l] * a[col + i * lda];
+					}
+					w[l] = s;
+				}
+				Level2.gemv(true, n - c - 1, j, 1.0, a, below + p, lda, a, below + c, lda, 1.0, w, 0, 1);
+				for (int l = j - 1; l >= 0; l--) {
+					double s = 0.0;
+					for (int q = 0; q <= l; q++) {
+						s += t[q * nb + l] * w[q];
+					}
+					w[l] = s;
+				}
+				Level2.gemv(false, n - c - 1, j, -1.0, a, below + p, lda, w, 0, 1, 1.0, a, below + c, lda);
+				for (int i = j - 1; i >= 0; i--) {
+					double s = w[i];
+					for (int l = 0; l < i; l++) {
+						s += a[offA + (p + 1 + i) * lda + p + l] * w[l];
+					}
+					a[col + i * lda] -= s;
+				}
+				a[offA + c * lda + c - 1] = ei;
+			}
+
+			final int len = n - c - 1;
+			tau[c] = householder(len, a, below + c, lda);
+			ei = a[below + c];
+			a[below + c] = 1.0;
+			for (int i = 0; i < len; i++) {
+				v[i] = a[below + c + i * lda];
+			}
+
+			// Y[p+1:, j] = tau * (A[p+1:, c+1:] * v - Y[p+1:, 0:j] * V[c+1:, 0:j]^T * v)
+			// The product with the trailing matrix is the bulk of the level-2 work, rows are independent
+			final int offY = yb + j;
+			Parallelism.parallelFor(0, mb, 64, (long) mb * len, (from, to) -> Level2.gemv(
+					false, to - from, len, 1.0, a, offA + (p + 1 + from) * lda + c + 1, lda, v, 0, 1, 0.0, y,
+					offY + from * nb, nb));
+			Level2.gemv(true, len, j, 1.0, a, below + p, lda, v, 0, 1, 0.0, t, j, nb);
+			Level2.gemv(false, mb, j, -1.0, y, yb, nb, t, j, nb, 1.0, y, yb + j, nb);
+			Level2.scale(mb, tau[c], y, yb + j, nb);
+
+			// T[0:j, j] = -tau * T[0:j, 0:j] * V[c+1:, 0:j]^T * v
+			for (int q = 0; q < j; q++) {
+				double s = 0.0;
+				for (int r = q; r < j; r++) {
+					s += t[q * nb + r] * t[r * nb + j];
+				}
+				t[q * nb + j] = -tau[c] * s;
+			}
+			t[j * nb + j] = tau[c];
+		}
+		a[offA + (p + nb) * lda + p + nb - 1] = ei;
+
+		// Y[0:p+1, :] = A[0:p+1, p+1:] * V * T
+		final double[] vs = explicitReflectors(mb, nb, a, offA + (p + 1) * lda + p, lda);
+		final double[] av = new double[(p + 1) * nb];
+		Gemm.gemm(false, false, p + 1, nb, mb, 1.0, a, offA + p + 1, lda, vs, 0, nb, 0.0, av, 0, nb);
+		Gemm.sequential(false, false, p + 1, nb, nb, 1.0, av, 0, nb, t, 0, nb, 0.0, y, 0, nb);
+	}
+
+	/*
+	 * Computes the eigenvalues of the n x n matrix A, storing their real and imaginary parts in wr and wi. Complex
+	 * conjugate pairs are stored consecutively, the one with positive imaginary part first. A is destroyed. Returns -1,
+	 * or the index of an eigenvalue which failed to converge.
+	 */
+	static int geev(
+			final int n, final double[] a, final int offA, final int lda, final double[] wr, final double[] wi) {
+		if (n == 0) {
+			return -1;
+		}
+		gebal(n, a, offA, lda);
+		gehrd(n, a, offA, lda, new double[Math.max(1, n - 1)]);
+		return HessenbergQR.eigenvalues(n, a, offA, lda, wr, wi);
+	}
+
+	/*
+	 * Reduces the m x n matrix A, with m >= n, to upper bidiagonal form B = Q^T * A * P. On exit, d holds the diagonal
+	 * of B and e its n-1 superdiagonal elements, which are also on the diagonal and first superdiagonal of A. The
+	 * reflectors of Q = H(0) * ... * H(n-1) are below the diagonal as in geqrf, while those of P = G(0) * ... * G(n-2)
+	 * are to the right of the first superdiagonal as in sytrd. Panels of NB rows and columns are reduced as in LAPACK's
+	 * labrd, which also accumulates the matrices X and Y of the update A - V * Y^T - X * U^T of the trailing matrix.
+	 */
+	static void gebrd(
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] d,
+			final double[] e,
+			final double[] tauq,
+			final double[] taup) {
+		int p = 0;
+		if (n > BIDIAGONAL_CROSSOVER) {
+			final double[] x = new double[m * NB];
+			final double[] y = new double[n * NB];
+			for (; n - p > BIDIAGONAL_CROSSOVER; p += NB) {
+				bidiagonalPanel(m, n, p, a, offA, lda, d, e, tauq, taup, x, y);
+				final int rows = m - p - NB;
+				final int cols = n - p - NB;
+				final int trailing = offA + (p + NB) * lda + p + NB;
+				Gemm.gemm(
+						false, true, rows, cols, NB, -1.0, a, offA + (p + NB) * lda + p, lda, y, (p + NB) * NB, NB, 1.0,
+						a, trailing, lda);
+				Gemm.gemm(
+						false, false, rows, cols, NB, -1.0, x, (p + NB) * NB, NB, a, offA + p * lda + p + NB, lda, 1.0,
+						a, trailing, lda);
+				for (int c = p; c < p + NB; c++) {
+					a[offA + c * lda + c] = d[c];
+					a[offA + c * lda + c + 1] = e[c];
+				}
+			}
+		}
+
+		final double[] v = new double[n];
+		final double[] w = new double[n];
+		for (int c = p; c < n; c++) {
+			final int diag = offA + c * lda + c;
+			tauq[c] = householder(m - c, a, diag, lda);
+			d[c] = a[diag];
+			if (c == n - 1) {
+				break;
+			}
+			final int len = n - c - 1;
+			if (tauq[c] != 0.0) {
+				applyReflector(m - c, len, tauq[c], a, diag, lda, a, diag + 1, lda, w);
+			}
+			taup[c] = householder(len, a, diag + 1, 1);
+			e[c] = a[diag + 1];
+			if (taup[c] != 0.0) {
+				v[0] = 1.0;
+				System.arraycopy(a, diag + 2, v, 1, len - 1);
+				applyReflectorRight(m - c - 1, len, taup[c], v, a, diag + lda + 1, lda);
+			}
+		}
+	}
+
+	/*
+	 * Reduces the NB rows and columns starting at p, returning X and Y (indexed by the rows and the columns of A) for
+	 * the update of the trailing matrix. Only the panel is updated and the unit elements of the reflectors are stored
+	 * explicitly on the diagonal and on the first superdiagonal.
+	 */
+	private static void bidiagonalPanel(
+			final int m,
+			final int n,
+			final int p,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] d,
+			final double[] e,
+			final double[] tauq,
+			final double[] taup,
+			final double[] x,
+			final double[] y) {
+		final int nb = NB;
+		final double[] v = new double[m - p];
+		final double[] tmp = new double[nb];
+		for (int j = 0; j < nb; j++) {
+			final int c = p + j;
+			final int diag = offA + c * lda + c;
+			final int rows = m - c;
+			final int cols = n - c - 1;
+
+			// A[c:, c] -= A[c:, p:c] * Y[c, 0:j]^T + X[c:, 0:j] * A[p:c, c]
+			Level2.gemv(false, rows, j, -1.0, a, offA + c * lda + p, lda, y, c * nb, 1, 1.0, a, diag, lda);
+			Level2.gemv(false, rows, j, -1.0, x, c * nb, nb, a, offA + p * lda + c, lda, 1.0, a, diag, lda);
+
+			tauq[c] = householder(rows, a, diag, lda);
+			d[c] = a[diag];
+			a[diag] = 1.0;
+			for (int i = 0; i < rows; i++) {
+				v[i] = a[diag + i * lda];
+			}
+
+			// Y[c+1:, j] = tau * (A[c:, c+1:]^T - Y[c+1:, 0:j] * A[c:, p:c]^T - A[p:c, c+1:]^T * X[c:, 0:j]^T) * v
+			// The product with the trailing matrix is the bulk of the level-2 work, columns are independent
+			final int offY = (c + 1) * nb + j;
+			Parallelism.parallelFor(0, cols, 64, (long) rows * cols, (from, to) -> Level2.gemv(
+					true, rows, to - from, 1.0, a, diag + 1 + from, lda, v, 0, 1, 0.0, y, offY + from * nb, nb));
+			Level2.gemv(true, rows, j, 1.0, a, offA + c * lda + p, lda, v, 0, 1, 0.0, tmp, 0, 1);
+			Level2.gemv(false, cols, j, -1.0, y, (c + 1) * nb, nb, tmp, 0, 1, 1.0, y, offY, nb);
+			Level2.gemv(true, rows, j, 1.0, x, c * nb, nb, v, 0, 1, 0.0, tmp, 0, 1);
+			Level2.gemv(true, j, cols, -1.0, a, offA + p * lda + c + 1, lda, tmp, 0, 1, 1.0, y, offY, nb);
+			Level2.scale(cols, tauq[c], y, offY, nb);
+
+			// A[c, c+1:] -= Y[c+1:, 0:j+1] * A[c, p:c+1]^T + A[p:c, c+1:]^T * X[c, 0:j]^T
+			Level2.gemv(false, cols, j + 1, -1.0, y, (c + 1) * nb, nb, a, offA + c * lda + p, 1, 1.0, a, diag + 1, 1);
+			Level2.gemv(true, j, cols, -1.0, a, offA + p * lda + c + 1, lda, x, c * nb, 1, 1.0, a, diag + 1, 1);
+
+			taup[c] = householder(cols, a, diag + 1, 1);
+			e[c] = a[diag + 1];
+			a[diag + 1] = 1.0;
+
+			// X[c+1:, j] = tau * (A[c+1:, c+1:] - A[c+1:, p:c+1] * Y[c+1:, 0:j+1]^T - X[c+1:, 0:j] * A[p:c, c+1:]) * u
+			final int offX = (c + 1) * nb + j;
+			Parallelism.parallelFor(0, rows - 1, 64, (long) rows * cols, (from, to) -> Level2.gemv(
+					false, to - from, cols, 1.0, a, diag + (from + 1) * lda + 1, lda, a, diag + 1, 1, 0.0, x,
+					offX + from * nb, nb));
+			Level2.gemv(true, cols, j + 1, 1.0, y, (c + 1) * nb, nb, a, diag + 1, 1, 0.0, tmp, 0, 1);
+			Level2.gemv(false, rows - 1, j + 1, -1.0, a, offA + (c + 1) * lda + p, lda, tmp, 0, 1, 1.0, x, offX, nb);
+			Level2.gemv(false, j, cols, 1.0, a, offA + p * lda + c + 1, lda, a, diag + 1, 1, 0.0, tmp, 0, 1);
+			Level2.gemv(false, rows - 1, j, -1.0, x, (c + 1) * nb, nb, tmp, 0, 1, 1.0, x, offX, nb);
+			Level2.scale(rows - 1, taup[c], x, offX, nb);
+		}
+	}
+
+	/*
+	 * Computes the singular values of the m x n matrix A in descending order into s and, when vectors is true, the left
+	 * singular vectors into the columns of the m x ku matrix U and the right ones into the rows of the kv x n matrix VT,
+	 * where ku = kv = min(m, n) when economy is true, otherwise ku = m and kv = n. A is reduced to bidiagonal form
+	 * (after a QR factorization when it is much taller than wide), which is then diagonalized with the implicit QR
+	 * algorithm. A is destroyed. Returns -1, or the index of a singular value which failed to converge.
+	 */
+	static int gesvd(
+			final boolean vectors,
+			final boolean economy,
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] s,
+			final double[] u,
+			final double[] vt) {
+		return svd(false, vectors, economy, m, n, a, offA, lda, s, u, vt);
+	}
+
+	/*
+	 * Same as gesvd, but the singular values and vectors are computed with the one-sided Jacobi algorithm (after a QR
+	 * factorization when A has more rows than columns), which is slower but computes even the smallest singular values
+	 * with high relative accuracy. Returns -1, or a non-negative value when the iteration did not converge.
+	 */
+	static int gesvj(
+			final boolean vectors,
+			final boolean economy,
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] s,
+			final double[] u,
+			final double[] vt) {
+		return svd(true, vectors, economy, m, n, a, offA, lda, s, u, vt);
+	}
+
+	private static int svd(
+			final boolean jacobi,
+			final boolean vectors,
+			final boolean economy,
+			final int m,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] s,
+			final double[] u,
+			final double[] vt) {
+		if (m < n) {
+			// A^T = U' * S * V'^T, so that U = V' and V^T = U'^T
+			final int kv = economy ? m : n;
+			final double[] at = new double[n * m];
+			transpose(m, n, a, offA, lda, at, 0, m);
+			final double[] ut = vectors ? new double[n * kv] : null;
+			final double[] vtt = vectors ? new double[m * m] : null;
+			final int info = svd(jacobi, vectors, economy, n, m, at, 0, m, s, ut, vtt);
+			if (vectors) {
+				transpose(m, m, vtt, 0, m, u, 0, m);
+				transpose(n, kv, ut, 0, kv, vt, 0, n);
+			}
+			return info;
+		}
+
+		final int ku = economy ? n : m;
+		if (vectors) {
+			Arrays.fill(u, 0, m * ku, 0.0);
+			for (int i = n; i < ku; i++) {
+				u[i * ku + i] = 1.0;
+			}
+		}
+		if (n == 0) {
+			return -1;
+		}
+
+		// W is either A or the n x n triangular factor of its QR factorization
+		final boolean qrFirst = m > n && (jacobi || 3 * m >= 5 * n);
+		final double[] tau = qrFirst ? new double[n] : null;
+		final double[] w;
+		final int offW;
+		final int ldw;
+		if (qrFirst) {
+			geqrf(m, n, a, offA, lda, tau);
+			w = new double[n * n];
+			for (int i = 0; i < n; i++) {
+				System.arraycopy(a, offA + i * lda + i, w, i * n + i, n - i);
+			}
+			offW = 0;
+			ldw = n;
+		} else {
+			w = a;
+			offW = offA;
+			ldw = lda;
+		}
+
+		// The singular vectors of the n x n core problem, by rows (Jacobi also needs the left ones as workspace)
+		final double[] coreU = vectors || jacobi ? new double[n * n] : null;
+		final double[] coreV = vectors ? vt : null;
+		if (vectors) {
+			for (int i = 0; i < n; i++) {
+				coreU[i * n + i] = 1.0;
+				Arrays.fill(vt, i * n, (i + 1) * n, 0.0);
+				vt[i * n + i] = 1.0;
+			}
+		}
+		final int info;
+		final double[] tauq = new double[n];
+		final double[] taup = new double[n];
+		if (jacobi) {
+			// The columns of W (which is square here) are the rows of the Jacobi matrix
+			transpose(n, n, w, offW, ldw, coreU, 0, n);
+			info = JacobiSvd.svd(n, coreU, s, coreV) ? -1 : 0;
+		} else {
+			final double[] e = new double[n];
+			gebrd(qrFirst ? n : m, n, w, offW, ldw, s, e, tauq, taup);
+			info = BidiagonalQR.svd(n, s, e, coreU, coreV);
+		}
+		if (!vectors) {
+			return info;
+		}
+
+		// U = Q_A * diag(Q_W * U_core, I)
+		transpose(n, n, coreU, 0, n, u, 0, ku);
+		if (!jacobi) {
+			ormqr(false, qrFirst ? n : m, ku, n, w, offW, ldw, tauq, u, 0, ku);
+		}
+		if (qrFirst) {
+			ormqr(false, m, ku, n, a, offA, lda, tau, u, 0, ku);
+		}
+
+		// V = P * V_core
+		if (!jacobi && n > 1) {
+			final double[] v = new double[n * n];
+			transpose(n, n, vt, 0, n, v, 0, n);
+			ormqr(false, n - 1, n, n - 1, rowReflectors(n, w, offW, ldw), 0, n - 1, taup, v, n, n);
+			transpose(n, n, v, 0, n, vt, 0, n);
+		}
+		return info;
+	}
+
+	// B = A^T, where A is rows x cols.
+	private static void transpose(
+			final int rows,
+			final int cols,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < cols; j++) {
+				b[offB + j * ldb + i] = a[offA + i * lda + j];
+			}
+		}
+	}
+}
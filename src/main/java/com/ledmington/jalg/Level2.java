@@ -0,0 +1,270 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * Matrix-vector kernels on row-major arrays. Every row of the matrix is read exactly once and, whenever the vectors
+ * have unit stride, it is processed with a single SIMD dot or axpy. Arguments are assumed to be already checked.
+ */
+final class Level2 {
+
+	private Level2() {}
+
+	static double dot(
+			final int n,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double[] y,
+			final int offY,
+			final int incY) {
+		if (incX == 1 && incY == 1) {
+			return Kernels.INSTANCE.dot(n, x, offX, y, offY);
+		}
+		double s = 0.0;
+		for (int k = 0; k < n; k++) {
+			s += x[offX + k * incX] * y[offY + k * incY];
+		}
+		return s;
+	}
+
+	// Euclidean norm, scaled to avoid overflow and underflow
+	static double nrm2(final int n, final double[] x, final int offX, final int incX) {
+		double scale = 0.0;
+		double ssq = 1.0;
+		for (int k = 0; k < n; k++) {
+			final double v = x[offX + k * incX];
+			if (v != 0.0) {
+				final double abs = Math.abs(v);
+				if (scale < abs) {
+					final double r = scale / abs;
+					ssq = 1.0 + ssq * r * r;
+					scale = abs;
+				} else {
+					final double r = abs / scale;
+					ssq += r * r;
+				}
+			}
+		}
+		return scale * Math.sqrt(ssq);
+	}
+
+	static void axpy(
+			final int n,
+			final double alpha,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double[] y,
+			final int offY,
+			final int incY) {
+		if (alpha == 0.0) {
+			return;
+		}
+		if (incX == 1 && incY == 1) {
+			Kernels.INSTANCE.axpy(n, alpha, x, offX, y, offY);
+			return;
+		}
+		for (int k = 0; k < n; k++) {
+			y[offY + k * incY] += alpha * x[offX + k * incX];
+		}
+	}
+
+	static void scale(final int n, final double beta, final double[] y, final int offY, final int incY) {
+		if (beta == 1.0) {
+			return;
+		}
+		if (incY == 1) {
+			if (beta == 0.0) {
+				Kernels.INSTANCE.fill(y, offY, n, 0.0);
+			} else {
+				Kernels.INSTANCE.scale(y, offY, n, beta);
+			}
+			return;
+		}
+		for (int k = 0; k < n; k++) {
+			final int idx = offY + k * incY;
+			y[idx] = beta == 0.0 ? 0.0 : beta * y[idx];
+		}
+	}
+
+	// Plane rotation (x, y) = (c * x + s * y, c * y - s * x)
+	static void rot(
+			final int n,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double[] y,
+			final int offY,
+			final int incY,
+			final double c,
+			final double s) {
+		for (int k = 0; k < n; k++) {
+			final int ix = offX + k * incX;
+			final int iy = offY + k * incY;
+			final double xk = x[ix];
+			final double yk = y[iy];
+			x[ix] = c * xk + s * yk;
+			y[iy] = c * yk - s * xk;
+		}
+	}
+
+	static void gemv(
+			final boolean trans,
+			final int m,
+			final int n,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double beta,
+			final double[] y,
+			final int offY,
+			final int incY) {
+		scale(trans ? n : m, beta, y, offY, incY);
+		if (alpha == 0.0) {
+			return;
+		}
+		if (trans) {
+			// y += alpha * A^T * x, one axpy per row of A
+			for (int i = 0; i < m; i++) {
+				axpy(n, alpha * x[offX + i * incX], a, offA + i * lda, 1, y, offY, incY);
+			}
+		} else {
+			for (int i = 0; i < m; i++) {
+				y[offY + i * incY] += alpha * dot(n, a, offA + i * lda, 1, x, offX, incX);
+			}
+		}
+	}
+
+	static void ger(
+			final int m,
+			final int n,
+			final double alpha,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double[] y,
+			final int offY,
+			final int incY,
+			final double[] a,
+			final int offA,
+			final int lda) {
+		if (alpha == 0.0) {
+			return;
+		}
+		for (int i = 0; i < m; i++) {
+			axpy(n, alpha * x[offX + i * incX], y, offY, incY, a, offA + i * lda, 1);
+		}
+	}
+
+	static void symv(
+			final boolean upper,
+			final int n,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final int offX,
+			final int incX,
+			final double beta,
+			final double[] y,
+			final int offY,
+			final int incY) {
+		scale(n, beta, y, offY, incY);
+		if (alpha == 0.0) {
+			return;
+		}
+		// Each stored element A[i][j] (i != j) contributes both to y[i] and to y[j]
+		for (int i = 0; i < n; i++) {
+			final int row = offA + i * lda;
+			final double xi = x[offX + i * incX];
+			final double diag = a[row + i] * xi;
+			if (upper) {
+				final int len = n - i - 1;
+				final double s = dot(len, a, row + i + 1, 1, x, offX + (i + 1) * incX, incX);
+				axpy(len, alpha * xi, a, row + i + 1, 1, y, offY + (i + 1) * incY, incY);
+				y[offY + i * incY] += alpha * (diag + s);
+			} else {
+				final double s = dot(i, a, row, 1, x, offX, incX);
+				axpy(i, alpha * xi, a, row, 1, y, offY, incY);
+				y[offY + i * incY] += alpha * (diag + s);
+			}
+		}
+	}
+
+	static void trsv(
+			final boolean upper,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final int offX,
+			final int incX) {
+		if (!trans) {
+			// Row-oriented substitution: one dot per row
+			if (upper) {
+				for (int i = n - 1; i >= 0; i--) {
+					final int row = offA + i * lda;
+					final int idx = offX + i * incX;
+					x[idx] -= dot(n - i - 1, a, row + i + 1, 1, x, idx + incX, incX);
+					if (!unitDiagonal) {
+						x[idx] /= a[row + i];
+					}
+				}
+			} else {
+				for (int i = 0; i < n; i++) {
+					final int row = offA + i * lda;
+					final int idx = offX + i * incX;
+					x[idx] -= dot(i, a, row, 1, x, offX, incX);
+					if (!unitDiagonal) {
+						x[idx] /= a[row + i];
+					}
+				}
+			}
+		} else {
+			// Column-oriented substitution on A^T: one axpy per row of A
+			if (upper) {
+				for (int i = 0; i < n; i++) {
+					final int row = offA + i * lda;
+					final int idx = offX + i * incX;
+					if (!unitDiagonal) {
+						x[idx] /= a[row + i];
+					}
+					axpy(n - i - 1, -x[idx], a, row + i + 1, 1, x, idx + incX, incX);
+				}
+			} else {
+				for (int i = n - 1; i >= 0; i--) {
+					final int row = offA + i * lda;
+					final int idx = offX + i * incX;
+					if (!unitDiagonal) {
+						x[idx] /= a[row + i];
+					}
+					axpy(i, -x[idx], a, row, 1, x, offX, incX);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,378 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * Blocked level-3 kernels built on top of {@link Gemm}: only small diagonal blocks are handled by dedicated loops,
+ * everything else is a matrix-matrix product. Arguments are assumed to be already checked.
+ */
+final class Level3 {
+
+	// Size of the diagonal blocks
+	static final int NB = 64;
+
+	private Level3() {}
+
+	// Element (i, j) of op(A)
+	private static double at(
+			final double[] a, final int offA, final int lda, final boolean trans, final int i, final int j) {
+		return trans ? a[offA + j * lda + i] : a[offA + i * lda + j];
+	}
+
+	/*
+	 * Solves op(A) * X = alpha * B (left) or X * op(A) = alpha * B (right) overwriting the m x n matrix B with X.
+	 */
+	static void trsm(
+			final boolean left,
+			final boolean upper,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int m,
+			final int n,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		if (m == 0 || n == 0) {
+			return;
+		}
+		Gemm.scale(m, n, alpha, b, offB, ldb);
+		if (alpha == 0.0) {
+			return;
+		}
+
+		// Whether op(A) is lower triangular
+		final boolean lower = upper == trans;
+
+		if (left) {
+			if (lower) {
+				for (int k0 = 0; k0 < m; k0 += NB) {
+					final int nb = Math.min(NB, m - k0);
+					leftDiagonalSolve(true, trans, unitDiagonal, k0, nb, n, a, offA, lda, b, offB, ldb);
+					final int rest = m - k0 - nb;
+					if (rest > 0) {
+						// B[k0+nb:m, :] -= op(A)[k0+nb:m, k0:k0+nb] * X[k0:k0+nb, :]
+						Gemm.gemm(
+								trans,
+								false,
+								rest,
+								n,
+								nb,
+								-1.0,
+								a,
+								trans ? offA + k0 * lda + k0 + nb : offA + (k0 + nb) * lda + k0,
+								lda,
+								b,
+								offB + k0 * ldb,
+								ldb,
+								1.0,
+								b,
+								offB + (k0 + nb) * ldb,
+								ldb);
+					}
+				}
+			} else {
+				for (int k1 = m; k1 > 0; k1 -= NB) {
+					final int nb = Math.min(NB, k1);
+					final int k0 = k1 - nb;
+					leftDiagonalSolve(false, trans, unitDiagonal, k0, nb, n, a, offA, lda, b, offB, ldb);
+					if (k0 > 0) {
+						// B[0:k0, :] -= op(A)[0:k0, k0:k1] * X[k0:k1, :]
+						Gemm.gemm(
+								trans,
+								false,
+								k0,
+								n,
+								nb,
+								-1.0,
+								a,
+								trans ? offA + k0 * lda : offA + k0,
+								lda,
+								b,
+								offB + k0 * ldb,
+								ldb,
+								1.0,
+								b,
+								offB,
+								ldb);
+					}
+				}
+			}
+		} else {
+			if (!lower) {
+				for (int k0 = 0; k0 < n; k0 += NB) {
+					final int nb = Math.min(NB, n - k0);
+					rightDiagonalSolve(false, trans, unitDiagonal, k0, nb, m, a, offA, lda, b, offB, ldb);
+					final int rest = n - k0 - nb;
+					if (rest > 0) {
+						// B[:, k0+nb:n] -= X[:, k0:k0+nb] * op(A)[k0:k0+nb, k0+nb:n]
+						Gemm.gemm(
+								false,
+								trans,
+								m,
+								rest,
+								nb,
+								-1.0,
+								b,
+								offB + k0,
+								ldb,
+								a,
+								trans ? offA + (k0 + nb) * lda + k0 : offA + k0 * lda + k0 + nb,
+								lda,
+								1.0,
+								b,
+								offB + k0 + nb,
+								ldb);
+					}
+				}
+			} else {
+				for (int k1 = n; k1 > 0; k1 -= NB) {
+					final int nb = Math.min(NB, k1);
+					final int k0 = k1 - nb;
+					rightDiagonalSolve(true, trans, unitDiagonal, k0, nb, m, a, offA, lda, b, offB, ldb);
+					if (k0 > 0) {
+						// B[:, 0:k0] -= X[:, k0:k1] * op(A)[k0:k1, 0:k0]
+						Gemm.gemm(
+								false,
+								trans,
+								m,
+								k0,
+								nb,
+								-1.0,
+								b,
+								offB + k0,
+								ldb,
+								a,
+								trans ? offA + k0 : offA + k0 * lda,
+								lda,
+								1.0,
+								b,
+								offB,
+								ldb);
+					}
+				}
+			}
+		}
+	}
+
+	/*
+	 * Solves op(A)[k0:k0+nb, k0:k0+nb] * X = B[k0:k0+nb, :] in place. Rows of B are updated with whole-row axpys and
+	 * independent column ranges are processed in parallel.
+	 */
+	private static void leftDiagonalSolve(
+			final boolean lower,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int k0,
+			final int nb,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		final int offD = offA + k0 * lda + k0;
+		Parallelism.parallelFor(0, n, 256, (long) nb * nb * n / 2L, (from, to) -> {
+			final int len = to - from;
+			for (int t = 0; t < nb; t++) {
+				final int i = lower ? t : nb - 1 - t;
+				final int rowI = offB + (k0 + i) * ldb + from;
+				if (lower) {
+					for (int j = 0; j < i; j++) {
+						Kernels.INSTANCE.axpy(
+								len, -at(a, offD, lda, trans, i, j), b, offB + (k0 + j) * ldb + from, b, rowI);
+					}
+				} else {
+					for (int j = i + 1; j < nb; j++) {
+						Kernels.INSTANCE.axpy(
+								len, -at(a, offD, lda, trans, i, j), b, offB + (k0 + j) * ldb + from, b, rowI);
+					}
+				}
+				if (!unitDiagonal) {
+					Kernels.INSTANCE.divide(b, rowI, len, a[offD + i * lda + i]);
+				}
+			}
+		});
+	}
+
+	/*
+	 * Solves X * op(A)[k0:k0+nb, k0:k0+nb] = B[:, k0:k0+nb] in place. Each row of B is independent, so row ranges are
+	 * processed in parallel.
+	 */
+	private static void rightDiagonalSolve(
+			final boolean lower,
+			final boolean trans,
+			final boolean unitDiagonal,
+			final int k0,
+			final int nb,
+			final int m,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb) {
+		final int offD = offA + k0 * lda + k0;
+		Parallelism.parallelFor(0, m, 64, (long) nb * nb * m / 2L, (from, to) -> {
+			for (int r = from; r < to; r++) {
+				final int row = offB + r * ldb + k0;
+				if (!lower) {
+					for (int j = 0; j < nb; j++) {
+						double x = b[row + j];
+						if (!unitDiagonal) {
+							x /= a[offD + j * lda + j];
+						}
+						b[row + j] = x;
+						for (int l = j + 1; l < nb; l++) {
+							b[row + l] -= x * at(a, offD, lda, trans, j, l);
+						}
+					}
+				} else {
+					for (int j = nb - 1; j >= 0; j--) {
+						double x = b[row + j];
+						if (!unitDiagonal) {
+							x /= a[offD + j * lda + j];
+						}
+						b[row + j] = x;
+						for (int l = 0; l < j; l++) {
+							b[row + l] -= x * at(a, offD, lda, trans, j, l);
+						}
+					}
+				}
+			}
+		});
+	}
+
+	/*
+	 * Computes C = alpha * op(A) * op(A)^T + beta * C, where op(A) is n x k, updating only the upper (or lower)
+	 * triangle of the n x n matrix C. When trans is false, op(A) = A, otherwise op(A) = A^T.
+	 */
+	static void syrk(
+			final boolean upper,
+			final boolean trans,
+			final int n,
+			final int k,
+			final double alpha,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double beta,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		if (n == 0) {
+			return;
+		}
+		final double[] diag = new double[NB * NB];
+		for (int i0 = 0; i0 < n; i0 += NB) {
+			final int nb = Math.min(NB, n - i0);
+			// Rows i0:i0+nb of op(A) and the corresponding columns of op(A)^T
+			final int offRows = trans ? offA + i0 : offA + i0 * lda;
+
+			// Diagonal block: computed in full in a scratch buffer, then only one triangle is copied back
+			Gemm.sequential(trans, !trans, nb, nb, k, alpha, a, offRows, lda, a, offRows, lda, 0.0, diag, 0, nb);
+			for (int i = 0; i < nb; i++) {
+				final int row = offC + (i0 + i) * ldc + i0;
+				final int from = upper ? i : 0;
+				final int to = upper ? nb : i + 1;
+				for (int j = from; j < to; j++) {
+					c[row + j] = (beta == 0.0 ? 0.0 : beta * c[row + j]) + diag[i * nb + j];
+				}
+			}
+
+			// Off-diagonal panel
+			if (upper) {
+				final int rest = n - i0 - nb;
+				if (rest > 0) {
+					// C[i0:i0+nb, i0+nb:n] = alpha * op(A)[i0:i0+nb, :] * op(A)[i0+nb:n, :]^T + beta * C
+					Gemm.gemm(
+							trans,
+							!trans,
+							nb,
+							rest,
+							k,
+							alpha,
+							a,
+							offRows,
+							lda,
+							a,
+							trans ? offA + i0 + nb : offA + (i0 + nb) * lda,
+							lda,
+							beta,
+							c,
+							offC + i0 * ldc + i0 + nb,
+							ldc);
+				}
+			} else if (i0 > 0) {
+				// C[i0:i0+nb, 0:i0] = alpha * op(A)[i0:i0+nb, :] * op(A)[0:i0, :]^T + beta * C
+				Gemm.gemm(trans, !trans, nb, i0, k, alpha, a, offRows, lda, a, offA, lda, beta, c, offC + i0 * ldc, ldc);
+			}
+		}
+	}
+
+	/*
+	 * Computes C = A * B, where A is m x k and B is k x n. When left is true, A is a band matrix with kl subdiagonals
+	 * and ku superdiagonals, otherwise B is. Only the elements inside the band are read, so each row of C costs
+	 * O(n * (kl + ku + 1)) instead of O(n * k).
+	 */
+	static void gbmm(
+			final boolean left,
+			final int m,
+			final int n,
+			final int k,
+			final int kl,
+			final int ku,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double[] c,
+			final int offC,
+			final int ldc) {
+		final long work = (long) m * (left ? n : k) * (kl + ku + 1);
+		Parallelism.parallelFor(0, m, 16, work, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				final int rowA = offA + i * lda;
+				final int rowC = offC + i * ldc;
+				Kernels.INSTANCE.fill(c, rowC, n, 0.0);
+				if (left) {
+					// Row i of C combines rows i - kl to i + ku of B
+					final int end = Math.min(k, i + ku + 1);
+					for (int p = Math.max(0, i - kl); p < end; p++) {
+						Kernels.INSTANCE.axpy(n, a[rowA + p], b, offB + p * ldb, c, rowC);
+					}
+				} else {
+					// Row p of B is nonzero only in columns p - kl to p + ku
+					for (int p = 0; p < k; p++) {
+						final int start = Math.max(0, p - kl);
+						final int end = Math.min(n, p + ku + 1);
+						if (start < end) {
+							Kernels.INSTANCE.axpy(end - start, a[rowA + p], b, offB + p * ldb + start, c, rowC + start);
+						}
+					}
+				}
+			}
+		});
+	}
+}
@@ -18,6 +18,7 @@
 package com.ledmington.jalg;
 
 import java.util.List;
+import java.util.Objects;
 
 public interface Matrix<X> {
 
@@ -33,7 +34,19 @@ public interface Matrix<X> {
 
 	X conditionNumber();
 
-	X norm();
+	// Frobenius norm
+	default X norm() {
+		return norm(NormType.FROBENIUS);
+	}
+
+	/*
+	 * The norm of the given type. Elements of an arbitrary type cannot be added up, so this throws unless overridden;
+	 * DoubleMatrix provides all the norms.
+	 */
+	default X norm(final NormType type) {
+		Objects.requireNonNull(type);
+		throw new UnsupportedOperationException(String.format("The %s norm is not supported.", type));
+	}
 
 	Matrix<X> getTranspose();
 
@@ -54,6 +67,21 @@ public interface Matrix<X> {
 	Matrix<X> subtract(final Matrix<X> other);
 
 	default boolean isSymmetric() {
+		return isSymmetric(0.0);
+	}
+
+	/*
+	 * Whether this matrix is square and each element differs from its transposed one by at most eps. Elements of an
+	 * arbitrary type can only be compared exactly, with equals, so this throws for a positive eps unless overridden;
+	 * DoubleMatrix compares within any tolerance.
+	 */
+	default boolean isSymmetric(final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (eps != 0.0) {
+			throw new UnsupportedOperationException("Cannot compare elements within a tolerance.");
+		}
 		return this.equals(this.getTranspose());
 	}
 
@@ -0,0 +1,337 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A read-only view over the storage of a {@link DenseMatrix} or of a {@link MutableDenseMatrix}, which is never
+ * copied. Element (i, j) of the view is the element at index offset + i * rowStride + j * columnStride of the shared
+ * array, so that rows, columns, submatrices and transposes are all described by the same four numbers.
+ *
+ * <p>Views with a unit row or column stride are passed to the kernels in place. Views of a MutableDenseMatrix see
+ * every later change to it.
+ */
+public final class MatrixView implements DoubleMatrix {
+
+	private final double[] data;
+	private final int offset;
+	private final int rows;
+	private final int columns;
+	private final int rowStride;
+	private final int columnStride;
+
+	MatrixView(
+			final double[] data,
+			final int offset,
+			final int rows,
+			final int columns,
+			final int rowStride,
+			final int columnStride) {
+		this.data = data;
+		this.offset = offset;
+		this.rows = rows;
+		this.columns = columns;
+		// The stride of a dimension of length 1 is irrelevant: it is normalized so that more views have a unit stride
+		this.rowStride = rows == 1 ? 1 : rowStride;
+		this.columnStride = columns == 1 ? 1 : columnStride;
+	}
+
+	double[] data() {
+		return data;
+	}
+
+	int offset() {
+		return offset;
+	}
+
+	int rowStride() {
+		return rowStride;
+	}
+
+	int columnStride() {
+		return columnStride;
+	}
+
+	@Override
+	public int getNumRows() {
+		return rows;
+	}
+
+	@Override
+	public int getNumColumns() {
+		return columns;
+	}
+
+	private int index(final int row, final int column) {
+		return offset + row * rowStride + column * columnStride;
+	}
+
+	private void assertCorrectIndex(final int row, final int column) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns) {
+			throw new IllegalArgumentException(
+					String.format("A %,d x %,d matrix has no element in (%,d; %,d).", rows, columns, row, column));
+		}
+	}
+
+	@Override
+	public double getDouble(final int row, final int column) {
+		assertCorrectIndex(row, column);
+		return data[index(row, column)];
+	}
+
+	@Override
+	public void copyRow(final int row, final double[] dst, final int offset) {
+		if (row < 0 || row >= rows) {
+			throw new IllegalArgumentException(String.format("A %,d x %,d matrix has no row %,d.", rows, columns, row));
+		}
+		assertFits(columns, dst, offset);
+		if (columnStride == 1) {
+			System.arraycopy(data, index(row, 0), dst, offset, columns);
+		} else {
+			for (int j = 0; j < columns; j++) {
+				dst[offset + j] = data[index(row, j)];
+			}
+		}
+	}
+
+	@Override
+	public void copyColumn(final int column, final double[] dst, final int offset) {
+		if (column < 0 || column >= columns) {
+			throw new IllegalArgumentException(
+					String.format("A %,d x %,d matrix has no column %,d.", rows, columns, column));
+		}
+		assertFits(rows, dst, offset);
+		if (rowStride == 1) {
+			System.arraycopy(data, index(0, column), dst, offset, rows);
+		} else {
+			for (int i = 0; i < rows; i++) {
+				dst[offset + i] = data[index(i, column)];
+			}
+		}
+	}
+
+	private static void assertFits(final int length, final double[] dst, final int offset) {
+		Objects.requireNonNull(dst);
+		if (offset < 0 || offset + length > dst.length) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot copy %,d elements at offset %,d of an array of length %,d.", length, offset, dst.length));
+		}
+	}
+
+	public MatrixView getRowView(final int row) {
+		return getSubmatrixView(row, 0, 1, columns);
+	}
+
+	public MatrixView getColumnView(final int column) {
+		return getSubmatrixView(0, column, rows, 1);
+	}
+
+	// The view of the numRows x numColumns block whose top-left element is (row, column)
+	public MatrixView getSubmatrixView(final int row, final int column, final int numRows, final int numColumns) {
+		if (numRows < 1
+				|| numColumns < 1
+				|| row < 0
+				|| column < 0
+				|| row > rows - numRows
+				|| column > columns - numColumns) {
+			throw new IllegalArgumentException(String.format(
+					"A %,d x %,d matrix has no %,d x %,d submatrix starting at (%,d; %,d).",
+					rows, columns, numRows, numColumns, row, column));
+		}
+		return new MatrixView(data, index(row, column), numRows, numColumns, rowStride, columnStride);
+	}
+
+	public MatrixView getTransposedView() {
+		return new MatrixView(data, offset, columns, rows, columnStride, rowStride);
+	}
+
+	// Returns a compact copy of the elements of this view.
+	public DenseMatrix toDenseMatrix() {
+		return new DenseMatrix(rows, columns, toArray());
+	}
+
+	@Override
+	public Double conditionNumber() {
+		return toDenseMatrix().conditionNumber();
+	}
+
+	@Override
+	public Double norm(final NormType type) {
+		Objects.requireNonNull(type);
+		final Operand op = Operand.of(this);
+		if (!op.trans()) {
+			return Lapack.lange(type, rows, columns, op.data(), op.offset(), op.ld());
+		}
+		// The 1-norm of a matrix is the infinity norm of its transpose and vice versa
+		final NormType t =
+				switch (type) {
+					case ONE -> NormType.INFINITY;
+					case INFINITY -> NormType.ONE;
+					default -> type;
+				};
+		return Lapack.lange(t, columns, rows, op.data(), op.offset(), op.ld());
+	}
+
+	@Override
+	public MatrixView getTranspose() {
+		return getTransposedView();
+	}
+
+	@Override
+	public Matrix<Double> multiply(final Matrix<Double> other) {
+		return DenseMatrix.product(this, other, MultiplicationAlgorithm.CLASSIC);
+	}
+
+	@Override
+	public Double getDeterminant() {
+		return toDenseMatrix().getDeterminant();
+	}
+
+	@Override
+	public boolean isInvertible() {
+		return toDenseMatrix().isInvertible();
+	}
+
+	@Override
+	public Matrix<Double> getInverse() {
+		return toDenseMatrix().getInverse();
+	}
+
+	@Override
+	public boolean isPositiveDefinite() {
+		return toDenseMatrix().isPositiveDefinite();
+	}
+
+	@Override
+	public Matrix<Double> gaussJordan() {
+		return toDenseMatrix().gaussJordan();
+	}
+
+	@Override
+	public List<Double> getEigenvalues() {
+		return toDenseMatrix().getEigenvalues();
+	}
+
+	@Override
+	public Matrix<Double> subtract(final Matrix<Double> other) {
+		Objects.requireNonNull(other);
+		if (rows != other.getNumRows() || columns != other.getNumColumns()) {
+			throw new IllegalArgumentException("Different shapes.");
+		}
+		final Operand op = Operand.of(other);
+		final double[] v = new double[rows * columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				v[i * columns + j] = data[index(i, j)] - op.get(i, j);
+			}
+		}
+		return new DenseMatrix(rows, columns, v);
+	}
+
+	@Override
+	public boolean isSymmetric(final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (!isSquare()) {
+			return false;
+		}
+		final Operand op = Operand.of(this);
+		return Structure.isSymmetric(rows, op.data(), op.offset(), op.ld(), eps);
+	}
+
+	// The upper triangle of a transposed view is the lower triangle of its storage and vice versa
+	@Override
+	public boolean isUpperTriangular() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
+		}
+		final Operand op = Operand.of(this);
+		return op.trans()
+				? Structure.isLowerTriangular(rows, op.data(), op.offset(), op.ld())
+				: Structure.isUpperTriangular(rows, op.data(), op.offset(), op.ld());
+	}
+
+	@Override
+	public boolean isLowerTriangular() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
+		}
+		final Operand op = Operand.of(this);
+		return op.trans()
+				? Structure.isUpperTriangular(rows, op.data(), op.offset(), op.ld())
+				: Structure.isLowerTriangular(rows, op.data(), op.offset(), op.ld());
+	}
+
+	@Override
+	public boolean equals(final Matrix<Double> other, final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (other == null) {
+			return false;
+		}
+		if (rows != other.getNumRows() || columns != other.getNumColumns()) {
+			return false;
+		}
+		final Operand op = Operand.of(other);
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				if (Math.abs(data[index(i, j)] - op.get(i, j)) > eps) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return toDenseMatrix().toString();
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 17;
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				final long bits = Double.doubleToLongBits(data[index(i, j)]);
+				h = 31 * h + (int) (bits >>> 32);
+				h = 31 * h + (int) (bits & 0x00000000ffffffffL);
+			}
+		}
+		return h;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(final Object other) {
+		if (other == null) {
+			return false;
+		}
+		if (this == other) {
+			return true;
+		}
+		if (!this.getClass().equals(other.getClass())) {
+			return false;
+		}
+		return this.equals((Matrix<Double>) other, 0.0);
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// The algorithm to be used for matrix-matrix products.
+public enum MultiplicationAlgorithm {
+
+	// Classic O(n^3) blocked product.
+	CLASSIC,
+
+	/*
+	 * Strassen-Winograd O(n^2.81) product, which is only used for operands large enough and falls back to the classic
+	 * product below a crossover size. It is less accurate than the classic product.
+	 */
+	STRASSEN_WINOGRAD
+}
@@ -0,0 +1,575 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A dense row-major matrix of doubles which can be overwritten. Each destination-passing method stores its result into
+ * the storage of this matrix, so that loops repeating the same operations do not allocate. Operands which are a
+ * {@link DenseMatrix}, a MutableDenseMatrix or a {@link MatrixView} with a unit stride are read in place, any other
+ * matrix is copied first. An operand sharing the storage of this matrix is accepted only when it is this whole matrix.
+ *
+ * <p>Unlike {@link DenseMatrix}, nothing is cached: the methods needing a factorization compute it on a copy every
+ * time they are called.
+ */
+public final class MutableDenseMatrix implements DoubleMatrix {
+
+	private final int rows;
+	private final int columns;
+	private final double[] m;
+
+	// Workspace of invertInPlace, allocated at the first call
+	private int[] pivots = null;
+
+	// Creates a rows x columns matrix filled with zeros.
+	public MutableDenseMatrix(final int rows, final int columns) {
+		if (rows < 1) {
+			throw new IllegalArgumentException("Invalid number of rows.");
+		}
+		if (columns < 1) {
+			throw new IllegalArgumentException("Invalid number of columns.");
+		}
+		this.rows = rows;
+		this.columns = columns;
+		this.m = new double[rows * columns];
+	}
+
+	public MutableDenseMatrix(final double[][] v) {
+		Objects.requireNonNull(v);
+		if (v.length < 1) {
+			throw new IllegalArgumentException("Invalid number of rows.");
+		}
+		this.rows = v.length;
+
+		if (v[0].length < 1) {
+			throw new IllegalArgumentException("Invalid number of columns.");
+		}
+		this.columns = v[0].length;
+
+		this.m = new double[rows * columns];
+
+		for (int i = 0; i < rows; i++) {
+			if (v[i].length != columns) {
+				throw new IllegalArgumentException("Invalid number of columns.");
+			}
+			System.arraycopy(v[i], 0, this.m, i * columns, columns);
+		}
+	}
+
+	// Creates a copy of the given matrix.
+	public MutableDenseMatrix(final Matrix<Double> other) {
+		Objects.requireNonNull(other);
+		this.rows = other.getNumRows();
+		this.columns = other.getNumColumns();
+		this.m = DoubleMatrix.toArray(other);
+	}
+
+	// Backing array in row-major order
+	double[] array() {
+		return m;
+	}
+
+	/*
+	 * Backing array of the given matrix when it is dense, which is row-major with no gaps between rows, or null for
+	 * views and any other matrix. Dense operands are read directly, without describing them with an Operand.
+	 */
+	private static double[] denseArray(final Matrix<Double> matrix) {
+		if (matrix instanceof MutableDenseMatrix mdm) {
+			return mdm.m;
+		}
+		if (matrix instanceof DenseMatrix dm) {
+			return dm.array();
+		}
+		return null;
+	}
+
+	// Whether the given operand is this whole matrix, in which case it can be read while being overwritten
+	private boolean isThis(final Operand op) {
+		if (op.data() != m) {
+			return false;
+		}
+		if (op.offset() != 0 || op.ld() != columns || op.trans()) {
+			throw new IllegalArgumentException("The result cannot overwrite a view of the same matrix.");
+		}
+		return true;
+	}
+
+	private void assertResultShape(final int resultRows, final int resultColumns) {
+		if (resultRows != rows || resultColumns != columns) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot store a %,d x %,d result into a %,d x %,d matrix.",
+					resultRows, resultColumns, rows, columns));
+		}
+	}
+
+	private void assertSameShape(final Matrix<Double> other) {
+		Objects.requireNonNull(other);
+		if (other.getNumRows() != rows || other.getNumColumns() != columns) {
+			throw new IllegalArgumentException("Different shapes.");
+		}
+	}
+
+	private void assertCorrectIndex(final int row, final int column) {
+		if (row < 0 || row >= rows || column < 0 || column >= columns) {
+			throw new IllegalArgumentException(
+					String.format("A %,d x %,d matrix has no element in (%,d; %,d).", rows, columns, row, column));
+		}
+	}
+
+	@Override
+	public int getNumRows() {
+		return rows;
+	}
+
+	@Override
+	public int getNumColumns() {
+		return columns;
+	}
+
+	@Override
+	public double getDouble(final int row, final int column) {
+		assertCorrectIndex(row, column);
+		return this.m[row * columns + column];
+	}
+
+	public void set(final int row, final int column, final double value) {
+		assertCorrectIndex(row, column);
+		this.m[row * columns + column] = value;
+	}
+
+	@Override
+	public void copyRow(final int row, final double[] dst, final int offset) {
+		if (row < 0 || row >= rows) {
+			throw new IllegalArgumentException(String.format("A %,d x %,d matrix has no row %,d.", rows, columns, row));
+		}
+		assertFits(columns, dst, offset);
+		System.arraycopy(m, row * columns, dst, offset, columns);
+	}
+
+	@Override
+	public void copyColumn(final int column, final double[] dst, final int offset) {
+		if (column < 0 || column >= columns) {
+			throw new IllegalArgumentException(
+					String.format("A %,d x %,d matrix has no column %,d.", rows, columns, column));
+		}
+		assertFits(rows, dst, offset);
+		for (int i = 0; i < rows; i++) {
+			dst[offset + i] = m[i * columns + column];
+		}
+	}
+
+	@Override
+	public void toArray(final double[] dst, final int offset) {
+		assertFits(m.length, dst, offset);
+		System.arraycopy(m, 0, dst, offset, m.length);
+	}
+
+	private static void assertFits(final int length, final double[] dst, final int offset) {
+		Objects.requireNonNull(dst);
+		if (offset < 0 || offset + length > dst.length) {
+			throw new IllegalArgumentException(String.format(
+					"Cannot copy %,d elements at offset %,d of an array of length %,d.", length, offset, dst.length));
+		}
+	}
+
+	// Returns an immutable copy of this matrix.
+	public DenseMatrix toDenseMatrix() {
+		return new DenseMatrix(rows, columns, m.clone());
+	}
+
+	// Overwrites this matrix with the elements of the given one.
+	public MutableDenseMatrix copyFrom(final Matrix<Double> other) {
+		assertSameShape(other);
+		final double[] dense = denseArray(other);
+		if (dense != null) {
+			if (dense != m) {
+				System.arraycopy(dense, 0, m, 0, m.length);
+			}
+			return this;
+		}
+		final Operand x = Operand.rowMajor(other);
+		if (!isThis(x)) {
+			for (int i = 0; i < rows; i++) {
+				System.arraycopy(x.data(), x.row(i), m, i * columns, columns);
+			}
+		}
+		return this;
+	}
+
+	public MutableDenseMatrix fill(final double value) {
+		Kernels.INSTANCE.fill(m, 0, m.length, value);
+		return this;
+	}
+
+	/*
+	 * Overwrites this matrix with A * B. Neither A nor B can be this matrix, because the product cannot be computed in
+	 * place.
+	 */
+	public MutableDenseMatrix multiplyInto(final Matrix<Double> a, final Matrix<Double> b) {
+		Objects.requireNonNull(a);
+		Objects.requireNonNull(b);
+		if (a.getNumColumns() != b.getNumRows()) {
+			throw new IllegalArgumentException("Invalid rows and columns.");
+		}
+		assertResultShape(a.getNumRows(), b.getNumColumns());
+		final int k = a.getNumColumns();
+		final double[] denseA = denseArray(a);
+		final double[] denseB = denseArray(b);
+		if (denseA != null && denseB != null) {
+			if (denseA == m || denseB == m) {
+				throw new IllegalArgumentException("The result cannot overwrite one of the operands.");
+			}
+			Gemm.gemm(false, false, rows, columns, k, 1.0, denseA, 0, k, denseB, 0, columns, 0.0, m, 0, columns);
+			return this;
+		}
+		final Operand x = Operand.of(a);
+		final Operand y = Operand.of(b);
+		if (x.data() == m || y.data() == m) {
+			throw new IllegalArgumentException("The result cannot overwrite one of the operands.");
+		}
+		Gemm.gemm(
+				x.trans(),
+				y.trans(),
+				rows,
+				columns,
+				k,
+				1.0,
+				x.data(),
+				x.offset(),
+				x.ld(),
+				y.data(),
+				y.offset(),
+				y.ld(),
+				0.0,
+				m,
+				0,
+				columns);
+		return this;
+	}
+
+	// Overwrites this matrix with A + B. Either operand can be this matrix.
+	public MutableDenseMatrix addInto(final Matrix<Double> a, final Matrix<Double> b) {
+		assertSameShape(a);
+		assertSameShape(b);
+		final double[] denseA = denseArray(a);
+		final double[] denseB = denseArray(b);
+		if (denseA != null && denseB != null) {
+			if (denseB == m) {
+				Kernels.INSTANCE.axpy(m.length, 1.0, denseA, 0, m, 0);
+			} else {
+				if (denseA != m) {
+					System.arraycopy(denseA, 0, m, 0, m.length);
+				}
+				Kernels.INSTANCE.axpy(m.length, 1.0, denseB, 0, m, 0);
+			}
+			return this;
+		}
+		final Operand x = Operand.rowMajor(a);
+		final Operand y = Operand.rowMajor(b);
+		final boolean xIsThis = isThis(x);
+		final boolean yIsThis = isThis(y);
+		for (int i = 0; i < rows; i++) {
+			final int row = i * columns;
+			if (yIsThis) {
+				Kernels.INSTANCE.axpy(columns, 1.0, x.data(), x.row(i), m, row);
+			} else {
+				if (!xIsThis) {
+					System.arraycopy(x.data(), x.row(i), m, row, columns);
+				}
+				Kernels.INSTANCE.axpy(columns, 1.0, y.data(), y.row(i), m, row);
+			}
+		}
+		return this;
+	}
+
+	// Overwrites this matrix with A - B. Either operand can be this matrix.
+	public MutableDenseMatrix subtractInto(final Matrix<Double> a, final Matrix<Double> b) {
+		assertSameShape(a);
+		assertSameShape(b);
+		final double[] denseA = denseArray(a);
+		final double[] denseB = denseArray(b);
+		if (denseA != null && denseB != null) {
+			if (denseB == m && denseA != m) {
+				// x - y computed as -y + x, which is exactly the same
+				Kernels.INSTANCE.negate(m, 0, m.length);
+				Kernels.INSTANCE.axpy(m.length, 1.0, denseA, 0, m, 0);
+			} else {
+				if (denseA != m) {
+					System.arraycopy(denseA, 0, m, 0, m.length);
+				}
+				Kernels.INSTANCE.axpy(m.length, -1.0, denseB, 0, m, 0);
+			}
+			return this;
+		}
+		final Operand x = Operand.rowMajor(a);
+		final Operand y = Operand.rowMajor(b);
+		final boolean xIsThis = isThis(x);
+		final boolean yIsThis = isThis(y);
+		for (int i = 0; i < rows; i++) {
+			final int row = i * columns;
+			if (yIsThis && !xIsThis) {
+				// x - y computed as -y + x, which is exactly the same
+				Kernels.INSTANCE.negate(m, row, columns);
+				Kernels.INSTANCE.axpy(columns, 1.0, x.data(), x.row(i), m, row);
+			} else {
+				if (!xIsThis) {
+					System.arraycopy(x.data(), x.row(i), m, row, columns);
+				}
+				Kernels.INSTANCE.axpy(columns, -1.0, y.data(), y.row(i), m, row);
+			}
+		}
+		return this;
+	}
+
+	public MutableDenseMatrix scaleInPlace(final double alpha) {
+		Kernels.INSTANCE.scale(m, 0, m.length, alpha);
+		return this;
+	}
+
+	/*
+	 * Overwrites this matrix with its inverse, computed with Gauss-Jordan elimination with partial pivoting. If the
+	 * matrix turns out to be singular, an exception is thrown and its contents are unspecified.
+	 */
+	public MutableDenseMatrix invertInPlace() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		if (pivots == null) {
+			pivots = new int[rows];
+		}
+		if (Lapack.invert(rows, m, 0, columns, pivots) >= 0) {
+			throw new IllegalArgumentException("Matrix is singular, not-invertible.");
+		}
+		return this;
+	}
+
+	/*
+	 * Overwrites this matrix with the transpose of A, which can be this matrix only when it is square. The transpose of
+	 * a transposed view is copied row by row.
+	 */
+	public MutableDenseMatrix transposeInto(final Matrix<Double> a) {
+		Objects.requireNonNull(a);
+		assertResultShape(a.getNumColumns(), a.getNumRows());
+		final double[] dense = denseArray(a);
+		if (dense == m) {
+			transposeInPlace();
+			return this;
+		}
+		if (dense != null) {
+			for (int i = 0; i < columns; i++) {
+				for (int j = 0; j < rows; j++) {
+					m[j * columns + i] = dense[i * rows + j];
+				}
+			}
+			return this;
+		}
+		final Operand x = Operand.of(a);
+		if (x.trans()) {
+			if (x.data() == m) {
+				throw new IllegalArgumentException("The result cannot overwrite a view of the same matrix.");
+			}
+			for (int i = 0; i < rows; i++) {
+				System.arraycopy(x.data(), x.row(i), m, i * columns, columns);
+			}
+			return this;
+		}
+		if (isThis(x)) {
+			transposeInPlace();
+			return this;
+		}
+		for (int i = 0; i < columns; i++) {
+			for (int j = 0; j < rows; j++) {
+				m[j * columns + i] = x.data()[x.row(i) + j];
+			}
+		}
+		return this;
+	}
+
+	// Swaps the elements above the diagonal with the ones below, when this matrix is square
+	private void transposeInPlace() {
+		for (int i = 0; i < rows; i++) {
+			for (int j = i + 1; j < columns; j++) {
+				final double tmp = m[i * columns + j];
+				m[i * columns + j] = m[j * columns + i];
+				m[j * columns + i] = tmp;
+			}
+		}
+	}
+
+	private MatrixView view() {
+		return new MatrixView(m, 0, rows, columns, columns, 1);
+	}
+
+	public MatrixView getRowView(final int row) {
+		return view().getRowView(row);
+	}
+
+	public MatrixView getColumnView(final int column) {
+		return view().getColumnView(column);
+	}
+
+	// The view of the numRows x numColumns block whose top-left element is (row, column)
+	public MatrixView getSubmatrixView(final int row, final int column, final int numRows, final int numColumns) {
+		return view().getSubmatrixView(row, column, numRows, numColumns);
+	}
+
+	// A view of the transpose of this matrix, which only swaps the strides
+	public MatrixView getTransposedView() {
+		return new MatrixView(m, 0, columns, rows, 1, columns);
+	}
+
+	@Override
+	public Double conditionNumber() {
+		return toDenseMatrix().conditionNumber();
+	}
+
+	@Override
+	public Double norm(final NormType type) {
+		Objects.requireNonNull(type);
+		return Lapack.lange(type, rows, columns, m, 0, columns);
+	}
+
+	@Override
+	public MutableDenseMatrix getTranspose() {
+		return new MutableDenseMatrix(columns, rows).transposeInto(this);
+	}
+
+	@Override
+	public MutableDenseMatrix multiply(final Matrix<Double> other) {
+		Objects.requireNonNull(other);
+		return new MutableDenseMatrix(rows, other.getNumColumns()).multiplyInto(this, other);
+	}
+
+	@Override
+	public MutableDenseMatrix subtract(final Matrix<Double> other) {
+		return new MutableDenseMatrix(rows, columns).subtractInto(this, other);
+	}
+
+	@Override
+	public Double getDeterminant() {
+		return Jalg.determinant(m, rows, columns);
+	}
+
+	@Override
+	public boolean isInvertible() {
+		return !new LUDecomposition(this).isSingular();
+	}
+
+	@Override
+	public MutableDenseMatrix getInverse() {
+		return new MutableDenseMatrix(this).invertInPlace();
+	}
+
+	@Override
+	public boolean isPositiveDefinite() {
+		return toDenseMatrix().isPositiveDefinite();
+	}
+
+	@Override
+	public MutableDenseMatrix gaussJordan() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		final MutableDenseMatrix result = new MutableDenseMatrix(this);
+		Jalg.gaussJordan(rows, columns, result.m, 0, columns);
+		return result;
+	}
+
+	@Override
+	public List<Double> getEigenvalues() {
+		return toDenseMatrix().getEigenvalues();
+	}
+
+	@Override
+	public boolean isSymmetric(final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		return isSquare() && Structure.isSymmetric(rows, m, 0, columns, eps);
+	}
+
+	@Override
+	public boolean isUpperTriangular() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
+		}
+		return Structure.isUpperTriangular(rows, m, 0, columns);
+	}
+
+	@Override
+	public boolean isLowerTriangular() {
+		if (!isSquare()) {
+			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
+		}
+		return Structure.isLowerTriangular(rows, m, 0, columns);
+	}
+
+	@Override
+	public boolean equals(final Matrix<Double> other, final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (other == null) {
+			return false;
+		}
+		if (this.getNumRows() != other.getNumRows() || this.getNumColumns() != other.getNumColumns()) {
+			return false;
+		}
+		final Operand x = Operand.of(other);
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				if (Math.abs(this.m[i * columns + j] - x.get(i, j)) > eps) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public String toString() {
+		return toDenseMatrix().toString();
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 17;
+		for (final double x : m) {
+			h = 31 * h + (int) (Double.doubleToLongBits(x) >>> 32);
+			h = 31 * h + (int) (Double.doubleToLongBits(x) & 0x00000000ffffffffL);
+		}
+		return h;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean equals(final Object other) {
+		if (other == null) {
+			return false;
+		}
+		if (this == other) {
+			return true;
+		}
+		if (!this.getClass().equals(other.getClass())) {
+			return false;
+		}
+		return this.equals((Matrix<Double>) other, 0.0);
+	}
+}
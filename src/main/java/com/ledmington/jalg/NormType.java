@@ -0,0 +1,40 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// The norms that can be computed on a matrix.
+public enum NormType {
+
+	// Square root of the sum of the squares of all the elements.
+	FROBENIUS,
+
+	// Maximum sum of the absolute values of a column.
+	ONE,
+
+	// Maximum sum of the absolute values of a row.
+	INFINITY,
+
+	// Largest absolute value of an element. It is not submultiplicative.
+	MAX_ABS,
+
+	/*
+	 * Largest singular value, estimated with the power method. The estimate is never larger than the exact value and
+	 * converges slowly when the two largest singular values are close.
+	 */
+	SPECTRAL
+}
@@ -0,0 +1,60 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * The storage of a matrix of doubles as seen by the kernels: a row-major array with an offset and a leading dimension,
+ * possibly holding the transpose of the matrix. Dense matrices and views with a unit stride are described in place,
+ * every other matrix is copied.
+ */
+record Operand(double[] data, int offset, int ld, boolean trans) {
+
+	// Describes the given matrix, which is stored transposed when trans is true
+	static Operand of(final Matrix<Double> matrix) {
+		if (matrix instanceof DenseMatrix dm) {
+			return new Operand(dm.array(), 0, dm.getNumColumns(), false);
+		}
+		if (matrix instanceof MutableDenseMatrix mdm) {
+			return new Operand(mdm.array(), 0, mdm.getNumColumns(), false);
+		}
+		if (matrix instanceof MatrixView v) {
+			if (v.columnStride() == 1) {
+				return new Operand(v.data(), v.offset(), v.rowStride(), false);
+			}
+			if (v.rowStride() == 1) {
+				return new Operand(v.data(), v.offset(), v.columnStride(), true);
+			}
+		}
+		return new Operand(DoubleMatrix.toArray(matrix), 0, matrix.getNumColumns(), false);
+	}
+
+	// Describes the given matrix, copying it when it would be stored transposed
+	static Operand rowMajor(final Matrix<Double> matrix) {
+		final Operand op = of(matrix);
+		return op.trans ? new Operand(DoubleMatrix.toArray(matrix), 0, matrix.getNumColumns(), false) : op;
+	}
+
+	// Index of the first element of row i, when not transposed
+	int row(final int i) {
+		return offset + i * ld;
+	}
+
+	double get(final int i, final int j) {
+		return trans ? data[offset + j * ld + i] : data[offset + i * ld + j];
+	}
+}
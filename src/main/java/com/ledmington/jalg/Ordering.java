@@ -0,0 +1,32 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// The order in which the rows are updated by the Gauss-Seidel family of solvers.
+public enum Ordering {
+
+	// Rows in increasing index, one after the other.
+	NATURAL,
+
+	/*
+	 * Rows grouped by a greedy coloring of the graph of the off-diagonal nonzeros, so that the rows of the same color
+	 * do not depend on each other and are updated in parallel. Matrices from five-point stencils get the red-black
+	 * ordering; a dense matrix gets one color per row and behaves like NATURAL.
+	 */
+	MULTICOLOR
+}
@@ -0,0 +1,145 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Controls how jalg uses multiple cores. By default, a dedicated pool with one thread per available processor is
+ * created the first time it is needed, so that the common pool is never used. Applications embedding jalg can either
+ * cap the number of threads or supply their own pool.
+ */
+public final class Parallelism {
+
+	private static final Object lock = new Object();
+
+	private static ForkJoinPool pool = null;
+	private static boolean ownedPool = false;
+
+	// Minimum number of multiply-adds of an operation for it to be executed in parallel
+	private static volatile long threshold = 128L * 128L * 128L;
+
+	private Parallelism() {}
+
+	public static ForkJoinPool getPool() {
+		synchronized (lock) {
+			if (pool == null) {
+				pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+				ownedPool = true;
+			}
+			return pool;
+		}
+	}
+
+	/*
+	 * Uses the given pool for all parallel operations. The pool is never shut down by jalg: its lifecycle belongs to
+	 * the caller.
+	 */
+	public static void setPool(final ForkJoinPool newPool) {
+		Objects.requireNonNull(newPool);
+		replace(newPool, false);
+	}
+
+	// Uses a dedicated pool with at most the given number of threads.
+	public static void setMaxThreads(final int maxThreads) {
+		if (maxThreads < 1) {
+			throw new IllegalArgumentException(String.format("Invalid number of threads: %,d.", maxThreads));
+		}
+		replace(new ForkJoinPool(maxThreads), true);
+	}
+
+	private static void replace(final ForkJoinPool newPool, final boolean owned) {
+		final ForkJoinPool old;
+		final boolean wasOwned;
+		synchronized (lock) {
+			old = pool;
+			wasOwned = ownedPool;
+			pool = newPool;
+			ownedPool = owned;
+		}
+		if (old != null && wasOwned && old != newPool) {
+			old.shutdown();
+		}
+	}
+
+	public static long getThreshold() {
+		return threshold;
+	}
+
+	/*
+	 * Sets the minimum amount of work, expressed as number of multiply-adds, of an operation for it to be split
+	 * across threads. Smaller operations always run on the calling thread.
+	 */
+	public static void setThreshold(final long minWork) {
+		if (minWork < 0L) {
+			throw new IllegalArgumentException(String.format("Invalid threshold: %,d.", minWork));
+		}
+		threshold = minWork;
+	}
+
+	static boolean isWorthParallelizing(final long work) {
+		return work >= threshold && getPool().getParallelism() > 1;
+	}
+
+	// A piece of work on the index range [from; to)
+	@FunctionalInterface
+	interface RangeBody {
+		void run(final int from, final int to);
+	}
+
+	/*
+	 * Runs body on [start; end), splitting the range in chunks of at least minChunk indices executed in parallel when
+	 * the total work (in multiply-adds) is large enough.
+	 */
+	static void parallelFor(
+			final int start, final int end, final int minChunk, final long work, final RangeBody body) {
+		if (end - start <= minChunk || !isWorthParallelizing(work)) {
+			body.run(start, end);
+			return;
+		}
+		getPool().invoke(new RangeTask(start, end, Math.max(1, minChunk), body));
+	}
+
+	@SuppressWarnings("serial")
+	private static final class RangeTask extends RecursiveAction {
+
+		private final int start;
+		private final int end;
+		private final int minChunk;
+		private final RangeBody body;
+
+		RangeTask(final int start, final int end, final int minChunk, final RangeBody body) {
+			this.start = start;
+			this.end = end;
+			this.minChunk = minChunk;
+			this.body = body;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= minChunk) {
+				body.run(start, end);
+				return;
+			}
+			final int mid = start + (end - start) / 2;
+			invokeAll(new RangeTask(start, mid, minChunk, body), new RangeTask(mid, end, minChunk, body));
+		}
+	}
+}
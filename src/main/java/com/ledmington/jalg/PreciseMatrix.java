@@ -122,9 +122,139 @@ public final class PreciseMatrix implements Matrix<BigDecimal> {
 		return columns;
 	}
 
+	/*
+	 * Returns an estimate of the 1-norm condition number, computed from the LU factorization with partial pivoting
+	 * without forming the inverse. The estimate is never larger than the exact value and rarely smaller by more than a
+	 * factor of 3.
+	 */
 	@Override
 	public BigDecimal conditionNumber() {
-		return this.norm().multiply(this.getInverse().norm(), ctx);
+		if (!isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		final int n = rows;
+		final BigDecimal[] lu = m.clone();
+		final int[] pivots = new int[n];
+		for (int j = 0; j < n; j++) {
+			int p = j;
+			for (int i = j + 1; i < n; i++) {
+				if (lu[i * n + j].abs().compareTo(lu[p * n + j].abs()) > 0) {
+					p = i;
+				}
+			}
+			final BigDecimal pivot = lu[p * n + j];
+			if (pivot.signum() == 0) {
+				throw new IllegalArgumentException("Matrix is singular, not-invertible.");
+			}
+			pivots[j] = p;
+			for (int k = 0; k < n && p != j; k++) {
+				final BigDecimal tmp = lu[j * n + k];
+				lu[j * n + k] = lu[p * n + k];
+				lu[p * n + k] = tmp;
+			}
+			for (int i = j + 1; i < n; i++) {
+				final BigDecimal l = lu[i * n + j].divide(pivot, ctx);
+				lu[i * n + j] = l;
+				for (int k = j + 1; k < n && l.signum() != 0; k++) {
+					lu[i * n + k] = lu[i * n + k].subtract(l.multiply(lu[j * n + k], ctx), ctx);
+				}
+			}
+		}
+
+		final double ainvnm = Lapack.lacn2(n, (trans, x) -> solve(n, lu, pivots, trans, x));
+		if (!Double.isFinite(ainvnm)) {
+			throw new IllegalArgumentException("Matrix is singular, not-invertible.");
+		}
+		return norm1().multiply(new BigDecimal(ainvnm), ctx);
+	}
+
+	// Overwrites x with A^-1 * x (or A^-T * x when trans is true), where P * A = L * U is stored in lu.
+	private static void solve(
+			final int n, final BigDecimal[] lu, final int[] pivots, final boolean trans, final double[] x) {
+		final BigDecimal[] b = new BigDecimal[n];
+		for (int i = 0; i < n; i++) {
+			b[i] = new BigDecimal(x[i]);
+		}
+		if (!trans) {
+			// L * U * x = P * b
+			for (int i = 0; i < n; i++) {
+				final BigDecimal tmp = b[i];
+				b[i] = b[pivots[i]];
+				b[pivots[i]] = tmp;
+			}
+			for (int i = 0; i < n; i++) {
+				for (int k = 0; k < i; k++) {
+					b[i] = b[i].subtract(lu[i * n + k].multiply(b[k], ctx), ctx);
+				}
+			}
+			for (int i = n - 1; i >= 0; i--) {
+				for (int k = i + 1; k < n; k++) {
+					b[i] = b[i].subtract(lu[i * n + k].multiply(b[k], ctx), ctx);
+				}
+				b[i] = b[i].divide(lu[i * n + i], ctx);
+			}
+		} else {
+			// U^T * L^T * (P * x) = b
+			for (int i = 0; i < n; i++) {
+				for (int k = 0; k < i; k++) {
+					b[i] = b[i].subtract(lu[k * n + i].multiply(b[k], ctx), ctx);
+				}
+				b[i] = b[i].divide(lu[i * n + i], ctx);
+			}
+			for (int i = n - 1; i >= 0; i--) {
+				for (int k = i + 1; k < n; k++) {
+					b[i] = b[i].subtract(lu[k * n + i].multiply(b[k], ctx), ctx);
+				}
+			}
+			for (int i = n - 1; i >= 0; i--) {
+				final BigDecimal tmp = b[i];
+				b[i] = b[pivots[i]];
+				b[pivots[i]] = tmp;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			x[i] = b[i].doubleValue();
+		}
+	}
+
+	private BigDecimal normMax() {
+		BigDecimal max = BigDecimal.ZERO;
+		for (final BigDecimal x : m) {
+			max = max.max(x.abs());
+		}
+		return max;
+	}
+
+	// Maximum absolute column sum
+	private BigDecimal norm1() {
+		BigDecimal max = BigDecimal.ZERO;
+		for (int j = 0; j < columns; j++) {
+			BigDecimal sum = BigDecimal.ZERO;
+			for (int i = 0; i < rows; i++) {
+				sum = sum.add(m[i * columns + j].abs(), ctx);
+			}
+			max = max.max(sum);
+		}
+		return max;
+	}
+
+	@Override
+	public boolean isSymmetric(final double eps) {
+		if (eps < 0.0) {
+			throw new IllegalArgumentException("Negative epsilon.");
+		}
+		if (!isSquare()) {
+			return false;
+		}
+		final BigDecimal tolerance = BigDecimal.valueOf(eps);
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < i; j++) {
+				if (m[i * columns + j].subtract(m[j * columns + i], ctx).abs().compareTo(tolerance) > 0) {
+					return false;
+				}
+			}
+		}
+		return true;
 	}
 
 	@Override
@@ -132,9 +262,9 @@ public final class PreciseMatrix implements Matrix<BigDecimal> {
 		if (!isSquare()) {
 			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
 		}
-		for (int i = 0; i < getNumRows(); i++) {
+		for (int i = 0; i < rows; i++) {
 			for (int j = 0; j < i; j++) {
-				if (get(i, j).compareTo(BigDecimal.ZERO) != 0) {
+				if (m[i * columns + j].signum() != 0) {
 					return false;
 				}
 			}
@@ -147,9 +277,9 @@ public final class PreciseMatrix implements Matrix<BigDecimal> {
 		if (!isSquare()) {
 			throw new IllegalArgumentException("A rectangular matrix cannot be triangular.");
 		}
-		for (int i = 0; i < getNumRows(); i++) {
-			for (int j = i + 1; j < getNumColumns(); j++) {
-				if (get(i, j).compareTo(BigDecimal.ZERO) != 0) {
+		for (int i = 0; i < rows; i++) {
+			for (int j = i + 1; j < columns; j++) {
+				if (m[i * columns + j].signum() != 0) {
 					return false;
 				}
 			}
@@ -229,9 +359,46 @@ public final class PreciseMatrix implements Matrix<BigDecimal> {
 		return new PreciseMatrix(v);
 	}
 
+	/*
+	 * The spectral norm is estimated in double precision on a copy of this matrix scaled by its largest element, so
+	 * that it does not overflow even when the elements are outside the range of a double.
+	 */
 	@Override
-	public BigDecimal norm() {
-		return this.getTranspose().multiply(this).get(0, 0);
+	public BigDecimal norm(final NormType type) {
+		Objects.requireNonNull(type);
+		return switch (type) {
+			case FROBENIUS -> {
+				BigDecimal ssq = BigDecimal.ZERO;
+				for (final BigDecimal x : m) {
+					ssq = ssq.add(x.multiply(x, ctx), ctx);
+				}
+				yield ssq.sqrt(ctx);
+			}
+			case ONE -> norm1();
+			case INFINITY -> {
+				BigDecimal max = BigDecimal.ZERO;
+				for (int i = 0; i < rows; i++) {
+					BigDecimal sum = BigDecimal.ZERO;
+					for (int j = 0; j < columns; j++) {
+						sum = sum.add(m[i * columns + j].abs(), ctx);
+					}
+					max = max.max(sum);
+				}
+				yield max;
+			}
+			case MAX_ABS -> normMax();
+			case SPECTRAL -> {
+				final BigDecimal max = normMax();
+				if (max.signum() == 0) {
+					yield BigDecimal.ZERO;
+				}
+				final double[] a = new double[m.length];
+				for (int i = 0; i < m.length; i++) {
+					a[i] = m[i].divide(max, ctx).doubleValue();
+				}
+				yield max.multiply(new BigDecimal(Lapack.norm2(rows, columns, a, 0, columns)), ctx);
+			}
+		};
 	}
 
 	@Override
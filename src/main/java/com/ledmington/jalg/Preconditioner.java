@@ -0,0 +1,38 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// The preconditioners available to the Krylov solvers in Solvers.
+public enum Preconditioner {
+
+	// No preconditioning.
+	IDENTITY,
+
+	// The diagonal of the matrix.
+	JACOBI,
+
+	// The diagonal blocks of 64 rows of the matrix, each one factored with partial pivoting.
+	BLOCK_JACOBI,
+
+	/*
+	 * The incomplete Cholesky factorization with no fill-in IC(0), which keeps only the nonzeros of the matrix. When
+	 * it breaks down, the diagonal is shifted until the factorization succeeds. Only valid for symmetric positive
+	 * definite matrices.
+	 */
+	INCOMPLETE_CHOLESKY
+}
@@ -0,0 +1,150 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * The application z = M^-1 * r of a {@link Preconditioner} M, built once from a row-major matrix and then applied
+ * without allocating. Arguments are assumed to be already checked.
+ */
+interface Preconditioning {
+
+	// z = M^-1 * r, returning the dot product of r and z
+	double apply(final double[] r, final double[] z);
+
+	static Preconditioning of(
+			final Preconditioner type, final int n, final double[] a, final int offA, final int lda) {
+		return switch (type) {
+			case IDENTITY -> (r, z) -> {
+				System.arraycopy(r, 0, z, 0, n);
+				return Kernels.INSTANCE.dot(n, r, 0, r, 0);
+			};
+			case JACOBI -> {
+				final double[] inverse = Solvers.diagonal(n, a, offA, lda);
+				for (int i = 0; i < n; i++) {
+					inverse[i] = 1.0 / inverse[i];
+				}
+				yield (r, z) -> Kernels.INSTANCE.multiplyDot(n, r, inverse, z);
+			}
+			case BLOCK_JACOBI -> new BlockJacobi(n, a, offA, lda);
+			case INCOMPLETE_CHOLESKY -> new IncompleteCholesky(n, a, offA, lda);
+		};
+	}
+
+	/*
+	 * LU factorizations of the diagonal blocks of Lapack.NB rows, solved in parallel. The vector being solved is
+	 * handed to the body of the parallel loop through a field, so that the body is created only once.
+	 */
+	final class BlockJacobi implements Preconditioning {
+
+		private final int n;
+		private final int numBlocks;
+		private final double[] blocks;
+		private final int[][] pivots;
+		private final Parallelism.RangeBody solve;
+		private double[] target;
+
+		BlockJacobi(final int n, final double[] a, final int offA, final int lda) {
+			final int nb = Lapack.NB;
+			this.n = n;
+			this.numBlocks = (n + nb - 1) / nb;
+			this.blocks = new double[n * nb];
+			this.pivots = new int[numBlocks][];
+			for (int k = 0; k < numBlocks; k++) {
+				final int k0 = k * nb;
+				final int kb = Math.min(nb, n - k0);
+				for (int i = 0; i < kb; i++) {
+					System.arraycopy(a, offA + (k0 + i) * lda + k0, blocks, k0 * nb + i * kb, kb);
+				}
+				pivots[k] = new int[kb];
+				if (Lapack.getrf(kb, kb, blocks, k0 * nb, kb, pivots[k]) >= 0) {
+					throw new IllegalArgumentException(
+							String.format("Singular diagonal block starting at row %,d.", k0));
+				}
+			}
+			this.solve = (from, to) -> {
+				for (int k = from; k < to; k++) {
+					final int k0 = k * nb;
+					final int kb = Math.min(nb, n - k0);
+					Lapack.getrs(false, kb, 1, blocks, k0 * nb, kb, pivots[k], target, k0, 1);
+				}
+			};
+		}
+
+		@Override
+		public double apply(final double[] r, final double[] z) {
+			System.arraycopy(r, 0, z, 0, n);
+			target = z;
+			Parallelism.parallelFor(0, numBlocks, 1, (long) n * Lapack.NB, solve);
+			return Kernels.INSTANCE.dot(n, r, 0, z, 0);
+		}
+	}
+
+	/*
+	 * A = L * L^T restricted to the nonzeros of the lower triangle of A, computed row by row with dot products on
+	 * dense rows of L: the elements outside of the pattern stay zero and do not contribute. When a pivot is not
+	 * positive, the factorization restarts on A + shift * diag(A) with a growing shift.
+	 */
+	final class IncompleteCholesky implements Preconditioning {
+
+		private static final int MAX_SHIFTS = 30;
+
+		private final int n;
+		private final double[] l;
+
+		IncompleteCholesky(final int n, final double[] a, final int offA, final int lda) {
+			this.n = n;
+			this.l = new double[n * n];
+			double shift = 0.0;
+			for (int attempt = 0; factor(n, a, offA, lda, shift, l) >= 0; attempt++) {
+				if (attempt == MAX_SHIFTS) {
+					throw new IllegalArgumentException("Matrix is not positive definite.");
+				}
+				shift = shift == 0.0 ? 1e-3 : 2.0 * shift;
+			}
+		}
+
+		// Returns the index of the first non-positive pivot, or -1
+		private static int factor(
+				final int n, final double[] a, final int offA, final int lda, final double shift, final double[] l) {
+			for (int i = 0; i < n; i++) {
+				final int rowA = offA + i * lda;
+				final int rowL = i * n;
+				for (int j = 0; j < i; j++) {
+					final int rowJ = j * n;
+					l[rowL + j] = a[rowA + j] == 0.0
+							? 0.0
+							: (a[rowA + j] - Kernels.INSTANCE.dot(j, l, rowL, l, rowJ)) / l[rowJ + j];
+				}
+				final double d = a[rowA + i] * (1.0 + shift) - Kernels.INSTANCE.dot(i, l, rowL, l, rowL);
+				if (!(d > 0.0)) {
+					return i;
+				}
+				l[rowL + i] = Math.sqrt(d);
+			}
+			return -1;
+		}
+
+		@Override
+		public double apply(final double[] r, final double[] z) {
+			System.arraycopy(r, 0, z, 0, n);
+			Level2.trsv(false, false, false, n, l, 0, n, z, 0, 1);
+			Level2.trsv(false, true, false, n, l, 0, n, z, 0, 1);
+			return Kernels.INSTANCE.dot(n, r, 0, z, 0);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// Where the preconditioner M is applied by the Krylov solvers for nonsymmetric systems.
+public enum PreconditioningSide {
+
+	/*
+	 * Solves M^-1 * A * x = M^-1 * b: the residual criterion applies to the preconditioned residual M^-1 * (b - A * x),
+	 * with the relative tolerance scaled by the norm of M^-1 * b.
+	 */
+	LEFT,
+
+	// Solves A * M^-1 * u = b with x = M^-1 * u: the residual criterion applies to the true residual.
+	RIGHT
+}
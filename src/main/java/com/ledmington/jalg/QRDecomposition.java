@@ -0,0 +1,171 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * Householder QR factorization A = Q * R of a m x n matrix, computed with the blocked algorithm of
+ * {@link Jalg#geqrf(int, int, double[], int, int, double[])}. Q is never formed unless explicitly requested: it is
+ * applied implicitly through its reflectors by {@link #applyQ(Matrix)} and {@link #applyQT(Matrix)}.
+ *
+ * <p>For a tall-skinny matrix (m much larger than n), the economy-size factors have Q of size m x n and R of size
+ * n x n.
+ */
+public final class QRDecomposition {
+
+	private final int rows;
+	private final int columns;
+	private final double[] qr;
+	private final double[] tau;
+
+	public QRDecomposition(final Matrix<Double> matrix) {
+		Objects.requireNonNull(matrix);
+		this.rows = matrix.getNumRows();
+		this.columns = matrix.getNumColumns();
+		this.qr = DoubleMatrix.toArray(matrix);
+		this.tau = new double[Math.min(rows, columns)];
+		Lapack.geqrf(rows, columns, qr, 0, columns, tau);
+	}
+
+	public int getNumRows() {
+		return rows;
+	}
+
+	public int getNumColumns() {
+		return columns;
+	}
+
+	private int reflectors() {
+		return tau.length;
+	}
+
+	/*
+	 * Returns the upper trapezoidal factor R, of size m x n, or min(m, n) x n when economy is true.
+	 */
+	public DenseMatrix getR(final boolean economy) {
+		final int r = economy ? reflectors() : rows;
+		final double[] v = new double[r * columns];
+		for (int i = 0; i < Math.min(r, columns); i++) {
+			System.arraycopy(qr, i * columns + i, v, i * columns + i, columns - i);
+		}
+		return new DenseMatrix(r, columns, v);
+	}
+
+	/*
+	 * Returns the orthogonal factor Q, of size m x m, or m x min(m, n) when economy is true.
+	 */
+	public DenseMatrix getQ(final boolean economy) {
+		final int c = economy ? reflectors() : rows;
+		final double[] q = new double[rows * c];
+		for (int i = 0; i < Math.min(rows, c); i++) {
+			q[i * c + i] = 1.0;
+		}
+		Lapack.ormqr(false, rows, c, reflectors(), qr, 0, columns, tau, q, 0, c);
+		return new DenseMatrix(rows, c, q);
+	}
+
+	public DenseMatrix applyQ(final Matrix<Double> b) {
+		return apply(false, b);
+	}
+
+	public DenseMatrix applyQT(final Matrix<Double> b) {
+		return apply(true, b);
+	}
+
+	private DenseMatrix apply(final boolean trans, final Matrix<Double> b) {
+		Objects.requireNonNull(b);
+		if (b.getNumRows() != rows) {
+			throw new IllegalArgumentException(
+					String.format("Expected a matrix with %,d rows but was %,d.", rows, b.getNumRows()));
+		}
+		final int p = b.getNumColumns();
+		final double[] c = DoubleMatrix.toArray(b);
+		Lapack.ormqr(trans, rows, p, reflectors(), qr, 0, columns, tau, c, 0, p);
+		return new DenseMatrix(rows, p, c);
+	}
+
+	/*
+	 * Overwrites the m x p row-major matrix C, starting at index offset with leading dimension ldc, with Q * C (or
+	 * Q^T * C when trans is true).
+	 */
+	public void applyInPlace(final boolean trans, final double[] c, final int offset, final int p, final int ldc) {
+		Objects.requireNonNull(c);
+		if (p < 0 || ldc < Math.max(1, p) || offset < 0) {
+			throw new IllegalArgumentException("Invalid matrix.");
+		}
+		if (rows > 0 && p > 0 && (long) offset + (long) (rows - 1) * ldc + p > c.length) {
+			throw new IllegalArgumentException("Matrix does not fit in the given array.");
+		}
+		Lapack.ormqr(trans, rows, p, reflectors(), qr, 0, columns, tau, c, offset, ldc);
+	}
+
+	public boolean isFullRank() {
+		for (int i = 0; i < reflectors(); i++) {
+			if (qr[i * columns + i] == 0.0) {
+				return false;
+			}
+		}
+		return reflectors() == columns;
+	}
+
+	private void assertFullRank() {
+		if (!isFullRank()) {
+			throw new IllegalArgumentException("Matrix is rank deficient.");
+		}
+	}
+
+	/*
+	 * Returns the vector x which minimizes the 2-norm of A * x - b, for a full-rank matrix with at least as many rows as
+	 * columns.
+	 */
+	public double[] solve(final double[] b) {
+		assertFullRank();
+		Objects.requireNonNull(b);
+		if (b.length != rows) {
+			throw new IllegalArgumentException(
+					String.format("Expected a vector of %,d elements but was %,d.", rows, b.length));
+		}
+		final double[] y = b.clone();
+		Lapack.ormqr(true, rows, 1, reflectors(), qr, 0, columns, tau, y, 0, 1);
+		Lapack.triangularSolve(true, false, false, columns, 1, qr, 0, columns, y, 0, 1);
+		final double[] x = new double[columns];
+		System.arraycopy(y, 0, x, 0, columns);
+		return x;
+	}
+
+	/*
+	 * Returns the n x p matrix X which minimizes the Frobenius norm of A * X - B, for a full-rank matrix with at least
+	 * as many rows as columns.
+	 */
+	public DenseMatrix solve(final Matrix<Double> b) {
+		assertFullRank();
+		Objects.requireNonNull(b);
+		if (b.getNumRows() != rows) {
+			throw new IllegalArgumentException(
+					String.format("Expected a matrix with %,d rows but was %,d.", rows, b.getNumRows()));
+		}
+		final int p = b.getNumColumns();
+		final double[] y = DoubleMatrix.toArray(b);
+		Lapack.ormqr(true, rows, p, reflectors(), qr, 0, columns, tau, y, 0, p);
+		Lapack.triangularSolve(true, false, false, columns, p, qr, 0, columns, y, 0, p);
+		final double[] x = new double[columns * p];
+		System.arraycopy(y, 0, x, 0, columns * p);
+		return new DenseMatrix(columns, p, x);
+	}
+}
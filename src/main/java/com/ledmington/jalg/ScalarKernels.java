@@ -0,0 +1,128 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Arrays;
+
+final class ScalarKernels implements Kernels {
+
+	ScalarKernels() {}
+
+	@Override
+	public void fill(final double[] x, final int start, final int n, final double value) {
+		Arrays.fill(x, start, start + n, value);
+	}
+
+	@Override
+	public void negate(final double[] x, final int start, final int n) {
+		final int end = start + n;
+		for (int i = start; i < end; i++) {
+			x[i] = -x[i];
+		}
+	}
+
+	@Override
+	public void scale(final double[] x, final int start, final int n, final double alpha) {
+		final int end = start + n;
+		for (int i = start; i < end; i++) {
+			x[i] *= alpha;
+		}
+	}
+
+	@Override
+	public void divide(final double[] x, final int start, final int n, final double alpha) {
+		final int end = start + n;
+		for (int i = start; i < end; i++) {
+			x[i] /= alpha;
+		}
+	}
+
+	@Override
+	public void axpy(
+			final int n, final double alpha, final double[] x, final int startX, final double[] y, final int startY) {
+		for (int k = 0; k < n; k++) {
+			y[startY + k] += alpha * x[startX + k];
+		}
+	}
+
+	@Override
+	public double dot(final int n, final double[] x, final int startX, final double[] y, final int startY) {
+		double s = 0.0;
+		for (int k = 0; k < n; k++) {
+			s += x[startX + k] * y[startY + k];
+		}
+		return s;
+	}
+
+	@Override
+	public double axpyDot(
+			final int n, final double alpha, final double[] x, final int startX, final double[] y, final int startY) {
+		double s = 0.0;
+		for (int k = 0; k < n; k++) {
+			final double v = y[startY + k] + alpha * x[startX + k];
+			y[startY + k] = v;
+			s += v * v;
+		}
+		return s;
+	}
+
+	@Override
+	public void xpby(
+			final int n, final double[] x, final int startX, final double beta, final double[] y, final int startY) {
+		for (int k = 0; k < n; k++) {
+			y[startY + k] = x[startX + k] + beta * y[startY + k];
+		}
+	}
+
+	@Override
+	public double multiplyDot(final int n, final double[] x, final double[] y, final double[] z) {
+		double s = 0.0;
+		for (int k = 0; k < n; k++) {
+			z[k] = x[k] * y[k];
+			s += x[k] * z[k];
+		}
+		return s;
+	}
+
+	@Override
+	public void addAbs(final int n, final double[] x, final int startX, final double[] y, final int startY) {
+		for (int k = 0; k < n; k++) {
+			y[startY + k] += Math.abs(x[startX + k]);
+		}
+	}
+
+	@Override
+	public double sumAbs(final double[] x, final int start, final int n) {
+		final int end = start + n;
+		double s = 0.0;
+		for (int i = start; i < end; i++) {
+			s += Math.abs(x[i]);
+		}
+		return s;
+	}
+
+	@Override
+	public double maxAbs(final double[] x, final int start, final int n) {
+		final int end = start + n;
+		double max = 0.0;
+		for (int i = start; i < end; i++) {
+			max = Math.max(max, Math.abs(x[i]));
+		}
+		return max;
+	}
+}
@@ -0,0 +1,184 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * Singular value decomposition A = U * S * V^T of a m x n matrix, with the singular values in descending order on the
+ * diagonal of S and the orthonormal singular vectors in the columns of U and V. With the economy-size (thin) factors,
+ * U is m x k, S is k x k and V is n x k, where k = min(m, n); otherwise U is m x m, S is m x n and V is n x n. See
+ * {@link Jalg#gesvd(boolean, boolean, int, int, double[], int, int, double[], double[], double[])}.
+ */
+public final class SingularValueDecomposition {
+
+	private final int rows;
+	private final int columns;
+	private final double[] values;
+	private final boolean economy;
+	private final double[] u;
+	private final double[] vt;
+
+	public SingularValueDecomposition(final Matrix<Double> matrix) {
+		this(matrix, true, true, SvdAlgorithm.GOLUB_KAHAN);
+	}
+
+	public SingularValueDecomposition(
+			final Matrix<Double> matrix, final boolean computeVectors, final boolean economy) {
+		this(matrix, computeVectors, economy, SvdAlgorithm.GOLUB_KAHAN);
+	}
+
+	public SingularValueDecomposition(
+			final Matrix<Double> matrix,
+			final boolean computeVectors,
+			final boolean economy,
+			final SvdAlgorithm algorithm) {
+		Objects.requireNonNull(matrix);
+		Objects.requireNonNull(algorithm);
+		this.rows = matrix.getNumRows();
+		this.columns = matrix.getNumColumns();
+		this.economy = economy;
+		final int k = Math.min(rows, columns);
+		final double[] a = DoubleMatrix.toArray(matrix);
+		this.values = new double[k];
+		this.u = computeVectors ? new double[rows * uColumns()] : null;
+		this.vt = computeVectors ? new double[vRows() * columns] : null;
+		final int info = algorithm == SvdAlgorithm.JACOBI
+				? Lapack.gesvj(computeVectors, economy, rows, columns, a, 0, columns, values, u, vt)
+				: Lapack.gesvd(computeVectors, economy, rows, columns, a, 0, columns, values, u, vt);
+		if (info >= 0) {
+			throw new ArithmeticException("Singular value decomposition did not converge.");
+		}
+	}
+
+	private int uColumns() {
+		return economy ? Math.min(rows, columns) : rows;
+	}
+
+	private int vRows() {
+		return economy ? Math.min(rows, columns) : columns;
+	}
+
+	public int getNumRows() {
+		return rows;
+	}
+
+	public int getNumColumns() {
+		return columns;
+	}
+
+	public boolean hasSingularVectors() {
+		return u != null;
+	}
+
+	public double[] getSingularValues() {
+		return values.clone();
+	}
+
+	public double getSingularValue(final int i) {
+		if (i < 0 || i >= values.length) {
+			throw new IllegalArgumentException(String.format("Invalid index: %,d.", i));
+		}
+		return values[i];
+	}
+
+	// Returns the diagonal matrix S, of size k x k for the economy-size factors, m x n otherwise.
+	public DenseMatrix getS() {
+		final int r = economy ? values.length : rows;
+		final int c = economy ? values.length : columns;
+		final double[] s = new double[r * c];
+		for (int i = 0; i < values.length; i++) {
+			s[i * c + i] = values[i];
+		}
+		return new DenseMatrix(r, c, s);
+	}
+
+	private void assertVectors() {
+		if (u == null) {
+			throw new IllegalArgumentException("Singular vectors were not computed.");
+		}
+	}
+
+	public DenseMatrix getU() {
+		assertVectors();
+		return new DenseMatrix(rows, uColumns(), u.clone());
+	}
+
+	public DenseMatrix getV() {
+		assertVectors();
+		final int k = vRows();
+		final double[] v = new double[columns * k];
+		for (int i = 0; i < k; i++) {
+			for (int j = 0; j < columns; j++) {
+				v[j * k + i] = vt[i * columns + j];
+			}
+		}
+		return new DenseMatrix(columns, k, v);
+	}
+
+	// The 2-norm, which is the largest singular value.
+	public double norm2() {
+		return values.length == 0 ? 0.0 : values[0];
+	}
+
+	/*
+	 * The 2-norm condition number, which is the ratio between the largest and the smallest singular value, or infinity
+	 * for a rank-deficient matrix.
+	 */
+	public double conditionNumber() {
+		if (values.length == 0) {
+			return 0.0;
+		}
+		final double min = values[values.length - 1];
+		return min == 0.0 ? Double.POSITIVE_INFINITY : values[0] / min;
+	}
+
+	// Singular values below this are treated as zero by rank() and getPseudoInverse().
+	private double tolerance() {
+		return Math.max(rows, columns) * norm2() * Math.ulp(1.0);
+	}
+
+	public int rank() {
+		final double tol = tolerance();
+		int r = 0;
+		while (r < values.length && values[r] > tol) {
+			r++;
+		}
+		return r;
+	}
+
+	/*
+	 * Returns the n x m Moore-Penrose pseudoinverse V * S^+ * U^T, where S^+ inverts the singular values above
+	 * max(m, n) * eps * norm2() and zeroes the others.
+	 */
+	public DenseMatrix getPseudoInverse() {
+		assertVectors();
+		final int r = rank();
+		final int ku = uColumns();
+		// W = S^+ * U^T, restricted to the first r rows
+		final double[] w = new double[r * rows];
+		for (int i = 0; i < rows; i++) {
+			for (int l = 0; l < r; l++) {
+				w[l * rows + i] = u[i * ku + l] / values[l];
+			}
+		}
+		final double[] p = new double[columns * rows];
+		Gemm.gemm(true, false, columns, rows, r, 1.0, vt, 0, columns, w, 0, rows, 0.0, p, 0, rows);
+		return new DenseMatrix(columns, rows, p);
+	}
+}
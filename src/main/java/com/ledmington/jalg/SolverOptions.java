@@ -0,0 +1,104 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * Stopping criteria of the iterative solvers in {@link Solvers}. Instances are immutable: each with* method returns a
+ * modified copy. An iteration stops as soon as the quantity chosen by the criterion is not larger than the maximum
+ * between the absolute tolerance and the relative tolerance multiplied by the reference of the criterion.
+ */
+public final class SolverOptions {
+
+	private final int maxIterations;
+	private final double absoluteTolerance;
+	private final double relativeTolerance;
+	private final StoppingCriterion criterion;
+
+	// At most 100 iterations, stopping when the residual is reduced by a factor 1e8 with respect to b.
+	public SolverOptions() {
+		this(100, 0.0, 1e-8, StoppingCriterion.RESIDUAL);
+	}
+
+	private SolverOptions(
+			final int maxIterations,
+			final double absoluteTolerance,
+			final double relativeTolerance,
+			final StoppingCriterion criterion) {
+		this.maxIterations = maxIterations;
+		this.absoluteTolerance = absoluteTolerance;
+		this.relativeTolerance = relativeTolerance;
+		this.criterion = criterion;
+	}
+
+	public SolverOptions withMaxIterations(final int maxIterations) {
+		if (maxIterations < 0) {
+			throw new IllegalArgumentException(
+					String.format("Invalid maximum number of iterations: %,d.", maxIterations));
+		}
+		return new SolverOptions(maxIterations, absoluteTolerance, relativeTolerance, criterion);
+	}
+
+	public SolverOptions withAbsoluteTolerance(final double absoluteTolerance) {
+		if (!(absoluteTolerance >= 0.0)) {
+			throw new IllegalArgumentException(String.format("Invalid tolerance: %f.", absoluteTolerance));
+		}
+		return new SolverOptions(maxIterations, absoluteTolerance, relativeTolerance, criterion);
+	}
+
+	public SolverOptions withRelativeTolerance(final double relativeTolerance) {
+		if (!(relativeTolerance >= 0.0)) {
+			throw new IllegalArgumentException(String.format("Invalid tolerance: %f.", relativeTolerance));
+		}
+		return new SolverOptions(maxIterations, absoluteTolerance, relativeTolerance, criterion);
+	}
+
+	public SolverOptions withCriterion(final StoppingCriterion criterion) {
+		Objects.requireNonNull(criterion);
+		return new SolverOptions(maxIterations, absoluteTolerance, relativeTolerance, criterion);
+	}
+
+	public int getMaxIterations() {
+		return maxIterations;
+	}
+
+	public double getAbsoluteTolerance() {
+		return absoluteTolerance;
+	}
+
+	public double getRelativeTolerance() {
+		return relativeTolerance;
+	}
+
+	public StoppingCriterion getCriterion() {
+		return criterion;
+	}
+
+	// The largest value of the criterion which stops the iteration, given the norm it is relative to
+	double threshold(final double reference) {
+		return Math.max(absoluteTolerance, relativeTolerance * reference);
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"SolverOptions(maxIterations=%,d, absoluteTolerance=%e, relativeTolerance=%e, criterion=%s)",
+				maxIterations, absoluteTolerance, relativeTolerance, criterion);
+	}
+}
@@ -0,0 +1,61 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * The outcome of an iterative solver: the last iterate, which is returned even when the stopping criterion was not
+ * met, together with the number of iterations and the euclidean norm of its residual b - A * x.
+ */
+public final class SolverResult {
+
+	private final DenseMatrix solution;
+	private final int iterations;
+	private final double residualNorm;
+	private final boolean converged;
+
+	SolverResult(final DenseMatrix solution, final int iterations, final double residualNorm, final boolean converged) {
+		this.solution = solution;
+		this.iterations = iterations;
+		this.residualNorm = residualNorm;
+		this.converged = converged;
+	}
+
+	// The solution as a column vector.
+	public DenseMatrix getSolution() {
+		return solution;
+	}
+
+	public int getIterations() {
+		return iterations;
+	}
+
+	public double getResidualNorm() {
+		return residualNorm;
+	}
+
+	// Whether the stopping criterion was met within the maximum number of iterations.
+	public boolean isConverged() {
+		return converged;
+	}
+
+	@Override
+	public String toString() {
+		return String.format(
+				"SolverResult(iterations=%,d, residualNorm=%e, converged=%b)", iterations, residualNorm, converged);
+	}
+}
@@ -19,54 +19,1164 @@ package com.ledmington.jalg;
 
 import java.math.BigDecimal;
 import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
 import java.util.stream.IntStream;
 
 public final class Solvers {
 
+	// Limits of the power iteration in optimalRelaxation
+	private static final int POWER_ITERATIONS = 1000;
+	private static final double POWER_TOLERANCE = 1e-10;
+
+	// A scalar of the short recurrences is considered zero when it is this small relative to the norms it comes from
+	private static final double BREAKDOWN_TOLERANCE = 0x1p-52;
+
+	// Consecutive restarts without completing an iteration after which the short recurrences give up
+	private static final int MAX_FAILED_RESTARTS = 3;
+
+	// Smallest cosine between t and r accepted by the computation of omega in IDR(s), as suggested by Sleijpen and
+	// van der Vorst
+	private static final double IDR_ANGLE = 0.7;
+
 	private Solvers() {}
 
+	/*
+	 * Jacobi with the historical stopping rule: at most 100 iterations, until no element of x changes by more than
+	 * 1e-8.
+	 */
 	public static Matrix<Double> jacobi(final Matrix<Double> A, final Matrix<Double> b) {
+		final SolverOptions options = new SolverOptions()
+				.withCriterion(StoppingCriterion.UPDATE)
+				.withAbsoluteTolerance(1e-8)
+				.withRelativeTolerance(0.0);
+		return jacobi(A, b, options).getSolution();
+	}
+
+	/*
+	 * Jacobi iteration from x0 = 0. The rows of each sweep are split across the fork/join pool and the two iterates
+	 * are swapped by reference, so no memory is allocated after the setup. The residual of the current iterate comes
+	 * for free from the sweep, since b - A * x = D * (x' - x): with the residual criterion the returned solution is the
+	 * iterate whose residual met the tolerance, not the one computed last.
+	 */
+	public static SolverResult jacobi(final Matrix<Double> A, final Matrix<Double> b, final SolverOptions options) {
+		checkSystem(A, b);
+		Objects.requireNonNull(options);
+
+		final int n = A.getNumRows();
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final int offA = op.offset();
+		final int lda = op.ld();
+		final double[] rhs = DoubleMatrix.toArray(b);
+		final double[] diagonal = diagonal(n, a, offA, lda);
+
+		final double[] x = new double[n]; // x0 = 0
+		final double[] y = new double[n];
+		final double[] delta = new double[n];
+		final Parallelism.RangeBody fromX =
+				(from, to) -> jacobiSweep(from, to, n, a, offA, lda, diagonal, rhs, x, y, delta);
+		final Parallelism.RangeBody fromY =
+				(from, to) -> jacobiSweep(from, to, n, a, offA, lda, diagonal, rhs, y, x, delta);
+
+		final boolean residualBased = options.getCriterion() == StoppingCriterion.RESIDUAL;
+		final double residualThreshold = options.threshold(Level2.nrm2(n, rhs, 0, 1));
+		double[] current = x;
+		int iterations = 0;
+		double residual = Double.NaN;
+		boolean residualKnown = false;
+		boolean converged = false;
+		while (iterations < options.getMaxIterations()) {
+			Parallelism.parallelFor(0, n, 16, (long) n * n, current == x ? fromX : fromY);
+			if (residualBased) {
+				for (int i = 0; i < n; i++) {
+					delta[i] *= diagonal[i];
+				}
+				residual = Level2.nrm2(n, delta, 0, 1);
+				if (!(residual > residualThreshold)) {
+					residualKnown = true;
+					converged = residual <= residualThreshold;
+					break;
+				}
+			}
+			current = current == x ? y : x;
+			iterations++;
+			if (!residualBased) {
+				final double update = Kernels.INSTANCE.maxAbs(delta, 0, n);
+				final double threshold = options.threshold(Kernels.INSTANCE.maxAbs(current, 0, n));
+				if (!(update > threshold)) {
+					converged = update <= threshold;
+					break;
+				}
+			}
+		}
+
+		if (!residualKnown) {
+			residual = residualNorm(n, a, offA, lda, current, rhs, delta);
+		}
+		return new SolverResult(new DenseMatrix(n, 1, current), iterations, residual, converged);
+	}
+
+	// Gauss-Seidel, that is SOR with omega = 1.
+	public static SolverResult gaussSeidel(
+			final Matrix<Double> A, final Matrix<Double> b, final Ordering ordering, final SolverOptions options) {
+		return relaxation(A, b, 1.0, false, ordering, options);
+	}
+
+	/*
+	 * Successive over-relaxation from x0 = 0, with 0 < omega < 2. The residual of the current iterate is computed
+	 * during the sweep, reading each row once for both dots, and like in jacobi the returned solution is the iterate
+	 * whose residual met the tolerance.
+	 */
+	public static SolverResult sor(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final double omega,
+			final Ordering ordering,
+			final SolverOptions options) {
+		checkRelaxation(omega);
+		return relaxation(A, b, omega, false, ordering, options);
+	}
+
+	// SOR with the relaxation estimated by optimalRelaxation.
+	public static SolverResult sor(
+			final Matrix<Double> A, final Matrix<Double> b, final Ordering ordering, final SolverOptions options) {
+		checkSystem(A, b);
+		return sor(A, b, optimalRelaxation(A), ordering, options);
+	}
+
+	// Symmetric SOR: each iteration is a forward sweep followed by a backward one.
+	public static SolverResult ssor(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final double omega,
+			final Ordering ordering,
+			final SolverOptions options) {
+		checkRelaxation(omega);
+		return relaxation(A, b, omega, true, ordering, options);
+	}
+
+	/*
+	 * Estimates the optimal SOR relaxation 2 / (1 + sqrt(1 - rho^2)), where rho is the spectral radius of the Jacobi
+	 * iteration matrix I - D^-1 * A computed with a power iteration. The formula is exact for consistently ordered
+	 * matrices with a real Jacobi spectrum, like the ones from finite differences. Returns 1 when the Jacobi iteration
+	 * does not converge.
+	 */
+	public static double optimalRelaxation(final Matrix<Double> A) {
+		Objects.requireNonNull(A);
 		if (!A.isSquare()) {
 			throw new IllegalArgumentException("Matrix A is not a square.");
 		}
-		if (b.getNumColumns() != 1 || b.getNumRows() != A.getNumRows()) {
-			throw new IllegalArgumentException("Vector b is not a column vector.");
+
+		final int n = A.getNumRows();
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final double rho = jacobiSpectralRadius(n, a, op.offset(), op.ld(), diagonal(n, a, op.offset(), op.ld()));
+		return rho < 1.0 ? 2.0 / (1.0 + Math.sqrt((1.0 - rho) * (1.0 + rho))) : 1.0;
+	}
+
+	// Conjugate gradient without preconditioning.
+	public static SolverResult conjugateGradient(
+			final Matrix<Double> A, final Matrix<Double> b, final SolverOptions options) {
+		return conjugateGradient(A, b, Preconditioner.IDENTITY, options);
+	}
+
+	/*
+	 * Preconditioned conjugate gradient from x0 = 0, for a symmetric positive definite A and preconditioner. The
+	 * matrix-vector product is split by rows across the fork/join pool and the vector updates are fused kernels on
+	 * flat arrays, so no memory is allocated after the setup. The residual criterion is checked on the recursively
+	 * updated residual, while the reported residual norm is the one of the returned solution. The iteration stops
+	 * without converging when it finds that A is not positive definite.
+	 */
+	public static SolverResult conjugateGradient(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final Preconditioner preconditioner,
+			final SolverOptions options) {
+		checkSystem(A, b);
+		Objects.requireNonNull(preconditioner);
+		Objects.requireNonNull(options);
+
+		final int n = A.getNumRows();
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final int offA = op.offset();
+		final int lda = op.ld();
+		final double[] rhs = DoubleMatrix.toArray(b);
+		final Preconditioning m = Preconditioning.of(preconditioner, n, a, offA, lda);
+
+		final double[] x = new double[n]; // x0 = 0
+		final double[] r = rhs.clone();
+		final double[] z = new double[n];
+		final double[] p = new double[n];
+		final double[] q = new double[n];
+		final Parallelism.RangeBody matvec = (from, to) -> {
+			for (int i = from; i < to; i++) {
+				q[i] = Kernels.INSTANCE.dot(n, a, offA + i * lda, p, 0);
+			}
+		};
+
+		final boolean residualBased = options.getCriterion() == StoppingCriterion.RESIDUAL;
+		final double residualThreshold = residualBased ? options.threshold(Level2.nrm2(n, rhs, 0, 1)) : 0.0;
+		double rr = Kernels.INSTANCE.dot(n, r, 0, r, 0);
+		double rz = m.apply(r, z);
+		System.arraycopy(z, 0, p, 0, n);
+		int iterations = 0;
+		boolean converged = false;
+		while (true) {
+			final double norm = Math.sqrt(rr);
+			if (!(norm > residualThreshold)) {
+				converged = norm <= residualThreshold;
+				break;
+			}
+			if (iterations == options.getMaxIterations()) {
+				break;
+			}
+
+			Parallelism.parallelFor(0, n, 16, (long) n * n, matvec);
+			final double pq = Kernels.INSTANCE.dot(n, p, 0, q, 0);
+			if (!(pq > 0.0)) {
+				break;
+			}
+			final double alpha = rz / pq;
+			Kernels.INSTANCE.axpy(n, alpha, p, 0, x, 0);
+			rr = Kernels.INSTANCE.axpyDot(n, -alpha, q, 0, r, 0);
+			iterations++;
+
+			if (!residualBased) {
+				final double update = Math.abs(alpha) * Kernels.INSTANCE.maxAbs(p, 0, n);
+				final double threshold = options.threshold(Kernels.INSTANCE.maxAbs(x, 0, n));
+				if (!(update > threshold)) {
+					converged = update <= threshold;
+					break;
+				}
+			}
+
+			final double next = m.apply(r, z);
+			Kernels.INSTANCE.xpby(n, z, 0, next / rz, p, 0);
+			rz = next;
+		}
+
+		final double residual = residualNorm(n, a, offA, lda, x, rhs, r);
+		return new SolverResult(new DenseMatrix(n, 1, x), iterations, residual, converged);
+	}
+
+	// GMRES(restart) without preconditioning.
+	public static SolverResult gmres(
+			final Matrix<Double> A, final Matrix<Double> b, final int restart, final SolverOptions options) {
+		return gmres(A, b, restart, Preconditioner.IDENTITY, PreconditioningSide.RIGHT, false, options);
+	}
+
+	/*
+	 * Restarted GMRES from x0 = 0 for general square systems. Each cycle builds at most restart Krylov vectors, stored
+	 * one after the other in a single preallocated array of (restart + 1) * n elements, orthogonalized with modified
+	 * Gram-Schmidt, optionally repeated once to recover the orthogonality lost to cancellation. The least squares
+	 * problem is updated with Givens rotations, so its residual is known at every step without forming the iterate.
+	 * The true residual is recomputed at each restart and the iteration stops only when it meets the tolerance too.
+	 * With the update criterion, the update is the correction of a whole cycle.
+	 */
+	public static SolverResult gmres(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final int restart,
+			final Preconditioner preconditioner,
+			final PreconditioningSide side,
+			final boolean reorthogonalize,
+			final SolverOptions options) {
+		checkSystem(A, b);
+		if (restart < 1) {
+			throw new IllegalArgumentException(String.format("Invalid restart length: %,d.", restart));
 		}
+		Objects.requireNonNull(preconditioner);
+		Objects.requireNonNull(side);
+		Objects.requireNonNull(options);
 
 		final int n = A.getNumRows();
-		final double[][] x = new double[n][1]; // x0 = 0
-		final double[][] xNew = new double[n][1];
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final int offA = op.offset();
+		final int lda = op.ld();
+		final double[] rhs = DoubleMatrix.toArray(b);
+		final Preconditioning m = Preconditioning.of(preconditioner, n, a, offA, lda);
+		final Matvec matvec = new Matvec(n, a, offA, lda);
+		final boolean left = side == PreconditioningSide.LEFT;
 
-		final int maxit = 100;
-		final double tolerance = 1e-8;
-		for (int k = 0; k < maxit; k++) {
-			for (int i = 0; i < n; i++) {
-				double s = 0.0;
-				for (int j = 0; j < n; j++) {
-					if (j == i) {
-						continue;
+		// The Krylov dimension cannot exceed n
+		final int mr = Math.min(restart, n);
+		final double[] v = new double[(mr + 1) * n];
+		final double[] h = new double[(mr + 1) * mr];
+		final double[] cs = new double[mr];
+		final double[] sn = new double[mr];
+		final double[] g = new double[mr + 1];
+		final double[] x = new double[n]; // x0 = 0
+		final double[] z = new double[n];
+		final double[] w = new double[n];
+
+		final boolean residualBased = options.getCriterion() == StoppingCriterion.RESIDUAL;
+		final double reference;
+		if (left) {
+			m.apply(rhs, z);
+			reference = Level2.nrm2(n, z, 0, 1);
+		} else {
+			reference = Level2.nrm2(n, rhs, 0, 1);
+		}
+		final double residualThreshold = residualBased ? options.threshold(reference) : 0.0;
+		int iterations = 0;
+		double residual;
+		boolean updateConverged = false;
+		boolean converged;
+		while (true) {
+			// v0 = b - A * x, preconditioned on the left if needed
+			System.arraycopy(rhs, 0, v, 0, n);
+			matvec.apply(x, 0, w, 0);
+			Kernels.INSTANCE.axpy(n, -1.0, w, 0, v, 0);
+			residual = Level2.nrm2(n, v, 0, 1);
+			if (left) {
+				System.arraycopy(v, 0, w, 0, n);
+				m.apply(w, v);
+			}
+			final double beta = left ? Level2.nrm2(n, v, 0, 1) : residual;
+			if (!(beta > residualThreshold) || updateConverged) {
+				converged = beta <= residualThreshold || updateConverged;
+				break;
+			}
+			if (iterations == options.getMaxIterations()) {
+				converged = false;
+				break;
+			}
+
+			Kernels.INSTANCE.divide(v, 0, n, beta);
+			Arrays.fill(g, 0.0);
+			g[0] = beta;
+			int k = 0;
+			while (k < mr && iterations < options.getMaxIterations()) {
+				final int next = (k + 1) * n;
+				// v[k + 1] = A * M^-1 * v[k] or M^-1 * A * v[k]
+				System.arraycopy(v, k * n, w, 0, n);
+				if (left) {
+					matvec.apply(w, 0, z, 0);
+					m.apply(z, w);
+					System.arraycopy(w, 0, v, next, n);
+				} else {
+					m.apply(w, z);
+					matvec.apply(z, 0, v, next);
+				}
+
+				for (int pass = reorthogonalize ? 2 : 1; pass > 0; pass--) {
+					for (int i = 0; i <= k; i++) {
+						final double hik = Kernels.INSTANCE.dot(n, v, i * n, v, next);
+						Kernels.INSTANCE.axpy(n, -hik, v, i * n, v, next);
+						h[i * mr + k] += hik;
 					}
-					s += A.get(i, j) * x[j][0];
 				}
-				xNew[i][0] = (b.get(i, 0) - s) / A.get(i, i);
+				final double norm = Level2.nrm2(n, v, next, 1);
+				h[(k + 1) * mr + k] = norm;
+				if (norm > 0.0) {
+					Kernels.INSTANCE.divide(v, next, n, norm);
+				}
+
+				// Apply the previous rotations to the new column of H and eliminate its subdiagonal element
+				for (int i = 0; i < k; i++) {
+					final double hi = h[i * mr + k];
+					final double hj = h[(i + 1) * mr + k];
+					h[i * mr + k] = cs[i] * hi + sn[i] * hj;
+					h[(i + 1) * mr + k] = cs[i] * hj - sn[i] * hi;
+				}
+				givens(h[k * mr + k], h[(k + 1) * mr + k], cs, sn, k);
+				h[k * mr + k] = cs[k] * h[k * mr + k] + sn[k] * h[(k + 1) * mr + k];
+				h[(k + 1) * mr + k] = 0.0;
+				g[k + 1] = -sn[k] * g[k];
+				g[k] = cs[k] * g[k];
+
+				k++;
+				iterations++;
+				final double estimate = Math.abs(g[k]);
+				if (!(norm > 0.0) || !(estimate > residualThreshold)) {
+					break;
+				}
 			}
 
-			if (IntStream.range(0, n)
-							.mapToDouble(i -> Math.abs(xNew[i][0] - x[i][0]))
-							.max()
-							.orElseThrow()
-					<= tolerance) {
+			// y = H^-1 * g, then x += M^-1 * V * y or V * y
+			Level2.trsv(true, false, false, k, h, 0, mr, g, 0, 1);
+			Kernels.INSTANCE.fill(w, 0, n, 0.0);
+			for (int i = 0; i < k; i++) {
+				Kernels.INSTANCE.axpy(n, g[i], v, i * n, w, 0);
+			}
+			if (!left) {
+				m.apply(w, z);
+				System.arraycopy(z, 0, w, 0, n);
+			}
+			Kernels.INSTANCE.axpy(n, 1.0, w, 0, x, 0);
+			Arrays.fill(h, 0.0);
+
+			if (!residualBased) {
+				final double update = Kernels.INSTANCE.maxAbs(w, 0, n);
+				updateConverged = !(update > options.threshold(Kernels.INSTANCE.maxAbs(x, 0, n)));
+			}
+		}
+
+		return new SolverResult(new DenseMatrix(n, 1, x), iterations, residual, converged);
+	}
+
+	// BiCGSTAB without preconditioning.
+	public static SolverResult bicgstab(final Matrix<Double> A, final Matrix<Double> b, final SolverOptions options) {
+		return bicgstab(A, b, Preconditioner.IDENTITY, options);
+	}
+
+	/*
+	 * Right-preconditioned BiCGSTAB from x0 = 0, which needs eight vectors regardless of the number of iterations.
+	 * Each iteration performs two matrix-vector products. When one of the recurrences breaks down, the iteration
+	 * restarts from the true residual of the current iterate, with a random shadow vector if the previous restart
+	 * made no progress, and stops without converging after a few of those. The residual criterion is checked on the
+	 * recursively updated residual and the update criterion on an upper bound of the update.
+	 */
+	public static SolverResult bicgstab(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final Preconditioner preconditioner,
+			final SolverOptions options) {
+		checkSystem(A, b);
+		Objects.requireNonNull(preconditioner);
+		Objects.requireNonNull(options);
+
+		final int n = A.getNumRows();
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final int offA = op.offset();
+		final int lda = op.ld();
+		final double[] rhs = DoubleMatrix.toArray(b);
+		final Preconditioning m = Preconditioning.of(preconditioner, n, a, offA, lda);
+		final Matvec matvec = new Matvec(n, a, offA, lda);
+
+		final double[] x = new double[n]; // x0 = 0
+		final double[] r = rhs.clone();
+		final double[] shadow = rhs.clone();
+		final double[] p = new double[n];
+		final double[] v = new double[n];
+		final double[] pHat = new double[n];
+		final double[] sHat = new double[n];
+		final double[] t = new double[n];
+
+		final boolean residualBased = options.getCriterion() == StoppingCriterion.RESIDUAL;
+		final double residualThreshold = residualBased ? options.threshold(Level2.nrm2(n, rhs, 0, 1)) : 0.0;
+		double rr = Kernels.INSTANCE.dot(n, r, 0, r, 0);
+		double shadowNorm = Math.sqrt(rr);
+		double rho = 1.0;
+		double alpha = 1.0;
+		double omega = 1.0;
+		// A fixed seed keeps the iteration reproducible
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(n);
+		int iterations = 0;
+		int lastRestart = 0;
+		int failedRestarts = 0;
+		boolean restart = false;
+		boolean converged = false;
+		while (true) {
+			if (restart) {
+				// The same shadow vector would break down again without any progress, so try a random one
+				failedRestarts = lastRestart == iterations ? failedRestarts + 1 : 0;
+				if (failedRestarts == MAX_FAILED_RESTARTS) {
+					break;
+				}
+				lastRestart = iterations;
+				restart = false;
+				residual(matvec, n, x, rhs, r);
+				rr = Kernels.INSTANCE.dot(n, r, 0, r, 0);
+				if (failedRestarts == 0) {
+					System.arraycopy(r, 0, shadow, 0, n);
+				} else {
+					randomOrthonormal(rng, n, 1, shadow);
+				}
+				shadowNorm = Level2.nrm2(n, shadow, 0, 1);
+				rho = 1.0;
+				alpha = 1.0;
+				omega = 1.0;
+				Kernels.INSTANCE.fill(p, 0, n, 0.0);
+				Kernels.INSTANCE.fill(v, 0, n, 0.0);
+			}
+			final double norm = Math.sqrt(rr);
+			if (!(norm > residualThreshold)) {
+				converged = norm <= residualThreshold;
+				break;
+			}
+			if (iterations == options.getMaxIterations()) {
+				break;
+			}
+
+			final double rhoNext = Kernels.INSTANCE.dot(n, shadow, 0, r, 0);
+			if (!(Math.abs(rhoNext) > BREAKDOWN_TOLERANCE * shadowNorm * norm)) {
+				restart = true;
+				continue;
+			}
+			// p = r + beta * (p - omega * v)
+			Kernels.INSTANCE.axpy(n, -omega, v, 0, p, 0);
+			Kernels.INSTANCE.xpby(n, r, 0, (rhoNext / rho) * (alpha / omega), p, 0);
+			m.apply(p, pHat);
+			matvec.apply(pHat, 0, v, 0);
+			final double sv = Kernels.INSTANCE.dot(n, shadow, 0, v, 0);
+			if (!(Math.abs(sv) > BREAKDOWN_TOLERANCE * shadowNorm * Level2.nrm2(n, v, 0, 1))) {
+				restart = true;
+				continue;
+			}
+			rho = rhoNext;
+			alpha = rhoNext / sv;
+			Kernels.INSTANCE.axpy(n, alpha, pHat, 0, x, 0);
+			// s = r - alpha * v, stored in r
+			rr = Kernels.INSTANCE.axpyDot(n, -alpha, v, 0, r, 0);
+			iterations++;
+			if (!(Math.sqrt(rr) > residualThreshold)) {
+				continue;
+			}
+
+			m.apply(r, sHat);
+			matvec.apply(sHat, 0, t, 0);
+			omega = Kernels.INSTANCE.dot(n, t, 0, r, 0) / Kernels.INSTANCE.dot(n, t, 0, t, 0);
+			if (!(omega != 0.0 && Double.isFinite(omega))) {
+				restart = true;
+				continue;
+			}
+			Kernels.INSTANCE.axpy(n, omega, sHat, 0, x, 0);
+			rr = Kernels.INSTANCE.axpyDot(n, -omega, t, 0, r, 0);
+
+			if (!residualBased) {
+				final double update = Math.abs(alpha) * Kernels.INSTANCE.maxAbs(pHat, 0, n)
+						+ Math.abs(omega) * Kernels.INSTANCE.maxAbs(sHat, 0, n);
+				final double threshold = options.threshold(Kernels.INSTANCE.maxAbs(x, 0, n));
+				if (!(update > threshold)) {
+					converged = update <= threshold;
+					break;
+				}
+			}
+		}
+
+		final double residual = residualNorm(n, a, offA, lda, x, rhs, r);
+		return new SolverResult(new DenseMatrix(n, 1, x), iterations, residual, converged);
+	}
+
+	// IDR(s) without preconditioning.
+	public static SolverResult idrs(
+			final Matrix<Double> A, final Matrix<Double> b, final int s, final SolverOptions options) {
+		return idrs(A, b, s, Preconditioner.IDENTITY, options);
+	}
+
+	/*
+	 * Right-preconditioned IDR(s) from x0 = 0, in the variant with biorthogonalization of van Gijzen and Sonneveld.
+	 * It needs 3 * s + 5 vectors regardless of the number of iterations, stored like the basis of gmres in contiguous
+	 * arrays, and each of its steps, counted as one iteration, performs one matrix-vector product. The s shadow
+	 * vectors are random with a fixed seed. Breakdowns, the stopping criteria and the reported residual are handled
+	 * like in bicgstab; a restart also draws new shadow vectors.
+	 */
+	public static SolverResult idrs(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final int s,
+			final Preconditioner preconditioner,
+			final SolverOptions options) {
+		checkSystem(A, b);
+		if (s < 1) {
+			throw new IllegalArgumentException(String.format("Invalid shadow space dimension: %,d.", s));
+		}
+		Objects.requireNonNull(preconditioner);
+		Objects.requireNonNull(options);
+
+		final int n = A.getNumRows();
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final int offA = op.offset();
+		final int lda = op.ld();
+		final double[] rhs = DoubleMatrix.toArray(b);
+		final Preconditioning m = Preconditioning.of(preconditioner, n, a, offA, lda);
+		final Matvec matvec = new Matvec(n, a, offA, lda);
+
+		// More than n shadow vectors cannot be independent
+		final int ns = Math.min(s, n);
+		final double[] shadows = new double[ns * n];
+		final double[] g = new double[ns * n];
+		final double[] u = new double[ns * n];
+		final double[] small = new double[ns * ns];
+		final double[] f = new double[ns];
+		final double[] c = new double[ns];
+		final double[] x = new double[n]; // x0 = 0
+		final double[] r = rhs.clone();
+		final double[] v = new double[n];
+		final double[] z = new double[n];
+		final double[] t = new double[n];
+		// A fixed seed keeps the iteration reproducible
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(n);
+
+		final boolean residualBased = options.getCriterion() == StoppingCriterion.RESIDUAL;
+		final double residualThreshold = residualBased ? options.threshold(Level2.nrm2(n, rhs, 0, 1)) : 0.0;
+		double rr = Kernels.INSTANCE.dot(n, r, 0, r, 0);
+		double omega = 1.0;
+		int iterations = 0;
+		int lastRestart = -1;
+		int failedRestarts = 0;
+		boolean restart = true;
+		boolean converged = false;
+		while (true) {
+			if (restart) {
+				failedRestarts = lastRestart == iterations ? failedRestarts + 1 : 0;
+				if (failedRestarts == MAX_FAILED_RESTARTS) {
+					break;
+				}
+				if (lastRestart >= 0) {
+					residual(matvec, n, x, rhs, r);
+					rr = Kernels.INSTANCE.dot(n, r, 0, r, 0);
+				}
+				lastRestart = iterations;
+				restart = false;
+				randomOrthonormal(rng, n, ns, shadows);
+				Kernels.INSTANCE.fill(g, 0, ns * n, 0.0);
+				Kernels.INSTANCE.fill(u, 0, ns * n, 0.0);
+				Kernels.INSTANCE.fill(small, 0, ns * ns, 0.0);
+				for (int i = 0; i < ns; i++) {
+					small[i * ns + i] = 1.0;
+				}
+				omega = 1.0;
+			}
+			final double norm = Math.sqrt(rr);
+			if (!(norm > residualThreshold)) {
+				converged = norm <= residualThreshold;
+				break;
+			}
+			if (iterations == options.getMaxIterations()) {
 				break;
 			}
 
+			for (int i = 0; i < ns; i++) {
+				f[i] = Kernels.INSTANCE.dot(n, shadows, i * n, r, 0);
+			}
+			// Build s vectors of G in the next space, making r orthogonal to one more shadow vector each time
+			boolean interrupted = false;
+			for (int k = 0; k < ns && !interrupted; k++) {
+				final int offK = k * n;
+				// c = small[k:s, k:s]^-1 * f[k:s], where small is lower triangular
+				for (int i = k; i < ns; i++) {
+					double sum = f[i];
+					for (int j = k; j < i; j++) {
+						sum -= small[i * ns + j] * c[j];
+					}
+					c[i] = sum / small[i * ns + i];
+				}
+				// v = r - G[:, k:s] * c and u[k] = U[:, k:s] * c + omega * M^-1 * v
+				System.arraycopy(r, 0, v, 0, n);
+				for (int i = k; i < ns; i++) {
+					Kernels.INSTANCE.axpy(n, -c[i], g, i * n, v, 0);
+				}
+				m.apply(v, z);
+				Kernels.INSTANCE.scale(z, 0, n, omega);
+				for (int i = k; i < ns; i++) {
+					Kernels.INSTANCE.axpy(n, c[i], u, i * n, z, 0);
+				}
+				System.arraycopy(z, 0, u, offK, n);
+				matvec.apply(u, offK, g, offK);
+
+				// Biorthogonalize the new vector of G against the shadow vectors before it
+				for (int i = 0; i < k; i++) {
+					final double beta = Kernels.INSTANCE.dot(n, shadows, i * n, g, offK) / small[i * ns + i];
+					Kernels.INSTANCE.axpy(n, -beta, g, i * n, g, offK);
+					Kernels.INSTANCE.axpy(n, -beta, u, i * n, u, offK);
+				}
+				for (int i = k; i < ns; i++) {
+					small[i * ns + k] = Kernels.INSTANCE.dot(n, shadows, i * n, g, offK);
+				}
+				final double pivot = small[k * ns + k];
+				if (!(Math.abs(pivot) > BREAKDOWN_TOLERANCE * Level2.nrm2(n, g, offK, 1))) {
+					restart = true;
+					break;
+				}
+
+				final double beta = f[k] / pivot;
+				rr = Kernels.INSTANCE.axpyDot(n, -beta, g, offK, r, 0);
+				Kernels.INSTANCE.axpy(n, beta, u, offK, x, 0);
+				iterations++;
+				for (int i = k + 1; i < ns; i++) {
+					f[i] -= beta * small[i * ns + k];
+				}
+				if (!residualBased && isUpdateSmall(n, beta, u, offK, x, options)) {
+					converged = true;
+				}
+				interrupted = converged
+						|| !(Math.sqrt(rr) > residualThreshold)
+						|| iterations == options.getMaxIterations();
+			}
+			if (converged) {
+				break;
+			}
+			if (restart || interrupted) {
+				continue;
+			}
+
+			// Enter the next space with a minimal residual step
+			m.apply(r, z);
+			matvec.apply(z, 0, t, 0);
+			final double tt = Kernels.INSTANCE.dot(n, t, 0, t, 0);
+			final double tr = Kernels.INSTANCE.dot(n, t, 0, r, 0);
+			omega = tr / tt;
+			final double cosine = Math.abs(tr) / (Math.sqrt(tt) * Math.sqrt(rr));
+			if (cosine < IDR_ANGLE) {
+				omega *= IDR_ANGLE / cosine;
+			}
+			if (!(omega != 0.0 && Double.isFinite(omega))) {
+				restart = true;
+				continue;
+			}
+			rr = Kernels.INSTANCE.axpyDot(n, -omega, t, 0, r, 0);
+			Kernels.INSTANCE.axpy(n, omega, z, 0, x, 0);
+			iterations++;
+			if (!residualBased && isUpdateSmall(n, omega, z, 0, x, options)) {
+				converged = true;
+				break;
+			}
+		}
+
+		final double residual = residualNorm(n, a, offA, lda, x, rhs, r);
+		return new SolverResult(new DenseMatrix(n, 1, x), iterations, residual, converged);
+	}
+
+	private static void checkSystem(final Matrix<Double> A, final Matrix<Double> b) {
+		Objects.requireNonNull(A);
+		Objects.requireNonNull(b);
+		if (!A.isSquare()) {
+			throw new IllegalArgumentException("Matrix A is not a square.");
+		}
+		if (b.getNumColumns() != 1 || b.getNumRows() != A.getNumRows()) {
+			throw new IllegalArgumentException("Vector b is not a column vector.");
+		}
+	}
+
+	private static void checkRelaxation(final double omega) {
+		if (!(omega > 0.0 && omega < 2.0)) {
+			throw new IllegalArgumentException(String.format("Invalid relaxation: %f.", omega));
+		}
+	}
+
+	// The diagonal of A, which must not contain zeros
+	static double[] diagonal(final int n, final double[] a, final int offA, final int lda) {
+		final double[] d = new double[n];
+		for (int i = 0; i < n; i++) {
+			d[i] = a[offA + i * lda + i];
+			if (d[i] == 0.0) {
+				throw new IllegalArgumentException(String.format("Zero on the diagonal of A at row %,d.", i));
+			}
+		}
+		return d;
+	}
+
+	private static SolverResult relaxation(
+			final Matrix<Double> A,
+			final Matrix<Double> b,
+			final double omega,
+			final boolean symmetric,
+			final Ordering ordering,
+			final SolverOptions options) {
+		checkSystem(A, b);
+		Objects.requireNonNull(ordering);
+		Objects.requireNonNull(options);
+
+		final int n = A.getNumRows();
+		final Operand op = Operand.rowMajor(A);
+		final double[] a = op.data();
+		final int offA = op.offset();
+		final int lda = op.ld();
+		final double[] rhs = DoubleMatrix.toArray(b);
+		final double[] diagonal = diagonal(n, a, offA, lda);
+
+		final boolean residualBased = options.getCriterion() == StoppingCriterion.RESIDUAL;
+		final double[] x = new double[n]; // x0 = 0
+		final double[] prev = new double[n];
+		final double[] r = residualBased ? new double[n] : null;
+		final Sweep sweep = ordering == Ordering.MULTICOLOR
+				? new MulticolorSweep(n, a, offA, lda, diagonal, rhs, omega, x, prev, r)
+				: new NaturalSweep(n, a, offA, lda, diagonal, rhs, omega, x, prev, r);
+
+		final double residualThreshold = options.threshold(Level2.nrm2(n, rhs, 0, 1));
+		int iterations = 0;
+		double residual = Double.NaN;
+		boolean residualKnown = false;
+		boolean converged = false;
+		while (iterations < options.getMaxIterations()) {
+			System.arraycopy(x, 0, prev, 0, n);
+			sweep.forward();
+			if (residualBased) {
+				residual = Level2.nrm2(n, r, 0, 1);
+				if (!(residual > residualThreshold)) {
+					System.arraycopy(prev, 0, x, 0, n);
+					residualKnown = true;
+					converged = residual <= residualThreshold;
+					break;
+				}
+			}
+			if (symmetric) {
+				sweep.backward();
+			}
+			iterations++;
+			if (!residualBased) {
+				double update = 0.0;
+				for (int i = 0; i < n; i++) {
+					update = Math.max(update, Math.abs(x[i] - prev[i]));
+				}
+				final double threshold = options.threshold(Kernels.INSTANCE.maxAbs(x, 0, n));
+				if (!(update > threshold)) {
+					converged = update <= threshold;
+					break;
+				}
+			}
+		}
+
+		if (!residualKnown) {
+			residual = residualNorm(n, a, offA, lda, x, rhs, prev);
+		}
+		return new SolverResult(new DenseMatrix(n, 1, x), iterations, residual, converged);
+	}
+
+	/*
+	 * Relaxes row i, returning (1 - omega) * x[i] + omega * (b[i] - sum_{j != i} A[i][j] * x[j]) / A[i][i]. When r is
+	 * not null, it also stores in r[i] the residual of prev on row i, while the row is in cache.
+	 */
+	private static double relaxRow(
+			final int i,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] diagonal,
+			final double[] rhs,
+			final double omega,
+			final double[] x,
+			final double[] prev,
+			final double[] r) {
+		final int row = offA + i * lda;
+		if (r != null) {
+			r[i] = rhs[i] - Kernels.INSTANCE.dot(n, a, row, prev, 0);
+		}
+		final double s = Kernels.INSTANCE.dot(n, a, row, x, 0) - diagonal[i] * x[i];
+		return x[i] + omega * ((rhs[i] - s) / diagonal[i] - x[i]);
+	}
+
+	// A relaxation sweep over x, the forward one also computing the residual of prev when needed
+	private interface Sweep {
+		void forward();
+
+		void backward();
+	}
+
+	private record NaturalSweep(
+			int n,
+			double[] a,
+			int offA,
+			int lda,
+			double[] diagonal,
+			double[] rhs,
+			double omega,
+			double[] x,
+			double[] prev,
+			double[] r)
+			implements Sweep {
+
+		@Override
+		public void forward() {
 			for (int i = 0; i < n; i++) {
-				x[i][0] = xNew[i][0];
+				x[i] = relaxRow(i, n, a, offA, lda, diagonal, rhs, omega, x, prev, r);
 			}
+		}
 
-			// System.out.println(A.multiply(new DenseMatrix(x)).subtract(b).norm());
+		@Override
+		public void backward() {
+			for (int i = n - 1; i >= 0; i--) {
+				x[i] = relaxRow(i, n, a, offA, lda, diagonal, rhs, omega, x, prev, null);
+			}
+		}
+	}
+
+	/*
+	 * Updates the colors one after the other and the rows of a color in parallel. The new values of a color are
+	 * written to a separate array and copied into x once the whole color is done, so that no thread reads an element
+	 * while another one writes it. The bodies of the parallel loops are created once.
+	 */
+	private static final class MulticolorSweep implements Sweep {
+
+		private final int n;
+		private final double[] x;
+		private final double[] next;
+		private final int[] order;
+		private final int[] colorStart;
+		private final int numColors;
+		private final boolean hasResidual;
+		private final Parallelism.RangeBody withResidual;
+		private final Parallelism.RangeBody withoutResidual;
+
+		MulticolorSweep(
+				final int n,
+				final double[] a,
+				final int offA,
+				final int lda,
+				final double[] diagonal,
+				final double[] rhs,
+				final double omega,
+				final double[] x,
+				final double[] prev,
+				final double[] r) {
+			this.n = n;
+			this.x = x;
+			this.next = new double[n];
+			this.colorStart = new int[n + 1];
+			this.order = multicolorOrdering(n, a, offA, lda, colorStart);
+			int numColors = 0;
+			while (colorStart[numColors] < n) {
+				numColors++;
+			}
+			this.numColors = numColors;
+			this.hasResidual = r != null;
+			final double[] next = this.next;
+			final int[] order = this.order;
+			this.withResidual = (from, to) -> {
+				for (int p = from; p < to; p++) {
+					final int i = order[p];
+					next[i] = relaxRow(i, n, a, offA, lda, diagonal, rhs, omega, x, prev, r);
+				}
+			};
+			this.withoutResidual = (from, to) -> {
+				for (int p = from; p < to; p++) {
+					final int i = order[p];
+					next[i] = relaxRow(i, n, a, offA, lda, diagonal, rhs, omega, x, prev, null);
+				}
+			};
+		}
+
+		@Override
+		public void forward() {
+			for (int c = 0; c < numColors; c++) {
+				relax(c, withResidual, hasResidual ? 2L : 1L);
+			}
+		}
+
+		@Override
+		public void backward() {
+			for (int c = numColors - 1; c >= 0; c--) {
+				relax(c, withoutResidual, 1L);
+			}
+		}
+
+		private void relax(final int c, final Parallelism.RangeBody body, final long dots) {
+			final int from = colorStart[c];
+			final int to = colorStart[c + 1];
+			Parallelism.parallelFor(from, to, 16, dots * (to - from) * n, body);
+			for (int p = from; p < to; p++) {
+				x[order[p]] = next[order[p]];
+			}
+		}
+	}
+
+	/*
+	 * Greedy coloring of the graph of the off-diagonal nonzeros of A, where each row takes the smallest color not used
+	 * by the rows before it that are coupled to it. Returns the rows sorted by color and stores the first position of
+	 * each color in colorStart, which is terminated by n.
+	 */
+	private static int[] multicolorOrdering(
+			final int n, final double[] a, final int offA, final int lda, final int[] colorStart) {
+		final int[] color = new int[n];
+		final int[] mark = new int[n];
+		Arrays.fill(mark, -1);
+		int numColors = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				if (a[offA + i * lda + j] != 0.0 || a[offA + j * lda + i] != 0.0) {
+					mark[color[j]] = i;
+				}
+			}
+			int c = 0;
+			while (mark[c] == i) {
+				c++;
+			}
+			color[i] = c;
+			numColors = Math.max(numColors, c + 1);
+		}
+
+		// Counting sort of the rows by color
+		for (int i = 0; i < n; i++) {
+			colorStart[color[i] + 1]++;
+		}
+		for (int c = 0; c < numColors; c++) {
+			colorStart[c + 1] += colorStart[c];
+		}
+		Arrays.fill(colorStart, numColors + 1, colorStart.length, n);
+		final int[] order = new int[n];
+		final int[] pos = Arrays.copyOf(colorStart, numColors);
+		for (int i = 0; i < n; i++) {
+			order[pos[color[i]]++] = i;
+		}
+		return order;
+	}
+
+	// Power iteration on J = I - D^-1 * A, two steps at a time to handle the pairs +rho and -rho
+	private static double jacobiSpectralRadius(
+			final int n, final double[] a, final int offA, final int lda, final double[] diagonal) {
+		// A fixed seed keeps the estimate reproducible
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(n);
+		final double[] v = new double[n];
+		final double[] w = new double[n];
+		for (int i = 0; i < n; i++) {
+			v[i] = rng.nextDouble(-1.0, 1.0);
 		}
+		Kernels.INSTANCE.divide(v, 0, n, Level2.nrm2(n, v, 0, 1));
+
+		double est = 0.0;
+		for (int it = 0; it < POWER_ITERATIONS; it++) {
+			applyJacobi(n, a, offA, lda, diagonal, v, w);
+			applyJacobi(n, a, offA, lda, diagonal, w, v);
+			final double norm = Level2.nrm2(n, v, 0, 1);
+			if (!(norm > 0.0) || norm == Double.POSITIVE_INFINITY) {
+				return norm == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+			}
+			Kernels.INSTANCE.divide(v, 0, n, norm);
+			final double next = Math.sqrt(norm);
+			if (Math.abs(next - est) <= POWER_TOLERANCE * next) {
+				return next;
+			}
+			est = next;
+		}
+		return est;
+	}
+
+	// y = x - D^-1 * A * x
+	private static void applyJacobi(
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] diagonal,
+			final double[] x,
+			final double[] y) {
+		Parallelism.parallelFor(0, n, 16, (long) n * n, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				y[i] = x[i] - Kernels.INSTANCE.dot(n, a, offA + i * lda, x, 0) / diagonal[i];
+			}
+		});
+	}
+
+	// Whether the update scale * d[offD:offD+n] of x meets the update criterion
+	private static boolean isUpdateSmall(
+			final int n,
+			final double scale,
+			final double[] d,
+			final int offD,
+			final double[] x,
+			final SolverOptions options) {
+		final double update = Math.abs(scale) * Kernels.INSTANCE.maxAbs(d, offD, n);
+		return update <= options.threshold(Kernels.INSTANCE.maxAbs(x, 0, n));
+	}
+
+	// r = b - A * x
+	private static void residual(
+			final Matvec matvec, final int n, final double[] x, final double[] rhs, final double[] r) {
+		matvec.apply(x, 0, r, 0);
+		Kernels.INSTANCE.xpby(n, rhs, 0, -1.0, r, 0);
+	}
+
+	// Fills the s vectors of length n in v with random orthonormal vectors, by modified Gram-Schmidt
+	private static void randomOrthonormal(final RandomGenerator rng, final int n, final int s, final double[] v) {
+		for (int k = 0; k < s; k++) {
+			final int offK = k * n;
+			double norm = 0.0;
+			while (!(norm > 0.0)) {
+				for (int i = 0; i < n; i++) {
+					v[offK + i] = rng.nextDouble(-1.0, 1.0);
+				}
+				for (int i = 0; i < k; i++) {
+					Kernels.INSTANCE.axpy(n, -Kernels.INSTANCE.dot(n, v, i * n, v, offK), v, i * n, v, offK);
+				}
+				norm = Level2.nrm2(n, v, offK, 1);
+			}
+			Kernels.INSTANCE.divide(v, offK, n, norm);
+		}
+	}
+
+	/*
+	 * Stores in cs[k] and sn[k] the rotation which maps (f, g) to (r, 0), computed without overflow, where
+	 * r = cs[k] * f + sn[k] * g.
+	 */
+	private static void givens(final double f, final double g, final double[] cs, final double[] sn, final int k) {
+		if (g == 0.0) {
+			cs[k] = 1.0;
+			sn[k] = 0.0;
+		} else if (Math.abs(g) > Math.abs(f)) {
+			final double t = f / g;
+			sn[k] = 1.0 / Math.sqrt(1.0 + t * t);
+			cs[k] = t * sn[k];
+		} else {
+			final double t = g / f;
+			cs[k] = 1.0 / Math.sqrt(1.0 + t * t);
+			sn[k] = t * cs[k];
+		}
+	}
+
+	/*
+	 * y = A * x split by rows across the fork/join pool. The vectors are handed to the body of the parallel loop
+	 * through fields, so that the body is created only once.
+	 */
+	private static final class Matvec {
+
+		private final int n;
+		private final Parallelism.RangeBody body;
+		private double[] x;
+		private int offX;
+		private double[] y;
+		private int offY;
+
+		Matvec(final int n, final double[] a, final int offA, final int lda) {
+			this.n = n;
+			this.body = (from, to) -> {
+				for (int i = from; i < to; i++) {
+					y[offY + i] = Kernels.INSTANCE.dot(n, a, offA + i * lda, x, offX);
+				}
+			};
+		}
+
+		void apply(final double[] x, final int offX, final double[] y, final int offY) {
+			this.x = x;
+			this.offX = offX;
+			this.y = y;
+			this.offY = offY;
+			Parallelism.parallelFor(0, n, 16, (long) n * n, body);
+		}
+	}
+
+	// next = D^-1 * (b - (A - D) * x) and delta = next - x on the rows [from; to)
+	private static void jacobiSweep(
+			final int from,
+			final int to,
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] diagonal,
+			final double[] rhs,
+			final double[] x,
+			final double[] next,
+			final double[] delta) {
+		for (int i = from; i < to; i++) {
+			// A single dot over the whole row, removing the diagonal afterwards
+			final double s = Kernels.INSTANCE.dot(n, a, offA + i * lda, x, 0) - diagonal[i] * x[i];
+			next[i] = (rhs[i] - s) / diagonal[i];
+			delta[i] = next[i] - x[i];
+		}
+	}
 
-		return new DenseMatrix(xNew);
+	// Euclidean norm of b - A * x, using r as workspace
+	private static double residualNorm(
+			final int n,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] x,
+			final double[] rhs,
+			final double[] r) {
+		System.arraycopy(rhs, 0, r, 0, n);
+		Level2.gemv(false, n, n, -1.0, a, offA, lda, x, 0, 1, 1.0, r, 0, 1);
+		return Level2.nrm2(n, r, 0, 1);
 	}
 
 	public static Matrix<BigDecimal> precisJeacobi(final Matrix<BigDecimal> A, final Matrix<BigDecimal> b) {
@@ -0,0 +1,32 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// The quantity compared against the tolerances of an iterative solver.
+public enum StoppingCriterion {
+
+	// The euclidean norm of the residual b - A * x, with the relative tolerance scaled by the norm of b.
+	RESIDUAL,
+
+	/*
+	 * The largest absolute change of an element of x in the last iteration, with the relative tolerance scaled by the
+	 * largest absolute element of x. It is cheaper to check but a small update does not imply a small error when the
+	 * iteration converges slowly.
+	 */
+	UPDATE
+}
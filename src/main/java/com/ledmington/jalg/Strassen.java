@@ -0,0 +1,381 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Strassen-Winograd multiplication C = A * B on row-major arrays.
+ *
+ * <p>Operands are zero-padded once so that every dimension can be halved until the crossover, below which the
+ * blocked {@link Gemm} kernel is used. The top levels of the recursion compute the 7 sub-products in parallel, each
+ * with its own temporaries. The remaining levels use the sequential schedule by Boyer, Dumas, Pernet and Zhou which
+ * needs only two temporaries per level, so that the total extra workspace stays within a small multiple of the size
+ * of the operands.
+ */
+final class Strassen {
+
+	static final int DEFAULT_CROSSOVER = 512;
+
+	private Strassen() {}
+
+	static void multiply(
+			final int m,
+			final int n,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double[] c,
+			final int offC,
+			final int ldc,
+			final int crossover) {
+		int depth = 0;
+		while (Math.min(m, Math.min(n, k)) >> depth > crossover) {
+			depth++;
+		}
+		if (depth == 0) {
+			Gemm.gemm(false, false, m, n, k, 1.0, a, offA, lda, b, offB, ldb, 0.0, c, offC, ldc);
+			return;
+		}
+
+		final int parallelLevels = parallelLevels((long) m * n * k);
+
+		final int multiple = 1 << depth;
+		final int pm = roundUp(m, multiple);
+		final int pn = roundUp(n, multiple);
+		final int pk = roundUp(k, multiple);
+		if (pm == m && pn == n && pk == k) {
+			run(m, n, k, a, offA, lda, b, offB, ldb, c, offC, ldc, crossover, parallelLevels);
+			return;
+		}
+
+		final double[] pa = new double[pm * pk];
+		final double[] pb = new double[pk * pn];
+		final double[] pc = new double[pm * pn];
+		copy(m, k, a, offA, lda, pa, 0, pk);
+		copy(k, n, b, offB, ldb, pb, 0, pn);
+		run(pm, pn, pk, pa, 0, pk, pb, 0, pn, pc, 0, pn, crossover, parallelLevels);
+		copy(m, n, pc, 0, pn, c, offC, ldc);
+	}
+
+	// Number of recursion levels needed to have at least one sub-product per thread
+	private static int parallelLevels(final long work) {
+		if (!Parallelism.isWorthParallelizing(work)) {
+			return 0;
+		}
+		final int threads = Parallelism.getPool().getParallelism();
+		int levels = 0;
+		for (long tasks = 1L; tasks < threads; tasks *= 7L) {
+			levels++;
+		}
+		return levels;
+	}
+
+	private static void run(
+			final int m,
+			final int n,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double[] c,
+			final int offC,
+			final int ldc,
+			final int crossover,
+			final int parallelLevels) {
+		if (parallelLevels > 0) {
+			Parallelism.getPool()
+					.invoke(new ProductTask(
+							m, n, k, a, offA, lda, b, offB, ldb, c, offC, ldc, crossover, parallelLevels));
+		} else {
+			sequential(m, n, k, a, offA, lda, b, offB, ldb, c, offC, ldc, crossover);
+		}
+	}
+
+	private static int roundUp(final int x, final int multiple) {
+		return (x + multiple - 1) / multiple * multiple;
+	}
+
+	private static boolean isBaseCase(final int m, final int n, final int k, final int crossover) {
+		return m <= crossover
+				|| n <= crossover
+				|| k <= crossover
+				|| (m & 1) != 0
+				|| (n & 1) != 0
+				|| (k & 1) != 0;
+	}
+
+	private static void copy(
+			final int rows,
+			final int columns,
+			final double[] src,
+			final int offSrc,
+			final int ldSrc,
+			final double[] dst,
+			final int offDst,
+			final int ldDst) {
+		for (int i = 0; i < rows; i++) {
+			System.arraycopy(src, offSrc + i * ldSrc, dst, offDst + i * ldDst, columns);
+		}
+	}
+
+	// z = x + sign * y
+	private static void add(
+			final int rows,
+			final int columns,
+			final double[] x,
+			final int offX,
+			final int ldx,
+			final double sign,
+			final double[] y,
+			final int offY,
+			final int ldy,
+			final double[] z,
+			final int offZ,
+			final int ldz) {
+		for (int i = 0; i < rows; i++) {
+			final int rx = offX + i * ldx;
+			final int ry = offY + i * ldy;
+			final int rz = offZ + i * ldz;
+			for (int j = 0; j < columns; j++) {
+				z[rz + j] = x[rx + j] + sign * y[ry + j];
+			}
+		}
+	}
+
+	/*
+	 * Memory-efficient schedule of Winograd's variant, with one m/2 x max(k/2, n/2) temporary X and one k/2 x n/2
+	 * temporary Y. The quadrants of C are used as scratch space for the intermediate products.
+	 */
+	private static void sequential(
+			final int m,
+			final int n,
+			final int k,
+			final double[] a,
+			final int offA,
+			final int lda,
+			final double[] b,
+			final int offB,
+			final int ldb,
+			final double[] c,
+			final int offC,
+			final int ldc,
+			final int crossover) {
+		if (isBaseCase(m, n, k, crossover)) {
+			Gemm.gemm(false, false, m, n, k, 1.0, a, offA, lda, b, offB, ldb, 0.0, c, offC, ldc);
+			return;
+		}
+
+		final int m2 = m / 2;
+		final int n2 = n / 2;
+		final int k2 = k / 2;
+		final int a11 = offA;
+		final int a12 = offA + k2;
+		final int a21 = offA + m2 * lda;
+		final int a22 = a21 + k2;
+		final int b11 = offB;
+		final int b12 = offB + n2;
+		final int b21 = offB + k2 * ldb;
+		final int b22 = b21 + n2;
+		final int c11 = offC;
+		final int c12 = offC + n2;
+		final int c21 = offC + m2 * ldc;
+		final int c22 = c21 + n2;
+
+		final double[] x = new double[m2 * Math.max(k2, n2)];
+		final double[] y = new double[k2 * n2];
+
+		// C21 = P7 = (A11 - A21) * (B22 - B12)
+		add(m2, k2, a, a11, lda, -1.0, a, a21, lda, x, 0, k2);
+		add(k2, n2, b, b22, ldb, -1.0, b, b12, ldb, y, 0, n2);
+		sequential(m2, n2, k2, x, 0, k2, y, 0, n2, c, c21, ldc, crossover);
+
+		// C22 = P5 = S1 * T1 = (A21 + A22) * (B12 - B11)
+		add(m2, k2, a, a21, lda, 1.0, a, a22, lda, x, 0, k2);
+		add(k2, n2, b, b12, ldb, -1.0, b, b11, ldb, y, 0, n2);
+		sequential(m2, n2, k2, x, 0, k2, y, 0, n2, c, c22, ldc, crossover);
+
+		// C12 = P6 = S2 * T2 = (S1 - A11) * (B22 - T1)
+		add(m2, k2, x, 0, k2, -1.0, a, a11, lda, x, 0, k2);
+		add(k2, n2, b, b22, ldb, -1.0, y, 0, n2, y, 0, n2);
+		sequential(m2, n2, k2, x, 0, k2, y, 0, n2, c, c12, ldc, crossover);
+
+		// C11 = P3 = S4 * B22 = (A12 - S2) * B22
+		add(m2, k2, a, a12, lda, -1.0, x, 0, k2, x, 0, k2);
+		sequential(m2, n2, k2, x, 0, k2, b, b22, ldb, c, c11, ldc, crossover);
+
+		// X = P1 = A11 * B11
+		sequential(m2, n2, k2, a, a11, lda, b, b11, ldb, x, 0, n2, crossover);
+
+		// C12 = U2 = P1 + P6
+		add(m2, n2, x, 0, n2, 1.0, c, c12, ldc, c, c12, ldc);
+		// C21 = U3 = U2 + P7
+		add(m2, n2, c, c12, ldc, 1.0, c, c21, ldc, c, c21, ldc);
+		// C12 = U4 = U2 + P5
+		add(m2, n2, c, c12, ldc, 1.0, c, c22, ldc, c, c12, ldc);
+		// C22 = U7 = U3 + P5
+		add(m2, n2, c, c21, ldc, 1.0, c, c22, ldc, c, c22, ldc);
+		// C12 = U5 = U4 + P3
+		add(m2, n2, c, c12, ldc, 1.0, c, c11, ldc, c, c12, ldc);
+
+		// C11 = P4 = A22 * T4 = A22 * (T2 - B21)
+		add(k2, n2, y, 0, n2, -1.0, b, b21, ldb, y, 0, n2);
+		sequential(m2, n2, k2, a, a22, lda, y, 0, n2, c, c11, ldc, crossover);
+		// C21 = U6 = U3 - P4
+		add(m2, n2, c, c21, ldc, -1.0, c, c11, ldc, c, c21, ldc);
+
+		// C11 = U1 = P1 + P2 = P1 + A12 * B21
+		sequential(m2, n2, k2, a, a12, lda, b, b21, ldb, c, c11, ldc, crossover);
+		add(m2, n2, x, 0, n2, 1.0, c, c11, ldc, c, c11, ldc);
+	}
+
+	// One level of Winograd's variant where the 7 sub-products are computed in parallel.
+	@SuppressWarnings("serial")
+	private static final class ProductTask extends RecursiveAction {
+
+		private final int m;
+		private final int n;
+		private final int k;
+		private final double[] a;
+		private final int offA;
+		private final int lda;
+		private final double[] b;
+		private final int offB;
+		private final int ldb;
+		private final double[] c;
+		private final int offC;
+		private final int ldc;
+		private final int crossover;
+		private final int parallelLevels;
+
+		ProductTask(
+				final int m,
+				final int n,
+				final int k,
+				final double[] a,
+				final int offA,
+				final int lda,
+				final double[] b,
+				final int offB,
+				final int ldb,
+				final double[] c,
+				final int offC,
+				final int ldc,
+				final int crossover,
+				final int parallelLevels) {
+			this.m = m;
+			this.n = n;
+			this.k = k;
+			this.a = a;
+			this.offA = offA;
+			this.lda = lda;
+			this.b = b;
+			this.offB = offB;
+			this.ldb = ldb;
+			this.c = c;
+			this.offC = offC;
+			this.ldc = ldc;
+			this.crossover = crossover;
+			this.parallelLevels = parallelLevels;
+		}
+
+		@Override
+		protected void compute() {
+			if (parallelLevels == 0 || isBaseCase(m, n, k, crossover)) {
+				sequential(m, n, k, a, offA, lda, b, offB, ldb, c, offC, ldc, crossover);
+				return;
+			}
+
+			final int m2 = m / 2;
+			final int n2 = n / 2;
+			final int k2 = k / 2;
+			final int a11 = offA;
+			final int a12 = offA + k2;
+			final int a21 = offA + m2 * lda;
+			final int a22 = a21 + k2;
+			final int b11 = offB;
+			final int b12 = offB + n2;
+			final int b21 = offB + k2 * ldb;
+			final int b22 = b21 + n2;
+
+			final int sizeS = m2 * k2;
+			final int sizeT = k2 * n2;
+			final int sizeP = m2 * n2;
+			final double[] s = new double[4 * sizeS];
+			final double[] t = new double[4 * sizeT];
+			final double[] p = new double[7 * sizeP];
+
+			// S1 = A21 + A22, S2 = S1 - A11, S3 = A11 - A21, S4 = A12 - S2
+			add(m2, k2, a, a21, lda, 1.0, a, a22, lda, s, 0, k2);
+			add(m2, k2, s, 0, k2, -1.0, a, a11, lda, s, sizeS, k2);
+			add(m2, k2, a, a11, lda, -1.0, a, a21, lda, s, 2 * sizeS, k2);
+			add(m2, k2, a, a12, lda, -1.0, s, sizeS, k2, s, 3 * sizeS, k2);
+			// T1 = B12 - B11, T2 = B22 - T1, T3 = B22 - B12, T4 = T2 - B21
+			add(k2, n2, b, b12, ldb, -1.0, b, b11, ldb, t, 0, n2);
+			add(k2, n2, b, b22, ldb, -1.0, t, 0, n2, t, sizeT, n2);
+			add(k2, n2, b, b22, ldb, -1.0, b, b12, ldb, t, 2 * sizeT, n2);
+			add(k2, n2, t, sizeT, n2, -1.0, b, b21, ldb, t, 3 * sizeT, n2);
+
+			final int next = parallelLevels - 1;
+			invokeAll(
+					// P1 = A11 * B11
+					new ProductTask(m2, n2, k2, a, a11, lda, b, b11, ldb, p, 0, n2, crossover, next),
+					// P2 = A12 * B21
+					new ProductTask(m2, n2, k2, a, a12, lda, b, b21, ldb, p, sizeP, n2, crossover, next),
+					// P3 = S4 * B22
+					new ProductTask(m2, n2, k2, s, 3 * sizeS, k2, b, b22, ldb, p, 2 * sizeP, n2, crossover, next),
+					// P4 = A22 * T4
+					new ProductTask(m2, n2, k2, a, a22, lda, t, 3 * sizeT, n2, p, 3 * sizeP, n2, crossover, next),
+					// P5 = S1 * T1
+					new ProductTask(m2, n2, k2, s, 0, k2, t, 0, n2, p, 4 * sizeP, n2, crossover, next),
+					// P6 = S2 * T2
+					new ProductTask(m2, n2, k2, s, sizeS, k2, t, sizeT, n2, p, 5 * sizeP, n2, crossover, next),
+					// P7 = S3 * T3
+					new ProductTask(
+							m2, n2, k2, s, 2 * sizeS, k2, t, 2 * sizeT, n2, p, 6 * sizeP, n2, crossover, next));
+
+			for (int i = 0; i < m2; i++) {
+				final int top = offC + i * ldc;
+				final int bottom = offC + (m2 + i) * ldc;
+				for (int j = 0; j < n2; j++) {
+					final int idx = i * n2 + j;
+					final double p1 = p[idx];
+					final double p2 = p[sizeP + idx];
+					final double p3 = p[2 * sizeP + idx];
+					final double p4 = p[3 * sizeP + idx];
+					final double p5 = p[4 * sizeP + idx];
+					final double p6 = p[5 * sizeP + idx];
+					final double p7 = p[6 * sizeP + idx];
+					final double u2 = p1 + p6;
+					final double u3 = u2 + p7;
+					c[top + j] = p1 + p2;
+					c[top + n2 + j] = u2 + p5 + p3;
+					c[bottom + j] = u3 - p4;
+					c[bottom + n2 + j] = u3 + p5;
+				}
+			}
+		}
+	}
+}
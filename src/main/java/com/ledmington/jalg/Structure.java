@@ -0,0 +1,144 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+/**
+ * Checks of the structure of square row-major matrices, which read the storage in place and stop at the first element
+ * breaking the structure. Arguments are assumed to be already checked.
+ */
+final class Structure {
+
+	// Side of the square tiles compared by isSymmetric
+	private static final int TILE = 64;
+
+	private Structure() {}
+
+	/*
+	 * Whether each element of the n x n matrix A differs from its transposed one by at most eps. The lower triangle is
+	 * visited in square tiles, so that the rows of the transposed tile which are read with a stride are reused from
+	 * the cache instead of being loaded once per element.
+	 */
+	static boolean isSymmetric(final int n, final double[] a, final int offA, final int lda, final double eps) {
+		for (int ib = 0; ib < n; ib += TILE) {
+			final int iEnd = Math.min(n, ib + TILE);
+			for (int jb = 0; jb <= ib; jb += TILE) {
+				for (int i = ib; i < iEnd; i++) {
+					final int row = offA + i * lda;
+					final int jEnd = Math.min(i, jb + TILE);
+					for (int j = jb; j < jEnd; j++) {
+						// Written so that NaNs break the symmetry
+						if (!(Math.abs(a[row + j] - a[offA + j * lda + i]) <= eps)) {
+							return false;
+						}
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	// Whether all the elements below the diagonal of the n x n matrix A are zero
+	static boolean isUpperTriangular(final int n, final double[] a, final int offA, final int lda) {
+		for (int i = 1; i < n; i++) {
+			// A NaN maximum is not zero either
+			if (Kernels.INSTANCE.maxAbs(a, offA + i * lda, i) != 0.0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Whether all the elements above the diagonal of the n x n matrix A are zero
+	static boolean isLowerTriangular(final int n, final double[] a, final int offA, final int lda) {
+		for (int i = 0; i < n - 1; i++) {
+			if (Kernels.INSTANCE.maxAbs(a, offA + i * lda + i + 1, n - i - 1) != 0.0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * Returns the lower and upper bandwidth of the m x n matrix A, that is the largest i - j and j - i over its nonzero
+	 * elements (i, j). Each row is scanned from both ends only as long as it can widen the band found so far, so the
+	 * rows of a dense matrix cost O(1) and those of a band matrix O(bandwidth).
+	 */
+	static int[] bandwidths(final int m, final int n, final double[] a, final int offA, final int lda) {
+		int lower = 0;
+		int upper = 0;
+		for (int i = 0; i < m; i++) {
+			final int row = offA + i * lda;
+			for (int j = 0; j < Math.min(n, i - lower); j++) {
+				if (a[row + j] != 0.0) {
+					lower = i - j;
+					break;
+				}
+			}
+			for (int j = n - 1; j > i + upper; j--) {
+				if (a[row + j] != 0.0) {
+					upper = j - i;
+					break;
+				}
+			}
+		}
+		return new int[] {lower, upper};
+	}
+
+	/*
+	 * If the n x n matrix A is a permutation matrix, returns the column of the only 1 of each row, otherwise returns
+	 * null. Dense matrices are rejected as soon as a row with two nonzero elements is found.
+	 */
+	static int[] permutation(final int n, final double[] a, final int offA, final int lda) {
+		final int[] perm = new int[n];
+		final boolean[] used = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			final int row = offA + i * lda;
+			int column = -1;
+			for (int j = 0; j < n; j++) {
+				final double x = a[row + j];
+				if (x != 0.0) {
+					if (x != 1.0 || column >= 0) {
+						return null;
+					}
+					column = j;
+				}
+			}
+			if (column < 0 || used[column]) {
+				return null;
+			}
+			used[column] = true;
+			perm[i] = column;
+		}
+		return perm;
+	}
+
+	// Determinant of the permutation matrix described by perm, which is -1 for odd permutations and 1 otherwise
+	static int permutationSign(final int[] perm) {
+		final boolean[] visited = new boolean[perm.length];
+		int sign = 1;
+		for (int i = 0; i < perm.length; i++) {
+			// A cycle of length l is made of l - 1 transpositions
+			for (int j = perm[i]; !visited[i] && j != i; j = perm[j]) {
+				visited[j] = true;
+				sign = -sign;
+			}
+			visited[i] = true;
+		}
+		return sign;
+	}
+}
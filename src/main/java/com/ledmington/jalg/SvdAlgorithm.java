@@ -0,0 +1,31 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+// The algorithm to be used for singular value decompositions.
+public enum SvdAlgorithm {
+
+	// Golub-Kahan bidiagonalization followed by the implicit QR algorithm.
+	GOLUB_KAHAN,
+
+	/*
+	 * One-sided Jacobi, whose rotations are applied in parallel rounds. It is slower than GOLUB_KAHAN but computes even
+	 * the smallest singular values with high relative accuracy.
+	 */
+	JACOBI
+}
@@ -0,0 +1,93 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Objects;
+
+/**
+ * Eigendecomposition A = V * diag(w) * V^T of a real symmetric matrix, with the eigenvalues w in ascending order and
+ * the orthonormal eigenvectors in the columns of V. See {@link Jalg#syev(boolean, int, double[], int, int, double[])}.
+ */
+public final class SymmetricEigenDecomposition {
+
+	private final int n;
+	private final double[] eigenvalues;
+	private final double[] eigenvectors;
+
+	public SymmetricEigenDecomposition(final Matrix<Double> matrix) {
+		this(matrix, true);
+	}
+
+	public SymmetricEigenDecomposition(final Matrix<Double> matrix, final boolean computeEigenvectors) {
+		Objects.requireNonNull(matrix);
+		if (!matrix.isSquare()) {
+			throw new IllegalArgumentException("Matrix must be square.");
+		}
+		if (!matrix.isSymmetric()) {
+			throw new IllegalArgumentException("Matrix is not symmetric.");
+		}
+		this.n = matrix.getNumRows();
+		final double[] a = DoubleMatrix.toArray(matrix);
+		this.eigenvalues = new double[n];
+		Lapack.syev(computeEigenvectors, n, a, 0, n, eigenvalues);
+		this.eigenvectors = computeEigenvectors ? a : null;
+	}
+
+	public int getSize() {
+		return n;
+	}
+
+	public boolean hasEigenvectors() {
+		return eigenvectors != null;
+	}
+
+	public double[] getEigenvalues() {
+		return eigenvalues.clone();
+	}
+
+	public double getEigenvalue(final int i) {
+		if (i < 0 || i >= n) {
+			throw new IllegalArgumentException(String.format("Invalid index: %,d.", i));
+		}
+		return eigenvalues[i];
+	}
+
+	private void assertEigenvectors() {
+		if (eigenvectors == null) {
+			throw new IllegalArgumentException("Eigenvectors were not computed.");
+		}
+	}
+
+	// Returns the matrix V, whose i-th column is the eigenvector of the i-th eigenvalue.
+	public DenseMatrix getEigenvectors() {
+		assertEigenvectors();
+		return new DenseMatrix(n, n, eigenvectors.clone());
+	}
+
+	public double[] getEigenvector(final int i) {
+		assertEigenvectors();
+		if (i < 0 || i >= n) {
+			throw new IllegalArgumentException(String.format("Invalid index: %,d.", i));
+		}
+		final double[] v = new double[n];
+		for (int r = 0; r < n; r++) {
+			v[r] = eigenvectors[r * n + i];
+		}
+		return v;
+	}
+}
@@ -0,0 +1,509 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Eigenvalues and eigenvectors of symmetric tridiagonal matrices, given by their diagonal d and off-diagonal e. The
+ * eigenvalues alone are computed with the implicit QL algorithm, the eigenvectors with Cuppen's divide and conquer,
+ * which spends most of its time in matrix-matrix products and whose independent subproblems are solved in parallel.
+ */
+final class TridiagonalEigen {
+
+	// Subproblems up to this size are solved with QL
+	private static final int LEAF = 32;
+
+	private static final double EPS = Math.ulp(1.0);
+
+	private TridiagonalEigen() {}
+
+	// Overwrites d with the eigenvalues in ascending order. e is destroyed.
+	static void eigenvalues(final int n, final double[] d, final double[] e) {
+		ql(n, d, 0, e, 0, null, 0, 0);
+		Arrays.sort(d, 0, n);
+	}
+
+	/*
+	 * Overwrites d with the eigenvalues in ascending order and the n x n matrix z with the corresponding orthonormal
+	 * eigenvectors, stored by columns. e is destroyed.
+	 */
+	static void divideAndConquer(final int n, final double[] d, final double[] e, final double[] z) {
+		new SolveTask(0, n, d, e, z, n).invokeOrCompute();
+
+		final Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (x, y) -> Double.compare(d[x], d[y]));
+		final double[] sortedD = new double[n];
+		final double[] sortedZ = new double[n * n];
+		for (int j = 0; j < n; j++) {
+			sortedD[j] = d[order[j]];
+			for (int i = 0; i < n; i++) {
+				sortedZ[i * n + j] = z[i * n + order[j]];
+			}
+		}
+		System.arraycopy(sortedD, 0, d, 0, n);
+		System.arraycopy(sortedZ, 0, z, 0, n * n);
+	}
+
+	/*
+	 * Implicit QL with Wilkinson shifts on the n x n tridiagonal matrix starting at d[offD] and e[offE], following the
+	 * tql2 routine of EISPACK. When z is not null, the rotations are accumulated into the columns of the n x n block
+	 * starting at z[offZ], which should initially be the identity. The eigenvalues are left unsorted.
+	 */
+	private static void ql(
+			final int n,
+			final double[] d,
+			final int offD,
+			final double[] e,
+			final int offE,
+			final double[] z,
+			final int offZ,
+			final int ldz) {
+		if (n == 0) {
+			return;
+		}
+		final double[] dd = Arrays.copyOfRange(d, offD, offD + n);
+		final double[] ee = new double[n];
+		System.arraycopy(e, offE, ee, 0, n - 1);
+
+		double f = 0.0;
+		double tst1 = 0.0;
+		for (int l = 0; l < n; l++) {
+			tst1 = Math.max(tst1, Math.abs(dd[l]) + Math.abs(ee[l]));
+			int m = l;
+			while (m < n - 1 && Math.abs(ee[m]) > EPS * tst1) {
+				m++;
+			}
+			if (m > l) {
+				do {
+					// Wilkinson shift
+					double g = dd[l];
+					double p = (dd[l + 1] - g) / (2.0 * ee[l]);
+					double r = Math.copySign(Math.hypot(p, 1.0), p);
+					dd[l] = ee[l] / (p + r);
+					dd[l + 1] = ee[l] * (p + r);
+					final double dl1 = dd[l + 1];
+					double h = g - dd[l];
+					for (int i = l + 2; i < n; i++) {
+						dd[i] -= h;
+					}
+					f += h;
+
+					// Implicit QL transformation
+					p = dd[m];
+					double c = 1.0;
+					double c2 = c;
+					double c3 = c;
+					final double el1 = ee[l + 1];
+					double s = 0.0;
+					double s2 = 0.0;
+					for (int i = m - 1; i >= l; i--) {
+						c3 = c2;
+						c2 = c;
+						s2 = s;
+						g = c * ee[i];
+						h = c * p;
+						r = Math.hypot(p, ee[i]);
+						ee[i + 1] = s * r;
+						s = ee[i] / r;
+						c = p / r;
+						p = c * dd[i] - s * g;
+						dd[i + 1] = h + s * (c * g + s * dd[i]);
+						if (z != null) {
+							for (int k = 0; k < n; k++) {
+								final int idx = offZ + k * ldz + i;
+								final double zi1 = z[idx + 1];
+								z[idx + 1] = s * z[idx] + c * zi1;
+								z[idx] = c * z[idx] - s * zi1;
+							}
+						}
+					}
+					p = -s * s2 * c3 * el1 * ee[l] / dl1;
+					ee[l] = s * p;
+					dd[l] = c * p;
+				} while (Math.abs(ee[l]) > EPS * tst1);
+			}
+			dd[l] += f;
+			ee[l] = 0.0;
+		}
+		System.arraycopy(dd, 0, d, offD, n);
+	}
+
+	/*
+	 * Solves the subproblem on the indices [lo; hi). The eigenvectors of the subproblem are stored in the diagonal block
+	 * z[lo:hi, lo:hi], which is zero elsewhere on its rows and columns.
+	 */
+	@SuppressWarnings("serial")
+	private static final class SolveTask extends RecursiveAction {
+
+		private final int lo;
+		private final int hi;
+		private final double[] d;
+		private final double[] e;
+		private final double[] z;
+		private final int ldz;
+
+		SolveTask(final int lo, final int hi, final double[] d, final double[] e, final double[] z, final int ldz) {
+			this.lo = lo;
+			this.hi = hi;
+			this.d = d;
+			this.e = e;
+			this.z = z;
+			this.ldz = ldz;
+		}
+
+		void invokeOrCompute() {
+			final long size = hi - lo;
+			if (Parallelism.isWorthParallelizing(size * size * size)) {
+				Parallelism.getPool().invoke(this);
+			} else {
+				compute();
+			}
+		}
+
+		@Override
+		protected void compute() {
+			final int n = hi - lo;
+			if (n <= LEAF) {
+				for (int i = lo; i < hi; i++) {
+					z[i * ldz + i] = 1.0;
+				}
+				ql(n, d, lo, e, lo, z, lo * ldz + lo, ldz);
+				return;
+			}
+
+			// T = diag(T1, T2) + rho * u * u^T, with u = e(mid-1) + e(mid)
+			final int mid = lo + n / 2;
+			final double rho = e[mid - 1];
+			d[mid - 1] -= rho;
+			d[mid] -= rho;
+
+			final SolveTask left = new SolveTask(lo, mid, d, e, z, ldz);
+			final SolveTask right = new SolveTask(mid, hi, d, e, z, ldz);
+			final long work = (long) n * n * n;
+			if (Parallelism.isWorthParallelizing(work) && inForkJoinPool()) {
+				invokeAll(left, right);
+			} else {
+				left.compute();
+				right.compute();
+			}
+			merge(lo, mid, hi, rho, d, z, ldz);
+		}
+	}
+
+	/*
+	 * Merges the solutions of the two halves [lo; mid) and [mid; hi) by computing the eigendecomposition of the rank-one
+	 * modification D + rho * v * v^T, where v is made of the last row of the first block of eigenvectors and the first
+	 * row of the second one. Small components of v and close eigenvalues are deflated as in LAPACK's laed2, the other
+	 * eigenvalues are the roots of the secular equation and their eigenvectors are computed following Gu and
+	 * Eisenstat, so that they are orthogonal to working precision.
+	 */
+	private static void merge(
+			final int lo,
+			final int mid,
+			final int hi,
+			final double rhoIn,
+			final double[] d,
+			final double[] z,
+			final int ldz) {
+		final int n = hi - lo;
+		final int n1 = mid - lo;
+		final double[] dd = Arrays.copyOfRange(d, lo, hi);
+		final double[] v = new double[n];
+		for (int k = 0; k < n; k++) {
+			v[k] = z[(k < n1 ? mid - 1 : mid) * ldz + lo + k];
+		}
+
+		// The eigenvalues of D + rho * v * v^T are the opposites of the ones of -D - rho * v * v^T
+		final boolean flip = rhoIn < 0.0;
+		if (flip) {
+			for (int k = 0; k < n; k++) {
+				dd[k] = -dd[k];
+			}
+		}
+		final double vnorm = Level2.nrm2(n, v, 0, 1);
+		final double rho = Math.abs(rhoIn) * vnorm * vnorm;
+		double maxD = 0.0;
+		double maxV = 0.0;
+		for (int k = 0; k < n; k++) {
+			v[k] /= vnorm;
+			maxD = Math.max(maxD, Math.abs(dd[k]));
+			maxV = Math.max(maxV, Math.abs(v[k]));
+		}
+		final double tol = 8.0 * EPS * Math.max(maxD, maxV);
+
+		final Integer[] order = new Integer[n];
+		for (int k = 0; k < n; k++) {
+			order[k] = k;
+		}
+		Arrays.sort(order, (x, y) -> Double.compare(dd[x], dd[y]));
+
+		// Columns with a nonzero part only on the top rows (1), only on the bottom rows (3) or on both (2)
+		final int[] type = new int[n];
+		for (int k = 0; k < n; k++) {
+			type[k] = k < n1 ? 1 : 3;
+		}
+
+		// Deflation
+		final int[] kept = new int[n];
+		int numKept = 0;
+		int prev = -1;
+		for (final int j : order) {
+			if (rho * Math.abs(v[j]) <= tol) {
+				continue;
+			}
+			if (prev >= 0) {
+				final double t = Math.hypot(v[prev], v[j]);
+				final double c = v[j] / t;
+				final double s = -v[prev] / t;
+				if (Math.abs((dd[j] - dd[prev]) * c * s) <= tol) {
+					// Rotate the two columns so that v[prev] becomes zero and deflate prev
+					for (int i = lo; i < hi; i++) {
+						final double x = z[i * ldz + lo + prev];
+						final double y = z[i * ldz + lo + j];
+						z[i * ldz + lo + prev] = c * x + s * y;
+						z[i * ldz + lo + j] = c * y - s * x;
+					}
+					v[j] = t;
+					v[prev] = 0.0;
+					final double dp = dd[prev] * c * c + dd[j] * s * s;
+					dd[j] = dd[prev] * s * s + dd[j] * c * c;
+					dd[prev] = dp;
+					if (type[prev] != type[j]) {
+						type[prev] = 2;
+						type[j] = 2;
+					}
+					prev = j;
+					continue;
+				}
+				kept[numKept++] = prev;
+			}
+			prev = j;
+		}
+		if (prev >= 0) {
+			kept[numKept++] = prev;
+		}
+
+		if (numKept > 0) {
+			solveSecular(lo, mid, hi, numKept, kept, dd, v, rho, type, z, ldz);
+		}
+		for (int k = 0; k < n; k++) {
+			d[lo + k] = flip ? -dd[k] : dd[k];
+		}
+	}
+
+	/*
+	 * Computes the eigenpairs of diag(dd[kept]) + rho * v[kept] * v[kept]^T, where the kept elements of dd are in
+	 * ascending order and distinct, then updates the corresponding columns of z and elements of dd.
+	 */
+	private static void solveSecular(
+			final int lo,
+			final int mid,
+			final int hi,
+			final int k,
+			final int[] kept,
+			final double[] dd,
+			final double[] v,
+			final double rho,
+			final int[] type,
+			final double[] z,
+			final int ldz) {
+		final double[] ds = new double[k];
+		final double[] vs = new double[k];
+		for (int j = 0; j < k; j++) {
+			ds[j] = dd[kept[j]];
+			vs[j] = v[kept[j]];
+		}
+
+		// Each eigenvalue is stored as ds[origin[i]] + tau[i], so that ds[j] - lambda(i) is computed accurately
+		final int[] origin = new int[k];
+		final double[] tau = new double[k];
+		Parallelism.parallelFor(0, k, 16, (long) k * k * 16, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				secularRoot(i, k, ds, vs, rho, origin, tau);
+			}
+		});
+
+		// Gu-Eisenstat: recompute v from the computed eigenvalues
+		final double[] vhat = new double[k];
+		Parallelism.parallelFor(0, k, 16, (long) k * k, (from, to) -> {
+			for (int j = from; j < to; j++) {
+				double prod = -delta(j, j, ds, origin, tau) / rho;
+				for (int i = 0; i < k; i++) {
+					if (i != j) {
+						prod *= -delta(i, j, ds, origin, tau) / (ds[i] - ds[j]);
+					}
+				}
+				vhat[j] = Math.copySign(Math.sqrt(Math.max(prod, 0.0)), vs[j]);
+			}
+		});
+
+		// Eigenvectors of the rank-one modification, by columns
+		final double[] u = new double[k * k];
+		Parallelism.parallelFor(0, k, 16, (long) k * k, (from, to) -> {
+			for (int i = from; i < to; i++) {
+				double norm = 0.0;
+				for (int j = 0; j < k; j++) {
+					final double x = vhat[j] / delta(i, j, ds, origin, tau);
+					u[j * k + i] = x;
+					norm += x * x;
+				}
+				norm = Math.sqrt(norm);
+				for (int j = 0; j < k; j++) {
+					u[j * k + i] /= norm;
+				}
+			}
+		});
+
+		// New eigenvectors: z[:, kept] * u, exploiting the zero blocks of the kept columns
+		final double[] top = multiplyKept(lo, lo, mid, k, kept, type, 3, u, z, ldz);
+		final double[] bottom = multiplyKept(lo, mid, hi, k, kept, type, 1, u, z, ldz);
+		for (int i = 0; i < k; i++) {
+			final int col = lo + kept[i];
+			for (int r = lo; r < mid; r++) {
+				z[r * ldz + col] = top[(r - lo) * k + i];
+			}
+			for (int r = mid; r < hi; r++) {
+				z[r * ldz + col] = bottom[(r - mid) * k + i];
+			}
+			dd[kept[i]] = ds[origin[i]] + tau[i];
+		}
+	}
+
+	// Returns z[r0:r1, lo+kept] * u, skipping the kept columns of the given type, which are zero on these rows.
+	private static double[] multiplyKept(
+			final int lo,
+			final int r0,
+			final int r1,
+			final int k,
+			final int[] kept,
+			final int[] type,
+			final int skip,
+			final double[] u,
+			final double[] z,
+			final int ldz) {
+		final int rows = r1 - r0;
+		int count = 0;
+		for (int j = 0; j < k; j++) {
+			if (type[kept[j]] != skip) {
+				count++;
+			}
+		}
+		final double[] a = new double[rows * count];
+		final double[] b = new double[count * k];
+		int c = 0;
+		for (int j = 0; j < k; j++) {
+			if (type[kept[j]] == skip) {
+				continue;
+			}
+			final int col = lo + kept[j];
+			for (int r = 0; r < rows; r++) {
+				a[r * count + c] = z[(r0 + r) * ldz + col];
+			}
+			System.arraycopy(u, j * k, b, c * k, k);
+			c++;
+		}
+		final double[] result = new double[rows * k];
+		Gemm.gemm(false, false, rows, k, count, 1.0, a, 0, count, b, 0, k, 0.0, result, 0, k);
+		return result;
+	}
+
+	// ds[j] - lambda(i)
+	private static double delta(final int i, final int j, final double[] ds, final int[] origin, final double[] tau) {
+		return (ds[j] - ds[origin[i]]) - tau[i];
+	}
+
+	/*
+	 * Finds the i-th root of the secular equation f(lambda) = 1 + rho * sum(v[j]^2 / (ds[j] - lambda)), which lies in
+	 * (ds[i]; ds[i+1]) or, for the last one, in (ds[k-1]; ds[k-1] + rho * ||v||^2). The root is searched as an offset
+	 * from the closest pole with a rational approximation of that pole, safeguarded by bisection.
+	 */
+	private static void secularRoot(
+			final int i,
+			final int k,
+			final double[] ds,
+			final double[] vs,
+			final double rho,
+			final int[] origin,
+			final double[] tau) {
+		double vv = 0.0;
+		for (int j = 0; j < k; j++) {
+			vv += vs[j] * vs[j];
+		}
+		int org = i;
+		double a;
+		double b;
+		if (i == k - 1) {
+			a = 0.0;
+			b = rho * vv;
+		} else {
+			final double half = 0.5 * (ds[i + 1] - ds[i]);
+			double f = 1.0;
+			for (int j = 0; j < k; j++) {
+				f += rho * vs[j] * vs[j] / ((ds[j] - ds[i]) - half);
+			}
+			if (f >= 0.0) {
+				a = 0.0;
+				b = half;
+			} else {
+				org = i + 1;
+				a = -half;
+				b = 0.0;
+			}
+		}
+		final double base = ds[org];
+
+		double t = 0.5 * (a + b);
+		for (int iter = 0; iter < 100; iter++) {
+			double f = 1.0;
+			double fp = 0.0;
+			for (int j = 0; j < k; j++) {
+				final double dj = (ds[j] - base) - t;
+				final double q = vs[j] * vs[j] / dj;
+				f += rho * q;
+				fp += rho * q / dj;
+			}
+			if (f == 0.0) {
+				break;
+			}
+			if (f < 0.0) {
+				a = t;
+			} else {
+				b = t;
+			}
+			// f is modelled as c + s / (0 - t) around the pole at the origin
+			final double c = f + fp * t;
+			double next = c != 0.0 ? fp * t * t / c : Double.NaN;
+			if (!(next > a && next < b)) {
+				next = 0.5 * (a + b);
+			}
+			final boolean done = Math.abs(next - t) <= 2.0 * EPS * Math.abs(next)
+					|| b - a <= 2.0 * EPS * Math.max(Math.abs(a), Math.abs(b));
+			t = next;
+			if (done) {
+				break;
+			}
+		}
+		origin[i] = org;
+		tau[i] = t;
+	}
+}
@@ -19,6 +19,9 @@ package com.ledmington.jalg;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.List;
 import java.util.random.RandomGenerator;
 import java.util.random.RandomGeneratorFactory;
 import java.util.stream.IntStream;
@@ -36,6 +39,18 @@ public final class TestDenseMatrix {
 		return Math.abs((actual - expected) / expected);
 	}
 
+	// A size x size matrix with elements in [low, high), which is the same at every run
+	private static DenseMatrix seededRandom(final int size, final double low, final double high) {
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(size);
+		final double[][] m = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				m[i][j] = rng.nextDouble(low, high);
+			}
+		}
+		return new DenseMatrix(m);
+	}
+
 	@Test
 	void cannotBuildWithZeroRows() {
 		assertThrows(IllegalArgumentException.class, () -> new DenseMatrix(new double[0][10]));
@@ -86,6 +101,24 @@ public final class TestDenseMatrix {
 		}
 	}
 
+	@Test
+	void primitiveAccess() {
+		final DenseMatrix m = new DenseMatrix(new double[][] {{1.0, 2.0, 3.0}, {4.0, 5.0, 6.0}});
+		assertEquals(6.0, m.getDouble(1, 2));
+		assertThrows(IllegalArgumentException.class, () -> m.getDouble(2, 0));
+
+		final double[] row = new double[4];
+		m.copyRow(1, row, 1);
+		assertArrayEquals(new double[] {0.0, 4.0, 5.0, 6.0}, row);
+
+		final double[] column = new double[2];
+		m.copyColumn(2, column, 0);
+		assertArrayEquals(new double[] {3.0, 6.0}, column);
+		assertThrows(IllegalArgumentException.class, () -> m.copyColumn(0, column, 1));
+
+		assertArrayEquals(new double[] {1.0, 2.0, 3.0, 4.0, 5.0, 6.0}, m.toArray());
+	}
+
 	@ParameterizedTest
 	@ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
 	void testTranspose(final int size) {
@@ -137,6 +170,13 @@ public final class TestDenseMatrix {
 		assertEquals(m, i.multiply(m));
 	}
 
+	@Test
+	void strassenMultiplication() {
+		final DenseMatrix a = DenseMatrix.random(1100, 1030, -1.0, 1.0);
+		final DenseMatrix b = DenseMatrix.random(1030, 1050, -1.0, 1.0);
+		assertTrue(a.multiply(b).equals(a.multiply(b, MultiplicationAlgorithm.STRASSEN_WINOGRAD), 1e-10));
+	}
+
 	@ParameterizedTest
 	@ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
 	void determinant(final int size) {
@@ -161,12 +201,28 @@ public final class TestDenseMatrix {
 	@ParameterizedTest
 	@ValueSource(ints = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
 	void gaussJordan(final int size) {
-		final Matrix<Double> m = DenseMatrix.random(size, size, -10.0, 10.0);
+		final Matrix<Double> m = seededRandom(size, -10.0, 10.0);
 		final Matrix<Double> d = m.gaussJordan();
 		assertTrue(d.isUpperTriangular());
 		assertTrue(d.isTriangular());
-		assertTrue(relativeError(m.getDeterminant(), d.getDeterminant()) < 1e-12);
-		assertTrue(relativeError(m.getDeterminant(), m.getEigenvalues().stream().reduce(1.0, (a, b) -> a * b)) < 1e-12);
+		// The determinant comes from the pivoted LU factorization, whose error grows with the conditioning
+		final double tolerance = 1e-12 * m.conditionNumber();
+		assertTrue(relativeError(m.getDeterminant(), d.getDeterminant()) < tolerance);
+		// Each of the size eigenvalues carries a relative error that grows with the conditioning
+		assertTrue(relativeError(m.getDeterminant(), eigenvalueProduct(((DenseMatrix) m).getComplexEigenvalues()))
+				< size * tolerance);
+	}
+
+	// Real part of the product of the eigenvalues
+	private static double eigenvalueProduct(final Eigenvalues ev) {
+		double re = 1.0;
+		double im = 0.0;
+		for (int i = 0; i < ev.getSize(); i++) {
+			final double r = re * ev.getReal(i) - im * ev.getImaginary(i);
+			im = re * ev.getImaginary(i) + im * ev.getReal(i);
+			re = r;
+		}
+		return re;
 	}
 
 	@ParameterizedTest
@@ -183,10 +239,941 @@ public final class TestDenseMatrix {
 		assertTrue(k >= 1.0, () -> String.format("Expected condition number of %s to be >= 1 but was %+.6e.", m, k));
 	}
 
+	private static double exactCondition(final DenseMatrix a) {
+		final int n = a.getNumRows();
+		final double[] v = new double[n * n];
+		final double[] inv = new double[n * n];
+		a.toArray(v, 0);
+		((DenseMatrix) a.getInverse()).toArray(inv, 0);
+		return Lapack.norm1(n, n, v, 0, n) * Lapack.norm1(n, n, inv, 0, n);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 5, 30, 100, 250})
+	void conditionEstimate(final int size) {
+		/*
+		 * The estimate never exceeds the exact value, but it has no guaranteed lower bound: a fixed seed keeps the test
+		 * on matrices where it is known to be within a factor 3.
+		 */
+		final RandomGenerator seeded = RandomGeneratorFactory.getDefault().create(size);
+		final double[][] m = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				m[i][j] = seeded.nextDouble(-1.0, 1.0);
+			}
+		}
+		final DenseMatrix a = new DenseMatrix(m);
+		final double exact = exactCondition(a);
+		final double estimate = a.conditionNumber();
+		assertTrue(estimate <= exact * (1.0 + 1e-10) && estimate >= exact / 3.0);
+
+		// Symmetric positive definite matrices go through the Cholesky factorization
+		final DenseMatrix spd = (DenseMatrix) a.getTranspose().multiply(a);
+		assertTrue(spd.isPositiveDefinite());
+		final double spdExact = exactCondition(spd);
+		final double spdEstimate = spd.conditionNumber();
+		assertTrue(spdEstimate <= spdExact * (1.0 + 1e-8) && spdEstimate >= spdExact / 3.0);
+	}
+
+	@Test
+	void conditionOfSingularMatrix() {
+		final DenseMatrix a = new DenseMatrix(new double[][] {{1.0, 2.0}, {2.0, 4.0}});
+		assertEquals(Double.POSITIVE_INFINITY, a.conditionNumber());
+		assertEquals(0.0, a.getLUDecomposition().reciprocalConditionNumber());
+	}
+
+	@Test
+	void conditionOfIllConditionedMatrix() {
+		// The Hilbert matrix of order 8 has a 1-norm condition number of about 3.4e10
+		final int n = 8;
+		final double[][] h = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				h[i][j] = 1.0 / (i + j + 1);
+			}
+		}
+		final DenseMatrix a = new DenseMatrix(h);
+		assertTrue(relativeError(exactCondition(a), a.conditionNumber()) < 1e-3);
+		assertTrue(relativeError(3.387e10, a.getLUDecomposition().conditionNumber()) < 1e-2);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 12})
+	void preciseConditionNumber(final int size) {
+		final PreciseMatrix p = PreciseMatrix.random(size, size, -1.0, 1.0);
+		final double[][] v = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				v[i][j] = p.get(i, j).doubleValue();
+			}
+		}
+		final double expected = new DenseMatrix(v).getLUDecomposition().conditionNumber();
+		assertTrue(relativeError(expected, p.conditionNumber().doubleValue()) < 1e-6);
+	}
+
+	@Test
+	void mutableOperations() {
+		final DenseMatrix a = DenseMatrix.random(30, 20, -1.0, 1.0);
+		final DenseMatrix b = DenseMatrix.random(20, 40, -1.0, 1.0);
+		final DenseMatrix c = DenseMatrix.random(30, 20, -1.0, 1.0);
+		final MutableDenseMatrix dst = new MutableDenseMatrix(30, 40);
+
+		assertTrue(a.multiply(b).equals(dst.multiplyInto(a, b), 1e-12));
+		assertThrows(IllegalArgumentException.class, () -> dst.multiplyInto(dst, b));
+		assertThrows(IllegalArgumentException.class, () -> dst.multiplyInto(b, a));
+
+		final MutableDenseMatrix x = new MutableDenseMatrix(a);
+		assertTrue(a.subtract(c).equals(x.subtractInto(x, c), 0.0));
+		assertTrue(a.equals(x.addInto(c, x), 1e-15));
+		assertTrue(c.subtract(a).equals(x.subtractInto(c, x), 1e-15));
+		assertTrue(c.subtract(a).getTranspose().equals(new MutableDenseMatrix(20, 30).transposeInto(x), 0.0));
+		x.copyFrom(a).scaleInPlace(-2.0);
+		for (int i = 0; i < 30; i++) {
+			for (int j = 0; j < 20; j++) {
+				assertEquals(-2.0 * a.getDouble(i, j), x.getDouble(i, j));
+			}
+		}
+		assertThrows(IllegalArgumentException.class, () -> x.addInto(a, b));
+
+		final DenseMatrix square = DenseMatrix.random(50, 50, -1.0, 1.0);
+		final MutableDenseMatrix inv = new MutableDenseMatrix(square);
+		assertTrue(square.getInverse().equals(inv.invertInPlace(), 1e-8));
+		assertTrue(DenseMatrix.identity(50).equals(inv.multiply(square), 1e-10));
+		assertTrue(square.getTranspose().equals(inv.copyFrom(square).transposeInto(inv), 0.0));
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> new MutableDenseMatrix(new double[][] {{1.0, 2.0}, {2.0, 4.0}}).invertInPlace());
+	}
+
+	@Test
+	void mutableOperationsDoNotAllocate() {
+		if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+				|| !bean.isThreadAllocatedMemorySupported()) {
+			return;
+		}
+		final DenseMatrix a = DenseMatrix.random(16, 16, -0.1, 0.1);
+		final MutableDenseMatrix b = new MutableDenseMatrix(16, 16).addInto(a, DenseMatrix.identity(16));
+		final MutableDenseMatrix tmp = new MutableDenseMatrix(16, 16);
+		final MutableDenseMatrix inv = new MutableDenseMatrix(16, 16);
+		final Runnable step = () -> {
+			tmp.multiplyInto(a, b);
+			tmp.addInto(tmp, b).scaleInPlace(0.5);
+			inv.copyFrom(tmp).invertInPlace();
+			tmp.transposeInto(inv).subtractInto(tmp, b);
+		};
+		for (int i = 0; i < 20_000; i++) {
+			step.run();
+		}
+		final long before = bean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < 1_000; i++) {
+			step.run();
+		}
+		assertEquals(0L, bean.getCurrentThreadAllocatedBytes() - before);
+	}
+
+	@Test
+	void views() {
+		final DenseMatrix a = DenseMatrix.random(40, 30, -1.0, 1.0);
+		final MatrixView t = a.getTransposedView();
+		final MatrixView sub = a.getSubmatrixView(5, 3, 20, 25);
+		final MatrixView row = a.getRowView(7);
+		final MatrixView column = a.getColumnView(11);
+		for (int i = 0; i < 40; i++) {
+			for (int j = 0; j < 30; j++) {
+				assertEquals(a.getDouble(i, j), t.getDouble(j, i));
+			}
+		}
+		for (int i = 0; i < 20; i++) {
+			for (int j = 0; j < 25; j++) {
+				assertEquals(a.getDouble(5 + i, 3 + j), sub.getDouble(i, j));
+			}
+		}
+		assertEquals(1, row.getNumRows());
+		assertEquals(1, column.getNumColumns());
+		for (int j = 0; j < 30; j++) {
+			assertEquals(a.getDouble(7, j), row.getDouble(0, j));
+		}
+		for (int i = 0; i < 40; i++) {
+			assertEquals(a.getDouble(i, 11), column.getDouble(i, 0));
+		}
+		assertTrue(a.getTranspose().equals(t, 0.0));
+		assertTrue(sub.getTransposedView().getTransposedView().equals(sub, 0.0));
+		assertTrue(sub.getSubmatrixView(2, 4, 3, 3).equals(a.getSubmatrixView(7, 7, 3, 3), 0.0));
+		assertThrows(IllegalArgumentException.class, () -> a.getSubmatrixView(30, 0, 11, 5));
+		assertThrows(IllegalArgumentException.class, () -> sub.getSubmatrixView(0, 0, 0, 5));
+		assertThrows(IllegalArgumentException.class, () -> a.getRowView(40));
+
+		final DenseMatrix dense = sub.toDenseMatrix();
+		final DenseMatrix tDense = t.toDenseMatrix();
+		final DenseMatrix b = DenseMatrix.random(25, 40, -1.0, 1.0);
+		assertTrue(dense.multiply(b).equals(sub.multiply(b), 1e-12));
+		assertTrue(tDense.multiply(a).equals(t.multiply(a), 1e-12));
+		assertTrue(a.multiply(tDense).equals(a.multiply(t), 1e-12));
+		final MatrixView left = tDense.getSubmatrixView(0, 1, 10, 25);
+		final Matrix<Double> expected = left.toDenseMatrix().multiply(dense.getTranspose());
+		assertTrue(expected.equals(left.multiply(sub.getTranspose()), 1e-12));
+		assertTrue(a.multiply(t, MultiplicationAlgorithm.STRASSEN_WINOGRAD).equals(a.multiply(tDense), 1e-10));
+		final MatrixView bt = b.getSubmatrixView(0, 0, 25, 20).getTransposedView();
+		assertTrue(dense.subtract(bt.toDenseMatrix()).equals(sub.subtract(bt), 0.0));
+		for (final NormType type : NormType.values()) {
+			assertEquals(tDense.norm(type), t.norm(type), 1e-12 * tDense.norm(type));
+			assertEquals(dense.norm(type), sub.norm(type), 1e-12 * dense.norm(type));
+		}
+
+		final DenseMatrix square = DenseMatrix.random(20, 20, -1.0, 1.0);
+		final MatrixView block = a.getSubmatrixView(10, 5, 20, 20);
+		assertEquals(block.toDenseMatrix().getDeterminant(), block.getDeterminant());
+		assertTrue(block.toDenseMatrix().getInverse().equals(block.getInverse(), 1e-10));
+		assertTrue(square.multiply(square.getTranspose()).isSymmetric());
+		assertFalse(square.getTransposedView().isSymmetric());
+	}
+
+	@Test
+	void viewsOfMutableMatrices() {
+		final MutableDenseMatrix x = new MutableDenseMatrix(DenseMatrix.random(10, 10, -1.0, 1.0));
+		final MatrixView t = x.getTransposedView();
+		x.set(2, 7, 42.0);
+		assertEquals(42.0, t.getDouble(7, 2));
+
+		final MutableDenseMatrix y = new MutableDenseMatrix(10, 10).transposeInto(t);
+		assertTrue(x.equals(y, 0.0));
+		y.copyFrom(t);
+		assertTrue(x.getTranspose().equals(y, 0.0));
+		x.copyFrom(x.getTransposedView());
+		assertTrue(y.equals(x, 0.0));
+		assertTrue(x.addInto(x, x.getTransposedView()).isSymmetric());
+		assertThrows(IllegalArgumentException.class, () -> x.multiplyInto(y, x.getTransposedView()));
+		assertThrows(IllegalArgumentException.class, () -> x.transposeInto(t));
+
+		final MutableDenseMatrix z = new MutableDenseMatrix(10, 4);
+		z.multiplyInto(y.getTransposedView(), y.getSubmatrixView(0, 3, 10, 4));
+		assertTrue(y.getTranspose().multiply(y.getSubmatrixView(0, 3, 10, 4).toDenseMatrix()).equals(z, 1e-12));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 3, 64, 65, 200})
+	void structureChecks(final int size) {
+		final MutableDenseMatrix s = new MutableDenseMatrix(DenseMatrix.randomSymmetric(size, -1.0, 1.0));
+		assertTrue(s.isSymmetric());
+		assertTrue(s.toDenseMatrix().isSymmetric());
+		assertTrue(s.getTransposedView().isSymmetric());
+		if (size > 1) {
+			final int i = size - 1;
+			final int j = size / 3;
+			s.set(i, j, s.getDouble(i, j) + 1e-9);
+			assertFalse(s.isSymmetric());
+			assertFalse(s.toDenseMatrix().isSymmetric(1e-10));
+			assertTrue(s.toDenseMatrix().isSymmetric(1e-8));
+			assertTrue(s.getTransposedView().isSymmetric(1e-8));
+			s.set(i, j, Double.NaN);
+			assertFalse(s.isSymmetric(Double.MAX_VALUE));
+		}
+		assertThrows(IllegalArgumentException.class, () -> s.isSymmetric(-1.0));
+
+		final MutableDenseMatrix u = new MutableDenseMatrix(DenseMatrix.upperTriangular(size, 1.0, 2.0));
+		assertTrue(u.isUpperTriangular());
+		assertTrue(u.toDenseMatrix().isUpperTriangular());
+		assertTrue(u.getTransposedView().isLowerTriangular());
+		assertEquals(size == 1, u.isLowerTriangular());
+		assertEquals(size == 1, u.getTransposedView().isUpperTriangular());
+		if (size > 1) {
+			u.set(size - 1, 0, -0.0);
+			assertTrue(u.isUpperTriangular());
+			u.set(size - 1, 0, Double.NaN);
+			assertFalse(u.isUpperTriangular());
+			assertFalse(u.getTransposedView().isLowerTriangular());
+		}
+		assertThrows(IllegalArgumentException.class, () -> DenseMatrix.random(3, 4, -1.0, 1.0).isUpperTriangular());
+		assertFalse(DenseMatrix.random(3, 4, -1.0, 1.0).isSymmetric());
+	}
+
+	@Test
+	void preciseStructureChecks() {
+		final PreciseMatrix p = new PreciseMatrix(new BigDecimal[][] {
+			{BigDecimal.ONE, new BigDecimal("2.0")},
+			{new BigDecimal("2.00"), BigDecimal.ZERO}
+		});
+		assertTrue(p.isSymmetric());
+		final PreciseMatrix q = new PreciseMatrix(new BigDecimal[][] {
+			{BigDecimal.ONE, new BigDecimal("2.0")},
+			{new BigDecimal("2.001"), new BigDecimal("0.000")}
+		});
+		assertFalse(q.isSymmetric());
+		assertTrue(q.isSymmetric(0.01));
+		assertFalse(q.isUpperTriangular());
+	}
+
+	private static DenseMatrix band(final int n, final int lower, final int upper) {
+		final DenseMatrix a = DenseMatrix.random(n, n, 1.0, 2.0);
+		final double[][] v = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = Math.max(0, i - lower); j <= Math.min(n - 1, i + upper); j++) {
+				v[i][j] = a.getDouble(i, j);
+			}
+		}
+		return new DenseMatrix(v);
+	}
+
+	private static DenseMatrix permutation(final int n) {
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(n);
+		final int[] perm = IntStream.range(0, n).toArray();
+		for (int i = n - 1; i > 0; i--) {
+			final int j = rng.nextInt(i + 1);
+			final int tmp = perm[i];
+			perm[i] = perm[j];
+			perm[j] = tmp;
+		}
+		final double[][] v = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			v[i][perm[i]] = 1.0;
+		}
+		return new DenseMatrix(v);
+	}
+
+	// Product computed with the general kernel, which ignores the structure of the operands
+	private static MutableDenseMatrix generalProduct(final Matrix<Double> a, final Matrix<Double> b) {
+		return new MutableDenseMatrix(a.getNumRows(), b.getNumColumns()).multiplyInto(a, b);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 100})
+	void structureDetection(final int size) {
+		final DenseMatrix dense = DenseMatrix.random(size, size, 1.0, 2.0);
+		assertEquals(size - 1, dense.getLowerBandwidth());
+		assertEquals(size - 1, dense.getUpperBandwidth());
+		assertEquals(size == 1, dense.isDiagonal());
+		assertFalse(dense.isPermutation());
+
+		final DenseMatrix tri = band(size, 1, 1);
+		assertEquals(Math.min(1, size - 1), tri.getLowerBandwidth());
+		assertEquals(Math.min(1, size - 1), tri.getUpperBandwidth());
+		final DenseMatrix upper = band(size, 0, size);
+		assertTrue(upper.isUpperTriangular());
+		assertEquals(size == 1, upper.isLowerTriangular());
+		assertTrue(band(size, 0, 0).isDiagonal());
+		assertTrue(permutation(size).isPermutation());
+		assertTrue(DenseMatrix.identity(size).isPermutation());
+		assertFalse(new DenseMatrix(size, size, new double[size * size]).isPermutation());
+
+		final DenseMatrix rectangular = new DenseMatrix(new double[][] {{0.0, 0.0, 1.0}, {0.0, 0.0, 0.0}});
+		assertEquals(0, rectangular.getLowerBandwidth());
+		assertEquals(2, rectangular.getUpperBandwidth());
+		assertFalse(rectangular.isPermutation());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 100})
+	void structuredProducts(final int size) {
+		final DenseMatrix b = DenseMatrix.random(size, 30, -1.0, 1.0);
+		final DenseMatrix c = DenseMatrix.random(30, size, -1.0, 1.0);
+		final List<DenseMatrix> structured = List.of(
+				band(size, 0, 0), band(size, 1, 2), band(size, 3, 0), permutation(size), DenseMatrix.identity(size));
+		for (final DenseMatrix a : structured) {
+			assertTrue(generalProduct(a, b).equals(a.multiply(b), 1e-12));
+			assertTrue(generalProduct(c, a).equals(c.multiply(a), 1e-12));
+			assertTrue(generalProduct(a, a).equals(a.multiply(a), 1e-12));
+			assertTrue(generalProduct(a, b.getTransposedView().getTransposedView())
+					.equals(a.multiply(b.getTransposedView().getTransposedView()), 1e-12));
+			assertTrue(generalProduct(a, c.getTransposedView()).equals(a.multiply(c.getTransposedView()), 1e-12));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 100})
+	void structuredDeterminantsAndInverses(final int size) {
+		final DenseMatrix identity = DenseMatrix.identity(size);
+		final List<DenseMatrix> structured =
+				List.of(band(size, 0, 0), band(size, 0, size), band(size, size, 0), permutation(size));
+		for (final DenseMatrix a : structured) {
+			final double expected = new LUDecomposition(a).determinant();
+			assertEquals(expected, a.getDeterminant(), 1e-12 * Math.abs(expected));
+			assertTrue(identity.equals(generalProduct(a, a.getInverse()), 1e-9));
+		}
+		if (size > 1) {
+			final double[][] v = new double[size][size];
+			v[size - 1][0] = 1.0;
+			assertThrows(IllegalArgumentException.class, () -> new DenseMatrix(v).getInverse());
+			assertEquals(0.0, new DenseMatrix(v).getDeterminant());
+		}
+
+		final DenseMatrix upper = band(size, 0, size);
+		final List<Double> ev = upper.getEigenvalues();
+		for (int i = 0; i < size; i++) {
+			assertTrue(ev.contains(upper.getDouble(i, i)));
+		}
+		for (int i = 1; i < size; i++) {
+			assertTrue(ev.get(i - 1) <= ev.get(i));
+		}
+	}
+
+	private static Stream<Arguments> normShapes() {
+		return Stream.of(
+						new int[] {1, 1},
+						new int[] {1, 13},
+						new int[] {13, 1},
+						new int[] {7, 3},
+						new int[] {50, 50},
+						new int[] {120, 35},
+						new int[] {35, 120})
+				.map(shape -> Arguments.of(shape[0], shape[1]));
+	}
+
+	@ParameterizedTest
+	@MethodSource("normShapes")
+	void norms(final int rows, final int columns) {
+		final DenseMatrix a = DenseMatrix.random(rows, columns, -1.0, 1.0);
+		double ssq = 0.0;
+		double max = 0.0;
+		double one = 0.0;
+		double inf = 0.0;
+		for (int i = 0; i < rows; i++) {
+			double sum = 0.0;
+			for (int j = 0; j < columns; j++) {
+				ssq += a.get(i, j) * a.get(i, j);
+				max = Math.max(max, Math.abs(a.get(i, j)));
+				sum += Math.abs(a.get(i, j));
+			}
+			inf = Math.max(inf, sum);
+		}
+		for (int j = 0; j < columns; j++) {
+			double sum = 0.0;
+			for (int i = 0; i < rows; i++) {
+				sum += Math.abs(a.get(i, j));
+			}
+			one = Math.max(one, sum);
+		}
+		assertTrue(relativeError(Math.sqrt(ssq), a.norm()) < 1e-12);
+		assertTrue(relativeError(Math.sqrt(ssq), a.norm(NormType.FROBENIUS)) < 1e-12);
+		assertTrue(relativeError(one, a.norm(NormType.ONE)) < 1e-12);
+		assertTrue(relativeError(inf, a.norm(NormType.INFINITY)) < 1e-12);
+		assertEquals(max, a.norm(NormType.MAX_ABS));
+
+		final double exact = a.getSingularValueDecomposition().norm2();
+		final double estimate = a.norm(NormType.SPECTRAL);
+		assertTrue(estimate <= exact * (1.0 + 1e-12));
+		assertTrue(relativeError(exact, estimate) < 1e-6);
+	}
+
+	@Test
+	void normsDoNotOverflowOrUnderflow() {
+		for (final double scale : new double[] {0x1p1000, 0x1p-1040}) {
+			final DenseMatrix a = new DenseMatrix(new double[][] {{3.0 * scale, 0.0}, {0.0, -4.0 * scale}});
+			assertEquals(5.0 * scale, a.norm(NormType.FROBENIUS));
+			assertEquals(4.0 * scale, a.norm(NormType.ONE));
+			assertEquals(4.0 * scale, a.norm(NormType.INFINITY));
+			assertEquals(4.0 * scale, a.norm(NormType.MAX_ABS));
+			assertEquals(4.0 * scale, a.norm(NormType.SPECTRAL), 1e-9 * scale);
+		}
+		final DenseMatrix zero = new DenseMatrix(new double[3][4]);
+		for (final NormType type : NormType.values()) {
+			assertEquals(0.0, zero.norm(type));
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 12})
+	void preciseNorms(final int size) {
+		final PreciseMatrix p = PreciseMatrix.random(size, size, -1.0, 1.0);
+		final double[][] v = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				v[i][j] = p.get(i, j).doubleValue();
+			}
+		}
+		final DenseMatrix d = new DenseMatrix(v);
+		for (final NormType type : NormType.values()) {
+			assertTrue(relativeError(d.norm(type), p.norm(type).doubleValue()) < 1e-6);
+		}
+	}
+
 	@ParameterizedTest
 	@ValueSource(ints = {2, 3, 4, 5, 6, 7, 8, 9, 10})
 	void randomSymmetric(final int size) {
 		final Matrix<Double> m = DenseMatrix.randomSymmetric(size, -10.0, 10.0);
 		assertTrue(m.isSymmetric());
 	}
+
+	@Test
+	void zeroPivot() {
+		final Matrix<Double> m = new DenseMatrix(new double[][] {{0.0, 2.0}, {3.0, 0.0}});
+		assertTrue(m.isInvertible());
+		assertEquals(-6.0, m.getDeterminant());
+		assertTrue(new DenseMatrix(new double[][] {{0.0, 1.0 / 3.0}, {0.5, 0.0}}).equals(m.getInverse(), 1e-15));
+	}
+
+	@Test
+	void singular() {
+		final Matrix<Double> m = new DenseMatrix(new double[][] {{1.0, 2.0}, {2.0, 4.0}});
+		assertFalse(m.isInvertible());
+		assertEquals(0.0, m.getDeterminant());
+		assertThrows(IllegalArgumentException.class, m::getInverse);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 10, 70, 150})
+	void luSolve(final int size) {
+		final DenseMatrix a = DenseMatrix.random(size, size, -1.0, 1.0);
+		final LUDecomposition lu = a.getLUDecomposition();
+
+		final DenseMatrix b = DenseMatrix.random(size, 3, -1.0, 1.0);
+		final DenseMatrix x = lu.solve(b);
+		assertTrue(b.equals(a.multiply(x), 1e-10));
+
+		final double[] v = new double[size];
+		b.copyColumn(1, v, 0);
+		final double[] y = lu.solve(v);
+		for (int i = 0; i < size; i++) {
+			assertEquals(x.getDouble(i, 1), y[i], 1e-12);
+		}
+	}
+
+	// A^T * A + n * I
+	private static DenseMatrix randomPositiveDefinite(final int size) {
+		final DenseMatrix a = DenseMatrix.random(size, size, -1.0, 1.0);
+		final DenseMatrix ata = (DenseMatrix) a.getTranspose().multiply(a);
+		final double[][] v = new double[size][size];
+		for (int i = 0; i < size; i++) {
+			ata.copyRow(i, v[i], 0);
+			v[i][i] += size;
+		}
+		return new DenseMatrix(v);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 10, 70, 150})
+	void cholesky(final int size) {
+		final DenseMatrix a = randomPositiveDefinite(size);
+		assertTrue(a.isPositiveDefinite());
+		final CholeskyDecomposition c = a.getCholeskyDecomposition();
+		final DenseMatrix l = c.getL();
+		assertTrue(l.isLowerTriangular());
+		assertTrue(a.equals(l.multiply(l.getTranspose()), 1e-10 * size));
+		if (size <= 10) {
+			assertTrue(relativeError(a.getDeterminant(), c.determinant()) < 1e-10);
+		}
+
+		final DenseMatrix b = DenseMatrix.random(size, 2, -1.0, 1.0);
+		assertTrue(b.equals(a.multiply(c.solve(b)), 1e-10));
+		assertTrue(DenseMatrix.identity(size).equals(a.multiply(c.inverse()), 1e-10));
+	}
+
+	@Test
+	void notPositiveDefinite() {
+		// Symmetric, positive diagonal but indefinite
+		final DenseMatrix m = new DenseMatrix(new double[][] {{1.0, 2.0}, {2.0, 1.0}});
+		assertFalse(m.isPositiveDefinite());
+		assertThrows(IllegalArgumentException.class, m::getCholeskyDecomposition);
+		assertFalse(new DenseMatrix(new double[][] {{2.0, 1.0}, {0.0, 2.0}}).isPositiveDefinite());
+		assertTrue(DenseMatrix.identity(4).isPositiveDefinite());
+	}
+
+	private static Stream<Arguments> qrShapes() {
+		return Stream.of(
+				Arguments.of(1, 1),
+				Arguments.of(5, 5),
+				Arguments.of(7, 3),
+				Arguments.of(3, 7),
+				Arguments.of(100, 100),
+				Arguments.of(300, 20),
+				Arguments.of(150, 90));
+	}
+
+	@ParameterizedTest
+	@MethodSource("qrShapes")
+	void qr(final int rows, final int columns) {
+		final DenseMatrix a = DenseMatrix.random(rows, columns, -1.0, 1.0);
+		final QRDecomposition qr = a.getQRDecomposition();
+		final int k = Math.min(rows, columns);
+
+		final DenseMatrix q = qr.getQ(false);
+		final DenseMatrix r = qr.getR(false);
+		assertTrue(a.equals(q.multiply(r), 1e-10));
+		assertTrue(DenseMatrix.identity(rows).equals(q.getTranspose().multiply(q), 1e-10));
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < Math.min(i, columns); j++) {
+				assertEquals(0.0, r.getDouble(i, j));
+			}
+		}
+
+		final DenseMatrix qe = qr.getQ(true);
+		final DenseMatrix re = qr.getR(true);
+		assertEquals(k, qe.getNumColumns());
+		assertEquals(k, re.getNumRows());
+		assertTrue(a.equals(qe.multiply(re), 1e-10));
+
+		final DenseMatrix b = DenseMatrix.random(rows, 4, -1.0, 1.0);
+		assertTrue(q.multiply(b).equals(qr.applyQ(b), 1e-10));
+		assertTrue(b.equals(qr.applyQT(qr.applyQ(b)), 1e-10));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 4, 30, 90})
+	void leastSquares(final int columns) {
+		final DenseMatrix a = DenseMatrix.random(3 * columns, columns, -1.0, 1.0);
+		final DenseMatrix b = DenseMatrix.random(3 * columns, 2, -1.0, 1.0);
+		final DenseMatrix x = a.getQRDecomposition().solve(b);
+
+		// The residual must be orthogonal to the columns of A
+		final Matrix<Double> at = a.getTranspose();
+		assertTrue(at.multiply(b).equals(at.multiply(a).multiply(x), 1e-9));
+
+		final double[] v = new double[3 * columns];
+		b.copyColumn(0, v, 0);
+		final double[] y = a.getQRDecomposition().solve(v);
+		for (int i = 0; i < columns; i++) {
+			assertEquals(x.getDouble(i, 0), y[i], 1e-12);
+		}
+	}
+
+	@Test
+	void rankDeficientLeastSquares() {
+		final DenseMatrix a = new DenseMatrix(new double[][] {{1.0, 0.0}, {2.0, 0.0}, {3.0, 0.0}});
+		assertFalse(a.getQRDecomposition().isFullRank());
+		assertThrows(IllegalArgumentException.class, () -> a.getQRDecomposition()
+				.solve(new double[] {1.0, 1.0, 1.0}));
+	}
+
+	private static void assertEigendecomposition(final DenseMatrix a, final SymmetricEigenDecomposition eig) {
+		final int n = a.getNumRows();
+		final double[] w = eig.getEigenvalues();
+		final DenseMatrix v = eig.getEigenvectors();
+		final double scale = Math.max(1.0, Math.abs(w[0]) + Math.abs(w[n - 1]));
+		for (int i = 1; i < n; i++) {
+			assertTrue(w[i - 1] <= w[i]);
+		}
+		final double[] lambda = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			lambda[i * n + i] = w[i];
+		}
+		final Matrix<Double> av = a.multiply(v);
+		final Matrix<Double> vl = v.multiply(new DenseMatrix(n, n, lambda));
+		assertTrue(av.equals(vl, 1e-12 * n * scale));
+		assertTrue(DenseMatrix.identity(n).equals(v.getTranspose().multiply(v), 1e-12 * n));
+
+		final double[] values = new SymmetricEigenDecomposition(a, false).getEigenvalues();
+		for (int i = 0; i < n; i++) {
+			assertEquals(w[i], values[i], 1e-12 * n * scale);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 10, 33, 70, 150, 300})
+	void symmetricEigen(final int size) {
+		final DenseMatrix a = DenseMatrix.randomSymmetric(size, -1.0, 1.0);
+		assertEigendecomposition(a, new SymmetricEigenDecomposition(a));
+
+		double trace = 0.0;
+		for (int i = 0; i < size; i++) {
+			trace += a.getDouble(i, i);
+		}
+		assertEquals(trace, a.getEigenvalues().stream().mapToDouble(x -> x).sum(), 1e-10 * size);
+	}
+
+	@Test
+	void eigenvaluesAreSortedOnEveryPath() {
+		final List<Double> expected = List.of(1.0, 2.0, 3.0);
+		final double[][] triangular = {{3.0, 1.0, 0.0}, {0.0, 1.0, 0.0}, {0.0, 0.0, 2.0}};
+		final double[][] symmetric = {{2.0, 1.0, 0.0}, {1.0, 2.0, 0.0}, {0.0, 0.0, 2.0}};
+		final double[][] general = {{3.0, 1.0, 0.0}, {0.0, 1.0, 0.0}, {0.5, 0.0, 2.0}};
+		for (final double[][] m : List.of(triangular, symmetric, general)) {
+			final List<Double> actual = new DenseMatrix(m).getEigenvalues();
+			assertEquals(expected.size(), actual.size());
+			for (int i = 0; i < expected.size(); i++) {
+				assertEquals(expected.get(i), actual.get(i), 1e-12);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {40, 100, 200})
+	void repeatedEigenvalues(final int size) {
+		// Q * diag(1, ..., 1, 2, ..., 2) * Q^T exercises the deflation of close eigenvalues
+		final DenseMatrix q = DenseMatrix.random(size, size, -1.0, 1.0).getQRDecomposition().getQ(false);
+		final double[] d = new double[size * size];
+		for (int i = 0; i < size; i++) {
+			d[i * size + i] = i < size / 2 ? 1.0 : 2.0;
+		}
+		final Matrix<Double> qd = q.multiply(new DenseMatrix(size, size, d));
+		final double[] v = DoubleMatrix.toArray(qd.multiply(q.getTranspose()));
+		// Make it exactly symmetric
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < i; j++) {
+				v[i * size + j] = v[j * size + i];
+			}
+		}
+		final DenseMatrix a = new DenseMatrix(size, size, v);
+		final SymmetricEigenDecomposition eig = new SymmetricEigenDecomposition(a);
+		assertEigendecomposition(a, eig);
+		for (int i = 0; i < size; i++) {
+			assertEquals(i < size / 2 ? 1.0 : 2.0, eig.getEigenvalue(i), 1e-12);
+		}
+		final DenseMatrix id = DenseMatrix.identity(size);
+		assertEigendecomposition(id, new SymmetricEigenDecomposition(id));
+	}
+
+	@Test
+	void wilkinsonEigenvalues() {
+		// W21+ has pairs of eigenvalues which agree to many digits
+		final int n = 21;
+		final double[] v = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			v[i * n + i] = Math.abs(10 - i);
+			if (i > 0) {
+				v[i * n + i - 1] = 1.0;
+				v[(i - 1) * n + i] = 1.0;
+			}
+		}
+		final DenseMatrix a = new DenseMatrix(n, n, v);
+		final SymmetricEigenDecomposition eig = new SymmetricEigenDecomposition(a);
+		assertEigendecomposition(a, eig);
+		assertEquals(10.746194182903393, eig.getEigenvalue(n - 1), 1e-12);
+		assertEquals(-1.125441522119984, eig.getEigenvalue(0), 1e-12);
+	}
+
+	@Test
+	void nonSymmetricEigendecomposition() {
+		final DenseMatrix a = new DenseMatrix(new double[][] {{1.0, 2.0}, {3.0, 4.0}});
+		assertThrows(IllegalArgumentException.class, () -> new SymmetricEigenDecomposition(a));
+		final SymmetricEigenDecomposition eig = new SymmetricEigenDecomposition(DenseMatrix.identity(3), false);
+		assertFalse(eig.hasEigenvectors());
+		assertThrows(IllegalArgumentException.class, eig::getEigenvectors);
+	}
+
+	// Q * B * Q^T, where B is block upper triangular with the given eigenvalues and Q is a random orthogonal matrix
+	private static DenseMatrix withEigenvalues(final double[] re, final double[] im, final RandomGenerator rng) {
+		final int n = re.length;
+		final double[] b = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			final int end = im[i] > 0.0 ? i + 1 : i;
+			b[i * n + i] = re[i];
+			if (end > i) {
+				b[i * n + i + 1] = im[i];
+				b[(i + 1) * n + i] = -im[i];
+				b[(i + 1) * n + i + 1] = re[i];
+				for (int j = end + 1; j < n; j++) {
+					b[(i + 1) * n + j] = rng.nextDouble(-1.0, 1.0) / Math.sqrt(n);
+				}
+			}
+			for (int j = end + 1; j < n; j++) {
+				b[i * n + j] = rng.nextDouble(-1.0, 1.0) / Math.sqrt(n);
+			}
+			i = end;
+		}
+		final DenseMatrix q = DenseMatrix.random(n, n, -1.0, 1.0).getQRDecomposition().getQ(false);
+		return new DenseMatrix(
+				n, n, DoubleMatrix.toArray(q.multiply(new DenseMatrix(n, n, b)).multiply(q.getTranspose())));
+	}
+
+	private static void assertSameEigenvalues(
+			final double[] re, final double[] im, final Eigenvalues ev, final double tolerance) {
+		final int n = re.length;
+		final boolean[] used = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			int best = -1;
+			double dist = Double.POSITIVE_INFINITY;
+			for (int j = 0; j < n; j++) {
+				final double d = Math.hypot(re[i] - ev.getReal(j), im[i] - ev.getImaginary(j));
+				if (!used[j] && d < dist) {
+					dist = d;
+					best = j;
+				}
+			}
+			assertTrue(dist <= tolerance, String.format("Eigenvalue %f%+fi not found", re[i], im[i]));
+			used[best] = true;
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 3, 10, 50, 74, 75, 100, 200, 400})
+	void nonSymmetricEigenvalues(final int size) {
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(size);
+		final double[] re = new double[size];
+		final double[] im = new double[size];
+		for (int i = 0; i < size; i++) {
+			re[i] = rng.nextDouble(-5.0, 5.0);
+			if (i + 1 < size && rng.nextBoolean()) {
+				im[i] = rng.nextDouble(0.5, 3.0);
+				re[i + 1] = re[i];
+				im[i + 1] = -im[i];
+				i++;
+			}
+		}
+		final DenseMatrix a = withEigenvalues(re, im, rng);
+		final Eigenvalues ev = a.getComplexEigenvalues();
+		assertSameEigenvalues(re, im, ev, 1e-8);
+		for (int i = 0; i < size; i++) {
+			if (ev.getImaginary(i) > 0.0) {
+				assertEquals(ev.getReal(i), ev.getReal(i + 1));
+				assertEquals(-ev.getImaginary(i), ev.getImaginary(i + 1));
+			}
+		}
+	}
+
+	@Test
+	void complexEigenvalues() {
+		// Rotation by 90 degrees
+		final DenseMatrix r = new DenseMatrix(new double[][] {{0.0, -1.0}, {1.0, 0.0}});
+		final Eigenvalues ev = r.getComplexEigenvalues();
+		assertFalse(ev.isReal());
+		assertEquals(0.0, ev.getReal(0), 1e-15);
+		assertEquals(1.0, ev.getImaginary(0), 1e-15);
+		assertEquals(-1.0, ev.getImaginary(1), 1e-15);
+		assertThrows(IllegalArgumentException.class, r::getEigenvalues);
+
+		final DenseMatrix u = new DenseMatrix(new double[][] {{1.0, 5.0, 3.0}, {0.0, 2.0, 7.0}, {0.0, 0.0, -4.0}});
+		final List<Double> values = u.getEigenvalues().stream().sorted().toList();
+		assertEquals(List.of(-4.0, 1.0, 2.0), values);
+	}
+
+	@Test
+	void randomEigenvalues() {
+		// Sum and product of the eigenvalues of a random matrix
+		final int n = 300;
+		final DenseMatrix a = DenseMatrix.random(n, n, -1.0, 1.0);
+		final Eigenvalues ev = a.getComplexEigenvalues();
+		double trace = 0.0;
+		double sum = 0.0;
+		double imSum = 0.0;
+		for (int i = 0; i < n; i++) {
+			trace += a.getDouble(i, i);
+			sum += ev.getReal(i);
+			imSum += ev.getImaginary(i);
+		}
+		assertEquals(trace, sum, 1e-9);
+		assertEquals(0.0, imSum, 1e-9);
+		// Circular law: the spectral radius is about sqrt(n / 3)
+		assertTrue(ev.getSpectralRadius() < 2.0 * Math.sqrt(n / 3.0));
+	}
+
+	private static Stream<Arguments> svdShapes() {
+		return Stream.of(SvdAlgorithm.values())
+				.flatMap(alg -> Stream.of(
+								new int[] {1, 1},
+								new int[] {1, 5},
+								new int[] {5, 1},
+								new int[] {7, 3},
+								new int[] {3, 7},
+								new int[] {40, 40},
+								new int[] {100, 60},
+								new int[] {60, 100},
+								new int[] {300, 20},
+								new int[] {200, 200})
+						.map(shape -> Arguments.of(shape[0], shape[1], alg)));
+	}
+
+	private static void assertSvd(final DenseMatrix a, final SingularValueDecomposition svd, final boolean economy) {
+		final int m = a.getNumRows();
+		final int n = a.getNumColumns();
+		final int k = Math.min(m, n);
+		final double[] s = svd.getSingularValues();
+		assertEquals(k, s.length);
+		for (int i = 0; i < k; i++) {
+			assertTrue(s[i] >= 0.0);
+			if (i > 0) {
+				assertTrue(s[i - 1] >= s[i]);
+			}
+		}
+
+		final DenseMatrix u = svd.getU();
+		final DenseMatrix v = svd.getV();
+		assertEquals(economy ? k : m, u.getNumColumns());
+		assertEquals(economy ? k : n, v.getNumColumns());
+		final double eps = 1e-12 * Math.max(m, n);
+		assertTrue(DenseMatrix.identity(u.getNumColumns()).equals(u.getTranspose().multiply(u), eps));
+		assertTrue(DenseMatrix.identity(v.getNumColumns()).equals(v.getTranspose().multiply(v), eps));
+		assertTrue(a.equals(u.multiply(svd.getS()).multiply(v.getTranspose()), eps * Math.max(1.0, s[0])));
+	}
+
+	@ParameterizedTest
+	@MethodSource("svdShapes")
+	void singularValueDecomposition(final int rows, final int columns, final SvdAlgorithm algorithm) {
+		final DenseMatrix a = DenseMatrix.random(rows, columns, -1.0, 1.0);
+		final SingularValueDecomposition thin = new SingularValueDecomposition(a, true, true, algorithm);
+		assertSvd(a, thin, true);
+		assertSvd(a, new SingularValueDecomposition(a, true, false, algorithm), false);
+
+		final SingularValueDecomposition values = new SingularValueDecomposition(a, false, true, algorithm);
+		assertFalse(values.hasSingularVectors());
+		assertThrows(IllegalArgumentException.class, values::getU);
+		final double[] expected = thin.getSingularValues();
+		final double[] actual = values.getSingularValues();
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals(expected[i], actual[i], 1e-12 * Math.max(rows, columns) * expected[0]);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {8, 16, 60})
+	void jacobiRelativeAccuracy(final int size) {
+		// A = Q * D with Q orthogonal has the elements of D as singular values, here spanning 15 orders of magnitude
+		final Matrix<Double> q = DenseMatrix.random(size, size, -1.0, 1.0).getQRDecomposition().getQ(false);
+		final double[] d = new double[size * size];
+		final double[] expected = new double[size];
+		for (int i = 0; i < size; i++) {
+			expected[i] = Math.pow(10.0, -15.0 * i / (size - 1));
+			d[i * size + i] = expected[i];
+		}
+		final Matrix<Double> a = q.multiply(new DenseMatrix(size, size, d));
+
+		final SingularValueDecomposition svd = new SingularValueDecomposition(a, false, true, SvdAlgorithm.JACOBI);
+		for (int i = 0; i < size; i++) {
+			assertTrue(relativeError(expected[i], svd.getSingularValue(i)) < 1e-12);
+		}
+		assertEquals(1.0, svd.norm2(), 1e-14);
+		assertEquals(1e15, svd.conditionNumber(), 1e3);
+
+		// The bidiagonal QR algorithm is only accurate relative to the largest singular value
+		final SingularValueDecomposition gk = new SingularValueDecomposition(a, false, true);
+		for (int i = 0; i < size; i++) {
+			assertEquals(expected[i], gk.getSingularValue(i), 1e-14 * size);
+		}
+	}
+
+	@Test
+	void pseudoInverse() {
+		final int m = 8;
+		final int n = 5;
+		final double[][] v = new double[m][n];
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(System.nanoTime());
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n - 1; j++) {
+				v[i][j] = rng.nextDouble(-1.0, 1.0);
+			}
+			v[i][n - 1] = v[i][0] + v[i][1];
+		}
+		final DenseMatrix a = new DenseMatrix(v);
+		final SingularValueDecomposition svd = a.getSingularValueDecomposition();
+		assertEquals(n - 1, svd.rank());
+		assertEquals(Double.POSITIVE_INFINITY, new DenseMatrix(new double[][] {{1.0, 0.0}, {0.0, 0.0}})
+				.getSingularValueDecomposition()
+				.conditionNumber());
+
+		// Moore-Penrose conditions
+		final DenseMatrix p = a.getPseudoInverse();
+		assertEquals(n, p.getNumRows());
+		assertEquals(m, p.getNumColumns());
+		final Matrix<Double> ap = a.multiply(p);
+		final Matrix<Double> pa = p.multiply(a);
+		assertTrue(a.equals(ap.multiply(a), 1e-12));
+		assertTrue(p.equals(pa.multiply(p), 1e-12));
+		assertTrue(ap.equals(ap.getTranspose(), 1e-12));
+		assertTrue(pa.equals(pa.getTranspose(), 1e-12));
+
+		// For a full rank matrix with more rows than columns, the pseudoinverse gives the least squares solution
+		final DenseMatrix b = DenseMatrix.random(12, 4, -1.0, 1.0);
+		final DenseMatrix c = DenseMatrix.random(12, 1, -1.0, 1.0);
+		assertTrue(b.getQRDecomposition().solve(c).equals(b.getPseudoInverse().multiply(c), 1e-10));
+	}
+
+	@Test
+	void singularValuesOfZeroMatrix() {
+		final DenseMatrix z = new DenseMatrix(new double[4][3]);
+		for (final SvdAlgorithm algorithm : SvdAlgorithm.values()) {
+			final SingularValueDecomposition svd = new SingularValueDecomposition(z, true, false, algorithm);
+			assertArrayEquals(new double[3], svd.getSingularValues());
+			assertEquals(0, svd.rank());
+			assertSvd(z, svd, false);
+		}
+		assertArrayEquals(new double[3], z.getSingularValues());
+	}
 }
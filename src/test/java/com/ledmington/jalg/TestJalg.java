@@ -0,0 +1,599 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public final class TestJalg {
+
+	private static final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(System.nanoTime());
+
+	private static double[] random(final int length) {
+		final double[] x = new double[length];
+		for (int i = 0; i < length; i++) {
+			x[i] = rng.nextDouble(-1.0, 1.0);
+		}
+		return x;
+	}
+
+	private static Stream<Arguments> gemmSizes() {
+		return Stream.of(
+				Arguments.of(1, 1, 1),
+				Arguments.of(3, 5, 7),
+				Arguments.of(4, 4, 4),
+				Arguments.of(17, 13, 11),
+				Arguments.of(64, 64, 64),
+				Arguments.of(130, 70, 300),
+				Arguments.of(5, 2100, 3));
+	}
+
+	@ParameterizedTest
+	@MethodSource("gemmSizes")
+	void gemm(final int m, final int n, final int k) {
+		for (final boolean transA : new boolean[] {false, true}) {
+			for (final boolean transB : new boolean[] {false, true}) {
+				final double[] a = random(m * k);
+				final double[] b = random(k * n);
+				final double[] c = random(m * n);
+				final double[] expected = new double[m * n];
+				final double alpha = 1.5;
+				final double beta = -0.5;
+				for (int i = 0; i < m; i++) {
+					for (int j = 0; j < n; j++) {
+						double s = 0.0;
+						for (int p = 0; p < k; p++) {
+							s += (transA ? a[p * m + i] : a[i * k + p]) * (transB ? b[j * k + p] : b[p * n + j]);
+						}
+						expected[i * n + j] = alpha * s + beta * c[i * n + j];
+					}
+				}
+
+				Jalg.gemm(
+						transA,
+						transB,
+						m,
+						n,
+						k,
+						alpha,
+						a,
+						0,
+						transA ? m : k,
+						b,
+						0,
+						transB ? k : n,
+						beta,
+						c,
+						0,
+						n);
+				assertArrayEquals(expected, c, 1e-12 * k);
+			}
+		}
+	}
+
+	@Test
+	void gemmOnSubmatrix() {
+		// C[1:3, 2:4] = A[0:2, 1:4] * B[1:4, 0:2] inside 5x5 matrices
+		final int ld = 5;
+		final double[] a = random(ld * ld);
+		final double[] b = random(ld * ld);
+		final double[] c = new double[ld * ld];
+		Jalg.gemm(false, false, 2, 2, 3, 1.0, a, 1, ld, b, ld, ld, 0.0, c, ld + 2, ld);
+		for (int i = 0; i < ld; i++) {
+			for (int j = 0; j < ld; j++) {
+				if (i >= 1 && i < 3 && j >= 2 && j < 4) {
+					double s = 0.0;
+					for (int p = 0; p < 3; p++) {
+						s += a[(i - 1) * ld + 1 + p] * b[(1 + p) * ld + j - 2];
+					}
+					assertEquals(s, c[i * ld + j], 1e-14);
+				} else {
+					assertEquals(0.0, c[i * ld + j]);
+				}
+			}
+		}
+	}
+
+	@Test
+	void parallelGemm() {
+		final int m = 600;
+		final int n = 530;
+		final int k = 70;
+		final double[] a = random(m * k);
+		final double[] b = random(k * n);
+		final double[] expected = random(m * n);
+		final double[] c = expected.clone();
+		Gemm.sequential(false, true, m, n, k, 2.0, a, 0, k, b, 0, k, 0.5, expected, 0, n);
+
+		final long oldThreshold = Parallelism.getThreshold();
+		try {
+			Parallelism.setMaxThreads(4);
+			Parallelism.setThreshold(0L);
+			Jalg.gemm(false, true, m, n, k, 2.0, a, 0, k, b, 0, k, 0.5, c, 0, n);
+		} finally {
+			Parallelism.setThreshold(oldThreshold);
+			Parallelism.setMaxThreads(Runtime.getRuntime().availableProcessors());
+		}
+		assertArrayEquals(expected, c);
+	}
+
+	@Test
+	void gemmBetaZeroClearsNaN() {
+		final double[] c = {Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+		Jalg.gemm(1.0, new double[] {1.0, 0.0, 0.0, 1.0}, new double[] {1.0, 2.0, 3.0, 4.0}, 0.0, c, 2, 2, 2);
+		assertArrayEquals(new double[] {1.0, 2.0, 3.0, 4.0}, c);
+	}
+
+	@Test
+	void gemmChecksBounds() {
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> Jalg.gemm(1.0, new double[3], new double[4], 0.0, new double[4], 2, 2, 2));
+		assertThrows(
+				NullPointerException.class, () -> Jalg.gemm(1.0, null, new double[4], 0.0, new double[4], 2, 2, 2));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 2, 3, 4, 5, 7, 8, 9, 15, 16, 17, 31, 33, 100})
+	void kernelsMatchScalarFallback(final int n) {
+		final Kernels scalar = new ScalarKernels();
+		final Kernels actual = Kernels.INSTANCE;
+		final int start = 3;
+		final double[] x = random(n + 2 * start);
+
+		final double[] expected = x.clone();
+		final double[] result = x.clone();
+		scalar.scale(expected, start, n, 1.75);
+		actual.scale(result, start, n, 1.75);
+		assertArrayEquals(expected, result);
+
+		scalar.divide(expected, start, n, -3.0);
+		actual.divide(result, start, n, -3.0);
+		assertArrayEquals(expected, result);
+
+		scalar.negate(expected, start, n);
+		actual.negate(result, start, n);
+		assertArrayEquals(expected, result);
+
+		final double[] y = random(n);
+		scalar.axpy(n, 0.5, y, 0, expected, start);
+		actual.axpy(n, 0.5, y, 0, result, start);
+		assertArrayEquals(expected, result);
+
+		final double expectedSquares = scalar.axpyDot(n, -0.25, y, 0, expected, start);
+		final double squares = actual.axpyDot(n, -0.25, y, 0, result, start);
+		assertArrayEquals(expected, result);
+		assertEquals(expectedSquares, squares, 1e-12 * expectedSquares);
+
+		scalar.xpby(n, y, 0, 0.75, expected, start);
+		actual.xpby(n, y, 0, 0.75, result, start);
+		assertArrayEquals(expected, result);
+
+		final double[] w = random(n);
+		final double[] expectedProduct = new double[n];
+		final double[] product = new double[n];
+		final double expectedDot = scalar.multiplyDot(n, y, w, expectedProduct);
+		final double dot = actual.multiplyDot(n, y, w, product);
+		assertArrayEquals(expectedProduct, product);
+		assertEquals(expectedDot, dot, 1e-12 * n);
+
+		scalar.fill(expected, start, n, 42.0);
+		actual.fill(result, start, n, 42.0);
+		assertArrayEquals(expected, result);
+	}
+
+	@Test
+	void mulByZeroOnlyTouchesTheGivenRange() {
+		final double[] x = {1.0, 2.0, 3.0, 4.0};
+		Jalg.mul(x, 2, 1, 2, 0.0);
+		assertArrayEquals(new double[] {1.0, 2.0, 0.0, 0.0}, x);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 8, 13, 40})
+	void gemv(final int n) {
+		final int m = n + 3;
+		final double[] a = random(m * n);
+		for (final boolean trans : new boolean[] {false, true}) {
+			final int lenX = trans ? m : n;
+			final int lenY = trans ? n : m;
+			// Strided x and y
+			final double[] x = random(2 * lenX);
+			final double[] y = random(3 * lenY);
+			final double[] expected = y.clone();
+			for (int i = 0; i < lenY; i++) {
+				double s = 0.0;
+				for (int j = 0; j < lenX; j++) {
+					s += (trans ? a[j * n + i] : a[i * n + j]) * x[2 * j];
+				}
+				expected[3 * i] = 2.0 * s - y[3 * i];
+			}
+			Jalg.gemv(trans, m, n, 2.0, a, 0, n, x, 0, 2, -1.0, y, 0, 3);
+			assertArrayEquals(expected, y, 1e-13 * n);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 8, 13, 40})
+	void ger(final int n) {
+		final int m = n + 1;
+		final double[] a = random(m * n);
+		final double[] x = random(m);
+		final double[] y = random(n);
+		final double[] expected = a.clone();
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) {
+				expected[i * n + j] += 3.0 * x[i] * y[j];
+			}
+		}
+		Jalg.ger(m, n, 3.0, x, 0, 1, y, 0, 1, a, 0, n);
+		assertArrayEquals(expected, a, 1e-14);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 8, 13, 40})
+	void symv(final int n) {
+		final double[] full = random(n * n);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				full[j * n + i] = full[i * n + j];
+			}
+		}
+		final double[] x = random(n);
+		final double[] expected = new double[n];
+		Jalg.gemv(false, n, n, 1.0, full, 0, n, x, 0, 1, 0.0, expected, 0, 1);
+		for (final boolean upper : new boolean[] {false, true}) {
+			// Garbage in the triangle which must not be read
+			final double[] a = full.clone();
+			for (int i = 0; i < n; i++) {
+				for (int j = 0; j < n; j++) {
+					if (upper ? j < i : j > i) {
+						a[i * n + j] = Double.NaN;
+					}
+				}
+			}
+			final double[] y = new double[n];
+			Jalg.symv(upper, n, 1.0, a, 0, n, x, 0, 1, 0.0, y, 0, 1);
+			assertArrayEquals(expected, y, 1e-13 * n);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 8, 13, 40})
+	void trsv(final int n) {
+		for (final boolean upper : new boolean[] {false, true}) {
+			for (final boolean trans : new boolean[] {false, true}) {
+				for (final boolean unit : new boolean[] {false, true}) {
+					final double[] a = new double[n * n];
+					for (int i = 0; i < n; i++) {
+						for (int j = 0; j < n; j++) {
+							if (i == j) {
+								a[i * n + j] = unit ? Double.NaN : rng.nextDouble(1.0, 2.0);
+							} else if (upper ? j > i : j < i) {
+								a[i * n + j] = rng.nextDouble(-1.0, 1.0) / n;
+							}
+						}
+					}
+					final double[] b = random(n);
+					final double[] x = b.clone();
+					Jalg.trsv(upper, trans, unit, n, a, 0, n, x, 0, 1);
+
+					// Check that op(A) * x == b
+					for (int i = 0; i < n; i++) {
+						double s = 0.0;
+						for (int j = 0; j < n; j++) {
+							final double aij = i == j ? (unit ? 1.0 : a[i * n + i]) : (trans ? a[j * n + i] : a[i * n + j]);
+							s += aij * x[j];
+						}
+						assertEquals(b[i], s, 1e-13);
+					}
+				}
+			}
+		}
+	}
+
+	private static double[] randomTriangular(final int n, final boolean upper) {
+		final double[] a = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				if (i == j) {
+					a[i * n + j] = rng.nextDouble(1.0, 2.0);
+				} else if (upper ? j > i : j < i) {
+					a[i * n + j] = rng.nextDouble(-1.0, 1.0) / n;
+				}
+			}
+		}
+		return a;
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 7, 64, 150})
+	void trsm(final int size) {
+		final int other = 37;
+		for (final boolean left : new boolean[] {false, true}) {
+			for (final boolean upper : new boolean[] {false, true}) {
+				for (final boolean trans : new boolean[] {false, true}) {
+					final int m = left ? size : other;
+					final int n = left ? other : size;
+					final double[] a = randomTriangular(size, upper);
+					final double[] b = random(m * n);
+					final double[] x = b.clone();
+					Jalg.trsm(left, upper, trans, false, m, n, 2.0, a, 0, size, x, 0, n);
+
+					// Check that op(A) * X == 2 * B (or X * op(A) == 2 * B)
+					final double[] check = new double[m * n];
+					if (left) {
+						Jalg.gemm(trans, false, m, n, m, 1.0, a, 0, size, x, 0, n, 0.0, check, 0, n);
+					} else {
+						Jalg.gemm(false, trans, m, n, n, 1.0, x, 0, n, a, 0, size, 0.0, check, 0, n);
+					}
+					for (int i = 0; i < m * n; i++) {
+						assertEquals(2.0 * b[i], check[i], 1e-12);
+					}
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 7, 64, 150})
+	void syrk(final int n) {
+		final int k = 45;
+		for (final boolean upper : new boolean[] {false, true}) {
+			for (final boolean trans : new boolean[] {false, true}) {
+				final double[] a = random(n * k);
+				final double[] c = random(n * n);
+				final double[] expected = c.clone();
+				Jalg.gemm(trans, !trans, n, n, k, 1.5, a, 0, trans ? n : k, a, 0, trans ? n : k, 0.5, expected, 0, n);
+				final double[] original = c.clone();
+				Jalg.syrk(upper, trans, n, k, 1.5, a, 0, trans ? n : k, 0.5, c, 0, n);
+				for (int i = 0; i < n; i++) {
+					for (int j = 0; j < n; j++) {
+						if (upper ? j >= i : j <= i) {
+							assertEquals(expected[i * n + j], c[i * n + j], 1e-12);
+						} else {
+							assertEquals(original[i * n + j], c[i * n + j]);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 3, 7, 20})
+	void inversionOfSubmatrix(final int n) {
+		// The n x n matrix lives inside a larger array, surrounded by elements which must not be touched
+		final int lda = n + 3;
+		final int offset = 2 * lda + 1;
+		final double[] m = random(offset + n * lda);
+		for (int i = 0; i < n; i++) {
+			m[offset + i * lda + i] += n;
+		}
+		final double[] original = m.clone();
+		final double[] compact = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(m, offset + i * lda, compact, i * n, n);
+		}
+
+		assertEquals(Jalg.determinant(compact, n, n), Jalg.determinant(n, n, m, offset, lda), 1e-12);
+		assertArrayEquals(original, m);
+
+		Jalg.invert(n, n, m, offset, lda);
+		final double[] product = new double[n * n];
+		Jalg.gemm(false, false, n, n, n, 1.0, compact, 0, n, m, offset, lda, 0.0, product, 0, n);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				assertEquals(i == j ? 1.0 : 0.0, product[i * n + j], 1e-12);
+			}
+		}
+		for (int i = 0; i < m.length; i++) {
+			final int r = (i - offset) / lda;
+			final int c = (i - offset) % lda;
+			if (i < offset || r >= n || c >= n) {
+				assertEquals(original[i], m[i]);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 3, 7, 20})
+	void gaussJordanIsUpperTriangular(final int n) {
+		final double[] m = random(n * n);
+		final double[] u = Jalg.gaussJordan(m, n, n);
+		final DenseMatrix expected = (DenseMatrix) new DenseMatrix(toRows(m, n)).gaussJordan();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				assertEquals(expected.get(i, j), u[i * n + j], 1e-10);
+			}
+		}
+	}
+
+	private static double[][] toRows(final double[] m, final int n) {
+		final double[][] v = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(m, i * n, v[i], 0, n);
+		}
+		return v;
+	}
+
+	private static Stream<Arguments> strassenSizes() {
+		return Stream.of(
+				Arguments.of(16, 16, 16), Arguments.of(64, 64, 64), Arguments.of(50, 37, 61), Arguments.of(129, 100, 75));
+	}
+
+	@ParameterizedTest
+	@MethodSource("strassenSizes")
+	void strassen(final int m, final int n, final int k) {
+		final double[] a = random(m * k);
+		final double[] b = random(k * n);
+		final double[] expected = new double[m * n];
+		Jalg.gemm(1.0, a, b, 0.0, expected, m, n, k);
+
+		final double[] c = random(m * n);
+		Jalg.strassen(m, n, k, a, 0, k, b, 0, n, c, 0, n, 8);
+		assertArrayEquals(expected, c, 1e-11);
+
+		final long oldThreshold = Parallelism.getThreshold();
+		try {
+			Parallelism.setMaxThreads(8);
+			Parallelism.setThreshold(0L);
+			final double[] d = random(m * n);
+			Jalg.strassen(m, n, k, a, 0, k, b, 0, n, d, 0, n, 8);
+			assertArrayEquals(expected, d, 1e-11);
+		} finally {
+			Parallelism.setThreshold(oldThreshold);
+			Parallelism.setMaxThreads(Runtime.getRuntime().availableProcessors());
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 5, 63, 64, 65, 150})
+	void getrf(final int n) {
+		final int m = n + 7;
+		final double[] a = random(m * n);
+		final double[] lu = a.clone();
+		final int[] ipiv = new int[n];
+		assertEquals(-1, Jalg.getrf(m, n, lu, 0, n, ipiv));
+
+		// Check that P * A == L * U
+		final double[] pa = a.clone();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				final double tmp = pa[i * n + j];
+				pa[i * n + j] = pa[ipiv[i] * n + j];
+				pa[ipiv[i] * n + j] = tmp;
+			}
+		}
+		for (int i = 0; i < m; i++) {
+			for (int j = 0; j < n; j++) {
+				double s = 0.0;
+				for (int p = 0; p <= Math.min(i, j); p++) {
+					s += (p == i ? 1.0 : lu[i * n + p]) * lu[p * n + j];
+				}
+				assertEquals(pa[i * n + j], s, 1e-12);
+				if (j < i) {
+					assertTrue(Math.abs(lu[i * n + j]) <= 1.0);
+				}
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {2, 3, 10, 40})
+	void inversionWithZeroLeadingPivot(final int n) {
+		final double[] m = random(n * n);
+		m[0] = 0.0;
+		final double[] inv = Jalg.invert(m, n, n);
+		final double[] product = new double[n * n];
+		Jalg.gemm(1.0, m, inv, 0.0, product, n, n, n);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				assertEquals(i == j ? 1.0 : 0.0, product[i * n + j], 1e-10);
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 10, 129, 300})
+	void gehrd(final int n) {
+		final double[] a = random(n * n);
+		final double[] h = a.clone();
+		final double[] tau = new double[Math.max(1, n - 1)];
+		Jalg.gehrd(n, h, 0, n, tau);
+
+		// Form Q = diag(1, Q') from the reflectors stored below the first subdiagonal
+		final double[] q = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			q[i * n + i] = 1.0;
+		}
+		if (n > 1) {
+			Jalg.ormqr(false, n - 1, n, n - 1, h, n, n, tau, q, n, n);
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i - 1; j++) {
+				h[i * n + j] = 0.0;
+			}
+		}
+
+		// Check that Q^T * A * Q == H
+		final double[] aq = new double[n * n];
+		final double[] qtaq = new double[n * n];
+		Jalg.gemm(false, false, n, n, n, 1.0, a, 0, n, q, 0, n, 0.0, aq, 0, n);
+		Jalg.gemm(true, false, n, n, n, 1.0, q, 0, n, aq, 0, n, 0.0, qtaq, 0, n);
+		for (int i = 0; i < n * n; i++) {
+			assertEquals(h[i], qtaq[i], 1e-12 * n);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 10, 129, 250})
+	void gebrd(final int n) {
+		final int m = n + 20;
+		final double[] a = random(m * n);
+		final double[] h = a.clone();
+		final double[] d = new double[n];
+		final double[] e = new double[Math.max(1, n - 1)];
+		final double[] tauq = new double[n];
+		final double[] taup = new double[Math.max(1, n - 1)];
+		Jalg.gebrd(m, n, h, 0, n, d, e, tauq, taup);
+
+		// Q is m x n, made of the reflectors below the diagonal
+		final double[] q = new double[m * n];
+		for (int i = 0; i < n; i++) {
+			q[i * n + i] = 1.0;
+		}
+		Jalg.ormqr(false, m, n, n, h, 0, n, tauq, q, 0, n);
+
+		// P = diag(1, P'), where the reflectors of P' are stored by rows to the right of the superdiagonal
+		final double[] p = new double[n * n];
+		for (int i = 0; i < n; i++) {
+			p[i * n + i] = 1.0;
+		}
+		if (n > 1) {
+			final double[] v = new double[(n - 1) * (n - 1)];
+			for (int j = 0; j < n - 1; j++) {
+				for (int i = j + 1; i < n - 1; i++) {
+					v[i * (n - 1) + j] = h[j * n + i + 1];
+				}
+			}
+			Jalg.ormqr(false, n - 1, n, n - 1, v, 0, n - 1, taup, p, n, n);
+		}
+
+		// Check that Q^T * A * P is bidiagonal with d and e
+		final double[] ap = new double[m * n];
+		final double[] b = new double[n * n];
+		Jalg.gemm(false, false, m, n, n, 1.0, a, 0, n, p, 0, n, 0.0, ap, 0, n);
+		Jalg.gemm(true, false, n, n, m, 1.0, q, 0, n, ap, 0, n, 0.0, b, 0, n);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				final double expected = i == j ? d[i] : j == i + 1 ? e[i] : 0.0;
+				assertEquals(expected, b[i * n + j], 1e-12 * m);
+			}
+		}
+	}
+}
@@ -0,0 +1,574 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public final class TestSolvers {
+
+	private static DenseMatrix random(final int rows, final int columns) {
+		return DenseMatrix.random(rows, columns, -1.0, 1.0);
+	}
+
+	// The same matrix at every run for a given seed
+	private static DenseMatrix random(final int rows, final int columns, final long seed) {
+		final RandomGenerator rng = RandomGeneratorFactory.getDefault().create(seed);
+		final double[][] m = new double[rows][columns];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < columns; j++) {
+				m[i][j] = rng.nextDouble(-1.0, 1.0);
+			}
+		}
+		return new DenseMatrix(m);
+	}
+
+	// Strictly diagonally dominant by rows, so that every stationary method converges
+	private static DenseMatrix diagonallyDominant(final int n) {
+		final DenseMatrix r = random(n, n);
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			double s = 0.0;
+			for (int j = 0; j < n; j++) {
+				m[i][j] = r.getDouble(i, j);
+				s += Math.abs(m[i][j]);
+			}
+			m[i][i] = s + 1.0;
+		}
+		return new DenseMatrix(m);
+	}
+
+	// Five-point finite difference Laplacian on a k x k grid
+	private static DenseMatrix laplacian(final int k) {
+		final int n = k * k;
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < k; i++) {
+			for (int j = 0; j < k; j++) {
+				final int p = i * k + j;
+				m[p][p] = 4.0;
+				if (i > 0) {
+					m[p][p - k] = -1.0;
+				}
+				if (i < k - 1) {
+					m[p][p + k] = -1.0;
+				}
+				if (j > 0) {
+					m[p][p - 1] = -1.0;
+				}
+				if (j < k - 1) {
+					m[p][p + 1] = -1.0;
+				}
+			}
+		}
+		return new DenseMatrix(m);
+	}
+
+	// B^T * B + I, symmetric positive definite
+	private static DenseMatrix spd(final int n) {
+		final DenseMatrix r = random(n, n);
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				for (int k = 0; k < n; k++) {
+					m[i][j] += r.getDouble(k, i) * r.getDouble(k, j);
+				}
+			}
+			m[i][i] += 1.0;
+		}
+		return new DenseMatrix(m);
+	}
+
+	private static double residualNorm(final Matrix<Double> a, final Matrix<Double> b, final Matrix<Double> x) {
+		return b.subtract(a.multiply(x)).norm();
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 100, 300})
+	void jacobiConverges(final int n) {
+		final DenseMatrix a = diagonallyDominant(n);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(1_000);
+		final SolverResult result = Solvers.jacobi(a, b, options);
+		assertTrue(result.isConverged(), result::toString);
+		assertTrue(result.getIterations() <= options.getMaxIterations());
+		assertEquals(n, result.getSolution().getNumRows());
+		assertEquals(1, result.getSolution().getNumColumns());
+		final double actual = residualNorm(a, b, result.getSolution());
+		assertEquals(actual, result.getResidualNorm(), 1e-12 + 1e-6 * actual);
+		assertTrue(result.getResidualNorm() <= 1e-8 * b.norm());
+	}
+
+	@Test
+	void jacobiCriteria() {
+		final DenseMatrix a = diagonallyDominant(50);
+		final DenseMatrix b = random(50, 1);
+		for (final StoppingCriterion criterion : StoppingCriterion.values()) {
+			final SolverOptions options = new SolverOptions()
+					.withMaxIterations(1_000)
+					.withAbsoluteTolerance(1e-10)
+					.withRelativeTolerance(0.0)
+					.withCriterion(criterion);
+			final SolverResult result = Solvers.jacobi(a, b, options);
+			assertTrue(result.isConverged(), result::toString);
+			assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-12);
+			if (criterion == StoppingCriterion.RESIDUAL) {
+				assertTrue(result.getResidualNorm() <= 1e-10);
+			}
+		}
+	}
+
+	@Test
+	void jacobiZeroRightHandSide() {
+		final DenseMatrix zero = new DenseMatrix(new double[10][1]);
+		final SolverResult result = Solvers.jacobi(diagonallyDominant(10), zero, new SolverOptions());
+		assertTrue(result.isConverged());
+		assertEquals(0, result.getIterations());
+		assertEquals(0.0, result.getResidualNorm());
+		assertEquals(zero, result.getSolution());
+	}
+
+	@Test
+	void jacobiReportsDivergence() {
+		// The iteration matrix of [[1, 2], [2, 1]] has spectral radius 2
+		final DenseMatrix a = new DenseMatrix(new double[][] {{1.0, 2.0}, {2.0, 1.0}});
+		final DenseMatrix b = new DenseMatrix(new double[][] {{1.0}, {1.0}});
+		final SolverResult result = Solvers.jacobi(a, b, new SolverOptions().withMaxIterations(20));
+		assertFalse(result.isConverged());
+		assertEquals(20, result.getIterations());
+		assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-6);
+	}
+
+	@Test
+	void jacobiKeepsHistoricalBehavior() {
+		final DenseMatrix a = diagonallyDominant(30);
+		final DenseMatrix b = random(30, 1);
+		final Matrix<Double> x = Solvers.jacobi(a, b);
+		assertEquals(30, x.getNumRows());
+		assertTrue(residualNorm(a, b, x) <= 1e-6 * a.norm());
+	}
+
+	@Test
+	void invalidOptionsAndSystems() {
+		final SolverOptions options = new SolverOptions();
+		assertThrows(IllegalArgumentException.class, () -> options.withMaxIterations(-1));
+		assertThrows(IllegalArgumentException.class, () -> options.withAbsoluteTolerance(-1.0));
+		assertThrows(IllegalArgumentException.class, () -> options.withRelativeTolerance(Double.NaN));
+		assertThrows(NullPointerException.class, () -> options.withCriterion(null));
+		assertThrows(IllegalArgumentException.class, () -> Solvers.jacobi(random(3, 4), random(3, 1), options));
+		assertThrows(IllegalArgumentException.class, () -> Solvers.jacobi(random(3, 3), random(4, 1), options));
+		final DenseMatrix zeroDiagonal = new DenseMatrix(new double[][] {{0.0, 1.0}, {1.0, 0.0}});
+		assertThrows(IllegalArgumentException.class, () -> Solvers.jacobi(zeroDiagonal, random(2, 1), options));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 100})
+	void relaxationConverges(final int n) {
+		final DenseMatrix a = diagonallyDominant(n);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(1_000);
+		for (final Ordering ordering : Ordering.values()) {
+			final List<SolverResult> results = List.of(
+					Solvers.gaussSeidel(a, b, ordering, options),
+					Solvers.sor(a, b, 1.2, ordering, options),
+					Solvers.ssor(a, b, 1.2, ordering, options),
+					Solvers.sor(a, b, ordering, options));
+			for (final SolverResult result : results) {
+				assertTrue(result.isConverged(), result::toString);
+				final double actual = residualNorm(a, b, result.getSolution());
+				assertEquals(actual, result.getResidualNorm(), 1e-12 + 1e-6 * actual);
+				assertTrue(result.getResidualNorm() <= 1e-8 * b.norm());
+			}
+		}
+	}
+
+	@Test
+	void relaxationOnLaplacian() {
+		final DenseMatrix a = laplacian(12);
+		final DenseMatrix b = random(144, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(10_000);
+		final int jacobi = Solvers.jacobi(a, b, options).getIterations();
+		for (final Ordering ordering : Ordering.values()) {
+			final SolverResult gs = Solvers.gaussSeidel(a, b, ordering, options);
+			final SolverResult sor = Solvers.sor(a, b, ordering, options);
+			final SolverResult ssor = Solvers.ssor(a, b, 1.5, ordering, options);
+			assertTrue(gs.isConverged() && sor.isConverged() && ssor.isConverged());
+			assertTrue(gs.getIterations() < jacobi, () -> gs + " vs " + jacobi);
+			assertTrue(sor.getIterations() * 4 < gs.getIterations(), () -> sor + " vs " + gs);
+			for (final SolverResult result : List.of(gs, sor, ssor)) {
+				assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-10);
+			}
+		}
+	}
+
+	@Test
+	void relaxationWithUpdateCriterion() {
+		final DenseMatrix a = laplacian(6);
+		final DenseMatrix b = random(36, 1);
+		final SolverOptions options = new SolverOptions()
+				.withMaxIterations(10_000)
+				.withCriterion(StoppingCriterion.UPDATE)
+				.withRelativeTolerance(1e-12);
+		for (final Ordering ordering : Ordering.values()) {
+			final SolverResult result = Solvers.gaussSeidel(a, b, ordering, options);
+			assertTrue(result.isConverged());
+			assertTrue(result.getResidualNorm() <= 1e-8 * b.norm(), result::toString);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 10, 50})
+	void optimalRelaxation(final int n) {
+		// The Jacobi iteration matrix of tridiag(-1, 2, -1) has spectral radius cos(pi / (n + 1))
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			m[i][i] = 2.0;
+			if (i > 0) {
+				m[i][i - 1] = -1.0;
+				m[i - 1][i] = -1.0;
+			}
+		}
+		final double rho = Math.cos(Math.PI / (n + 1));
+		final double expected = 2.0 / (1.0 + Math.sin(Math.PI / (n + 1)));
+		assertEquals(expected, Solvers.optimalRelaxation(new DenseMatrix(m)), 1e-6, () -> "rho = " + rho);
+		// Jacobi does not converge on [[1, 2], [2, 1]]
+		assertEquals(1.0, Solvers.optimalRelaxation(new DenseMatrix(new double[][] {{1.0, 2.0}, {2.0, 1.0}})));
+	}
+
+	@Test
+	void invalidRelaxation() {
+		final DenseMatrix a = diagonallyDominant(3);
+		final DenseMatrix b = random(3, 1);
+		final SolverOptions options = new SolverOptions();
+		for (final double omega : new double[] {0.0, 2.0, -1.0, Double.NaN}) {
+			assertThrows(
+					IllegalArgumentException.class, () -> Solvers.sor(a, b, omega, Ordering.NATURAL, options));
+			assertThrows(
+					IllegalArgumentException.class, () -> Solvers.ssor(a, b, omega, Ordering.MULTICOLOR, options));
+		}
+		assertThrows(NullPointerException.class, () -> Solvers.gaussSeidel(a, b, null, options));
+		assertThrows(IllegalArgumentException.class, () -> Solvers.optimalRelaxation(random(2, 3)));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 64, 65, 150})
+	void conjugateGradientConverges(final int n) {
+		final DenseMatrix a = spd(n);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(10 * n);
+		for (final Preconditioner preconditioner : Preconditioner.values()) {
+			final SolverResult result = Solvers.conjugateGradient(a, b, preconditioner, options);
+			assertTrue(result.isConverged(), () -> preconditioner + " " + result);
+			assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-12);
+			assertTrue(result.getResidualNorm() <= 1e-7 * b.norm(), () -> preconditioner + " " + result);
+		}
+	}
+
+	@Test
+	void preconditioningReducesIterations() {
+		final DenseMatrix a = laplacian(16);
+		final DenseMatrix b = random(256, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(1_000);
+		final SolverResult plain = Solvers.conjugateGradient(a, b, options);
+		final SolverResult ic = Solvers.conjugateGradient(a, b, Preconditioner.INCOMPLETE_CHOLESKY, options);
+		final SolverResult block = Solvers.conjugateGradient(a, b, Preconditioner.BLOCK_JACOBI, options);
+		assertTrue(plain.isConverged() && ic.isConverged() && block.isConverged());
+		assertTrue(ic.getIterations() < plain.getIterations(), () -> ic + " vs " + plain);
+		assertTrue(block.getIterations() < plain.getIterations(), () -> block + " vs " + plain);
+		assertTrue(plain.getIterations() < Solvers.jacobi(a, b, options).getIterations());
+	}
+
+	@Test
+	void incompleteCholeskyIsExactOnTridiagonalMatrices() {
+		// The Cholesky factor of a tridiagonal matrix has no fill-in
+		final int n = 100;
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			m[i][i] = 2.0;
+			if (i > 0) {
+				m[i][i - 1] = -1.0;
+				m[i - 1][i] = -1.0;
+			}
+		}
+		final DenseMatrix a = new DenseMatrix(m);
+		final DenseMatrix b = random(n, 1);
+		final SolverResult result =
+				Solvers.conjugateGradient(a, b, Preconditioner.INCOMPLETE_CHOLESKY, new SolverOptions());
+		assertTrue(result.isConverged());
+		assertEquals(1, result.getIterations());
+	}
+
+	@Test
+	void jacobiPreconditionerHandlesScaling() {
+		final int n = 50;
+		final DenseMatrix s = spd(n);
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				m[i][j] = s.getDouble(i, j) * Math.pow(10.0, (i + j) / 10.0);
+			}
+		}
+		final DenseMatrix a = new DenseMatrix(m);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(2_000);
+		final SolverResult plain = Solvers.conjugateGradient(a, b, options);
+		final SolverResult jacobi = Solvers.conjugateGradient(a, b, Preconditioner.JACOBI, options);
+		assertTrue(jacobi.isConverged(), jacobi::toString);
+		assertTrue(jacobi.getIterations() < plain.getIterations(), () -> jacobi + " vs " + plain);
+	}
+
+	@Test
+	void conjugateGradientOnIndefiniteMatrices() {
+		final DenseMatrix a = new DenseMatrix(new double[][] {{1.0, 0.0}, {0.0, -1.0}});
+		final DenseMatrix b = new DenseMatrix(new double[][] {{1.0}, {1.0}});
+		final SolverResult result = Solvers.conjugateGradient(a, b, new SolverOptions());
+		assertFalse(result.isConverged());
+		assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-12);
+		assertThrows(
+				IllegalArgumentException.class,
+				() -> Solvers.conjugateGradient(a, b, Preconditioner.INCOMPLETE_CHOLESKY, new SolverOptions()));
+		assertThrows(
+				NullPointerException.class, () -> Solvers.conjugateGradient(a, b, null, new SolverOptions()));
+	}
+
+	@Test
+	void conjugateGradientWithUpdateCriterion() {
+		final DenseMatrix a = spd(40);
+		final DenseMatrix b = random(40, 1);
+		final SolverOptions options = new SolverOptions()
+				.withMaxIterations(1_000)
+				.withCriterion(StoppingCriterion.UPDATE)
+				.withRelativeTolerance(1e-12);
+		final SolverResult result = Solvers.conjugateGradient(a, b, Preconditioner.JACOBI, options);
+		assertTrue(result.isConverged());
+		assertTrue(result.getResidualNorm() <= 1e-6 * b.norm(), result::toString);
+	}
+
+	// Nonsymmetric, with the spectrum shifted away from the origin
+	private static DenseMatrix nonsymmetric(final int n) {
+		final DenseMatrix r = random(n, n);
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				m[i][j] = r.getDouble(i, j);
+			}
+			m[i][i] += 2.0 * Math.sqrt(n);
+		}
+		return new DenseMatrix(m);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 64, 65, 150})
+	void gmresConverges(final int n) {
+		final DenseMatrix a = nonsymmetric(n);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(1_000);
+		final List<Preconditioner> preconditioners =
+				List.of(Preconditioner.IDENTITY, Preconditioner.JACOBI, Preconditioner.BLOCK_JACOBI);
+		for (final Preconditioner preconditioner : preconditioners) {
+			for (final PreconditioningSide side : PreconditioningSide.values()) {
+				for (final boolean reorthogonalize : new boolean[] {false, true}) {
+					final SolverResult result =
+							Solvers.gmres(a, b, 10, preconditioner, side, reorthogonalize, options);
+					assertTrue(result.isConverged(), () -> preconditioner + " " + side + " " + result);
+					assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-12);
+					if (side == PreconditioningSide.RIGHT) {
+						assertTrue(result.getResidualNorm() <= 1e-8 * b.norm(), result::toString);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void fullGmresConvergesWithinTheDimension() {
+		// Without restarts, GMRES finds the solution of a general system in at most n steps
+		final int n = 40;
+		final DenseMatrix a = random(n, n);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(n + 5);
+		final SolverResult result =
+				Solvers.gmres(a, b, n, Preconditioner.IDENTITY, PreconditioningSide.RIGHT, true, options);
+		assertTrue(result.isConverged(), result::toString);
+		assertTrue(result.getIterations() <= n + 1, result::toString);
+	}
+
+	@Test
+	void gmresRestarts() {
+		final DenseMatrix a = diagonallyDominant(100);
+		final DenseMatrix b = random(100, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(1_000);
+		final SolverResult shortRestart = Solvers.gmres(a, b, 2, options);
+		final SolverResult longRestart = Solvers.gmres(a, b, 50, options);
+		assertTrue(shortRestart.isConverged() && longRestart.isConverged());
+		assertTrue(longRestart.getIterations() <= shortRestart.getIterations());
+		// A restart longer than the dimension is capped
+		assertTrue(Solvers.gmres(a, b, 1_000_000, options).isConverged());
+	}
+
+	@Test
+	void gmresWithUpdateCriterion() {
+		final DenseMatrix a = nonsymmetric(50);
+		final DenseMatrix b = random(50, 1);
+		final SolverOptions options = new SolverOptions()
+				.withMaxIterations(1_000)
+				.withCriterion(StoppingCriterion.UPDATE)
+				.withRelativeTolerance(1e-12);
+		final SolverResult result = Solvers.gmres(a, b, 5, options);
+		assertTrue(result.isConverged());
+		assertTrue(result.getResidualNorm() <= 1e-8 * b.norm(), result::toString);
+	}
+
+	@Test
+	void gmresStopsAtTheMaximumNumberOfIterations() {
+		final DenseMatrix a = random(60, 60);
+		final DenseMatrix b = random(60, 1);
+		final SolverResult result = Solvers.gmres(a, b, 5, new SolverOptions().withMaxIterations(7));
+		assertFalse(result.isConverged());
+		assertEquals(7, result.getIterations());
+		assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-12);
+	}
+
+	@Test
+	void invalidGmres() {
+		final DenseMatrix a = nonsymmetric(3);
+		final DenseMatrix b = random(3, 1);
+		final SolverOptions options = new SolverOptions();
+		assertThrows(IllegalArgumentException.class, () -> Solvers.gmres(a, b, 0, options));
+		assertThrows(
+				NullPointerException.class,
+				() -> Solvers.gmres(a, b, 3, Preconditioner.IDENTITY, null, false, options));
+	}
+
+	// Upwind finite differences of -laplacian(u) + peclet * du/dx on a k x k grid
+	private static DenseMatrix convectionDiffusion(final int k, final double peclet) {
+		final int n = k * k;
+		final double h = 1.0 / (k + 1);
+		final double[][] m = new double[n][n];
+		for (int i = 0; i < k; i++) {
+			for (int j = 0; j < k; j++) {
+				final int p = i * k + j;
+				m[p][p] = 4.0 + peclet * h;
+				if (i > 0) {
+					m[p][p - k] = -1.0;
+				}
+				if (i < k - 1) {
+					m[p][p + k] = -1.0;
+				}
+				if (j > 0) {
+					m[p][p - 1] = -1.0 - peclet * h;
+				}
+				if (j < k - 1) {
+					m[p][p + 1] = -1.0;
+				}
+			}
+		}
+		return new DenseMatrix(m);
+	}
+
+	private static List<SolverResult> shortRecurrences(
+			final DenseMatrix a,
+			final DenseMatrix b,
+			final Preconditioner preconditioner,
+			final SolverOptions options) {
+		return List.of(
+				Solvers.bicgstab(a, b, preconditioner, options),
+				Solvers.idrs(a, b, 1, preconditioner, options),
+				Solvers.idrs(a, b, 4, preconditioner, options));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = {1, 2, 17, 64, 65, 150})
+	void shortRecurrencesConverge(final int n) {
+		final DenseMatrix a = nonsymmetric(n);
+		final DenseMatrix b = random(n, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(1_000);
+		final List<Preconditioner> preconditioners =
+				List.of(Preconditioner.IDENTITY, Preconditioner.JACOBI, Preconditioner.BLOCK_JACOBI);
+		for (final Preconditioner preconditioner : preconditioners) {
+			for (final SolverResult result : shortRecurrences(a, b, preconditioner, options)) {
+				assertTrue(result.isConverged(), () -> preconditioner + " " + result);
+				assertEquals(residualNorm(a, b, result.getSolution()), result.getResidualNorm(), 1e-12);
+				assertTrue(result.getResidualNorm() <= 1e-7 * b.norm(), () -> preconditioner + " " + result);
+			}
+		}
+	}
+
+	@Test
+	void shortRecurrencesOnConvectionDiffusion() {
+		final DenseMatrix a = convectionDiffusion(15, 200.0);
+		final DenseMatrix b = random(225, 1);
+		final SolverOptions options = new SolverOptions().withMaxIterations(2_000);
+		for (final SolverResult result : shortRecurrences(a, b, Preconditioner.IDENTITY, options)) {
+			assertTrue(result.isConverged(), result::toString);
+			assertTrue(result.getResidualNorm() <= 1e-7 * b.norm(), result::toString);
+		}
+		// IDR(s) with a larger shadow space needs fewer products
+		final int idr1 = Solvers.idrs(a, b, 1, options).getIterations();
+		final int idr8 = Solvers.idrs(a, b, 8, options).getIterations();
+		assertTrue(idr8 < idr1, () -> idr8 + " vs " + idr1);
+	}
+
+	@Test
+	void shortRecurrencesRecoverFromBreakdowns() {
+		// With the residual as shadow vector, the first step of BiCGSTAB divides by zero
+		final DenseMatrix a = new DenseMatrix(new double[][] {{0.0, 1.0}, {1.0, 0.0}});
+		final DenseMatrix b = new DenseMatrix(new double[][] {{1.0}, {0.0}});
+		final SolverOptions options = new SolverOptions().withMaxIterations(100);
+		for (final SolverResult result :
+				List.of(Solvers.bicgstab(a, b, options), Solvers.idrs(a, b, 1, options))) {
+			assertTrue(result.isConverged(), result::toString);
+			assertEquals(1.0, result.getSolution().get(1, 0), 1e-12);
+			assertFalse(Double.isNaN(result.getResidualNorm()));
+		}
+	}
+
+	@Test
+	void shortRecurrencesWithUpdateCriterion() {
+		final DenseMatrix a = nonsymmetric(50);
+		final DenseMatrix b = random(50, 1);
+		final SolverOptions options = new SolverOptions()
+				.withMaxIterations(1_000)
+				.withCriterion(StoppingCriterion.UPDATE)
+				.withRelativeTolerance(1e-12);
+		for (final SolverResult result : shortRecurrences(a, b, Preconditioner.JACOBI, options)) {
+			assertTrue(result.isConverged());
+			assertTrue(result.getResidualNorm() <= 1e-8 * b.norm(), result::toString);
+		}
+	}
+
+	@Test
+	void shortRecurrencesStopAtTheMaximumNumberOfIterations() {
+		final DenseMatrix a = random(60, 60, 1L);
+		final DenseMatrix b = random(60, 1, 2L);
+		final SolverOptions options = new SolverOptions().withMaxIterations(3);
+		for (final SolverResult result : shortRecurrences(a, b, Preconditioner.IDENTITY, options)) {
+			assertFalse(result.isConverged());
+			assertEquals(3, result.getIterations());
+			final double expected = residualNorm(a, b, result.getSolution());
+			assertEquals(expected, result.getResidualNorm(), 1e-12 * expected);
+		}
+		assertThrows(IllegalArgumentException.class, () -> Solvers.idrs(a, b, 0, options));
+	}
+}
@@ -0,0 +1,244 @@
+/*
+ * jalg - Linear Algebra with java
+ * Copyright (C) 2024-2024 Filippo Barbari <filippo.barbari@gmail.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.ledmington.jalg;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementation of {@link Kernels} on top of the Vector API. Loaded reflectively by {@link Kernels#INSTANCE}.
+ */
+final class VectorKernels implements Kernels {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final int LENGTH = SPECIES.length();
+
+	VectorKernels() {
+		if (LENGTH < 2) {
+			throw new UnsupportedOperationException("No SIMD support for doubles on this platform.");
+		}
+	}
+
+	@Override
+	public void fill(final double[] x, final int start, final int n, final double value) {
+		final DoubleVector v = DoubleVector.broadcast(SPECIES, value);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			v.intoArray(x, start + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			v.intoArray(x, start + i, mask);
+		}
+	}
+
+	@Override
+	public void negate(final double[] x, final int start, final int n) {
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			DoubleVector.fromArray(SPECIES, x, start + i).neg().intoArray(x, start + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			DoubleVector.fromArray(SPECIES, x, start + i, mask).neg().intoArray(x, start + i, mask);
+		}
+	}
+
+	@Override
+	public void scale(final double[] x, final int start, final int n, final double alpha) {
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			DoubleVector.fromArray(SPECIES, x, start + i).mul(alpha).intoArray(x, start + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			DoubleVector.fromArray(SPECIES, x, start + i, mask).mul(alpha).intoArray(x, start + i, mask);
+		}
+	}
+
+	@Override
+	public void divide(final double[] x, final int start, final int n, final double alpha) {
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			DoubleVector.fromArray(SPECIES, x, start + i)
+					.lanewise(VectorOperators.DIV, alpha)
+					.intoArray(x, start + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			DoubleVector.fromArray(SPECIES, x, start + i, mask)
+					.lanewise(VectorOperators.DIV, alpha)
+					.intoArray(x, start + i, mask);
+		}
+	}
+
+	@Override
+	public void axpy(
+			final int n, final double alpha, final double[] x, final int startX, final double[] y, final int startY) {
+		final DoubleVector a = DoubleVector.broadcast(SPECIES, alpha);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i);
+			vx.mul(a).add(vy).intoArray(y, startY + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i, mask);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i, mask);
+			vx.mul(a).add(vy).intoArray(y, startY + i, mask);
+		}
+	}
+
+	@Override
+	public double dot(final int n, final double[] x, final int startX, final double[] y, final int startY) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i);
+			acc = vx.mul(vy).add(acc);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i, mask);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i, mask);
+			acc = vx.mul(vy).add(acc);
+		}
+		return acc.reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public double axpyDot(
+			final int n, final double alpha, final double[] x, final int startX, final double[] y, final int startY) {
+		final DoubleVector a = DoubleVector.broadcast(SPECIES, alpha);
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i);
+			final DoubleVector vy = vx.mul(a).add(DoubleVector.fromArray(SPECIES, y, startY + i));
+			vy.intoArray(y, startY + i);
+			acc = vy.mul(vy).add(acc);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i, mask);
+			final DoubleVector vy = vx.mul(a).add(DoubleVector.fromArray(SPECIES, y, startY + i, mask));
+			vy.intoArray(y, startY + i, mask);
+			acc = vy.mul(vy).add(acc);
+		}
+		return acc.reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public void xpby(
+			final int n, final double[] x, final int startX, final double beta, final double[] y, final int startY) {
+		final DoubleVector b = DoubleVector.broadcast(SPECIES, beta);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i);
+			vy.mul(b).add(vx).intoArray(y, startY + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i, mask);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i, mask);
+			vy.mul(b).add(vx).intoArray(y, startY + i, mask);
+		}
+	}
+
+	@Override
+	public double multiplyDot(final int n, final double[] x, final double[] y, final double[] z) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, i);
+			final DoubleVector vz = vx.mul(DoubleVector.fromArray(SPECIES, y, i));
+			vz.intoArray(z, i);
+			acc = vx.mul(vz).add(acc);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, i, mask);
+			final DoubleVector vz = vx.mul(DoubleVector.fromArray(SPECIES, y, i, mask));
+			vz.intoArray(z, i, mask);
+			acc = vx.mul(vz).add(acc);
+		}
+		return acc.reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public void addAbs(final int n, final double[] x, final int startX, final double[] y, final int startY) {
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i);
+			vx.abs().add(vy).intoArray(y, startY + i);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			final DoubleVector vx = DoubleVector.fromArray(SPECIES, x, startX + i, mask);
+			final DoubleVector vy = DoubleVector.fromArray(SPECIES, y, startY + i, mask);
+			vx.abs().add(vy).intoArray(y, startY + i, mask);
+		}
+	}
+
+	@Override
+	public double sumAbs(final double[] x, final int start, final int n) {
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			acc = DoubleVector.fromArray(SPECIES, x, start + i).abs().add(acc);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			acc = DoubleVector.fromArray(SPECIES, x, start + i, mask).abs().add(acc);
+		}
+		return acc.reduceLanes(VectorOperators.ADD);
+	}
+
+	@Override
+	public double maxAbs(final double[] x, final int start, final int n) {
+		// Masked-off lanes are loaded as zero, which never exceeds an absolute value
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LENGTH) {
+			acc = DoubleVector.fromArray(SPECIES, x, start + i).abs().max(acc);
+		}
+		if (i < n) {
+			final VectorMask<Double> mask = SPECIES.indexInRange(i, n);
+			acc = DoubleVector.fromArray(SPECIES, x, start + i, mask).abs().max(acc);
+		}
+		return acc.reduceLanes(VectorOperators.MAX);
+	}
+}